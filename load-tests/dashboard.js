@@ -0,0 +1,74 @@
+// k6 load test: concurrent patient dashboard users.
+//
+// Compare request execution modes by running the same script against each:
+//   VIRTUAL_THREADS_ENABLED=false docker compose up -d --build   # platform threads
+//   k6 run --summary-export=platform.json load-tests/dashboard.js
+//   VIRTUAL_THREADS_ENABLED=true docker compose up -d --build    # virtual threads
+//   k6 run --summary-export=virtual.json load-tests/dashboard.js
+//
+// TARGET=api (default) replays the API calls a dashboard render makes against medication-api.
+// TARGET=web renders /patient/dashboard through medication-web; it needs a logged-in session:
+//   k6 run -e TARGET=web -e SESSION=<JSESSIONID cookie value> load-tests/dashboard.js
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const TARGET = __ENV.TARGET || 'api';
+const API_URL = __ENV.API_URL || 'http://localhost:8081';
+const WEB_URL = __ENV.WEB_URL || 'http://localhost:8080';
+const USERS = parseInt(__ENV.USERS || '2000', 10);
+const PATIENTS = ['patient-001', 'patient-002', 'patient-003'];
+
+export const options = {
+    scenarios: {
+        dashboard: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: USERS },
+                { duration: '3m', target: USERS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{page:dashboard}': ['p(95)<2000'],
+    },
+};
+
+function apiDashboard() {
+    const headers = { 'X-Patient-Id': PATIENTS[__VU % PATIENTS.length] };
+    const list = http.get(`${API_URL}/api/v1/prescriptions`, { headers, tags: { page: 'dashboard' } });
+    check(list, { 'prescriptions 200': (r) => r.status === 200 });
+    if (list.status !== 200) {
+        return;
+    }
+    // The detail widgets: first few prescriptions and their adherence statistics
+    const prescriptions = list.json().slice(0, 3);
+    const requests = prescriptions.map((p) => ['GET', `${API_URL}/api/v1/prescriptions/${p.id}/adherence/statistics`,
+        null, { headers, tags: { page: 'widget' } }]);
+    for (const response of http.batch(requests)) {
+        check(response, { 'statistics 200': (r) => r.status === 200 });
+    }
+}
+
+function webDashboard() {
+    const response = http.get(`${WEB_URL}/patient/dashboard`, {
+        cookies: { JSESSIONID: __ENV.SESSION },
+        redirects: 0,
+        tags: { page: 'dashboard' },
+    });
+    check(response, { 'dashboard 200': (r) => r.status === 200 });
+}
+
+export default function () {
+    if (TARGET === 'web') {
+        webDashboard();
+    } else {
+        apiDashboard();
+    }
+    // Think time between page views
+    sleep(1 + Math.random());
+}
@@ -0,0 +1,88 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceBatchResultDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceStatisticsDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/adherence")
+@Tag(name = "Adherence", description = "Adherence tracking and statistics API")
+public class AdherenceController {
+    
+    private final AdherenceIngestionService ingestionService;
+    private final AdherenceStatisticsService statisticsService;
+    private final ObjectMapper objectMapper;
+    
+    public AdherenceController(AdherenceIngestionService ingestionService,
+                               AdherenceStatisticsService statisticsService,
+                               ObjectMapper objectMapper) {
+        this.ingestionService = ingestionService;
+        this.statisticsService = statisticsService;
+        this.objectMapper = objectMapper;
+    }
+    
+    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Ingest adherence events",
+               description = "Records a JSON array of adherence events (up to 5000) and returns a result per event")
+    public ResponseEntity<AdherenceBatchResultDTO> ingestEvents(
+            @RequestBody List<AdherenceEventRequest> events,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        // Devices send patientId per event; the header is a default for app batches
+        AdherenceBatchResultDTO result = ingestionService.ingest(events, patientId);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Ingest adherence events (NDJSON)",
+               description = "Records newline-delimited adherence events (up to 5000) and returns a result per event")
+    public ResponseEntity<AdherenceBatchResultDTO> ingestEventStream(
+            InputStream body,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) throws IOException {
+        
+        List<AdherenceEventRequest> events = new ArrayList<>();
+        try (MappingIterator<AdherenceEventRequest> lines =
+                     objectMapper.readerFor(AdherenceEventRequest.class).readValues(body)) {
+            // Read one past the limit so oversized streams are rejected without buffering them whole
+            while (events.size() <= AdherenceIngestionService.MAX_BATCH_SIZE && lines.hasNextValue()) {
+                events.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed adherence event at line "
+                    + e.getLocation().getLineNr() + ": " + e.getOriginalMessage());
+        }
+        
+        AdherenceBatchResultDTO result = ingestionService.ingest(events, patientId);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping("/statistics/recompute")
+    @Operation(summary = "Recompute all adherence statistics",
+               description = "Rebuilds every prescription's statistics from raw adherence history (backfill)")
+    public ResponseEntity<Map<String, Integer>> recomputeAll() {
+        int prescriptions = statisticsService.recomputeAll();
+        return ResponseEntity.ok(Map.of("prescriptions", prescriptions));
+    }
+    
+    @PostMapping("/statistics/{prescriptionId}/recompute")
+    @Operation(summary = "Recompute adherence statistics for a prescription",
+               description = "Rebuilds one prescription's statistics from its raw adherence history")
+    public ResponseEntity<AdherenceStatisticsDTO> recompute(@PathVariable Long prescriptionId) {
+        AdherenceStatisticsDTO statistics = statisticsService.recompute(prescriptionId);
+        return ResponseEntity.ok(statistics);
+    }
+}
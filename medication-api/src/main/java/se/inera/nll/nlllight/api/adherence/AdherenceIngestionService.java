@@ -0,0 +1,199 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceBatchResultDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventResultDTO;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.RecordSource;
+import se.inera.nll.nlllight.api.dosing.DoseSlotIndex;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.reminder.MedicationReminderRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk ingestion of adherence events from devices and apps. Ownership and sent reminders for the
+ * whole batch are loaded with one query each, records are persisted through references (no
+ * per-row lookups) and flushed in JDBC batches, and statistics are updated once per prescription.
+ * <p>
+ * Records go through a child session that shares the caller's connection and transaction but not
+ * its persistence context, so flushing and clearing between batches never detaches the caller's
+ * entities.
+ */
+@Service
+@Transactional
+public class AdherenceIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdherenceIngestionService.class);
+
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    // Matches hibernate.jdbc.batch_size so every flush is one JDBC batch
+    static final int FLUSH_SIZE = 50;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final AdherenceStatisticsService statisticsService;
+    private final DoseSlotIndex doseSlotIndex;
+    private final MedicationReminderRepository reminderRepository;
+
+    public AdherenceIngestionService(PrescriptionRepository prescriptionRepository,
+                                     AdherenceStatisticsService statisticsService,
+                                     DoseSlotIndex doseSlotIndex,
+                                     MedicationReminderRepository reminderRepository) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.statisticsService = statisticsService;
+        this.doseSlotIndex = doseSlotIndex;
+        this.reminderRepository = reminderRepository;
+    }
+
+    public AdherenceBatchResultDTO ingest(List<AdherenceEventRequest> events, String defaultPatientId) {
+        if (events.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must not contain more than " + MAX_BATCH_SIZE + " events");
+        }
+
+        Map<Long, Object[]> owners = loadOwners(events);
+        Map<Long, Map<LocalDateTime, LocalDateTime>> remindersSent = loadRemindersSent(owners.keySet());
+        Map<Long, List<AdherenceSample>> samplesByPrescription = new TreeMap<>();
+        List<AdherenceEventResultDTO> results = new ArrayList<>(events.size());
+        LocalDateTime now = LocalDateTime.now();
+        int accepted = 0;
+
+        try (Session batchSession = entityManager.unwrap(Session.class).sessionWithOptions().connection().openSession()) {
+            for (int i = 0; i < events.size(); i++) {
+                AdherenceEventRequest event = events.get(i);
+                String patientId = event.getPatientId() != null ? event.getPatientId() : defaultPatientId;
+                Object[] owner = event.getPrescriptionId() != null ? owners.get(event.getPrescriptionId()) : null;
+
+                AdherenceEventResultDTO result = new AdherenceEventResultDTO();
+                result.setIndex(i);
+                String error = validate(event, patientId, owner);
+                if (error != null) {
+                    result.setAccepted(false);
+                    result.setError(error);
+                    results.add(result);
+                    continue;
+                }
+
+                AdherenceRecord record = toRecord(batchSession, event, patientId, owner, remindersSent, now);
+                batchSession.persist(record);
+                PatientAccessContext.accessed(patientId);
+                result.setAccepted(true);
+                result.setRecordId(record.getId());
+                results.add(result);
+
+                samplesByPrescription.computeIfAbsent(event.getPrescriptionId(), id -> new ArrayList<>())
+                        .add(new AdherenceSample(record.getScheduledTime(), record.getStatus()));
+                if (++accepted % FLUSH_SIZE == 0) {
+                    batchSession.flush();
+                    batchSession.clear();
+                }
+            }
+            batchSession.flush();
+        }
+
+        Map<Long, String> patientIds = new HashMap<>();
+        samplesByPrescription.keySet().forEach(id -> patientIds.put(id, (String) owners.get(id)[1]));
+        statisticsService.recordsAdded(samplesByPrescription, patientIds);
+
+        logger.info("Ingested {} of {} adherence events for {} prescriptions",
+                accepted, events.size(), samplesByPrescription.size());
+
+        AdherenceBatchResultDTO dto = new AdherenceBatchResultDTO();
+        dto.setReceived(events.size());
+        dto.setAccepted(accepted);
+        dto.setRejected(events.size() - accepted);
+        dto.setResults(results);
+        return dto;
+    }
+
+    private Map<Long, Object[]> loadOwners(List<AdherenceEventRequest> events) {
+        Set<Long> prescriptionIds = new HashSet<>();
+        for (AdherenceEventRequest event : events) {
+            if (event.getPrescriptionId() != null) {
+                prescriptionIds.add(event.getPrescriptionId());
+            }
+        }
+        Map<Long, Object[]> owners = new HashMap<>();
+        if (!prescriptionIds.isEmpty()) {
+            for (Object[] row : prescriptionRepository.findOwnershipByIds(prescriptionIds)) {
+                owners.put((Long) row[0], row);
+            }
+        }
+        return owners;
+    }
+
+    private Map<Long, Map<LocalDateTime, LocalDateTime>> loadRemindersSent(Set<Long> prescriptionIds) {
+        Map<Long, Map<LocalDateTime, LocalDateTime>> sent = new HashMap<>();
+        if (!prescriptionIds.isEmpty()) {
+            for (Object[] row : reminderRepository.findLastSentByPrescriptionIds(prescriptionIds)) {
+                sent.computeIfAbsent((Long) row[0], id -> new HashMap<>()).put((LocalDateTime) row[1], (LocalDateTime) row[2]);
+            }
+        }
+        return sent;
+    }
+
+    private String validate(AdherenceEventRequest event, String patientId, Object[] owner) {
+        if (event.getPrescriptionId() == null) {
+            return "Prescription ID is required";
+        }
+        if (event.getStatus() == null) {
+            return "Status is required";
+        }
+        if (patientId == null) {
+            return "Patient ID is required";
+        }
+        if (owner == null) {
+            return "Prescription not found: " + event.getPrescriptionId();
+        }
+        if (!patientId.equals(owner[1])) {
+            return "Prescription does not belong to patient";
+        }
+        return null;
+    }
+
+    private AdherenceRecord toRecord(Session batchSession, AdherenceEventRequest event, String patientId, Object[] owner,
+                                     Map<Long, Map<LocalDateTime, LocalDateTime>> remindersSent, LocalDateTime now) {
+        AdherenceRecord record = new AdherenceRecord();
+        record.setPrescription(batchSession.getReference(Prescription.class, event.getPrescriptionId()));
+        record.setPatient(batchSession.getReference(Patient.class, patientId));
+        LocalDateTime taken = event.getActualTime() != null ? event.getActualTime() : now;
+        // Events without a scheduled time are attributed to the nearest expected dose
+        LocalDateTime scheduled = event.getScheduledTime() != null ? event.getScheduledTime()
+                : doseSlotIndex.nearestSlot(patientId, event.getPrescriptionId(), taken).orElse(taken);
+        record.setScheduledTime(scheduled);
+        // An intake of a dose the patient was reminded about answers that reminder
+        LocalDateTime reminderSentAt = remindersSent.getOrDefault(event.getPrescriptionId(), Map.of()).get(scheduled);
+        if (reminderSentAt != null) {
+            record.setReminderSentAt(reminderSentAt);
+            record.setReminderAcknowledged(true);
+        }
+        record.setActualTime(event.getActualTime());
+        record.setStatus(event.getStatus());
+        record.setSource(event.getSource() != null ? event.getSource() : RecordSource.AUTO_TRACKED);
+        record.setDeviceId(event.getDeviceId());
+        record.setDoseTaken(event.getDoseTaken() != null ? event.getDoseTaken() : (BigDecimal) owner[2]);
+        record.setDoseUnit(event.getDoseUnit() != null ? event.getDoseUnit() : (String) owner[3]);
+        record.setNotes(event.getNotes());
+        return record;
+    }
+}
@@ -0,0 +1,18 @@
+package se.inera.nll.nlllight.api.adherence;
+
+/**
+ * Thrown when the asynchronous adherence buffer is full; mapped to 429 with a Retry-After hint.
+ */
+public class AdherenceQueueFullException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public AdherenceQueueFullException(int retryAfterSeconds) {
+        super("Adherence queue is full, retry after " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
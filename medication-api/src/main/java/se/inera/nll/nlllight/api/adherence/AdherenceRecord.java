@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class AdherenceRecord {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adherence_records_seq")
+    @SequenceGenerator(name = "adherence_records_seq", sequenceName = "adherence_records_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,4 +29,11 @@ public interface AdherenceRecordRepository extends JpaRepository<AdherenceRecord
                                                                      @Param("endTime") LocalDateTime endTime);
     
     long countByPrescriptionIdAndStatus(Long prescriptionId, AdherenceStatus status);
+    
+    @Query("SELECT new se.inera.nll.nlllight.api.adherence.AdherenceSample(a.scheduledTime, a.status) " +
+           "FROM AdherenceRecord a WHERE a.prescription.id = :prescriptionId ORDER BY a.scheduledTime, a.id")
+    List<AdherenceSample> findSamplesByPrescriptionId(@Param("prescriptionId") Long prescriptionId);
+    
+    @Query("SELECT DISTINCT a.prescription.id FROM AdherenceRecord a ORDER BY a.prescription.id")
+    List<Long> findPrescriptionIdsWithRecords();
 }
@@ -0,0 +1,11 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The two columns of an adherence record that statistics are derived from.
+ */
+public record AdherenceSample(LocalDateTime scheduledTime, AdherenceStatus status) {
+}
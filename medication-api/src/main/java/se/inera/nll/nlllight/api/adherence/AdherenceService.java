@@ -3,12 +3,15 @@ package se.inera.nll.nlllight.api.adherence;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import se.inera.nll.nlllight.api.adherence.dto.AdherenceRecordDTO;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
 import se.inera.nll.nlllight.api.common.AdherenceStatus;
 import se.inera.nll.nlllight.api.common.RecordSource;
+import se.inera.nll.nlllight.api.dosing.DoseSlotIndex;
 import se.inera.nll.nlllight.api.patient.Patient;
 import se.inera.nll.nlllight.api.patient.PatientRepository;
 import se.inera.nll.nlllight.api.prescription.Prescription;
 import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.reminder.MedicationReminderRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,13 +24,22 @@ public class AdherenceService {
     private final AdherenceRecordRepository adherenceRecordRepository;
     private final PrescriptionRepository prescriptionRepository;
     private final PatientRepository patientRepository;
+    private final AdherenceStatisticsService statisticsService;
+    private final DoseSlotIndex doseSlotIndex;
+    private final MedicationReminderRepository reminderRepository;
     
     public AdherenceService(AdherenceRecordRepository adherenceRecordRepository,
                            PrescriptionRepository prescriptionRepository,
-                           PatientRepository patientRepository) {
+                           PatientRepository patientRepository,
+                           AdherenceStatisticsService statisticsService,
+                           DoseSlotIndex doseSlotIndex,
+                           MedicationReminderRepository reminderRepository) {
         this.adherenceRecordRepository = adherenceRecordRepository;
         this.prescriptionRepository = prescriptionRepository;
         this.patientRepository = patientRepository;
+        this.statisticsService = statisticsService;
+        this.doseSlotIndex = doseSlotIndex;
+        this.reminderRepository = reminderRepository;
     }
     
     public AdherenceRecordDTO recordAdherence(Long prescriptionId, String patientId, 
@@ -43,18 +55,27 @@ public class AdherenceService {
             throw new RuntimeException("Prescription does not belong to patient");
         }
         
+        // Attributed to the expected dose it was taken for; unscheduled intakes keep their own time
+        LocalDateTime now = LocalDateTime.now();
         AdherenceRecord record = new AdherenceRecord();
         record.setPrescription(prescription);
         record.setPatient(patient);
-        record.setScheduledTime(LocalDateTime.now());
-        record.setActualTime(LocalDateTime.now());
+        LocalDateTime scheduled = doseSlotIndex.nearestSlot(patientId, prescriptionId, now).orElse(now);
+        record.setScheduledTime(scheduled);
+        record.setActualTime(now);
         record.setStatus(status);
         record.setNotes(notes);
         record.setSource(RecordSource.PATIENT_REPORTED);
         record.setDoseTaken(prescription.getDose());
         record.setDoseUnit(prescription.getDoseUnit());
+        // An intake of a dose the patient was reminded about answers that reminder
+        reminderRepository.findLastSentAt(prescriptionId, scheduled).ifPresent(sentAt -> {
+            record.setReminderSentAt(sentAt);
+            record.setReminderAcknowledged(true);
+        });
         
         AdherenceRecord saved = adherenceRecordRepository.save(record);
+        statisticsService.recordAdded(saved);
         return toDTO(saved);
     }
     
@@ -66,6 +87,9 @@ public class AdherenceService {
     }
     
     private AdherenceRecordDTO toDTO(AdherenceRecord record) {
+        // Every record handed out of the service is audited against its patient
+        PatientAccessContext.accessed(record.getPatient().getId());
+        
         AdherenceRecordDTO dto = new AdherenceRecordDTO();
         dto.setId(record.getId());
         dto.setPrescriptionId(record.getPrescription().getId());
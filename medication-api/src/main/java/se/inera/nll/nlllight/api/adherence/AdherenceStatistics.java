@@ -0,0 +1,190 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import jakarta.persistence.*;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "adherence_statistics")
+public class AdherenceStatistics {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prescription_id", nullable = false, unique = true)
+    private Prescription prescription;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+    
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+    
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+    
+    @Column(name = "total_scheduled")
+    private Integer totalScheduled = 0;
+    
+    @Column(name = "total_taken")
+    private Integer totalTaken = 0;
+    
+    @Column(name = "total_missed")
+    private Integer totalMissed = 0;
+    
+    @Column(name = "total_skipped")
+    private Integer totalSkipped = 0;
+    
+    @Column(name = "adherence_rate", precision = 5, scale = 2)
+    private BigDecimal adherenceRate;
+    
+    @Column(name = "current_streak_days")
+    private Integer currentStreakDays = 0;
+    
+    @Column(name = "longest_streak_days")
+    private Integer longestStreakDays = 0;
+    
+    @Column(name = "last_adherent_date")
+    private LocalDate lastAdherentDate;
+    
+    @Column(name = "last_missed_date")
+    private LocalDate lastMissedDate;
+    
+    @Column(name = "last_calculated_at")
+    private LocalDateTime lastCalculatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        lastCalculatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Prescription getPrescription() {
+        return prescription;
+    }
+    
+    public void setPrescription(Prescription prescription) {
+        this.prescription = prescription;
+    }
+    
+    public Patient getPatient() {
+        return patient;
+    }
+    
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+    
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+    
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+    
+    public void setPeriodEnd(LocalDate periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+    
+    public Integer getTotalScheduled() {
+        return totalScheduled;
+    }
+    
+    public void setTotalScheduled(Integer totalScheduled) {
+        this.totalScheduled = totalScheduled;
+    }
+    
+    public Integer getTotalTaken() {
+        return totalTaken;
+    }
+    
+    public void setTotalTaken(Integer totalTaken) {
+        this.totalTaken = totalTaken;
+    }
+    
+    public Integer getTotalMissed() {
+        return totalMissed;
+    }
+    
+    public void setTotalMissed(Integer totalMissed) {
+        this.totalMissed = totalMissed;
+    }
+    
+    public Integer getTotalSkipped() {
+        return totalSkipped;
+    }
+    
+    public void setTotalSkipped(Integer totalSkipped) {
+        this.totalSkipped = totalSkipped;
+    }
+    
+    public BigDecimal getAdherenceRate() {
+        return adherenceRate;
+    }
+    
+    public void setAdherenceRate(BigDecimal adherenceRate) {
+        this.adherenceRate = adherenceRate;
+    }
+    
+    public Integer getCurrentStreakDays() {
+        return currentStreakDays;
+    }
+    
+    public void setCurrentStreakDays(Integer currentStreakDays) {
+        this.currentStreakDays = currentStreakDays;
+    }
+    
+    public Integer getLongestStreakDays() {
+        return longestStreakDays;
+    }
+    
+    public void setLongestStreakDays(Integer longestStreakDays) {
+        this.longestStreakDays = longestStreakDays;
+    }
+    
+    public LocalDate getLastAdherentDate() {
+        return lastAdherentDate;
+    }
+    
+    public void setLastAdherentDate(LocalDate lastAdherentDate) {
+        this.lastAdherentDate = lastAdherentDate;
+    }
+    
+    public LocalDate getLastMissedDate() {
+        return lastMissedDate;
+    }
+    
+    public void setLastMissedDate(LocalDate lastMissedDate) {
+        this.lastMissedDate = lastMissedDate;
+    }
+    
+    public LocalDateTime getLastCalculatedAt() {
+        return lastCalculatedAt;
+    }
+    
+    public void setLastCalculatedAt(LocalDateTime lastCalculatedAt) {
+        this.lastCalculatedAt = lastCalculatedAt;
+    }
+}
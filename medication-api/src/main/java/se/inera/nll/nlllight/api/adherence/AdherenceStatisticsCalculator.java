@@ -0,0 +1,108 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Folds adherence records into an {@link AdherenceStatistics} row one at a time, so the row
+ * can be kept current on every write and rebuilt by replaying history in scheduled order.
+ * <p>
+ * A dose counts as taken when it is TAKEN, DELAYED or EARLY. A streak is the run of
+ * consecutive days with a taken dose; a MISSED, SKIPPED or PARTIAL dose ends it. The
+ * longest streak is the peak the current streak has reached.
+ */
+public final class AdherenceStatisticsCalculator {
+
+    static final Set<AdherenceStatus> TAKEN = EnumSet.of(AdherenceStatus.TAKEN, AdherenceStatus.DELAYED, AdherenceStatus.EARLY);
+
+    private AdherenceStatisticsCalculator() {
+    }
+
+    /**
+     * Applies one record scheduled on {@code day}. Returns {@code false} without touching
+     * the row when the record is older than the streak state, in which case the caller has
+     * to replay the prescription's history instead.
+     */
+    public static boolean apply(AdherenceStatistics stats, LocalDate day, AdherenceStatus status) {
+        LocalDate latest = latest(stats.getLastAdherentDate(), stats.getLastMissedDate());
+        if (latest != null && day.isBefore(latest)) {
+            return false;
+        }
+
+        stats.setTotalScheduled(stats.getTotalScheduled() + 1);
+        if (TAKEN.contains(status)) {
+            stats.setTotalTaken(stats.getTotalTaken() + 1);
+            extendStreak(stats, day);
+        } else {
+            if (status == AdherenceStatus.MISSED) {
+                stats.setTotalMissed(stats.getTotalMissed() + 1);
+            } else if (status == AdherenceStatus.SKIPPED) {
+                stats.setTotalSkipped(stats.getTotalSkipped() + 1);
+            }
+            stats.setCurrentStreakDays(0);
+            stats.setLastMissedDate(day);
+        }
+
+        if (stats.getPeriodStart() == null || day.isBefore(stats.getPeriodStart())) {
+            stats.setPeriodStart(day);
+        }
+        if (stats.getPeriodEnd() == null || day.isAfter(stats.getPeriodEnd())) {
+            stats.setPeriodEnd(day);
+        }
+        stats.setAdherenceRate(BigDecimal.valueOf(stats.getTotalTaken() * 100L)
+                .divide(BigDecimal.valueOf(stats.getTotalScheduled()), 2, RoundingMode.HALF_UP));
+        return true;
+    }
+
+    public static void reset(AdherenceStatistics stats) {
+        stats.setPeriodStart(null);
+        stats.setPeriodEnd(null);
+        stats.setTotalScheduled(0);
+        stats.setTotalTaken(0);
+        stats.setTotalMissed(0);
+        stats.setTotalSkipped(0);
+        stats.setAdherenceRate(null);
+        stats.setCurrentStreakDays(0);
+        stats.setLongestStreakDays(0);
+        stats.setLastAdherentDate(null);
+        stats.setLastMissedDate(null);
+    }
+
+    /**
+     * The stored streak only moves when records arrive; a streak whose last taken dose is
+     * older than yesterday has lapsed even though nothing was recorded as missed.
+     */
+    public static int currentStreak(AdherenceStatistics stats, LocalDate today) {
+        LocalDate lastAdherent = stats.getLastAdherentDate();
+        if (lastAdherent == null || lastAdherent.isBefore(today.minusDays(1))) {
+            return 0;
+        }
+        return stats.getCurrentStreakDays();
+    }
+
+    private static void extendStreak(AdherenceStatistics stats, LocalDate day) {
+        LocalDate lastAdherent = stats.getLastAdherentDate();
+        if (day.equals(lastAdherent)) {
+            return;
+        }
+        stats.setLastAdherentDate(day);
+        if (day.equals(stats.getLastMissedDate())) {
+            return; // A dose was already missed today, so the day cannot count
+        }
+        boolean continues = stats.getCurrentStreakDays() > 0 && day.minusDays(1).equals(lastAdherent);
+        stats.setCurrentStreakDays(continues ? stats.getCurrentStreakDays() + 1 : 1);
+        stats.setLongestStreakDays(Math.max(stats.getLongestStreakDays(), stats.getCurrentStreakDays()));
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
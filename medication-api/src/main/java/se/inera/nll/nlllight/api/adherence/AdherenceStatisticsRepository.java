@@ -0,0 +1,30 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AdherenceStatisticsRepository extends JpaRepository<AdherenceStatistics, Long> {
+    
+    Optional<AdherenceStatistics> findByPrescriptionId(Long prescriptionId);
+    
+    List<AdherenceStatistics> findByPatientId(String patientId);
+    
+    // Row lock serializes concurrent writers updating the same prescription's statistics
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AdherenceStatistics s WHERE s.prescription.id = :prescriptionId")
+    Optional<AdherenceStatistics> findByPrescriptionIdForUpdate(@Param("prescriptionId") Long prescriptionId);
+    
+    // Batch variant; rows are locked in id order so concurrent batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AdherenceStatistics s WHERE s.prescription.id IN :prescriptionIds ORDER BY s.prescription.id")
+    List<AdherenceStatistics> findByPrescriptionIdsForUpdate(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+}
@@ -0,0 +1,216 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceStatisticsDTO;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class AdherenceStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdherenceStatisticsService.class);
+
+    static final int RECOMPUTE_CHUNK_SIZE = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AdherenceStatisticsRepository statisticsRepository;
+    private final AdherenceRecordRepository adherenceRecordRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final TransactionTemplate chunkTransaction;
+
+    public AdherenceStatisticsService(AdherenceStatisticsRepository statisticsRepository,
+                                      AdherenceRecordRepository adherenceRecordRepository,
+                                      PrescriptionRepository prescriptionRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.statisticsRepository = statisticsRepository;
+        this.adherenceRecordRepository = adherenceRecordRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Folds a freshly saved record into its prescription's statistics row, in the caller's
+     * transaction. Backdated records fall back to replaying that prescription's history.
+     */
+    public void recordAdded(AdherenceRecord record) {
+        Long prescriptionId = record.getPrescription().getId();
+        recordsAdded(Map.of(prescriptionId, List.of(new AdherenceSample(record.getScheduledTime(), record.getStatus()))),
+                Map.of(prescriptionId, record.getPatient().getId()));
+    }
+
+    /**
+     * Batch variant of {@link #recordAdded}: all touched rows are locked with one query and
+     * each prescription is updated once, however many of its records arrived together.
+     */
+    public void recordsAdded(Map<Long, List<AdherenceSample>> samplesByPrescription, Map<Long, String> patientIds) {
+        Map<Long, AdherenceStatistics> locked = lockStatistics(samplesByPrescription.keySet(), patientIds);
+        for (Map.Entry<Long, List<AdherenceSample>> entry : samplesByPrescription.entrySet()) {
+            AdherenceStatistics stats = locked.get(entry.getKey());
+            List<AdherenceSample> ordered = new ArrayList<>(entry.getValue());
+            ordered.sort(Comparator.comparing(AdherenceSample::scheduledTime));
+            for (AdherenceSample sample : ordered) {
+                if (!AdherenceStatisticsCalculator.apply(stats, sample.scheduledTime().toLocalDate(), sample.status())) {
+                    logger.debug("Backdated adherence record for prescription {}, replaying history", entry.getKey());
+                    replay(stats, entry.getKey());
+                    break;
+                }
+            }
+        }
+        statisticsRepository.saveAll(locked.values());
+    }
+
+    @Transactional(readOnly = true)
+    public AdherenceStatisticsDTO getStatistics(Long prescriptionId) {
+        return statisticsRepository.findByPrescriptionId(prescriptionId)
+                .map(this::toDTO)
+                .orElseGet(() -> emptyStatistics(prescriptionId));
+    }
+
+    /**
+     * Every statistics row of the patient in one select, keyed by prescription. Prescriptions
+     * without recorded doses have no entry.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, AdherenceStatisticsDTO> getPatientStatistics(String patientId) {
+        PatientAccessContext.accessed(patientId);
+        Map<Long, AdherenceStatisticsDTO> result = new HashMap<>();
+        for (AdherenceStatistics stats : statisticsRepository.findByPatientId(patientId)) {
+            result.put(stats.getPrescription().getId(), toDTO(stats));
+        }
+        return result;
+    }
+
+    public AdherenceStatisticsDTO recompute(Long prescriptionId) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        AdherenceStatistics stats = recomputeLocked(prescription);
+        return stats != null ? toDTO(stats) : emptyStatistics(prescriptionId);
+    }
+
+    /**
+     * Rebuilds every statistics row from raw history, committing in chunks so a backfill
+     * never holds more than {@link #RECOMPUTE_CHUNK_SIZE} row locks at a time.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int recomputeAll() {
+        List<Long> prescriptionIds = adherenceRecordRepository.findPrescriptionIdsWithRecords();
+        for (int from = 0; from < prescriptionIds.size(); from += RECOMPUTE_CHUNK_SIZE) {
+            List<Long> chunk = prescriptionIds.subList(from, Math.min(prescriptionIds.size(), from + RECOMPUTE_CHUNK_SIZE));
+            chunkTransaction.executeWithoutResult(status -> chunk.forEach(id ->
+                    prescriptionRepository.findById(id).ifPresent(this::recomputeLocked)));
+        }
+        logger.info("Recomputed adherence statistics for {} prescriptions", prescriptionIds.size());
+        return prescriptionIds.size();
+    }
+
+    @Scheduled(cron = "${adherence.statistics.recompute-cron:-}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledRecompute() {
+        recomputeAll();
+    }
+
+    private AdherenceStatistics recomputeLocked(Prescription prescription) {
+        AdherenceStatistics stats = lockStatistics(List.of(prescription.getId()),
+                Map.of(prescription.getId(), prescription.getPatient().getId())).get(prescription.getId());
+        replay(stats, prescription.getId());
+        if (stats.getTotalScheduled() == 0) {
+            if (stats.getId() != null) {
+                statisticsRepository.delete(stats);
+            }
+            return null;
+        }
+        return statisticsRepository.save(stats);
+    }
+
+    private Map<Long, AdherenceStatistics> lockStatistics(Collection<Long> prescriptionIds, Map<Long, String> patientIds) {
+        Map<Long, AdherenceStatistics> locked = new HashMap<>();
+        statisticsRepository.findByPrescriptionIdsForUpdate(prescriptionIds)
+                .forEach(stats -> locked.put(stats.getPrescription().getId(), stats));
+
+        List<Long> missing = prescriptionIds.stream().filter(id -> !locked.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            // No row yet: serialize first writers on the prescription rows, then look again
+            prescriptionRepository.findByIdsForUpdate(missing);
+            statisticsRepository.findByPrescriptionIdsForUpdate(missing)
+                    .forEach(stats -> locked.put(stats.getPrescription().getId(), stats));
+            for (Long id : missing) {
+                locked.computeIfAbsent(id, key -> newStatistics(key, patientIds.get(key)));
+            }
+        }
+        return locked;
+    }
+
+    private void replay(AdherenceStatistics stats, Long prescriptionId) {
+        AdherenceStatisticsCalculator.reset(stats);
+        for (AdherenceSample sample : adherenceRecordRepository.findSamplesByPrescriptionId(prescriptionId)) {
+            AdherenceStatisticsCalculator.apply(stats, sample.scheduledTime().toLocalDate(), sample.status());
+        }
+    }
+
+    private AdherenceStatistics newStatistics(Long prescriptionId, String patientId) {
+        AdherenceStatistics stats = new AdherenceStatistics();
+        stats.setPrescription(entityManager.getReference(Prescription.class, prescriptionId));
+        stats.setPatient(entityManager.getReference(Patient.class, patientId));
+        return stats;
+    }
+
+    private AdherenceStatisticsDTO emptyStatistics(Long prescriptionId) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        AdherenceStatisticsDTO dto = new AdherenceStatisticsDTO();
+        PatientAccessContext.accessed(prescription.getPatient().getId());
+        dto.setPrescriptionId(prescriptionId);
+        dto.setPatientId(prescription.getPatient().getId());
+        dto.setTotalScheduled(0);
+        dto.setTotalTaken(0);
+        dto.setTotalMissed(0);
+        dto.setTotalSkipped(0);
+        dto.setCurrentStreakDays(0);
+        dto.setLongestStreakDays(0);
+        return dto;
+    }
+
+    private AdherenceStatisticsDTO toDTO(AdherenceStatistics stats) {
+        // Every summary handed out of the service is audited against its patient
+        PatientAccessContext.accessed(stats.getPatient().getId());
+        AdherenceStatisticsDTO dto = new AdherenceStatisticsDTO();
+        dto.setPrescriptionId(stats.getPrescription().getId());
+        dto.setPatientId(stats.getPatient().getId());
+        dto.setPeriodStart(stats.getPeriodStart());
+        dto.setPeriodEnd(stats.getPeriodEnd());
+        dto.setTotalScheduled(stats.getTotalScheduled());
+        dto.setTotalTaken(stats.getTotalTaken());
+        dto.setTotalMissed(stats.getTotalMissed());
+        dto.setTotalSkipped(stats.getTotalSkipped());
+        dto.setAdherenceRate(stats.getAdherenceRate());
+        dto.setCurrentStreakDays(AdherenceStatisticsCalculator.currentStreak(stats, LocalDate.now()));
+        dto.setLongestStreakDays(stats.getLongestStreakDays());
+        dto.setLastAdherentDate(stats.getLastAdherentDate());
+        dto.setLastCalculatedAt(stats.getLastCalculatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,344 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceAcceptedDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceBatchResultDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventResultDTO;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.AppendOnlyJournal;
+import se.inera.nll.nlllight.api.common.RecordSource;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode for {@link AdherenceService#recordAdherence}, enabled with
+ * {@code adherence.async.enabled=true}. Accepted events are journaled to local disk and put on a
+ * bounded buffer without touching the database; a single writer thread drains the buffer in
+ * batches through {@link AdherenceIngestionService} and acknowledges the journal once a batch
+ * has committed. Unacknowledged events are replayed after a restart.
+ * <p>
+ * Events the ingestion rejects, for example because their prescription was deleted after they
+ * were accepted, go to the {@code adherence-dead-letter} journal. So do events the database
+ * rejects: such a batch is split until the offending events are isolated. Neither is retried, so
+ * one bad event cannot stall the queue.
+ */
+@Service
+@ConditionalOnProperty(name = "adherence.async.enabled", havingValue = "true")
+public class AdherenceWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdherenceWriteBehindQueue.class);
+
+    private static final long POLL_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+    private static final long SHUTDOWN_MILLIS = 10_000;
+
+    record JournaledEvent(String eventId, Instant acceptedAt, AdherenceEventRequest event) {
+    }
+
+    private record Pending(long sequence, JournaledEvent journaled) {
+    }
+
+    private final AdherenceIngestionService ingestionService;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ObjectMapper objectMapper;
+    private final AppendOnlyJournal journal;
+    private final AppendOnlyJournal deadLetters;
+    private final BlockingQueue<Pending> buffer;
+    private final int batchSize;
+    private final int retryAfterSeconds;
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter deadLettered;
+    private final Timer drainTimer;
+    private final Timer latencyTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AdherenceWriteBehindQueue(AdherenceIngestionService ingestionService,
+                                     PrescriptionRepository prescriptionRepository,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${adherence.async.capacity:10000}") int capacity,
+                                     @Value("${adherence.async.batch-size:500}") int batchSize,
+                                     @Value("${adherence.async.retry-after-seconds:2}") int retryAfterSeconds,
+                                     @Value("${adherence.async.journal-dir:${java.io.tmpdir}/nll-adherence}") String journalDir,
+                                     @Value("${adherence.async.journal-fsync:true}") boolean fsync) throws IOException {
+        this.ingestionService = ingestionService;
+        this.prescriptionRepository = prescriptionRepository;
+        this.objectMapper = objectMapper;
+        this.journal = new AppendOnlyJournal(Path.of(journalDir), "adherence", fsync);
+        this.deadLetters = new AppendOnlyJournal(Path.of(journalDir), "adherence-dead-letter", fsync);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.accepted = Counter.builder("adherence.queue.events")
+                .tag("result", "accepted")
+                .description("Adherence events accepted into the write-behind buffer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("adherence.queue.events")
+                .tag("result", "rejected")
+                .description("Adherence events refused because the buffer was full")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("adherence.queue.events")
+                .tag("result", "dead-lettered")
+                .description("Queued adherence events that were rejected on write, moved to the dead-letter journal")
+                .register(meterRegistry);
+        this.drainTimer = Timer.builder("adherence.queue.drain")
+                .description("Time spent writing one drained batch to the database")
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("adherence.queue.latency")
+                .description("Time from accepting an event to committing it")
+                .register(meterRegistry);
+        Gauge.builder("adherence.queue.depth", buffer, BlockingQueue::size)
+                .description("Events waiting in the write-behind buffer")
+                .register(meterRegistry);
+        Gauge.builder("adherence.queue.capacity", () -> capacity)
+                .description("Capacity of the write-behind buffer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that the prescription belongs to the patient, then journals the event and queues it
+     * for the writer. The check is a single-column primary key lookup; nothing is written.
+     */
+    public AdherenceAcceptedDTO submit(Long prescriptionId, String patientId, AdherenceStatus status, String notes) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        // Same outcomes as the synchronous path, so bad input is refused here rather than dropped later
+        String owner = prescriptionRepository.findPatientIdById(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        if (!owner.equals(patientId)) {
+            throw new RuntimeException("Prescription does not belong to patient");
+        }
+        PatientAccessContext.accessed(patientId);
+
+        LocalDateTime now = LocalDateTime.now();
+        AdherenceEventRequest event = new AdherenceEventRequest();
+        event.setPrescriptionId(prescriptionId);
+        event.setPatientId(patientId);
+        event.setStatus(status);
+        event.setNotes(notes);
+        // No scheduled time: the writer attributes the intake to the nearest expected dose
+        event.setActualTime(now);
+        event.setSource(RecordSource.PATIENT_REPORTED);
+
+        JournaledEvent journaled = new JournaledEvent(UUID.randomUUID().toString(), Instant.now(), event);
+        String payload = toJson(journaled);
+
+        // Only the writer removes from the buffer, so capacity cannot shrink between check and add
+        appendLock.lock();
+        try {
+            if (buffer.remainingCapacity() == 0) {
+                rejected.increment();
+                throw new AdherenceQueueFullException(retryAfterSeconds);
+            }
+            buffer.add(new Pending(journal.append(payload), journaled));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal adherence event", e);
+        } finally {
+            appendLock.unlock();
+        }
+        accepted.increment();
+
+        AdherenceAcceptedDTO dto = new AdherenceAcceptedDTO();
+        dto.setEventId(journaled.eventId());
+        dto.setStatus("QUEUED");
+        dto.setAcceptedAt(journaled.acceptedAt());
+        return dto;
+    }
+
+    public int depth() {
+        return buffer.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        List<Pending> recovered = new ArrayList<>();
+        for (AppendOnlyJournal.Entry entry : journal.unacknowledged()) {
+            try {
+                recovered.add(new Pending(entry.sequence(), objectMapper.readValue(entry.payload(), JournaledEvent.class)));
+            } catch (JsonProcessingException e) {
+                logger.error("Skipping unreadable adherence journal entry {}", entry.sequence(), e);
+            }
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Replaying {} unacknowledged adherence events from the journal", recovered.size());
+        }
+
+        running = true;
+        writer = new Thread(() -> drain(recovered), "adherence-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(SHUTDOWN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                // Whatever is left stays journaled and is replayed on the next start
+                logger.warn("Adherence writer did not finish within {} ms, {} events left in the journal",
+                        SHUTDOWN_MILLIS, buffer.size());
+                writer.interrupt();
+            }
+        }
+        journal.close();
+        deadLetters.close();
+    }
+
+    private void drain(List<Pending> recovered) {
+        try {
+            for (int from = 0; from < recovered.size(); from += batchSize) {
+                write(recovered.subList(from, Math.min(recovered.size(), from + batchSize)));
+            }
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (running || !buffer.isEmpty()) {
+                Pending first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Pending> batch) throws InterruptedException {
+        insert(batch);
+
+        try {
+            journal.acknowledge(batch.get(batch.size() - 1).sequence());
+        } catch (IOException e) {
+            // The batch is committed; a stale checkpoint only means it is written again after a restart
+            logger.error("Could not checkpoint the adherence journal", e);
+        }
+        Instant now = Instant.now();
+        for (Pending pending : batch) {
+            latencyTimer.record(Duration.between(pending.journaled().acceptedAt(), now));
+        }
+    }
+
+    /**
+     * Writes the batch, retrying with backoff while the database is unavailable. When the database
+     * rejects the data itself, retrying cannot help: the batch is split in halves and written again
+     * until the rejected events are isolated and dead-lettered.
+     */
+    private void insert(List<Pending> batch) throws InterruptedException {
+        List<AdherenceEventRequest> events = batch.stream().map(p -> p.journaled().event()).toList();
+        long backoff = POLL_MILLIS;
+        while (true) {
+            try {
+                long start = System.nanoTime();
+                AdherenceBatchResultDTO result = ingestionService.ingest(events, null);
+                drainTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                deadLetterRejected(batch, result);
+                return;
+            } catch (RuntimeException e) {
+                if (isRejectedData(e)) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0), e.getMessage());
+                    } else {
+                        int half = batch.size() / 2;
+                        insert(batch.subList(0, half));
+                        insert(batch.subList(half, batch.size()));
+                    }
+                    return;
+                }
+                if (!running) {
+                    throw new InterruptedException("Shutting down with an unwritten adherence batch");
+                }
+                logger.warn("Writing {} adherence events failed, retrying in {} ms", batch.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Constraint violations and invalid data (SQLSTATE classes 23 and 22) fail the same way on every
+     * retry; connection and lock failures do not.
+     */
+    private static boolean isRejectedData(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("23") || sql.getSQLState().startsWith("22"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deadLetter(Pending pending, String reason) {
+        deadLettered.increment();
+        String eventId = pending.journaled().eventId();
+        try {
+            deadLetters.append(toJson(pending.journaled()));
+            logger.error("Moved adherence event {} to the dead-letter journal: {}", eventId, reason);
+        } catch (IOException io) {
+            logger.error("Dropped rejected adherence event {}, dead-letter journal failed: {}",
+                    eventId, toJson(pending.journaled()), io);
+        }
+    }
+
+    // Validation failures (e.g. a prescription deleted since submit) are as permanent as constraint violations
+    private void deadLetterRejected(List<Pending> batch, AdherenceBatchResultDTO result) {
+        for (AdherenceEventResultDTO item : result.getResults()) {
+            if (!Boolean.TRUE.equals(item.getAccepted())) {
+                deadLetter(batch.get(item.getIndex()), item.getError());
+            }
+        }
+    }
+
+    private String toJson(JournaledEvent journaled) {
+        try {
+            return objectMapper.writeValueAsString(journaled);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize adherence event", e);
+        }
+    }
+}
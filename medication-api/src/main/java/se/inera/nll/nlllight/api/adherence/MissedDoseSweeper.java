@@ -0,0 +1,283 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.RecordSource;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Infers missed doses: every expected dose from {@code dosing_schedule} that still has no
+ * {@code adherence_records} entry once the grace window has passed gets a MISSED record with
+ * source INFERRED.
+ * <p>
+ * Time is swept in fixed buckets that never cross midnight. For each bucket the recorded doses
+ * are read once, then the schedule rows whose time of day falls inside the bucket are streamed
+ * through a forward-only cursor (idx_dosing_schedule_time covers it), so memory is bounded by one
+ * bucket rather than by the number of patients. Missing doses are persisted in JDBC batches, each
+ * batch in its own transaction together with its statistics update. A bucket is skipped once
+ * swept; after a restart the last {@code catch-up} is swept again, which only adds what is still
+ * missing.
+ * <p>
+ * The grace window is never shorter than {@code dosing.slots.match-tolerance}: until then a late
+ * intake can still be attributed to the dose, and would otherwise be counted next to its MISSED
+ * record.
+ */
+@Service
+public class MissedDoseSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(MissedDoseSweeper.class);
+
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private static final String RECORDED_SQL =
+            "SELECT prescription_id, scheduled_time FROM adherence_records "
+            + "WHERE scheduled_time >= ? AND scheduled_time < ?";
+
+    // A schedule row only counts from the moment it was created, and only on its weekday
+    private static final String EXPECTED_SQL =
+            "SELECT s.prescription_id, p.patient_id, s.time_of_day, "
+            + "COALESCE(s.dose, p.dose), COALESCE(s.dose_unit, p.dose_unit) "
+            + "FROM dosing_schedule s JOIN prescriptions p ON p.id = s.prescription_id "
+            + "WHERE s.time_of_day >= ? AND s.time_of_day <= ? "
+            + "AND (s.is_active IS NULL OR s.is_active = TRUE) "
+            + "AND (s.day_of_week IS NULL OR s.day_of_week = 'DAILY' OR s.day_of_week = ?) "
+            + "AND (s.created_at IS NULL OR s.created_at <= ?) "
+            + "AND p.status = 'ACTIVE' AND (p.is_prn IS NULL OR p.is_prn = FALSE) "
+            + "AND p.start_date <= ? AND (p.end_date IS NULL OR p.end_date >= ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AdherenceStatisticsService statisticsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final Duration grace;
+    private final Duration bucket;
+    private final Duration catchUp;
+
+    private final Counter expectedCounter;
+    private final Counter inferredCounter;
+    private final Timer bucketTimer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile LocalDateTime watermark;
+
+    public MissedDoseSweeper(AdherenceStatisticsService statisticsService,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${adherence.missed.enabled:false}") boolean enabled,
+                             @Value("${adherence.missed.grace:PT2H}") Duration grace,
+                             @Value("${adherence.missed.bucket:PT15M}") Duration bucket,
+                             @Value("${adherence.missed.catch-up:P1D}") Duration catchUp,
+                             @Value("${adherence.missed.fetch-size:1000}") int fetchSize,
+                             @Value("${dosing.slots.match-tolerance:PT4H}") Duration matchTolerance) {
+        long bucketMinutes = bucket.toMinutes();
+        if (bucketMinutes <= 0 || MINUTES_PER_DAY % bucketMinutes != 0 || !bucket.equals(Duration.ofMinutes(bucketMinutes))) {
+            throw new IllegalArgumentException("adherence.missed.bucket must be whole minutes dividing a day: " + bucket);
+        }
+        this.statisticsService = statisticsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.enabled = enabled;
+        if (grace.compareTo(matchTolerance) < 0) {
+            logger.warn("adherence.missed.grace {} is shorter than dosing.slots.match-tolerance {}, using {}",
+                    grace, matchTolerance, matchTolerance);
+            grace = matchTolerance;
+        }
+        this.grace = grace;
+        this.bucket = bucket;
+        this.catchUp = catchUp;
+
+        // The cursor only streams inside a transaction; each insert batch commits on its own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.expectedCounter = Counter.builder("adherence.missed.expected")
+                .description("Expected doses examined by the missed-dose sweeper")
+                .register(meterRegistry);
+        this.inferredCounter = Counter.builder("adherence.missed.inferred")
+                .description("MISSED adherence records inferred by the missed-dose sweeper")
+                .register(meterRegistry);
+        this.bucketTimer = Timer.builder("adherence.missed.bucket.duration")
+                .description("Time to sweep one bucket of expected doses")
+                .register(meterRegistry);
+        Gauge.builder("adherence.missed.lag", this, MissedDoseSweeper::lagSeconds)
+                .description("Seconds between the sweep horizon (now minus grace) and the last swept bucket")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${adherence.missed.sweep-ms:300000}")
+    public void sweepDue() {
+        if (!enabled || !lock.tryLock()) {
+            return;
+        }
+        try {
+            LocalDateTime horizon = horizon();
+            if (watermark == null) {
+                watermark = floor(horizon.minus(catchUp));
+            }
+            if (watermark.isBefore(horizon)) {
+                int inferred = sweep(watermark, horizon);
+                watermark = horizon;
+                if (inferred > 0) {
+                    logger.info("Inferred {} missed doses up to {}", inferred, horizon);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sweeps the expected doses scheduled in {@code [from, to)} bucket by bucket and returns the
+     * number of MISSED records written. Doses that already have a record are left alone, so a
+     * range can be swept more than once. The range ends at the grace horizon at the latest.
+     */
+    public int sweep(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime until = min(to, horizon());
+        int inferred = 0;
+        LocalDateTime start = from;
+        while (start.isBefore(until)) {
+            LocalDateTime end = min(min(floor(start).plus(bucket), start.toLocalDate().plusDays(1).atStartOfDay()), until);
+            LocalDateTime bucketStart = start;
+            inferred += bucketTimer.record(() -> sweepBucket(bucketStart, end));
+            start = end;
+        }
+        return inferred;
+    }
+
+    private int sweepBucket(LocalDateTime start, LocalDateTime end) {
+        LocalDate day = start.toLocalDate();
+        Set<Long> recorded = new HashSet<>();
+        jdbcTemplate.query(RECORDED_SQL, rs -> {
+            recorded.add(slotKey(rs.getLong(1), rs.getObject(2, LocalDateTime.class)));
+        }, Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+        // Buckets never span midnight, so the last schedulable time is the minute before the end
+        LocalTime last = end.toLocalDate().isAfter(day) ? LocalTime.MAX : end.toLocalTime().minusNanos(1);
+        List<MissedDose> pending = new ArrayList<>(INSERT_BATCH_SIZE);
+        int[] inferred = {0};
+        readTransaction.executeWithoutResult(status -> cursorTemplate.query(EXPECTED_SQL, rs -> {
+            expectedCounter.increment();
+            long prescriptionId = rs.getLong(1);
+            LocalDateTime scheduled = day.atTime(rs.getObject(3, LocalTime.class)).truncatedTo(ChronoUnit.MINUTES);
+            if (recorded.contains(slotKey(prescriptionId, scheduled))) {
+                return;
+            }
+            pending.add(new MissedDose(prescriptionId, rs.getString(2), scheduled, rs.getBigDecimal(4), rs.getString(5)));
+            if (pending.size() == INSERT_BATCH_SIZE) {
+                inferred[0] += write(pending);
+                pending.clear();
+            }
+        }, start.toLocalTime(), last, day.getDayOfWeek().name(), Timestamp.valueOf(start),
+                day, day));
+        inferred[0] += write(pending);
+        return inferred[0];
+    }
+
+    private int write(List<MissedDose> doses) {
+        if (doses.isEmpty()) {
+            return 0;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            Map<Long, List<AdherenceSample>> samplesByPrescription = new TreeMap<>();
+            Map<Long, String> patientIds = new HashMap<>();
+            for (int i = 0; i < doses.size(); i++) {
+                MissedDose dose = doses.get(i);
+                AdherenceRecord record = new AdherenceRecord();
+                record.setPrescription(entityManager.getReference(Prescription.class, dose.prescriptionId()));
+                record.setPatient(entityManager.getReference(Patient.class, dose.patientId()));
+                record.setScheduledTime(dose.scheduledTime());
+                record.setStatus(AdherenceStatus.MISSED);
+                record.setSource(RecordSource.INFERRED);
+                record.setDoseTaken(dose.dose());
+                record.setDoseUnit(dose.doseUnit());
+                entityManager.persist(record);
+
+                samplesByPrescription.computeIfAbsent(dose.prescriptionId(), id -> new ArrayList<>())
+                        .add(new AdherenceSample(dose.scheduledTime(), AdherenceStatus.MISSED));
+                patientIds.put(dose.prescriptionId(), dose.patientId());
+                if ((i + 1) % AdherenceIngestionService.FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            statisticsService.recordsAdded(samplesByPrescription, patientIds);
+        });
+        inferredCounter.increment(doses.size());
+        return doses.size();
+    }
+
+    private double lagSeconds() {
+        LocalDateTime swept = watermark;
+        if (swept == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(swept, LocalDateTime.now().minus(grace)).toSeconds());
+    }
+
+    private LocalDateTime horizon() {
+        return floor(LocalDateTime.now().minus(grace));
+    }
+
+    private LocalDateTime floor(LocalDateTime time) {
+        long bucketMinutes = bucket.toMinutes();
+        long minute = time.getHour() * 60L + time.getMinute();
+        return time.toLocalDate().atStartOfDay().plusMinutes(minute - minute % bucketMinutes);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // Recorded doses within one day are matched on prescription and minute of the day
+    private static long slotKey(long prescriptionId, LocalDateTime scheduled) {
+        return prescriptionId * MINUTES_PER_DAY + scheduled.getHour() * 60L + scheduled.getMinute();
+    }
+
+    private record MissedDose(long prescriptionId, String patientId, LocalDateTime scheduledTime,
+                              BigDecimal dose, String doseUnit) {
+    }
+}
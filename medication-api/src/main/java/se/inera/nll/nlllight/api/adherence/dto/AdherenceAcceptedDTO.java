@@ -0,0 +1,36 @@
+package se.inera.nll.nlllight.api.adherence.dto;
+
+import java.time.Instant;
+
+public class AdherenceAcceptedDTO {
+    
+    private String eventId;
+    private String status;
+    private Instant acceptedAt;
+    
+    // Getters and Setters
+    
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Instant getAcceptedAt() {
+        return acceptedAt;
+    }
+    
+    public void setAcceptedAt(Instant acceptedAt) {
+        this.acceptedAt = acceptedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package se.inera.nll.nlllight.api.adherence.dto;
+
+import java.util.List;
+
+public class AdherenceBatchResultDTO {
+    
+    private Integer received;
+    private Integer accepted;
+    private Integer rejected;
+    private List<AdherenceEventResultDTO> results;
+    
+    // Getters and Setters
+    
+    public Integer getReceived() {
+        return received;
+    }
+    
+    public void setReceived(Integer received) {
+        this.received = received;
+    }
+    
+    public Integer getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(Integer accepted) {
+        this.accepted = accepted;
+    }
+    
+    public Integer getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(Integer rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<AdherenceEventResultDTO> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<AdherenceEventResultDTO> results) {
+        this.results = results;
+    }
+}
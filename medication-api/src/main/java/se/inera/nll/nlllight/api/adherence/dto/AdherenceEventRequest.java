@@ -0,0 +1,103 @@
+package se.inera.nll.nlllight.api.adherence.dto;
+
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.RecordSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class AdherenceEventRequest {
+    
+    private Long prescriptionId;
+    private String patientId;
+    private AdherenceStatus status;
+    private LocalDateTime scheduledTime;
+    private LocalDateTime actualTime;
+    private RecordSource source;
+    private String deviceId;
+    private BigDecimal doseTaken;
+    private String doseUnit;
+    private String notes;
+    
+    // Getters and Setters
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public AdherenceStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(AdherenceStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+    
+    public void setScheduledTime(LocalDateTime scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+    
+    public LocalDateTime getActualTime() {
+        return actualTime;
+    }
+    
+    public void setActualTime(LocalDateTime actualTime) {
+        this.actualTime = actualTime;
+    }
+    
+    public RecordSource getSource() {
+        return source;
+    }
+    
+    public void setSource(RecordSource source) {
+        this.source = source;
+    }
+    
+    public String getDeviceId() {
+        return deviceId;
+    }
+    
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+    
+    public BigDecimal getDoseTaken() {
+        return doseTaken;
+    }
+    
+    public void setDoseTaken(BigDecimal doseTaken) {
+        this.doseTaken = doseTaken;
+    }
+    
+    public String getDoseUnit() {
+        return doseUnit;
+    }
+    
+    public void setDoseUnit(String doseUnit) {
+        this.doseUnit = doseUnit;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,43 @@
+package se.inera.nll.nlllight.api.adherence.dto;
+
+public class AdherenceEventResultDTO {
+    
+    private Integer index;
+    private Long recordId;
+    private Boolean accepted;
+    private String error;
+    
+    // Getters and Setters
+    
+    public Integer getIndex() {
+        return index;
+    }
+    
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+    
+    public Long getRecordId() {
+        return recordId;
+    }
+    
+    public void setRecordId(Long recordId) {
+        this.recordId = recordId;
+    }
+    
+    public Boolean getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(Boolean accepted) {
+        this.accepted = accepted;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,128 @@
+package se.inera.nll.nlllight.api.adherence.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class AdherenceStatisticsDTO {
+    
+    private Long prescriptionId;
+    private String patientId;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private Integer totalScheduled;
+    private Integer totalTaken;
+    private Integer totalMissed;
+    private Integer totalSkipped;
+    private BigDecimal adherenceRate;
+    private Integer currentStreakDays;
+    private Integer longestStreakDays;
+    private LocalDate lastAdherentDate;
+    private LocalDateTime lastCalculatedAt;
+    
+    // Getters and Setters
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+    
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+    
+    public void setPeriodEnd(LocalDate periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+    
+    public Integer getTotalScheduled() {
+        return totalScheduled;
+    }
+    
+    public void setTotalScheduled(Integer totalScheduled) {
+        this.totalScheduled = totalScheduled;
+    }
+    
+    public Integer getTotalTaken() {
+        return totalTaken;
+    }
+    
+    public void setTotalTaken(Integer totalTaken) {
+        this.totalTaken = totalTaken;
+    }
+    
+    public Integer getTotalMissed() {
+        return totalMissed;
+    }
+    
+    public void setTotalMissed(Integer totalMissed) {
+        this.totalMissed = totalMissed;
+    }
+    
+    public Integer getTotalSkipped() {
+        return totalSkipped;
+    }
+    
+    public void setTotalSkipped(Integer totalSkipped) {
+        this.totalSkipped = totalSkipped;
+    }
+    
+    public BigDecimal getAdherenceRate() {
+        return adherenceRate;
+    }
+    
+    public void setAdherenceRate(BigDecimal adherenceRate) {
+        this.adherenceRate = adherenceRate;
+    }
+    
+    public Integer getCurrentStreakDays() {
+        return currentStreakDays;
+    }
+    
+    public void setCurrentStreakDays(Integer currentStreakDays) {
+        this.currentStreakDays = currentStreakDays;
+    }
+    
+    public Integer getLongestStreakDays() {
+        return longestStreakDays;
+    }
+    
+    public void setLongestStreakDays(Integer longestStreakDays) {
+        this.longestStreakDays = longestStreakDays;
+    }
+    
+    public LocalDate getLastAdherentDate() {
+        return lastAdherentDate;
+    }
+    
+    public void setLastAdherentDate(LocalDate lastAdherentDate) {
+        this.lastAdherentDate = lastAdherentDate;
+    }
+    
+    public LocalDateTime getLastCalculatedAt() {
+        return lastCalculatedAt;
+    }
+    
+    public void setLastCalculatedAt(LocalDateTime lastCalculatedAt) {
+        this.lastCalculatedAt = lastCalculatedAt;
+    }
+}
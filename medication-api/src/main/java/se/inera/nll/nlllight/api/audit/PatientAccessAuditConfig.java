@@ -0,0 +1,26 @@
+package se.inera.nll.nlllight.api.audit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Audits every API request; only requests that touched patient data produce entries.
+ */
+@Configuration
+@ConditionalOnProperty(name = "audit.access.enabled", havingValue = "true")
+public class PatientAccessAuditConfig implements WebMvcConfigurer {
+
+    private final PatientAccessAuditQueue queue;
+
+    public PatientAccessAuditConfig(PatientAccessAuditQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PatientAccessAuditInterceptor(queue))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,92 @@
+package se.inera.nll.nlllight.api.audit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes an access log entry per patient that a successful request touched, as collected in
+ * {@link PatientAccessContext}: who (the authenticated user, else the caller id header), with which
+ * role, for what purpose ({@code X-Access-Purpose}) and how. Failed requests are not logged; they
+ * returned no patient data.
+ * <p>
+ * Runs after completion, so auditing adds nothing to response time beyond a queue offer. For
+ * asynchronous responses this is after the async dispatch, once the body has been streamed.
+ */
+public class PatientAccessAuditInterceptor implements HandlerInterceptor {
+
+    static final String PURPOSE_HEADER = "X-Access-Purpose";
+
+    private static final int ACCESSED_BY_LENGTH = 255;
+    private static final int ROLE_LENGTH = 50;
+    private static final int PURPOSE_LENGTH = 100;
+    private static final int IP_ADDRESS_LENGTH = 45;
+    private static final int USER_AGENT_LENGTH = 500;
+
+    private record CallerHeader(String name, String role) {
+    }
+
+    // Until authentication is in place, callers identify themselves like the controllers expect
+    private static final List<CallerHeader> CALLER_HEADERS = List.of(
+            new CallerHeader("X-Prescriber-Id", "PRESCRIBER"),
+            new CallerHeader("X-Pharmacist-Id", "PHARMACIST"),
+            new CallerHeader("X-Patient-Id", "PATIENT"));
+
+    private final PatientAccessAuditQueue queue;
+
+    public PatientAccessAuditInterceptor(PatientAccessAuditQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Set<String> subjects = PatientAccessContext.subjects(request);
+        if (subjects.isEmpty() || ex != null || response.getStatus() >= 400) {
+            return;
+        }
+
+        String accessedBy = "anonymous";
+        String role = "ANONYMOUS";
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            accessedBy = authentication.getName();
+            role = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .map(authority -> authority.startsWith("ROLE_") ? authority.substring(5) : authority)
+                    .findFirst()
+                    .orElse("USER");
+        } else {
+            for (CallerHeader header : CALLER_HEADERS) {
+                String caller = request.getHeader(header.name());
+                if (caller != null && !caller.isBlank()) {
+                    accessedBy = caller;
+                    role = header.role();
+                    break;
+                }
+            }
+        }
+
+        String purpose = truncate(request.getHeader(PURPOSE_HEADER), PURPOSE_LENGTH);
+        String ipAddress = truncate(request.getRemoteAddr(), IP_ADDRESS_LENGTH);
+        String userAgent = truncate(request.getHeader("User-Agent"), USER_AGENT_LENGTH);
+        LocalDateTime now = LocalDateTime.now();
+        for (String patientId : subjects) {
+            queue.submit(new PatientAccessEvent(patientId, truncate(accessedBy, ACCESSED_BY_LENGTH),
+                    truncate(role, ROLE_LENGTH), purpose, PatientAccessContext.accessType(request),
+                    ipAddress, userAgent, now));
+        }
+    }
+
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+}
@@ -0,0 +1,262 @@
+package se.inera.nll.nlllight.api.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import se.inera.nll.nlllight.api.common.AppendOnlyJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers access events between request threads and {@code patient_access_log}, enabled with
+ * {@code audit.access.enabled=true}. Requests hand events to a lock-free queue and return; a
+ * single writer thread drains it in JDBC batches through {@link PatientAccessLogWriter}.
+ * <p>
+ * The queue is bounded by a counter reserved before each offer. When it is full the event is
+ * dropped, counted and written to the application log instead, so a slow or unavailable database
+ * never holds up a request. {@link Durability} decides what survives a crash.
+ */
+@Service
+@ConditionalOnProperty(name = "audit.access.enabled", havingValue = "true")
+public class PatientAccessAuditQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientAccessAuditQueue.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+    private static final long SHUTDOWN_MILLIS = 10_000;
+
+    public enum Durability {
+        /** Queued events are lost if the process dies before they are written. */
+        MEMORY,
+        /**
+         * Events are journaled to local disk before they are queued and replayed after a restart.
+         * Appends take the journal's lock; {@code audit.access.journal-fsync} adds a device flush.
+         */
+        JOURNAL
+    }
+
+    private record Pending(long sequence, PatientAccessEvent event) {
+    }
+
+    private final PatientAccessLogWriter writer;
+    private final ObjectMapper objectMapper;
+    private final AppendOnlyJournal journal;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final int batchSize;
+    private final long flushMillis;
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter written;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile Thread drainer;
+
+    public PatientAccessAuditQueue(PatientAccessLogWriter writer,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${audit.access.durability:MEMORY}") Durability durability,
+                                   @Value("${audit.access.capacity:100000}") int capacity,
+                                   @Value("${audit.access.batch-size:500}") int batchSize,
+                                   @Value("${audit.access.flush-ms:200}") long flushMillis,
+                                   @Value("${audit.access.journal-dir:${java.io.tmpdir}/nll-access-audit}") String journalDir,
+                                   @Value("${audit.access.journal-fsync:false}") boolean fsync) throws IOException {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.journal = durability == Durability.JOURNAL
+                ? new AppendOnlyJournal(Path.of(journalDir), "access-audit", fsync)
+                : null;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+
+        this.accepted = Counter.builder("audit.access.events")
+                .tag("result", "accepted")
+                .description("Patient access events queued for the access log")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.access.events")
+                .tag("result", "dropped")
+                .description("Patient access events dropped because the queue was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.access.events")
+                .tag("result", "written")
+                .description("Patient access events inserted into patient_access_log")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.access.flush")
+                .description("Time spent inserting one batch of access events")
+                .register(meterRegistry);
+        Gauge.builder("audit.access.queue.depth", size, AtomicInteger::get)
+                .description("Access events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event without waiting for the database.
+     *
+     * @return false if the queue was full and the event went to the application log instead
+     */
+    public boolean submit(PatientAccessEvent event) {
+        // Reserve a place first, so a full queue costs neither a journal write nor an allocation
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            logger.warn("Access audit queue full, not written to patient_access_log: {}", event);
+            return false;
+        }
+        if (journal == null) {
+            queue.offer(new Pending(0, event));
+        } else {
+            // Journal order must match queue order, or acknowledging a batch could skip an entry
+            appendLock.lock();
+            try {
+                queue.offer(new Pending(journal.append(objectMapper.writeValueAsString(event)), event));
+            } catch (IOException e) {
+                size.decrementAndGet();
+                dropped.increment();
+                logger.error("Could not journal access event, not written to patient_access_log: {}", event, e);
+                return false;
+            } finally {
+                appendLock.unlock();
+            }
+        }
+        accepted.increment();
+        if (size.get() >= batchSize) {
+            // A full batch is waiting; don't let it sit out the flush interval
+            Thread thread = drainer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    public int depth() {
+        return size.get();
+    }
+
+    @PostConstruct
+    public void start() {
+        List<Pending> recovered = new ArrayList<>();
+        if (journal != null) {
+            for (AppendOnlyJournal.Entry entry : journal.unacknowledged()) {
+                try {
+                    recovered.add(new Pending(entry.sequence(), objectMapper.readValue(entry.payload(), PatientAccessEvent.class)));
+                } catch (JsonProcessingException e) {
+                    logger.error("Skipping unreadable access audit journal entry {}", entry.sequence(), e);
+                }
+            }
+            if (!recovered.isEmpty()) {
+                logger.info("Replaying {} unacknowledged access events from the journal", recovered.size());
+            }
+        }
+
+        running = true;
+        Thread thread = new Thread(() -> drain(recovered), "access-audit-writer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(SHUTDOWN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.warn("Access audit writer did not finish within {} ms, {} events not written{}",
+                        SHUTDOWN_MILLIS, size.get(), journal != null ? " (kept in the journal)" : "");
+                thread.interrupt();
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void drain(List<Pending> recovered) {
+        try {
+            for (int from = 0; from < recovered.size(); from += batchSize) {
+                write(recovered.subList(from, Math.min(recovered.size(), from + batchSize)));
+            }
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                Pending next;
+                while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushMillis));
+                    continue;
+                }
+                // Taken off the queue: room for new events while this batch is written
+                size.addAndGet(-batch.size());
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Pending> batch) throws InterruptedException {
+        List<PatientAccessEvent> events = batch.stream().map(Pending::event).toList();
+        long backoff = flushMillis;
+        while (true) {
+            try {
+                long start = System.nanoTime();
+                int inserted = writer.insert(events);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                written.increment(inserted);
+                if (inserted < events.size()) {
+                    logger.debug("Skipped {} access events for unknown patients", events.size() - inserted);
+                }
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    throw new InterruptedException("Shutting down with an unwritten access audit batch");
+                }
+                logger.warn("Writing {} access events failed, retrying in {} ms", batch.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+
+        if (journal != null) {
+            try {
+                journal.acknowledge(batch.get(batch.size() - 1).sequence());
+            } catch (IOException e) {
+                // The batch is committed; a stale checkpoint only means it is written again after a restart
+                logger.error("Could not checkpoint the access audit journal", e);
+            }
+        }
+    }
+}
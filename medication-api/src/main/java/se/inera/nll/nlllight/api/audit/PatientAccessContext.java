@@ -0,0 +1,83 @@
+package se.inera.nll.nlllight.api.audit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import se.inera.nll.nlllight.api.common.AccessType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the patients whose data the current request touched. Services call
+ * {@link #accessed(String)} where patient data is read or written; the
+ * {@link PatientAccessAuditInterceptor} turns the collected ids into access log entries once the
+ * request has completed successfully. Outside a web request (scheduled jobs, listeners) the calls
+ * are no-ops.
+ */
+public final class PatientAccessContext {
+
+    static final String SUBJECTS = PatientAccessContext.class.getName() + ".subjects";
+    static final String ACCESS_TYPE = PatientAccessContext.class.getName() + ".accessType";
+
+    private PatientAccessContext() {
+    }
+
+    public static void accessed(String patientId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null || patientId == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> subjects = (Set<String>) request.getAttribute(SUBJECTS, RequestAttributes.SCOPE_REQUEST);
+        if (subjects == null) {
+            subjects = new LinkedHashSet<>();
+            request.setAttribute(SUBJECTS, subjects, RequestAttributes.SCOPE_REQUEST);
+        }
+        subjects.add(patientId);
+    }
+
+    /**
+     * Overrides the access type otherwise derived from the HTTP method, e.g. {@code EXPORT} for a
+     * bulk download.
+     */
+    public static void accessType(AccessType type) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(ACCESS_TYPE, type, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Attributes of the current request for a thread that keeps serving it after the handler has
+     * returned, such as a {@code StreamingResponseBody}: bind them there with
+     * {@link RequestContextHolder#setRequestAttributes} so patient reads are still attributed to
+     * the request. Returns null outside a servlet request.
+     */
+    public static RequestAttributes forAsyncResponse() {
+        // The handler's own attributes are marked completed when it returns; a fresh wrapper is not
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? new ServletRequestAttributes(attributes.getRequest())
+                : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Set<String> subjects(HttpServletRequest request) {
+        Object subjects = request.getAttribute(SUBJECTS);
+        return subjects != null ? (Set<String>) subjects : Set.of();
+    }
+
+    static AccessType accessType(HttpServletRequest request) {
+        Object type = request.getAttribute(ACCESS_TYPE);
+        if (type != null) {
+            return (AccessType) type;
+        }
+        return switch (request.getMethod()) {
+            case "POST" -> AccessType.CREATE;
+            case "PUT", "PATCH" -> AccessType.UPDATE;
+            case "DELETE" -> AccessType.DELETE;
+            default -> AccessType.VIEW;
+        };
+    }
+}
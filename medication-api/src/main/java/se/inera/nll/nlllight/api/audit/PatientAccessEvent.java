@@ -0,0 +1,18 @@
+package se.inera.nll.nlllight.api.audit;
+
+import se.inera.nll.nlllight.api.common.AccessType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row for {@code patient_access_log}, as captured by the {@link PatientAccessAuditInterceptor}.
+ */
+public record PatientAccessEvent(String patientId,
+                                 String accessedBy,
+                                 String accessRole,
+                                 String accessPurpose,
+                                 AccessType accessType,
+                                 String ipAddress,
+                                 String userAgent,
+                                 LocalDateTime accessedAt) {
+}
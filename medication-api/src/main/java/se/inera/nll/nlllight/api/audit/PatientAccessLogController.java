@@ -0,0 +1,43 @@
+package se.inera.nll.nlllight.api.audit;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import se.inera.nll.nlllight.api.audit.dto.PatientAccessLogDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/audit")
+@Tag(name = "Audit", description = "GDPR access log of patient data")
+public class PatientAccessLogController {
+    
+    private final PatientAccessLogService accessLogService;
+    
+    public PatientAccessLogController(PatientAccessLogService accessLogService) {
+        this.accessLogService = accessLogService;
+    }
+    
+    @GetMapping("/patients/{patientId}/access-log")
+    @Operation(summary = "Get a patient's access log",
+               description = "Returns who accessed the patient's data between from and to (default the last 30 days), "
+                       + "newest first, at most limit entries (default 500)")
+    public ResponseEntity<List<PatientAccessLogDTO>> getAccessLog(
+            @PathVariable String patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        
+        if (to == null) {
+            to = LocalDateTime.now();
+        }
+        if (from == null) {
+            from = to.minusDays(30);
+        }
+        
+        return ResponseEntity.ok(accessLogService.getAccessLog(patientId, from, to, limit));
+    }
+}
@@ -0,0 +1,85 @@
+package se.inera.nll.nlllight.api.audit;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import se.inera.nll.nlllight.api.common.AccessType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One access to a patient's data (GDPR access log). Rows are inserted in JDBC batches by
+ * {@link PatientAccessAuditQueue} and only read through JPA, so the entity is {@link Immutable}
+ * and has no setters.
+ */
+@Entity
+@Immutable
+@Table(name = "patient_access_log")
+public class PatientAccessLogEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "patient_id", nullable = false, length = 64)
+    private String patientId;
+    
+    @Column(name = "accessed_by", nullable = false)
+    private String accessedBy;
+    
+    @Column(name = "access_role", nullable = false, length = 50)
+    private String accessRole;
+    
+    @Column(name = "access_purpose", length = 100)
+    private String accessPurpose;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_type", nullable = false, length = 50)
+    private AccessType accessType;
+    
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+    
+    @Column(name = "user_agent", columnDefinition = "TEXT")
+    private String userAgent;
+    
+    @Column(name = "accessed_at", nullable = false)
+    private LocalDateTime accessedAt;
+    
+    // Getters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public String getAccessedBy() {
+        return accessedBy;
+    }
+    
+    public String getAccessRole() {
+        return accessRole;
+    }
+    
+    public String getAccessPurpose() {
+        return accessPurpose;
+    }
+    
+    public AccessType getAccessType() {
+        return accessType;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+    
+    public LocalDateTime getAccessedAt() {
+        return accessedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package se.inera.nll.nlllight.api.audit;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read side of the access log; rows are only inserted by {@link PatientAccessAuditQueue}.
+ */
+public interface PatientAccessLogRepository extends Repository<PatientAccessLogEntry, Long> {
+    
+    // idx_access_log_patient, with accessed_at (idx_access_log_timestamp) bounding the range;
+    // half-open window so consecutive ranges never return a row twice
+    @Query("SELECT e FROM PatientAccessLogEntry e WHERE e.patientId = :patientId " +
+           "AND e.accessedAt >= :from AND e.accessedAt < :to " +
+           "ORDER BY e.accessedAt DESC, e.id DESC")
+    List<PatientAccessLogEntry> findByPatientIdInRange(@Param("patientId") String patientId,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to,
+                                                       Limit limit);
+}
@@ -0,0 +1,65 @@
+package se.inera.nll.nlllight.api.audit;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.audit.dto.PatientAccessLogDTO;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a patient's access log. Entries reach the table asynchronously, so the newest accesses
+ * may show up a flush interval late.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PatientAccessLogService {
+    
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+    
+    private final PatientAccessLogRepository accessLogRepository;
+    private final PatientRepository patientRepository;
+    
+    public PatientAccessLogService(PatientAccessLogRepository accessLogRepository, PatientRepository patientRepository) {
+        this.accessLogRepository = accessLogRepository;
+        this.patientRepository = patientRepository;
+    }
+    
+    /**
+     * Accesses in {@code [from, to)}, newest first.
+     */
+    public List<PatientAccessLogDTO> getAccessLog(String patientId, LocalDateTime from, LocalDateTime to, Integer limit) {
+        int maxRows = limit != null ? limit : DEFAULT_LIMIT;
+        if (maxRows < 1 || maxRows > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (!patientRepository.existsById(patientId)) {
+            throw new RuntimeException("Patient not found: " + patientId);
+        }
+        
+        return accessLogRepository.findByPatientIdInRange(patientId, from, to, Limit.of(maxRows)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private PatientAccessLogDTO toDTO(PatientAccessLogEntry entry) {
+        PatientAccessLogDTO dto = new PatientAccessLogDTO();
+        dto.setId(entry.getId());
+        dto.setPatientId(entry.getPatientId());
+        dto.setAccessedBy(entry.getAccessedBy());
+        dto.setAccessRole(entry.getAccessRole());
+        dto.setAccessPurpose(entry.getAccessPurpose());
+        dto.setAccessType(entry.getAccessType());
+        dto.setIpAddress(entry.getIpAddress());
+        dto.setUserAgent(entry.getUserAgent());
+        dto.setAccessedAt(entry.getAccessedAt());
+        return dto;
+    }
+}
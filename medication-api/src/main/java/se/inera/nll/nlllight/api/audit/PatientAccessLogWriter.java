@@ -0,0 +1,52 @@
+package se.inera.nll.nlllight.api.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts access events into {@code patient_access_log} as one JDBC batch per call.
+ */
+@Component
+public class PatientAccessLogWriter {
+
+    // Selecting from patients skips events for ids that are not (or no longer) patients, which
+    // would otherwise fail the foreign key and with it the whole batch
+    private static final String INSERT_SQL =
+            "INSERT INTO patient_access_log (patient_id, accessed_by, access_role, access_purpose, access_type, "
+            + "ip_address, user_agent, accessed_at) "
+            + "SELECT p.id, CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(100)), "
+            + "CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(45)), CAST(? AS VARCHAR(500)), CAST(? AS TIMESTAMP) "
+            + "FROM patients p WHERE p.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+
+    public PatientAccessLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return the number of rows inserted; events for unknown patients are left out
+     */
+    public int insert(List<PatientAccessEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (PatientAccessEvent event : events) {
+            rows.add(new Object[] {event.accessedBy(), event.accessRole(), event.accessPurpose(),
+                    event.accessType().name(), event.ipAddress(), event.userAgent(),
+                    Timestamp.valueOf(event.accessedAt()), event.patientId()});
+        }
+        int[] counts = writeTransaction.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+}
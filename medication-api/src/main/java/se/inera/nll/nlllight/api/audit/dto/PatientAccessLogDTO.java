@@ -0,0 +1,92 @@
+package se.inera.nll.nlllight.api.audit.dto;
+
+import se.inera.nll.nlllight.api.common.AccessType;
+
+import java.time.LocalDateTime;
+
+public class PatientAccessLogDTO {
+    
+    private Long id;
+    private String patientId;
+    private String accessedBy;
+    private String accessRole;
+    private String accessPurpose;
+    private AccessType accessType;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime accessedAt;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public String getAccessedBy() {
+        return accessedBy;
+    }
+    
+    public void setAccessedBy(String accessedBy) {
+        this.accessedBy = accessedBy;
+    }
+    
+    public String getAccessRole() {
+        return accessRole;
+    }
+    
+    public void setAccessRole(String accessRole) {
+        this.accessRole = accessRole;
+    }
+    
+    public String getAccessPurpose() {
+        return accessPurpose;
+    }
+    
+    public void setAccessPurpose(String accessPurpose) {
+        this.accessPurpose = accessPurpose;
+    }
+    
+    public AccessType getAccessType() {
+        return accessType;
+    }
+    
+    public void setAccessType(AccessType accessType) {
+        this.accessType = accessType;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+    
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+    
+    public LocalDateTime getAccessedAt() {
+        return accessedAt;
+    }
+    
+    public void setAccessedAt(LocalDateTime accessedAt) {
+        this.accessedAt = accessedAt;
+    }
+}
@@ -0,0 +1,9 @@
+package se.inera.nll.nlllight.api.common;
+
+public enum AccessType {
+    VIEW,
+    UPDATE,
+    CREATE,
+    DELETE,
+    EXPORT
+}
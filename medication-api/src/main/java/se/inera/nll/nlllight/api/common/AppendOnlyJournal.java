@@ -0,0 +1,167 @@
+package se.inera.nll.nlllight.api.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Line-oriented append-only journal on local disk. Each entry is written as
+ * {@code <sequence>\t<payload>\n}; a separate checkpoint file records the highest sequence the
+ * consumer has acknowledged. Entries above the checkpoint are handed back after a restart, so
+ * delivery is at-least-once. When everything is acknowledged the journal file is truncated,
+ * while sequences keep increasing across restarts.
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized}: appends do file I/O and
+ * would otherwise pin virtual request threads to their carrier.
+ */
+public final class AppendOnlyJournal implements Closeable {
+
+    public record Entry(long sequence, String payload) {
+    }
+
+    private final Path checkpointFile;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final List<Entry> recovered;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastSequence;
+    private long acknowledged;
+
+    /**
+     * Opens (or creates) {@code <name>.journal} in the directory. A torn last line left by a
+     * crash mid-write is cut off before new entries are appended.
+     *
+     * @param fsync force every append to the storage device before returning
+     */
+    public AppendOnlyJournal(Path directory, String name, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        Path journalFile = directory.resolve(name + ".journal");
+        this.checkpointFile = directory.resolve(name + ".ack");
+        this.fsync = fsync;
+        this.acknowledged = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim())
+                : 0;
+        this.lastSequence = acknowledged;
+        this.recovered = new ArrayList<>();
+
+        this.channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = recover(Files.readAllBytes(journalFile));
+        channel.truncate(validLength);
+        channel.position(validLength);
+    }
+
+    /**
+     * Appends a single-line payload and returns its sequence number.
+     */
+    public long append(String payload) throws IOException {
+        if (payload.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Journal payloads must not contain line breaks");
+        }
+        lock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            ByteBuffer line = ByteBuffer.wrap((sequence + "\t" + payload + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            lastSequence = sequence;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every entry up to and including {@code sequence} as consumed.
+     */
+    public void acknowledge(long sequence) throws IOException {
+        lock.lock();
+        try {
+            if (sequence <= acknowledged) {
+                return;
+            }
+            Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.writeString(temp, Long.toString(sequence), StandardCharsets.UTF_8);
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            acknowledged = sequence;
+
+            // Checkpoint first: a crash before the truncate only leaves entries recovery skips anyway
+            if (acknowledged == lastSequence) {
+                channel.truncate(0);
+                channel.position(0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entries that were appended but not acknowledged before this journal was opened.
+     */
+    public List<Entry> unacknowledged() {
+        return List.copyOf(recovered);
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long recover(byte[] content) {
+        int start = 0;
+        for (int end = 0; end < content.length; end++) {
+            if (content[end] != '\n') {
+                continue;
+            }
+            Entry entry = parse(new String(content, start, end - start, StandardCharsets.UTF_8));
+            if (entry == null) {
+                break;
+            }
+            if (entry.sequence() > acknowledged) {
+                recovered.add(entry);
+            }
+            lastSequence = Math.max(lastSequence, entry.sequence());
+            start = end + 1;
+        }
+        return start;
+    }
+
+    private static Entry parse(String line) {
+        int tab = line.indexOf('\t');
+        if (tab <= 0) {
+            return null;
+        }
+        try {
+            return new Entry(Long.parseLong(line.substring(0, tab)), line.substring(tab + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
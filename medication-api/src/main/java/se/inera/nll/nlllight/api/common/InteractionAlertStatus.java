@@ -0,0 +1,8 @@
+package se.inera.nll.nlllight.api.common;
+
+public enum InteractionAlertStatus {
+    ACTIVE,
+    ACKNOWLEDGED,
+    OVERRIDDEN,
+    RESOLVED
+}
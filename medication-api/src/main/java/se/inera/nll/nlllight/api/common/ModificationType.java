@@ -0,0 +1,10 @@
+package se.inera.nll.nlllight.api.common;
+
+public enum ModificationType {
+    DOSE_CHANGE,
+    STATUS_CHANGE,
+    REFILL_CHANGE,
+    CANCELLATION,
+    EXTENSION,
+    OTHER
+}
@@ -0,0 +1,9 @@
+package se.inera.nll.nlllight.api.common;
+
+public enum NotificationMethod {
+    EMAIL,
+    SMS,
+    PUSH,
+    APP,
+    NONE
+}
@@ -1,5 +1,9 @@
 package se.inera.nll.nlllight.api.common;
 
+/**
+ * Lifecycle of a refill request: PENDING → APPROVED → (PROCESSING →) READY → PICKED_UP, with
+ * DENIED and CANCELLED as the ways out.
+ */
 public enum RefillRequestStatus {
     PENDING,
     APPROVED,
@@ -7,5 +11,29 @@ public enum RefillRequestStatus {
     PROCESSING,
     READY,
     PICKED_UP,
-    CANCELLED
+    CANCELLED;
+    
+    /**
+     * Whether a request in this status waits for pharmacy work, i.e. sits in the pharmacy's queue.
+     */
+    public boolean isQueued() {
+        return this == PENDING || this == APPROVED || this == PROCESSING;
+    }
+    
+    /**
+     * Whether a request in this status still leads to a pickup. A prescription has at most one open request.
+     */
+    public boolean isOpen() {
+        return isQueued() || this == READY;
+    }
+    
+    public boolean canTransitionTo(RefillRequestStatus next) {
+        return switch (this) {
+            case PENDING -> next == APPROVED || next == DENIED || next == CANCELLED;
+            case APPROVED -> next == PROCESSING || next == READY || next == CANCELLED;
+            case PROCESSING -> next == READY || next == CANCELLED;
+            case READY -> next == PICKED_UP || next == CANCELLED;
+            case DENIED, PICKED_UP, CANCELLED -> false;
+        };
+    }
 }
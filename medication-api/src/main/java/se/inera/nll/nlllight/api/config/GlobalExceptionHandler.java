@@ -2,11 +2,14 @@ package se.inera.nll.nlllight.api.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import se.inera.nll.nlllight.api.adherence.AdherenceQueueFullException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -33,6 +36,9 @@ public class GlobalExceptionHandler {
             // Check if this is a "not found" error (resource lookup)
             if (message.contains("Prescription not found") || 
                 message.contains("Prescriber not found") || 
+                message.contains("Interaction sweep not found") || 
+                message.contains("Refill request not found") || 
+                message.contains("Reminder not found") || 
                 message.contains("Medication not found: ") ||  // With ID means direct lookup
                 message.contains("Patient not found: ")) {     // With ID/userId means direct lookup
                 status = HttpStatus.NOT_FOUND;
@@ -102,6 +108,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
     
+    @ExceptionHandler(AdherenceQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleAdherenceQueueFull(AdherenceQueueFullException ex) {
+        logger.warn("Backpressure: {}", ex.getMessage());
+        
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        error.put("error", "Too Many Requests");
+        error.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+    
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Concurrent modification: {}", ex.getMessage());
+        
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", HttpStatus.CONFLICT.value());
+        error.put("error", "Conflict");
+        error.put("message", "The resource was modified concurrently; reload it and retry");
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
     @ExceptionHandler(SecurityException.class)
     public ResponseEntity<Map<String, Object>> handleSecurityException(SecurityException ex) {
         logger.error("Security exception: {}", ex.getMessage());
@@ -0,0 +1,60 @@
+package se.inera.nll.nlllight.api.dashboard;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import se.inera.nll.nlllight.api.dashboard.dto.PatientDashboardDTO;
+import se.inera.nll.nlllight.api.dashboard.dto.PharmacistDashboardDTO;
+import se.inera.nll.nlllight.api.dashboard.dto.PrescriberDashboardDTO;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@Tag(name = "Dashboard", description = "Composite view models for the web dashboards")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping("/patient")
+    @Operation(summary = "Get patient dashboard",
+               description = "Returns the patient's prescriptions together with their adherence summaries")
+    public ResponseEntity<PatientDashboardDTO> getPatientDashboard(
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+
+        return ResponseEntity.ok(dashboardService.getPatientDashboard(patientId));
+    }
+
+    @GetMapping("/prescriber")
+    @Operation(summary = "Get prescriber dashboard",
+               description = "Returns the medication catalog for the prescriber")
+    public ResponseEntity<PrescriberDashboardDTO> getPrescriberDashboard(
+            @RequestHeader(value = "X-Prescriber-Id", required = false) String prescriberId) {
+
+        if (prescriberId == null) {
+            prescriberId = "prescriber-001"; // Default for testing
+        }
+
+        return ResponseEntity.ok(dashboardService.getPrescriberDashboard(prescriberId));
+    }
+
+    @GetMapping("/pharmacist")
+    @Operation(summary = "Get pharmacist dashboard",
+               description = "Returns the medication catalog for the pharmacist")
+    public ResponseEntity<PharmacistDashboardDTO> getPharmacistDashboard(
+            @RequestHeader(value = "X-Pharmacist-Id", required = false) String pharmacistId) {
+
+        if (pharmacistId == null) {
+            pharmacistId = "pharmacist-001"; // Default for testing
+        }
+
+        return ResponseEntity.ok(dashboardService.getPharmacistDashboard(pharmacistId));
+    }
+}
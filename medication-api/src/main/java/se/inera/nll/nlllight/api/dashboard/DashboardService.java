@@ -0,0 +1,114 @@
+package se.inera.nll.nlllight.api.dashboard;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.adherence.AdherenceStatisticsService;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceStatisticsDTO;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.dashboard.dto.PatientDashboardDTO;
+import se.inera.nll.nlllight.api.dashboard.dto.PharmacistDashboardDTO;
+import se.inera.nll.nlllight.api.dashboard.dto.PrescriberDashboardDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationCatalog;
+import se.inera.nll.nlllight.api.medication.dto.MedicationDTO;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds each web dashboard's view model in one read-only transaction. The caller is resolved
+ * once per page instead of once per API call, and every list comes from a single joined select;
+ * the medication catalog is served from memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DashboardService {
+
+    private final PatientRepository patientRepository;
+    private final PrescriptionService prescriptionService;
+    private final AdherenceStatisticsService statisticsService;
+    private final MedicationCatalog catalog;
+
+    public DashboardService(PatientRepository patientRepository,
+                            PrescriptionService prescriptionService,
+                            AdherenceStatisticsService statisticsService,
+                            MedicationCatalog catalog) {
+        this.patientRepository = patientRepository;
+        this.prescriptionService = prescriptionService;
+        this.statisticsService = statisticsService;
+        this.catalog = catalog;
+    }
+
+    /**
+     * All the patient's prescriptions with medication and prescriber names, plus the adherence
+     * summary of each one that has recorded doses: three selects regardless of the number of
+     * prescriptions.
+     */
+    public PatientDashboardDTO getPatientDashboard(String patientId) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found: " + patientId));
+        // The name and summaries are patient data even when there are no prescriptions to list
+        PatientAccessContext.accessed(patientId);
+
+        List<PrescriptionDTO> prescriptions = prescriptionService.getPatientPrescriptions(patientId, null);
+        Map<Long, AdherenceStatisticsDTO> statistics = statisticsService.getPatientStatistics(patientId);
+        Map<Long, AdherenceStatisticsDTO> adherence = new HashMap<>();
+        for (PrescriptionDTO prescription : prescriptions) {
+            AdherenceStatisticsDTO stats = statistics.get(prescription.getId());
+            if (stats != null) {
+                adherence.put(prescription.getId(), stats);
+            }
+        }
+
+        PatientDashboardDTO dto = new PatientDashboardDTO();
+        dto.setPatientId(patient.getId());
+        dto.setPatientName(patient.getFirstName() + " " + patient.getLastName());
+        dto.setPrescriptions(prescriptions);
+        dto.setAdherence(adherence);
+        return dto;
+    }
+
+    public PrescriberDashboardDTO getPrescriberDashboard(String prescriberId) {
+        PrescriberDashboardDTO dto = new PrescriberDashboardDTO();
+        dto.setPrescriberId(prescriberId);
+        dto.setMedications(getMedications());
+        return dto;
+    }
+
+    public PharmacistDashboardDTO getPharmacistDashboard(String pharmacistId) {
+        PharmacistDashboardDTO dto = new PharmacistDashboardDTO();
+        dto.setPharmacistId(pharmacistId);
+        dto.setMedications(getMedications());
+        return dto;
+    }
+
+    private List<MedicationDTO> getMedications() {
+        return catalog.current().medications().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private MedicationDTO toDTO(Medication medication) {
+        MedicationDTO dto = new MedicationDTO();
+        dto.setId(medication.getId());
+        dto.setName(medication.getName());
+        dto.setDescription(medication.getDescription());
+        dto.setNplId(medication.getNplId());
+        dto.setTradeName(medication.getTradeName());
+        dto.setGenericName(medication.getGenericName());
+        dto.setSubstanceId(medication.getSubstanceId());
+        dto.setForm(medication.getForm());
+        dto.setStrength(medication.getStrength());
+        dto.setRoute(medication.getRoute());
+        dto.setAtcCode(medication.getAtcCode());
+        dto.setIsAvailable(medication.getIsAvailable());
+        dto.setPrice(medication.getPrice());
+        return dto;
+    }
+}
@@ -0,0 +1,49 @@
+package se.inera.nll.nlllight.api.dashboard.dto;
+
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceStatisticsDTO;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+
+import java.util.List;
+import java.util.Map;
+
+public class PatientDashboardDTO {
+    
+    private String patientId;
+    private String patientName;
+    private List<PrescriptionDTO> prescriptions;
+    private Map<Long, AdherenceStatisticsDTO> adherence;
+    
+    // Getters and Setters
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public String getPatientName() {
+        return patientName;
+    }
+    
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+    
+    public List<PrescriptionDTO> getPrescriptions() {
+        return prescriptions;
+    }
+    
+    public void setPrescriptions(List<PrescriptionDTO> prescriptions) {
+        this.prescriptions = prescriptions;
+    }
+    
+    public Map<Long, AdherenceStatisticsDTO> getAdherence() {
+        return adherence;
+    }
+    
+    public void setAdherence(Map<Long, AdherenceStatisticsDTO> adherence) {
+        this.adherence = adherence;
+    }
+}
@@ -0,0 +1,29 @@
+package se.inera.nll.nlllight.api.dashboard.dto;
+
+import se.inera.nll.nlllight.api.medication.dto.MedicationDTO;
+
+import java.util.List;
+
+public class PharmacistDashboardDTO {
+    
+    private String pharmacistId;
+    private List<MedicationDTO> medications;
+    
+    // Getters and Setters
+    
+    public String getPharmacistId() {
+        return pharmacistId;
+    }
+    
+    public void setPharmacistId(String pharmacistId) {
+        this.pharmacistId = pharmacistId;
+    }
+    
+    public List<MedicationDTO> getMedications() {
+        return medications;
+    }
+    
+    public void setMedications(List<MedicationDTO> medications) {
+        this.medications = medications;
+    }
+}
@@ -0,0 +1,29 @@
+package se.inera.nll.nlllight.api.dashboard.dto;
+
+import se.inera.nll.nlllight.api.medication.dto.MedicationDTO;
+
+import java.util.List;
+
+public class PrescriberDashboardDTO {
+    
+    private String prescriberId;
+    private List<MedicationDTO> medications;
+    
+    // Getters and Setters
+    
+    public String getPrescriberId() {
+        return prescriberId;
+    }
+    
+    public void setPrescriberId(String prescriberId) {
+        this.prescriberId = prescriberId;
+    }
+    
+    public List<MedicationDTO> getMedications() {
+        return medications;
+    }
+    
+    public void setMedications(List<MedicationDTO> medications) {
+        this.medications = medications;
+    }
+}
@@ -0,0 +1,201 @@
+package se.inera.nll.nlllight.api.dispense;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One hand-over of medication at a pharmacy. Events are only ever inserted: Hibernate never
+ * issues an UPDATE for an {@link Immutable} entity and the repository exposes no delete, so the
+ * table is the audit history of every dispense.
+ * <p>
+ * References are kept as plain ids so history and volume reads stay on {@code dispense_events}
+ * and its indexes without joining.
+ */
+@Entity
+@Immutable
+@Table(name = "dispense_events")
+public class DispenseEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "pharmacy_id")
+    private Long pharmacyId;
+    
+    @Column(name = "pharmacist_id")
+    private Long pharmacistId;
+    
+    @Column(name = "dispensed_at", nullable = false)
+    private LocalDateTime dispensedAt;
+    
+    @Column(name = "medication_id", nullable = false)
+    private Long medicationId;
+    
+    @Column(name = "quantity_dispensed", nullable = false)
+    private Integer quantityDispensed;
+    
+    @Column(name = "dose_form", length = 50)
+    private String doseForm;
+    
+    @Column(length = 50)
+    private String strength;
+    
+    @Column(name = "lot_number", length = 50)
+    private String lotNumber;
+    
+    @Column(name = "expiration_date")
+    private LocalDate expirationDate;
+    
+    @Column(name = "patient_cost", precision = 10, scale = 2)
+    private BigDecimal patientCost;
+    
+    @Column(name = "counseling_provided")
+    private Boolean counselingProvided = false;
+    
+    @Column(name = "dispense_notes", columnDefinition = "TEXT")
+    private String dispenseNotes;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (dispensedAt == null) {
+            dispensedAt = createdAt;
+        }
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public Long getPharmacistId() {
+        return pharmacistId;
+    }
+    
+    public void setPharmacistId(Long pharmacistId) {
+        this.pharmacistId = pharmacistId;
+    }
+    
+    public LocalDateTime getDispensedAt() {
+        return dispensedAt;
+    }
+    
+    public void setDispensedAt(LocalDateTime dispensedAt) {
+        this.dispensedAt = dispensedAt;
+    }
+    
+    public Long getMedicationId() {
+        return medicationId;
+    }
+    
+    public void setMedicationId(Long medicationId) {
+        this.medicationId = medicationId;
+    }
+    
+    public Integer getQuantityDispensed() {
+        return quantityDispensed;
+    }
+    
+    public void setQuantityDispensed(Integer quantityDispensed) {
+        this.quantityDispensed = quantityDispensed;
+    }
+    
+    public String getDoseForm() {
+        return doseForm;
+    }
+    
+    public void setDoseForm(String doseForm) {
+        this.doseForm = doseForm;
+    }
+    
+    public String getStrength() {
+        return strength;
+    }
+    
+    public void setStrength(String strength) {
+        this.strength = strength;
+    }
+    
+    public String getLotNumber() {
+        return lotNumber;
+    }
+    
+    public void setLotNumber(String lotNumber) {
+        this.lotNumber = lotNumber;
+    }
+    
+    public LocalDate getExpirationDate() {
+        return expirationDate;
+    }
+    
+    public void setExpirationDate(LocalDate expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+    
+    public BigDecimal getPatientCost() {
+        return patientCost;
+    }
+    
+    public void setPatientCost(BigDecimal patientCost) {
+        this.patientCost = patientCost;
+    }
+    
+    public Boolean getCounselingProvided() {
+        return counselingProvided;
+    }
+    
+    public void setCounselingProvided(Boolean counselingProvided) {
+        this.counselingProvided = counselingProvided;
+    }
+    
+    public String getDispenseNotes() {
+        return dispenseNotes;
+    }
+    
+    public void setDispenseNotes(String dispenseNotes) {
+        this.dispenseNotes = dispenseNotes;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public String getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+}
@@ -0,0 +1,28 @@
+package se.inera.nll.nlllight.api.dispense;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Append-only access to the dispense ledger: events can be saved and read, never updated or deleted.
+ */
+public interface DispenseEventRepository extends Repository<DispenseEvent, Long> {
+    
+    DispenseEvent save(DispenseEvent event);
+    
+    // idx_dispense_prescription
+    List<DispenseEvent> findByPrescriptionIdOrderByDispensedAtDescIdDesc(Long prescriptionId);
+    
+    // idx_dispense_pharmacy / idx_dispense_date; half-open window so midnight belongs to one day only
+    @Query("SELECT new se.inera.nll.nlllight.api.dispense.DispenseVolume(" +
+           "COUNT(e), COALESCE(SUM(e.quantityDispensed), 0), COUNT(DISTINCT e.prescriptionId)) " +
+           "FROM DispenseEvent e WHERE e.pharmacyId = :pharmacyId " +
+           "AND e.dispensedAt >= :from AND e.dispensedAt < :to")
+    DispenseVolume summarizePharmacyVolume(@Param("pharmacyId") Long pharmacyId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,115 @@
+package se.inera.nll.nlllight.api.dispense;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.dispense.dto.DispenseEventDTO;
+import se.inera.nll.nlllight.api.dispense.dto.PharmacyDispenseVolumeDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.pharmacist.PharmacistRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * History of every dispense. {@link #append} joins the caller's transaction, so an event is
+ * written exactly when the prescription's dispensed quantity changes.
+ */
+@Service
+@Transactional
+public class DispenseLedger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DispenseLedger.class);
+    
+    private final DispenseEventRepository dispenseEventRepository;
+    private final PharmacistRepository pharmacistRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    
+    public DispenseLedger(DispenseEventRepository dispenseEventRepository,
+                          PharmacistRepository pharmacistRepository,
+                          PrescriptionRepository prescriptionRepository) {
+        this.dispenseEventRepository = dispenseEventRepository;
+        this.pharmacistRepository = pharmacistRepository;
+        this.prescriptionRepository = prescriptionRepository;
+    }
+    
+    public DispenseEvent append(Prescription prescription, DispenseMedicationRequest request,
+                                String pharmacistUserId, LocalDateTime dispensedAt) {
+        Medication medication = prescription.getMedication();
+        
+        DispenseEvent event = new DispenseEvent();
+        event.setPrescriptionId(prescription.getId());
+        event.setMedicationId(medication.getId());
+        event.setDoseForm(medication.getForm());
+        event.setStrength(medication.getStrength());
+        event.setQuantityDispensed(request.getQuantityToDispense());
+        event.setDispensedAt(dispensedAt);
+        event.setLotNumber(request.getLotNumber());
+        event.setExpirationDate(request.getExpirationDate());
+        event.setPatientCost(request.getPatientCost());
+        event.setCounselingProvided(Boolean.TRUE.equals(request.getCounselingProvided()));
+        event.setDispenseNotes(request.getNotes());
+        event.setCreatedBy(pharmacistUserId);
+        
+        // Pharmacists without a registry entry still dispense; the event then only carries created_by
+        pharmacistRepository.findByUserId(pharmacistUserId).ifPresent(pharmacist -> {
+            event.setPharmacistId(pharmacist.getId());
+            event.setPharmacyId(pharmacist.getPharmacyId());
+        });
+        
+        DispenseEvent saved = dispenseEventRepository.save(event);
+        logger.debug("Appended dispense event {} for prescription {}", saved.getId(), prescription.getId());
+        return saved;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DispenseEventDTO> getPrescriptionHistory(Long prescriptionId) {
+        String patientId = prescriptionRepository.findPatientIdById(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        PatientAccessContext.accessed(patientId);
+        return dispenseEventRepository.findByPrescriptionIdOrderByDispensedAtDescIdDesc(prescriptionId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public PharmacyDispenseVolumeDTO getPharmacyDailyVolume(Long pharmacyId, LocalDate date) {
+        DispenseVolume volume = dispenseEventRepository.summarizePharmacyVolume(
+                pharmacyId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        
+        PharmacyDispenseVolumeDTO dto = new PharmacyDispenseVolumeDTO();
+        dto.setPharmacyId(pharmacyId);
+        dto.setDate(date);
+        dto.setDispenseCount(volume.dispenseCount());
+        dto.setQuantityDispensed(volume.quantityDispensed());
+        dto.setPrescriptionCount(volume.prescriptionCount());
+        return dto;
+    }
+    
+    private DispenseEventDTO toDTO(DispenseEvent event) {
+        DispenseEventDTO dto = new DispenseEventDTO();
+        dto.setId(event.getId());
+        dto.setPrescriptionId(event.getPrescriptionId());
+        dto.setPharmacyId(event.getPharmacyId());
+        dto.setPharmacistId(event.getPharmacistId());
+        dto.setDispensedAt(event.getDispensedAt());
+        dto.setMedicationId(event.getMedicationId());
+        dto.setQuantityDispensed(event.getQuantityDispensed());
+        dto.setDoseForm(event.getDoseForm());
+        dto.setStrength(event.getStrength());
+        dto.setLotNumber(event.getLotNumber());
+        dto.setExpirationDate(event.getExpirationDate());
+        dto.setPatientCost(event.getPatientCost());
+        dto.setCounselingProvided(event.getCounselingProvided());
+        dto.setNotes(event.getDispenseNotes());
+        dto.setDispensedBy(event.getCreatedBy());
+        return dto;
+    }
+}
@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.dispense;
+
+/**
+ * Aggregate of the dispense events in one pharmacy and time window.
+ */
+public record DispenseVolume(long dispenseCount, long quantityDispensed, long prescriptionCount) {
+}
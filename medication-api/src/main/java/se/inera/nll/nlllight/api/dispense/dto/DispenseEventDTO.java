@@ -0,0 +1,146 @@
+package se.inera.nll.nlllight.api.dispense.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class DispenseEventDTO {
+    
+    private Long id;
+    private Long prescriptionId;
+    private Long pharmacyId;
+    private Long pharmacistId;
+    private LocalDateTime dispensedAt;
+    private Long medicationId;
+    private Integer quantityDispensed;
+    private String doseForm;
+    private String strength;
+    private String lotNumber;
+    private LocalDate expirationDate;
+    private BigDecimal patientCost;
+    private Boolean counselingProvided;
+    private String notes;
+    private String dispensedBy;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public Long getPharmacistId() {
+        return pharmacistId;
+    }
+    
+    public void setPharmacistId(Long pharmacistId) {
+        this.pharmacistId = pharmacistId;
+    }
+    
+    public LocalDateTime getDispensedAt() {
+        return dispensedAt;
+    }
+    
+    public void setDispensedAt(LocalDateTime dispensedAt) {
+        this.dispensedAt = dispensedAt;
+    }
+    
+    public Long getMedicationId() {
+        return medicationId;
+    }
+    
+    public void setMedicationId(Long medicationId) {
+        this.medicationId = medicationId;
+    }
+    
+    public Integer getQuantityDispensed() {
+        return quantityDispensed;
+    }
+    
+    public void setQuantityDispensed(Integer quantityDispensed) {
+        this.quantityDispensed = quantityDispensed;
+    }
+    
+    public String getDoseForm() {
+        return doseForm;
+    }
+    
+    public void setDoseForm(String doseForm) {
+        this.doseForm = doseForm;
+    }
+    
+    public String getStrength() {
+        return strength;
+    }
+    
+    public void setStrength(String strength) {
+        this.strength = strength;
+    }
+    
+    public String getLotNumber() {
+        return lotNumber;
+    }
+    
+    public void setLotNumber(String lotNumber) {
+        this.lotNumber = lotNumber;
+    }
+    
+    public LocalDate getExpirationDate() {
+        return expirationDate;
+    }
+    
+    public void setExpirationDate(LocalDate expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+    
+    public BigDecimal getPatientCost() {
+        return patientCost;
+    }
+    
+    public void setPatientCost(BigDecimal patientCost) {
+        this.patientCost = patientCost;
+    }
+    
+    public Boolean getCounselingProvided() {
+        return counselingProvided;
+    }
+    
+    public void setCounselingProvided(Boolean counselingProvided) {
+        this.counselingProvided = counselingProvided;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public String getDispensedBy() {
+        return dispensedBy;
+    }
+    
+    public void setDispensedBy(String dispensedBy) {
+        this.dispensedBy = dispensedBy;
+    }
+}
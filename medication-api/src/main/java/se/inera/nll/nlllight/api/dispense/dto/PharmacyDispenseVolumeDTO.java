@@ -0,0 +1,54 @@
+package se.inera.nll.nlllight.api.dispense.dto;
+
+import java.time.LocalDate;
+
+public class PharmacyDispenseVolumeDTO {
+    
+    private Long pharmacyId;
+    private LocalDate date;
+    private Long dispenseCount;
+    private Long quantityDispensed;
+    private Long prescriptionCount;
+    
+    // Getters and Setters
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Long getDispenseCount() {
+        return dispenseCount;
+    }
+    
+    public void setDispenseCount(Long dispenseCount) {
+        this.dispenseCount = dispenseCount;
+    }
+    
+    public Long getQuantityDispensed() {
+        return quantityDispensed;
+    }
+    
+    public void setQuantityDispensed(Long quantityDispensed) {
+        this.quantityDispensed = quantityDispensed;
+    }
+    
+    public Long getPrescriptionCount() {
+        return prescriptionCount;
+    }
+    
+    public void setPrescriptionCount(Long prescriptionCount) {
+        this.prescriptionCount = prescriptionCount;
+    }
+}
@@ -0,0 +1,33 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A dosing schedule row reduced to what slot expansion needs: minute of the day, the weekdays it
+ * applies to (bit 0 = Monday) and the prescription's first and last day as epoch days.
+ */
+public record DoseRule(long prescriptionId, int minuteOfDay, int dayMask, int firstDay, int lastDay) {
+    
+    static final int EVERY_DAY = 0x7F;
+    
+    /**
+     * Projection constructor for {@link DosingScheduleRepository#findActiveRulesByPatientId}.
+     */
+    public DoseRule(Long prescriptionId, LocalTime timeOfDay, String dayOfWeek, LocalDate startDate, LocalDate endDate) {
+        this(prescriptionId,
+             timeOfDay.getHour() * 60 + timeOfDay.getMinute(),
+             dayOfWeek == null || DosingSchedule.DAILY.equals(dayOfWeek)
+                     ? EVERY_DAY
+                     : 1 << (DayOfWeek.valueOf(dayOfWeek).getValue() - 1),
+             startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE,
+             endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE);
+    }
+    
+    boolean appliesOn(int epochDay) {
+        // 1970-01-01 was a Thursday, bit 3
+        return epochDay >= firstDay && epochDay <= lastDay
+                && (dayMask & (1 << Math.floorMod(epochDay + 3, 7))) != 0;
+    }
+}
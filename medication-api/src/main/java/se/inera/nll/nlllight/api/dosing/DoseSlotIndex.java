@@ -0,0 +1,135 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.dosing.dto.ExpectedDoseDTO;
+import se.inera.nll.nlllight.api.prescription.PrescriptionChangedEvent;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expected doses per patient, expanded from {@code dosing_schedule} over a rolling window of
+ * {@code dosing.slots.lookback-days} before today to {@code dosing.slots.window-days} after.
+ * <p>
+ * A patient's slots are expanded the first time they are needed and kept as a
+ * {@link PatientDoseSlots}. When the day changes the window is rolled on the next access,
+ * expanding only the new days from the rules it already holds. Committed prescription or schedule
+ * changes drop the patient's slots, so the next access reloads them.
+ */
+@Service
+public class DoseSlotIndex {
+    
+    private final DosingScheduleRepository dosingScheduleRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final int windowDays;
+    private final int lookbackDays;
+    private final long matchToleranceMinutes;
+    private final Map<String, PatientDoseSlots> byPatient = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a load that raced one is not cached
+    private final AtomicLong evictions = new AtomicLong();
+    
+    public DoseSlotIndex(DosingScheduleRepository dosingScheduleRepository,
+                         PrescriptionRepository prescriptionRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${dosing.slots.window-days:7}") int windowDays,
+                         @Value("${dosing.slots.lookback-days:2}") int lookbackDays,
+                         @Value("${dosing.slots.match-tolerance:PT4H}") Duration matchTolerance) {
+        this.dosingScheduleRepository = dosingScheduleRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.windowDays = windowDays;
+        this.lookbackDays = lookbackDays;
+        this.matchToleranceMinutes = matchTolerance.toMinutes();
+        
+        Gauge.builder("dosing.slots.patients", byPatient, Map::size)
+                .description("Patients with materialized expected-dose slots")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * The scheduled time of the prescription's expected dose nearest to {@code at}, if one lies
+     * within {@code dosing.slots.match-tolerance}.
+     */
+    public Optional<LocalDateTime> nearestSlot(String patientId, long prescriptionId, LocalDateTime at) {
+        int minute = PatientDoseSlots.toMinute(at);
+        int slot = slots(patientId).nearest(prescriptionId, minute);
+        if (slot == PatientDoseSlots.NONE || Math.abs((long) slot - minute) > matchToleranceMinutes) {
+            return Optional.empty();
+        }
+        return Optional.of(PatientDoseSlots.toDateTime(slot));
+    }
+    
+    /**
+     * The patient's expected doses in {@code [from, to)}, limited to the materialized window.
+     */
+    public List<ExpectedDoseDTO> getExpectedDoses(String patientId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("The end of the range must be after its start");
+        }
+        PatientAccessContext.accessed(patientId);
+        List<ExpectedDoseDTO> doses = new ArrayList<>();
+        slots(patientId).forEachBetween(PatientDoseSlots.toMinute(from), PatientDoseSlots.toMinute(to), (prescriptionId, minute) -> {
+            ExpectedDoseDTO dose = new ExpectedDoseDTO();
+            dose.setPrescriptionId(prescriptionId);
+            dose.setScheduledTime(PatientDoseSlots.toDateTime(minute));
+            doses.add(dose);
+        });
+        doses.sort(Comparator.comparing(ExpectedDoseDTO::getScheduledTime).thenComparing(ExpectedDoseDTO::getPrescriptionId));
+        return doses;
+    }
+    
+    PatientDoseSlots slots(String patientId) {
+        int today = (int) LocalDate.now().toEpochDay();
+        int fromDay = today - lookbackDays;
+        int toDay = today + windowDays;
+        
+        PatientDoseSlots current = byPatient.get(patientId);
+        if (current != null && current.fromDay() == fromDay && current.toDay() == toDay) {
+            return current;
+        }
+        if (current != null) {
+            PatientDoseSlots rolled = current.roll(fromDay, toDay);
+            byPatient.replace(patientId, current, rolled);
+            return rolled;
+        }
+        
+        long seen = evictions.get();
+        PatientDoseSlots loaded = PatientDoseSlots.build(
+                dosingScheduleRepository.findActiveRulesByPatientId(patientId), fromDay, toDay);
+        if (evictions.get() == seen) {
+            byPatient.putIfAbsent(patientId, loaded);
+        }
+        return loaded;
+    }
+    
+    void evict(String patientId) {
+        evictions.incrementAndGet();
+        byPatient.remove(patientId);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrescriptionChanged(PrescriptionChangedEvent change) {
+        evict(change.patientId());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDosingScheduleChanged(DosingScheduleChangedEvent change) {
+        for (Object[] owner : prescriptionRepository.findOwnershipByIds(List.of(change.prescriptionId()))) {
+            evict((String) owner[1]);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * One expected intake of a prescription: a time of day, on every day ({@code DAILY} or null) or
+ * on one weekday. A prescription taken three times a day has three rows, numbered by ordinal.
+ */
+@Entity
+@EntityListeners(DosingScheduleChangeListener.class)
+@Table(name = "dosing_schedule", uniqueConstraints = @UniqueConstraint(columnNames = {"prescription_id", "ordinal"}))
+public class DosingSchedule {
+    
+    public static final String DAILY = "DAILY";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "time_of_day", nullable = false)
+    private LocalTime timeOfDay;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal dose;
+    
+    @Column(name = "dose_unit", length = 20)
+    private String doseUnit;
+    
+    @Column(columnDefinition = "TEXT")
+    private String instructions;
+    
+    private Integer ordinal = 1;
+    
+    @Column(name = "day_of_week", length = 10)
+    private String dayOfWeek;
+    
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public LocalTime getTimeOfDay() {
+        return timeOfDay;
+    }
+    
+    public void setTimeOfDay(LocalTime timeOfDay) {
+        this.timeOfDay = timeOfDay;
+    }
+    
+    public BigDecimal getDose() {
+        return dose;
+    }
+    
+    public void setDose(BigDecimal dose) {
+        this.dose = dose;
+    }
+    
+    public String getDoseUnit() {
+        return doseUnit;
+    }
+    
+    public void setDoseUnit(String doseUnit) {
+        this.doseUnit = doseUnit;
+    }
+    
+    public String getInstructions() {
+        return instructions;
+    }
+    
+    public void setInstructions(String instructions) {
+        this.instructions = instructions;
+    }
+    
+    public Integer getOrdinal() {
+        return ordinal;
+    }
+    
+    public void setOrdinal(Integer ordinal) {
+        this.ordinal = ordinal;
+    }
+    
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+    
+    public void setDayOfWeek(String dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
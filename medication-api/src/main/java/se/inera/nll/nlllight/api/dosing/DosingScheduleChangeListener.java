@@ -0,0 +1,26 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that announces dosing schedule writes as {@link DosingScheduleChangedEvent}s.
+ * Instantiated by Hibernate through Spring, so the publisher is injected.
+ */
+public class DosingScheduleChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public DosingScheduleChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(DosingSchedule schedule) {
+        eventPublisher.publishEvent(new DosingScheduleChangedEvent(schedule.getPrescriptionId()));
+    }
+}
@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.dosing;
+
+/**
+ * Published when a dosing schedule row of the prescription is written or removed.
+ */
+public record DosingScheduleChangedEvent(long prescriptionId) {
+}
@@ -0,0 +1,21 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DosingScheduleRepository extends JpaRepository<DosingSchedule, Long> {
+    
+    List<DosingSchedule> findByPrescriptionIdOrderByOrdinal(Long prescriptionId);
+    
+    // Scheduled intakes of the patient's active, regularly taken prescriptions (PRN ones have no schedule to keep)
+    @Query("SELECT new se.inera.nll.nlllight.api.dosing.DoseRule(s.prescriptionId, s.timeOfDay, s.dayOfWeek, p.startDate, p.endDate) " +
+           "FROM DosingSchedule s JOIN Prescription p ON p.id = s.prescriptionId " +
+           "WHERE p.patient.id = :patientId AND p.status = se.inera.nll.nlllight.api.common.PrescriptionStatus.ACTIVE " +
+           "AND (p.isPRN IS NULL OR p.isPRN = false) AND (s.isActive IS NULL OR s.isActive = true)")
+    List<DoseRule> findActiveRulesByPatientId(@Param("patientId") String patientId);
+}
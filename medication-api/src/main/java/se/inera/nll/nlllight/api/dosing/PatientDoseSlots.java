@@ -0,0 +1,159 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Expected-dose slots of one patient for the days {@code [fromDay, toDay)}.
+ * <p>
+ * Slots are local times stored as epoch minutes in one {@code int[]}, grouped by prescription:
+ * prescription {@code prescriptionIds[i]} (sorted) owns {@code slots[offsets[i]..offsets[i + 1])},
+ * sorted ascending. Five prescriptions taken three times a day cost about a hundred ints a week,
+ * and the nearest slot of a prescription is two binary searches away. Instances are immutable;
+ * {@link #roll} keeps the slots still inside the new window and only expands the days added.
+ */
+final class PatientDoseSlots {
+    
+    static final int NONE = Integer.MIN_VALUE;
+    static final int MINUTES_PER_DAY = 24 * 60;
+    
+    @FunctionalInterface
+    interface SlotConsumer {
+        void accept(long prescriptionId, int minute);
+    }
+    
+    // Sorted by prescription, then minute of day, so one day expands in slot order
+    private final DoseRule[] rules;
+    private final int fromDay;
+    private final int toDay;
+    private final long[] prescriptionIds;
+    private final int[] offsets;
+    private final int[] slots;
+    
+    private PatientDoseSlots(DoseRule[] rules, int fromDay, int toDay, long[] prescriptionIds, int[] offsets, int[] slots) {
+        this.rules = rules;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.prescriptionIds = prescriptionIds;
+        this.offsets = offsets;
+        this.slots = slots;
+    }
+    
+    static PatientDoseSlots build(List<DoseRule> rules, int fromDay, int toDay) {
+        DoseRule[] sorted = rules.toArray(DoseRule[]::new);
+        Arrays.sort(sorted, Comparator.comparingLong(DoseRule::prescriptionId).thenComparingInt(DoseRule::minuteOfDay));
+        return expand(sorted, null, fromDay, toDay);
+    }
+    
+    PatientDoseSlots roll(int newFromDay, int newToDay) {
+        // Only a window moving forward can reuse slots; anything else is expanded from scratch
+        return expand(rules, newFromDay >= fromDay ? this : null, newFromDay, newToDay);
+    }
+    
+    private static PatientDoseSlots expand(DoseRule[] rules, PatientDoseSlots previous, int fromDay, int toDay) {
+        long[] ids = Arrays.stream(rules).mapToLong(DoseRule::prescriptionId).distinct().toArray();
+        int[] offsets = new int[ids.length + 1];
+        int[] out = new int[rules.length * Math.max(0, toDay - fromDay)];
+        int size = 0;
+        int rule = 0;
+        for (int i = 0; i < ids.length; i++) {
+            offsets[i] = size;
+            int rulesEnd = rule;
+            while (rulesEnd < rules.length && rules[rulesEnd].prescriptionId() == ids[i]) {
+                rulesEnd++;
+            }
+            
+            int expandFrom = fromDay;
+            if (previous != null) {
+                // Same rules, so prescription i has the same position in the previous instance
+                int start = lowerBound(previous.slots, previous.offsets[i], previous.offsets[i + 1], fromDay * MINUTES_PER_DAY);
+                int end = lowerBound(previous.slots, start, previous.offsets[i + 1], toDay * MINUTES_PER_DAY);
+                System.arraycopy(previous.slots, start, out, size, end - start);
+                size += end - start;
+                expandFrom = Math.max(fromDay, previous.toDay);
+            }
+            for (int day = expandFrom; day < toDay; day++) {
+                for (int k = rule; k < rulesEnd; k++) {
+                    if (rules[k].appliesOn(day)) {
+                        out[size++] = day * MINUTES_PER_DAY + rules[k].minuteOfDay();
+                    }
+                }
+            }
+            rule = rulesEnd;
+        }
+        offsets[ids.length] = size;
+        return new PatientDoseSlots(rules, fromDay, toDay, ids, offsets, Arrays.copyOf(out, size));
+    }
+    
+    /**
+     * The prescription's slot closest to {@code minute} (the earlier one on a tie), or {@link #NONE}.
+     */
+    int nearest(long prescriptionId, int minute) {
+        int i = Arrays.binarySearch(prescriptionIds, prescriptionId);
+        if (i < 0 || offsets[i] == offsets[i + 1]) {
+            return NONE;
+        }
+        int lo = offsets[i];
+        int hi = offsets[i + 1];
+        int at = lowerBound(slots, lo, hi, minute);
+        if (at == hi) {
+            return slots[hi - 1];
+        }
+        if (at == lo || slots[at] == minute) {
+            return slots[at];
+        }
+        return minute - slots[at - 1] <= slots[at] - minute ? slots[at - 1] : slots[at];
+    }
+    
+    /**
+     * Visits every slot in {@code [fromMinute, toMinute)}, prescription by prescription.
+     */
+    void forEachBetween(int fromMinute, int toMinute, SlotConsumer consumer) {
+        for (int i = 0; i < prescriptionIds.length; i++) {
+            int end = offsets[i + 1];
+            for (int k = lowerBound(slots, offsets[i], end, fromMinute); k < end && slots[k] < toMinute; k++) {
+                consumer.accept(prescriptionIds[i], slots[k]);
+            }
+        }
+    }
+    
+    int fromDay() {
+        return fromDay;
+    }
+    
+    int toDay() {
+        return toDay;
+    }
+    
+    int size() {
+        return slots.length;
+    }
+    
+    static int toMinute(LocalDateTime time) {
+        return (int) time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+    
+    static LocalDateTime toDateTime(int minute) {
+        return LocalDate.ofEpochDay(Math.floorDiv(minute, MINUTES_PER_DAY))
+                .atStartOfDay()
+                .plusMinutes(Math.floorMod(minute, MINUTES_PER_DAY));
+    }
+    
+    // First index in [from, to) whose value is >= key
+    private static int lowerBound(int[] values, int from, int to, int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,30 @@
+package se.inera.nll.nlllight.api.dosing.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A dose the patient's dosing schedule expects at {@code scheduledTime}.
+ */
+public class ExpectedDoseDTO {
+    
+    private Long prescriptionId;
+    private LocalDateTime scheduledTime;
+    
+    // Getters and Setters
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+    
+    public void setScheduledTime(LocalDateTime scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+}
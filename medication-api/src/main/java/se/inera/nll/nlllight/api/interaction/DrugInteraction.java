@@ -0,0 +1,137 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "drug_interactions")
+public class DrugInteraction {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "substance_id_a", nullable = false)
+    private Long substanceIdA;
+    
+    @Column(name = "substance_id_b", nullable = false)
+    private Long substanceIdB;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "severity_id", nullable = false)
+    private InteractionSeverity severity;
+    
+    @Column(name = "interaction_type", length = 50)
+    private String interactionType;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "clinical_effects", columnDefinition = "TEXT")
+    private String clinicalEffects;
+    
+    @Column(columnDefinition = "TEXT")
+    private String management;
+    
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSubstanceIdA() {
+        return substanceIdA;
+    }
+    
+    public void setSubstanceIdA(Long substanceIdA) {
+        this.substanceIdA = substanceIdA;
+    }
+    
+    public Long getSubstanceIdB() {
+        return substanceIdB;
+    }
+    
+    public void setSubstanceIdB(Long substanceIdB) {
+        this.substanceIdB = substanceIdB;
+    }
+    
+    public InteractionSeverity getSeverity() {
+        return severity;
+    }
+    
+    public void setSeverity(InteractionSeverity severity) {
+        this.severity = severity;
+    }
+    
+    public String getInteractionType() {
+        return interactionType;
+    }
+    
+    public void setInteractionType(String interactionType) {
+        this.interactionType = interactionType;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getClinicalEffects() {
+        return clinicalEffects;
+    }
+    
+    public void setClinicalEffects(String clinicalEffects) {
+        this.clinicalEffects = clinicalEffects;
+    }
+    
+    public String getManagement() {
+        return management;
+    }
+    
+    public void setManagement(String management) {
+        this.management = management;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
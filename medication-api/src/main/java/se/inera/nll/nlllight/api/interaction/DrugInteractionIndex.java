@@ -0,0 +1,183 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import java.util.Collection;
+
+/**
+ * Immutable open-addressing hash set of interacting substance pairs. A pair is packed into one
+ * {@code long} (smaller id in the high half), so the table is three parallel primitive arrays and
+ * a lookup is a multiply, a mask and usually one probe, with no boxing or pointer chasing.
+ * <p>
+ * Changes are applied by {@link #apply(Collection)}, which returns a new index and leaves this
+ * one untouched, so readers never need a lock.
+ */
+public final class DrugInteractionIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    // Substance ids are positive, so a packed pair is never 0
+    private static final long EMPTY = 0L;
+    private static final long MAX_SUBSTANCE_ID = 0xFFFF_FFFFL;
+
+    private static final DrugInteractionIndex EMPTY_INDEX = new DrugInteractionIndex(new long[2], new long[2], new byte[2], 0);
+
+    private final long[] keys;
+    private final long[] interactionIds;
+    private final byte[] severities;
+    private final int mask;
+    private final int size;
+
+    private DrugInteractionIndex(long[] keys, long[] interactionIds, byte[] severities, int size) {
+        this.keys = keys;
+        this.interactionIds = interactionIds;
+        this.severities = severities;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static DrugInteractionIndex empty() {
+        return EMPTY_INDEX;
+    }
+
+    public static DrugInteractionIndex build(Collection<InteractionRow> rows) {
+        return EMPTY_INDEX.apply(rows);
+    }
+
+    /**
+     * Returns an index with the given rows added, replaced or (when inactive) removed, or this
+     * index if none of them changes anything.
+     */
+    public DrugInteractionIndex apply(Collection<InteractionRow> changes) {
+        boolean changed = false;
+        for (InteractionRow row : changes) {
+            if (!isUpToDate(row)) {
+                changed = true;
+                break;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+
+        // Rows that are removed or replaced are skipped when copying the current entries
+        Builder builder = new Builder(size + changes.size());
+        Builder replaced = new Builder(changes.size());
+        for (InteractionRow row : changes) {
+            replaced.put(pairKey(row.substanceIdA(), row.substanceIdB()), 0L, (byte) 0);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && replaced.find(keys[slot]) == NOT_FOUND) {
+                builder.put(keys[slot], interactionIds[slot], severities[slot]);
+            }
+        }
+        for (InteractionRow row : changes) {
+            if (row.active()) {
+                builder.put(pairKey(row.substanceIdA(), row.substanceIdB()), row.interactionId(), (byte) row.severityLevel());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Slot of the interaction between two substances, in either order, or {@link #NOT_FOUND}.
+     */
+    public int find(long substanceId, long otherSubstanceId) {
+        if (!isIndexable(substanceId) || !isIndexable(otherSubstanceId) || substanceId == otherSubstanceId) {
+            return NOT_FOUND;
+        }
+        return find(keys, mask, pairKey(substanceId, otherSubstanceId));
+    }
+
+    public long interactionId(int slot) {
+        return interactionIds[slot];
+    }
+
+    public int severityLevel(int slot) {
+        return severities[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether a substance id fits in half a packed pair.
+     */
+    public static boolean isIndexable(long substanceId) {
+        return substanceId > 0 && substanceId <= MAX_SUBSTANCE_ID;
+    }
+
+    private boolean isUpToDate(InteractionRow row) {
+        int slot = find(row.substanceIdA(), row.substanceIdB());
+        if (!row.active()) {
+            return slot == NOT_FOUND;
+        }
+        return slot != NOT_FOUND
+                && interactionIds[slot] == row.interactionId()
+                && severities[slot] == row.severityLevel();
+    }
+
+    static long pairKey(long substanceId, long otherSubstanceId) {
+        if (!isIndexable(substanceId) || !isIndexable(otherSubstanceId)) {
+            throw new IllegalArgumentException("Substance ids must be between 1 and " + MAX_SUBSTANCE_ID
+                    + ": " + substanceId + ", " + otherSubstanceId);
+        }
+        long low = Math.min(substanceId, otherSubstanceId);
+        long high = Math.max(substanceId, otherSubstanceId);
+        return (low << 32) | high;
+    }
+
+    private static int find(long[] keys, int mask, long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Builder {
+
+        private final long[] keys;
+        private final long[] interactionIds;
+        private final byte[] severities;
+        private final int mask;
+        private int size;
+
+        // At most half full, which keeps linear probe chains short
+        Builder(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.interactionIds = new long[capacity];
+            this.severities = new byte[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void put(long key, long interactionId, byte severity) {
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                size++;
+            }
+            keys[slot] = key;
+            interactionIds[slot] = interactionId;
+            severities[slot] = severity;
+        }
+
+        int find(long key) {
+            return DrugInteractionIndex.find(keys, mask, key);
+        }
+
+        DrugInteractionIndex build() {
+            return new DrugInteractionIndex(keys, interactionIds, severities, size);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DrugInteractionRepository extends JpaRepository<DrugInteraction, Long> {
+    
+    // Inactive rows are returned too, so an incremental reload can drop them from the index
+    @Query("SELECT new se.inera.nll.nlllight.api.interaction.InteractionRow(" +
+           "d.id, d.substanceIdA, d.substanceIdB, s.severityLevel, COALESCE(d.isActive, true), d.updatedAt) " +
+           "FROM DrugInteraction d JOIN d.severity s " +
+           "WHERE d.updatedAt IS NULL OR d.updatedAt >= :since")
+    List<InteractionRow> findRowsChangedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT new se.inera.nll.nlllight.api.interaction.InteractionRow(" +
+           "d.id, d.substanceIdA, d.substanceIdB, s.severityLevel, COALESCE(d.isActive, true), d.updatedAt) " +
+           "FROM DrugInteraction d JOIN d.severity s WHERE d.id IN :ids")
+    List<InteractionRow> findRowsByIdIn(@Param("ids") Iterable<Long> ids);
+    
+    @Query("SELECT d FROM DrugInteraction d JOIN FETCH d.severity WHERE d.id IN :ids")
+    List<DrugInteraction> findWithSeverityByIdIn(@Param("ids") Iterable<Long> ids);
+}
@@ -0,0 +1,136 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import jakarta.persistence.*;
+import se.inera.nll.nlllight.api.common.InteractionAlertStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A detected interaction between two of a patient's prescriptions. {@code prescriptionIdA} is the
+ * prescription whose creation raised the alert, {@code prescriptionIdB} the active one it clashes with.
+ */
+@Entity
+@Table(name = "interaction_alerts")
+public class InteractionAlert {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "patient_id", nullable = false, length = 64)
+    private String patientId;
+    
+    @Column(name = "prescription_id_a", nullable = false)
+    private Long prescriptionIdA;
+    
+    @Column(name = "prescription_id_b", nullable = false)
+    private Long prescriptionIdB;
+    
+    @Column(name = "interaction_id", nullable = false)
+    private Long interactionId;
+    
+    @Column(name = "alert_date")
+    private LocalDateTime alertDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private InteractionAlertStatus status = InteractionAlertStatus.ACTIVE;
+    
+    @Column(name = "is_acknowledged")
+    private Boolean isAcknowledged = false;
+    
+    @Column(name = "acknowledged_by", length = 100)
+    private String acknowledgedBy;
+    
+    @Column(name = "acknowledged_at")
+    private LocalDateTime acknowledgedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (alertDate == null) {
+            alertDate = LocalDateTime.now();
+        }
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public Long getPrescriptionIdA() {
+        return prescriptionIdA;
+    }
+    
+    public void setPrescriptionIdA(Long prescriptionIdA) {
+        this.prescriptionIdA = prescriptionIdA;
+    }
+    
+    public Long getPrescriptionIdB() {
+        return prescriptionIdB;
+    }
+    
+    public void setPrescriptionIdB(Long prescriptionIdB) {
+        this.prescriptionIdB = prescriptionIdB;
+    }
+    
+    public Long getInteractionId() {
+        return interactionId;
+    }
+    
+    public void setInteractionId(Long interactionId) {
+        this.interactionId = interactionId;
+    }
+    
+    public LocalDateTime getAlertDate() {
+        return alertDate;
+    }
+    
+    public void setAlertDate(LocalDateTime alertDate) {
+        this.alertDate = alertDate;
+    }
+    
+    public InteractionAlertStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(InteractionAlertStatus status) {
+        this.status = status;
+    }
+    
+    public Boolean getIsAcknowledged() {
+        return isAcknowledged;
+    }
+    
+    public void setIsAcknowledged(Boolean isAcknowledged) {
+        this.isAcknowledged = isAcknowledged;
+    }
+    
+    public String getAcknowledgedBy() {
+        return acknowledgedBy;
+    }
+    
+    public void setAcknowledgedBy(String acknowledgedBy) {
+        this.acknowledgedBy = acknowledgedBy;
+    }
+    
+    public LocalDateTime getAcknowledgedAt() {
+        return acknowledgedAt;
+    }
+    
+    public void setAcknowledgedAt(LocalDateTime acknowledgedAt) {
+        this.acknowledgedAt = acknowledgedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import se.inera.nll.nlllight.api.common.InteractionAlertStatus;
+
+import java.util.List;
+
+@Repository
+public interface InteractionAlertRepository extends JpaRepository<InteractionAlert, Long> {
+    
+    List<InteractionAlert> findByPatientIdAndStatus(String patientId, InteractionAlertStatus status);
+    
+    List<InteractionAlert> findByPrescriptionIdA(Long prescriptionId);
+}
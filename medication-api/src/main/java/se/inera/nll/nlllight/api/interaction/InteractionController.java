@@ -0,0 +1,51 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionSweepDTO;
+import se.inera.nll.nlllight.api.interaction.dto.StartInteractionSweepRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/interactions")
+@Tag(name = "Interactions", description = "Population-level drug interaction checks")
+public class InteractionController {
+    
+    private final InteractionSweep interactionSweep;
+    
+    public InteractionController(InteractionSweep interactionSweep) {
+        this.interactionSweep = interactionSweep;
+    }
+    
+    @PostMapping("/sweeps")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST', 'ROLE_PRESCRIBER', 'PRESCRIBER')")
+    @Operation(summary = "Start an interaction sweep",
+               description = "Checks every patient's active prescriptions for the given interactions (all active ones if none are given) "
+                       + "and raises alerts for exposed patients. Runs in the background; poll the returned sweep for progress.")
+    public ResponseEntity<InteractionSweepDTO> startSweep(@RequestBody(required = false) StartInteractionSweepRequest request) {
+        List<Long> interactionIds = request != null && request.getInteractionIds() != null
+                ? request.getInteractionIds()
+                : List.of();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(interactionSweep.start(interactionIds));
+    }
+    
+    @GetMapping("/sweeps")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST', 'ROLE_PRESCRIBER', 'PRESCRIBER')")
+    @Operation(summary = "List recent interaction sweeps", description = "Returns the most recent sweeps, newest first")
+    public ResponseEntity<List<InteractionSweepDTO>> getRecentSweeps() {
+        return ResponseEntity.ok(interactionSweep.getRecent());
+    }
+    
+    @GetMapping("/sweeps/{sweepId}")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST', 'ROLE_PRESCRIBER', 'PRESCRIBER')")
+    @Operation(summary = "Get interaction sweep progress",
+               description = "Returns counts scanned so far, alerts raised and throughput of a sweep")
+    public ResponseEntity<InteractionSweepDTO> getSweep(@PathVariable String sweepId) {
+        return ResponseEntity.ok(interactionSweep.getStatus(sweepId));
+    }
+}
@@ -0,0 +1,205 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionAlertDTO;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionSubstance;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Screens new prescriptions for drug interactions against the patient's active ones.
+ * <p>
+ * Active interactions are held in a {@link DrugInteractionIndex}, so screening costs one query for
+ * the patient's current substances plus one in-memory probe per active prescription; the
+ * interaction rows themselves are only read when something matched. The index is refreshed on a
+ * schedule by reading just the rows whose {@code updated_at} moved, and swapped in by reference.
+ * Pairs that a refresh adds are announced as an {@link InteractionsAddedEvent}, so already
+ * exposed patients can be found by an {@link InteractionSweep}.
+ */
+@Service
+@Transactional
+public class InteractionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionEngine.class);
+
+    // Re-read rows this far behind the high-water mark, so a change whose transaction committed
+    // after a later-stamped one is still picked up; re-applying an unchanged row is a no-op
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private record Loaded(DrugInteractionIndex index, LocalDateTime highWaterMark) {
+    }
+
+    private final DrugInteractionRepository drugInteractionRepository;
+    private final InteractionAlertRepository interactionAlertRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Loaded loaded;
+
+    public InteractionEngine(DrugInteractionRepository drugInteractionRepository,
+                             InteractionAlertRepository interactionAlertRepository,
+                             PrescriptionRepository prescriptionRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.drugInteractionRepository = drugInteractionRepository;
+        this.interactionAlertRepository = interactionAlertRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Checks a newly saved prescription against the patient's other active prescriptions and
+     * records an {@code interaction_alerts} row for every interacting pair.
+     */
+    public List<InteractionAlertDTO> screen(Prescription prescription) {
+        Long substanceId = prescription.getMedication().getSubstanceId();
+        if (substanceId == null) {
+            return List.of();
+        }
+
+        DrugInteractionIndex index = index();
+        String patientId = prescription.getPatient().getId();
+        List<InteractionAlert> alerts = new ArrayList<>();
+        for (PrescriptionSubstance active : prescriptionRepository.findActiveSubstancesByPatientId(patientId, prescription.getId())) {
+            if (active.substanceId() == null) {
+                continue;
+            }
+            int slot = index.find(substanceId, active.substanceId());
+            if (slot != DrugInteractionIndex.NOT_FOUND) {
+                InteractionAlert alert = new InteractionAlert();
+                alert.setPatientId(patientId);
+                alert.setPrescriptionIdA(prescription.getId());
+                alert.setPrescriptionIdB(active.prescriptionId());
+                alert.setInteractionId(index.interactionId(slot));
+                alerts.add(alert);
+            }
+        }
+        if (alerts.isEmpty()) {
+            return List.of();
+        }
+
+        List<InteractionAlert> saved = interactionAlertRepository.saveAll(alerts);
+        Map<Long, DrugInteraction> interactions = drugInteractionRepository
+                .findWithSeverityByIdIn(saved.stream().map(InteractionAlert::getInteractionId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(DrugInteraction::getId, Function.identity()));
+        logger.info("Prescription {} for patient {} raised {} interaction alert(s)",
+                   prescription.getId(), patientId, saved.size());
+
+        return saved.stream()
+                .map(alert -> toDTO(alert, interactions.get(alert.getInteractionId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies interaction rows changed since the last refresh; the first call loads everything.
+     */
+    @Scheduled(initialDelayString = "${interaction.index.refresh-ms:60000}",
+               fixedDelayString = "${interaction.index.refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            Loaded current = loaded;
+            LocalDateTime since = current != null ? current.highWaterMark().minus(REFRESH_OVERLAP) : BEGINNING;
+            List<InteractionRow> rows = drugInteractionRepository.findRowsChangedSince(since).stream()
+                    .filter(this::isIndexable)
+                    .collect(Collectors.toList());
+
+            DrugInteractionIndex base = current != null ? current.index() : DrugInteractionIndex.empty();
+            DrugInteractionIndex index = base.apply(rows);
+            LocalDateTime highWaterMark = current != null ? current.highWaterMark() : BEGINNING;
+            for (InteractionRow row : rows) {
+                if (row.updatedAt() != null && row.updatedAt().isAfter(highWaterMark)) {
+                    highWaterMark = row.updatedAt();
+                }
+            }
+            loaded = new Loaded(index, highWaterMark);
+            if (index != base) {
+                logger.debug("Interaction index now holds {} pairs after applying {} changed row(s)",
+                            index.size(), rows.size());
+                // The initial load is the existing catalog, not news
+                Set<Long> added = current != null ? added(base, rows) : Set.of();
+                if (!added.isEmpty()) {
+                    eventPublisher.publishEvent(new InteractionsAddedEvent(added));
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * The index screening currently runs against, loading it on first use.
+     */
+    public DrugInteractionIndex currentIndex() {
+        return index();
+    }
+
+    private DrugInteractionIndex index() {
+        Loaded current = loaded;
+        if (current == null) {
+            refresh();
+            current = loaded;
+        }
+        return current.index();
+    }
+
+    // Active rows whose pair was absent from the previous index or pointed at another interaction
+    private Set<Long> added(DrugInteractionIndex base, List<InteractionRow> rows) {
+        Set<Long> added = new HashSet<>();
+        for (InteractionRow row : rows) {
+            if (!row.active()) {
+                continue;
+            }
+            int slot = base.find(row.substanceIdA(), row.substanceIdB());
+            if (slot == DrugInteractionIndex.NOT_FOUND || base.interactionId(slot) != row.interactionId()) {
+                added.add(row.interactionId());
+            }
+        }
+        return added;
+    }
+
+    private boolean isIndexable(InteractionRow row) {
+        if (!DrugInteractionIndex.isIndexable(row.substanceIdA()) || !DrugInteractionIndex.isIndexable(row.substanceIdB())) {
+            logger.warn("Skipping drug interaction {} with unsupported substance ids {} and {}",
+                       row.interactionId(), row.substanceIdA(), row.substanceIdB());
+            return false;
+        }
+        return true;
+    }
+
+    private InteractionAlertDTO toDTO(InteractionAlert alert, DrugInteraction interaction) {
+        InteractionAlertDTO dto = new InteractionAlertDTO();
+        dto.setId(alert.getId());
+        dto.setPrescriptionId(alert.getPrescriptionIdA());
+        dto.setInteractingPrescriptionId(alert.getPrescriptionIdB());
+        dto.setInteractionId(alert.getInteractionId());
+        dto.setStatus(alert.getStatus());
+        dto.setAlertDate(alert.getAlertDate());
+        if (interaction != null) {
+            dto.setSeverityCode(interaction.getSeverity().getCode());
+            dto.setSeverityLevel(interaction.getSeverity().getSeverityLevel());
+            dto.setDescription(interaction.getDescription());
+            dto.setManagement(interaction.getManagement());
+        }
+        return dto;
+    }
+}
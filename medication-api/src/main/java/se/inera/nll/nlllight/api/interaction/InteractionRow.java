@@ -0,0 +1,10 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a drug interaction that the in-memory index is built from.
+ */
+public record InteractionRow(long interactionId, long substanceIdA, long substanceIdB,
+                             int severityLevel, boolean active, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,77 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "interaction_severity")
+public class InteractionSeverity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(unique = true, nullable = false, length = 20)
+    private String code;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "severity_level", nullable = false)
+    private Integer severityLevel;
+    
+    @Column(name = "color_code", length = 7)
+    private String colorCode;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public void setCode(String code) {
+        this.code = code;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Integer getSeverityLevel() {
+        return severityLevel;
+    }
+    
+    public void setSeverityLevel(Integer severityLevel) {
+        this.severityLevel = severityLevel;
+    }
+    
+    public String getColorCode() {
+        return colorCode;
+    }
+    
+    public void setColorCode(String colorCode) {
+        this.colorCode = colorCode;
+    }
+}
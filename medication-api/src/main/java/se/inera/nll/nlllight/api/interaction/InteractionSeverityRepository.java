@@ -0,0 +1,12 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InteractionSeverityRepository extends JpaRepository<InteractionSeverity, Long> {
+    
+    Optional<InteractionSeverity> findByCode(String code);
+}
@@ -0,0 +1,412 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionSweepDTO;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Population-level interaction check: finds every patient whose current active prescriptions
+ * already combine into an interaction, typically right after that interaction was added to
+ * {@code drug_interactions}.
+ * <p>
+ * Active prescriptions are read once through a forward-only JDBC cursor ordered by patient, cut
+ * into chunks of whole patients and evaluated on a fork/join pool while the cursor keeps reading.
+ * Interacting pairs are written to {@code interaction_alerts} in JDBC batches; a pair that
+ * already has an alert for the same interaction, from screening or an earlier sweep, is skipped
+ * by the insert itself. Only one sweep runs at a time.
+ */
+@Service
+public class InteractionSweep {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionSweep.class);
+
+    static final int CHUNK_PATIENTS = 4096;
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final long LOG_EVERY_PRESCRIPTIONS = 100_000;
+    private static final int HISTORY = 20;
+
+    // Patient order lets the cursor hand over complete patients; idx_prescriptions_active covers it
+    private static final String ACTIVE_PRESCRIPTIONS_SQL =
+            "SELECT p.patient_id, p.id, m.substance_id FROM prescriptions p "
+            + "JOIN medications m ON m.id = p.medication_id "
+            + "WHERE p.status = 'ACTIVE' AND m.substance_id IS NOT NULL "
+            + "ORDER BY p.patient_id, p.id";
+
+    private static final String INSERT_ALERT_SQL =
+            "INSERT INTO interaction_alerts (patient_id, prescription_id_a, prescription_id_b, interaction_id, "
+            + "alert_date, status, is_acknowledged) "
+            + "SELECT CAST(? AS VARCHAR(64)), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), "
+            + "CAST(? AS TIMESTAMP), 'ACTIVE', FALSE WHERE NOT EXISTS ("
+            + "SELECT 1 FROM interaction_alerts a WHERE a.interaction_id = ? "
+            + "AND ((a.prescription_id_a = ? AND a.prescription_id_b = ?) "
+            + "OR (a.prescription_id_a = ? AND a.prescription_id_b = ?)))";
+
+    private final InteractionEngine interactionEngine;
+    private final DrugInteractionRepository drugInteractionRepository;
+    private final JdbcTemplate cursorTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int parallelism;
+    private final boolean sweepOnNewInteractions;
+
+    private final Counter prescriptionsCounter;
+    private final Counter patientsCounter;
+    private final Counter alertsCounter;
+    private final Timer durationTimer;
+
+    private final Object lock = new Object();
+    private final Map<String, Run> history = new LinkedHashMap<>();
+    private final Set<Long> queuedInteractionIds = new LinkedHashSet<>();
+    private Run running;
+
+    public InteractionSweep(InteractionEngine interactionEngine,
+                            DrugInteractionRepository drugInteractionRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${interaction.sweep.parallelism:0}") int parallelism,
+                            @Value("${interaction.sweep.fetch-size:1000}") int fetchSize,
+                            @Value("${interaction.sweep.on-new-interactions:false}") boolean sweepOnNewInteractions) {
+        this.interactionEngine = interactionEngine;
+        this.drugInteractionRepository = drugInteractionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.sweepOnNewInteractions = sweepOnNewInteractions;
+
+        // The cursor only streams inside a transaction (PostgreSQL fetches everything otherwise);
+        // alerts commit in their own, so progress survives a failure halfway through
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.prescriptionsCounter = Counter.builder("interaction.sweep.prescriptions")
+                .description("Active prescriptions evaluated by interaction sweeps")
+                .register(meterRegistry);
+        this.patientsCounter = Counter.builder("interaction.sweep.patients")
+                .description("Patients evaluated by interaction sweeps")
+                .register(meterRegistry);
+        this.alertsCounter = Counter.builder("interaction.sweep.alerts")
+                .description("Interaction alerts raised by interaction sweeps")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("interaction.sweep.duration")
+                .description("Wall-clock time of a complete interaction sweep")
+                .register(meterRegistry);
+        Gauge.builder("interaction.sweep.running", this, sweep -> sweep.isRunning() ? 1 : 0)
+                .description("Whether an interaction sweep is in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a sweep in the background and returns its initial status.
+     *
+     * @param interactionIds the interactions to look for, or empty for every active interaction
+     */
+    public InteractionSweepDTO start(Collection<Long> interactionIds) {
+        Run run;
+        synchronized (lock) {
+            if (running != null) {
+                throw new IllegalStateException("Cannot start a sweep while sweep " + running.id + " is already running");
+            }
+            run = begin(interactionIds);
+        }
+        launch(run);
+        return run.toDTO();
+    }
+
+    /**
+     * Runs a sweep on the calling thread and returns its final status.
+     */
+    public InteractionSweepDTO run(Collection<Long> interactionIds) {
+        Run run;
+        synchronized (lock) {
+            if (running != null) {
+                throw new IllegalStateException("Cannot start a sweep while sweep " + running.id + " is already running");
+            }
+            run = begin(interactionIds);
+        }
+        execute(run);
+        return run.toDTO();
+    }
+
+    public InteractionSweepDTO getStatus(String sweepId) {
+        synchronized (lock) {
+            Run run = history.get(sweepId);
+            if (run == null) {
+                throw new RuntimeException("Interaction sweep not found: " + sweepId);
+            }
+            return run.toDTO();
+        }
+    }
+
+    public List<InteractionSweepDTO> getRecent() {
+        synchronized (lock) {
+            List<InteractionSweepDTO> recent = new ArrayList<>(history.size());
+            history.values().forEach(run -> recent.add(0, run.toDTO()));
+            return recent;
+        }
+    }
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running != null;
+        }
+    }
+
+    /**
+     * Sweeps for interactions the engine has just picked up, when
+     * {@code interaction.sweep.on-new-interactions} is on. If a sweep is already running they are
+     * queued and swept together once it finishes.
+     */
+    @EventListener
+    public void onInteractionsAdded(InteractionsAddedEvent event) {
+        if (!sweepOnNewInteractions) {
+            return;
+        }
+        Run run;
+        synchronized (lock) {
+            if (running != null) {
+                queuedInteractionIds.addAll(event.interactionIds());
+                logger.info("Queued sweep for {} new interaction(s) behind sweep {}", event.interactionIds().size(), running.id);
+                return;
+            }
+            run = begin(event.interactionIds());
+        }
+        launch(run);
+    }
+
+    // Caller holds the lock
+    private Run begin(Collection<Long> interactionIds) {
+        Run run = new Run(UUID.randomUUID().toString(), List.copyOf(interactionIds));
+        running = run;
+        history.put(run.id, run);
+        if (history.size() > HISTORY) {
+            history.remove(history.keySet().iterator().next());
+        }
+        return run;
+    }
+
+    private void launch(Run run) {
+        Thread thread = new Thread(() -> execute(run), "interaction-sweep");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void execute(Run run) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            DrugInteractionIndex index = index(run.interactionIds);
+            logger.info("Interaction sweep {} started for {} interaction pair(s) on {} worker(s)",
+                       run.id, index.size(), parallelism);
+            if (index.size() > 0) {
+                sweep(run, index, pool);
+            }
+            run.finish("COMPLETED", null);
+            logger.info("Interaction sweep {} completed: {} patients, {} prescriptions, {} alerts in {} ms ({} prescriptions/s)",
+                       run.id, run.patients.get(), run.prescriptions.get(), run.alerts.get(),
+                       run.elapsedMillis(), run.prescriptionsPerSecond());
+        } catch (RuntimeException e) {
+            run.finish("FAILED", e.getMessage());
+            logger.error("Interaction sweep {} failed after {} prescriptions", run.id, run.prescriptions.get(), e);
+        } finally {
+            pool.shutdownNow();
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            next();
+        }
+    }
+
+    private void next() {
+        Run queued = null;
+        synchronized (lock) {
+            running = null;
+            if (!queuedInteractionIds.isEmpty()) {
+                queued = begin(queuedInteractionIds);
+                queuedInteractionIds.clear();
+            }
+        }
+        if (queued != null) {
+            launch(queued);
+        }
+    }
+
+    // A sweep for specific interactions gets its own small index, so unrelated pairs never match
+    private DrugInteractionIndex index(List<Long> interactionIds) {
+        if (interactionIds.isEmpty()) {
+            return interactionEngine.currentIndex();
+        }
+        List<InteractionRow> rows = drugInteractionRepository.findRowsByIdIn(interactionIds).stream()
+                .filter(row -> row.active()
+                        && DrugInteractionIndex.isIndexable(row.substanceIdA())
+                        && DrugInteractionIndex.isIndexable(row.substanceIdB()))
+                .toList();
+        return DrugInteractionIndex.build(rows);
+    }
+
+    private void sweep(Run run, DrugInteractionIndex index, ForkJoinPool pool) {
+        // Bounded so a fast cursor cannot buffer the whole table ahead of the workers
+        int maxInFlight = parallelism * 2;
+        Deque<ForkJoinTask<List<InteractionSweepTask.Hit>>> inFlight = new ArrayDeque<>();
+        List<InteractionSweepTask.Hit> pending = new ArrayList<>(INSERT_BATCH_SIZE);
+
+        readTransaction.executeWithoutResult(status -> {
+            PatientSubstanceBatch[] batch = {new PatientSubstanceBatch(CHUNK_PATIENTS)};
+            String[] currentPatient = {null};
+            cursorTemplate.query(ACTIVE_PRESCRIPTIONS_SQL, rs -> {
+                String patientId = rs.getString(1);
+                if (!patientId.equals(currentPatient[0])) {
+                    if (batch[0].patients() == CHUNK_PATIENTS) {
+                        submit(run, batch[0], index, pool, inFlight, pending, maxInFlight);
+                        batch[0] = new PatientSubstanceBatch(CHUNK_PATIENTS);
+                    }
+                    batch[0].startPatient(patientId);
+                    currentPatient[0] = patientId;
+                }
+                batch[0].addPrescription(rs.getLong(2), rs.getLong(3));
+            });
+            if (batch[0].patients() > 0) {
+                submit(run, batch[0], index, pool, inFlight, pending, maxInFlight);
+            }
+        });
+
+        while (!inFlight.isEmpty()) {
+            collect(run, inFlight.poll(), pending);
+        }
+        write(run, pending);
+    }
+
+    private void submit(Run run, PatientSubstanceBatch batch, DrugInteractionIndex index, ForkJoinPool pool,
+                        Deque<ForkJoinTask<List<InteractionSweepTask.Hit>>> inFlight,
+                        List<InteractionSweepTask.Hit> pending, int maxInFlight) {
+        inFlight.add(pool.submit(new InteractionSweepTask(index, batch)));
+        run.patients.addAndGet(batch.patients());
+        patientsCounter.increment(batch.patients());
+        long before = run.prescriptions.getAndAdd(batch.prescriptions());
+        prescriptionsCounter.increment(batch.prescriptions());
+        if ((before + batch.prescriptions()) / LOG_EVERY_PRESCRIPTIONS > before / LOG_EVERY_PRESCRIPTIONS) {
+            logger.info("Interaction sweep {}: {} prescriptions read, {} alerts raised, {} prescriptions/s",
+                       run.id, run.prescriptions.get(), run.alerts.get(), run.prescriptionsPerSecond());
+        }
+        while (inFlight.size() > maxInFlight) {
+            collect(run, inFlight.poll(), pending);
+        }
+    }
+
+    private void collect(Run run, ForkJoinTask<List<InteractionSweepTask.Hit>> task, List<InteractionSweepTask.Hit> pending) {
+        List<InteractionSweepTask.Hit> hits = task.join();
+        run.pairs.addAndGet(hits.size());
+        for (InteractionSweepTask.Hit hit : hits) {
+            pending.add(hit);
+            if (pending.size() == INSERT_BATCH_SIZE) {
+                write(run, pending);
+            }
+        }
+    }
+
+    private void write(Run run, List<InteractionSweepTask.Hit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(hits.size());
+        for (InteractionSweepTask.Hit hit : hits) {
+            rows.add(new Object[] {hit.patientId(), hit.prescriptionIdA(), hit.prescriptionIdB(), hit.interactionId(), now,
+                    hit.interactionId(), hit.prescriptionIdA(), hit.prescriptionIdB(), hit.prescriptionIdB(), hit.prescriptionIdA()});
+        }
+        int[] counts = writeTransaction.execute(status -> jdbcTemplate.batchUpdate(INSERT_ALERT_SQL, rows));
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += Math.max(count, 0);
+        }
+        run.alerts.addAndGet(inserted);
+        alertsCounter.increment(inserted);
+        hits.clear();
+    }
+
+    private static final class Run {
+
+        final String id;
+        final List<Long> interactionIds;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicLong patients = new AtomicLong();
+        final AtomicLong prescriptions = new AtomicLong();
+        final AtomicLong pairs = new AtomicLong();
+        final AtomicLong alerts = new AtomicLong();
+        volatile String state = "RUNNING";
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+        volatile long finishNanos;
+
+        Run(String id, List<Long> interactionIds) {
+            this.id = id;
+            this.interactionIds = interactionIds;
+        }
+
+        void finish(String state, String error) {
+            this.finishNanos = System.nanoTime();
+            this.finishedAt = LocalDateTime.now();
+            this.error = error;
+            this.state = state;
+        }
+
+        long elapsedMillis() {
+            long end = finishedAt != null ? finishNanos : System.nanoTime();
+            return Duration.ofNanos(end - startNanos).toMillis();
+        }
+
+        long prescriptionsPerSecond() {
+            long millis = elapsedMillis();
+            return millis > 0 ? prescriptions.get() * 1000 / millis : 0;
+        }
+
+        InteractionSweepDTO toDTO() {
+            InteractionSweepDTO dto = new InteractionSweepDTO();
+            dto.setId(id);
+            dto.setState(state);
+            dto.setInteractionIds(interactionIds);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setPatientsScanned(patients.get());
+            dto.setPrescriptionsScanned(prescriptions.get());
+            dto.setInteractingPairs(pairs.get());
+            dto.setAlertsRaised(alerts.get());
+            dto.setElapsedMillis(elapsedMillis());
+            dto.setPrescriptionsPerSecond(prescriptionsPerSecond());
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks every pair of active prescriptions of each patient in a range of a
+ * {@link PatientSubstanceBatch} against a {@link DrugInteractionIndex}. Ranges above
+ * {@link #THRESHOLD} patients are split in half and evaluated by the pool in parallel.
+ */
+final class InteractionSweepTask extends RecursiveTask<List<InteractionSweepTask.Hit>> {
+
+    // Large enough that task overhead is noise next to the probes, small enough to balance cores
+    static final int THRESHOLD = 256;
+
+    /**
+     * One interacting pair; {@code prescriptionIdA} is the newer prescription, as if its creation
+     * had raised the alert.
+     */
+    record Hit(String patientId, long prescriptionIdA, long prescriptionIdB, long interactionId) {
+    }
+
+    private final DrugInteractionIndex index;
+    private final PatientSubstanceBatch batch;
+    private final int from;
+    private final int to;
+
+    InteractionSweepTask(DrugInteractionIndex index, PatientSubstanceBatch batch) {
+        this(index, batch, 0, batch.patients());
+    }
+
+    private InteractionSweepTask(DrugInteractionIndex index, PatientSubstanceBatch batch, int from, int to) {
+        this.index = index;
+        this.batch = batch;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected List<Hit> compute() {
+        if (to - from <= THRESHOLD) {
+            return evaluate();
+        }
+        int middle = (from + to) >>> 1;
+        InteractionSweepTask left = new InteractionSweepTask(index, batch, from, middle);
+        left.fork();
+        List<Hit> right = new InteractionSweepTask(index, batch, middle, to).compute();
+        List<Hit> hits = left.join();
+        if (hits.isEmpty()) {
+            return right;
+        }
+        if (!right.isEmpty()) {
+            hits = new ArrayList<>(hits);
+            hits.addAll(right);
+        }
+        return hits;
+    }
+
+    private List<Hit> evaluate() {
+        List<Hit> hits = List.of();
+        for (int patient = from; patient < to; patient++) {
+            int end = batch.end(patient);
+            for (int i = batch.start(patient); i < end; i++) {
+                for (int j = i + 1; j < end; j++) {
+                    int slot = index.find(batch.substanceId(i), batch.substanceId(j));
+                    if (slot == DrugInteractionIndex.NOT_FOUND) {
+                        continue;
+                    }
+                    if (hits.isEmpty()) {
+                        hits = new ArrayList<>();
+                    }
+                    long a = batch.prescriptionId(i);
+                    long b = batch.prescriptionId(j);
+                    hits.add(new Hit(batch.patientId(patient), Math.max(a, b), Math.min(a, b), index.interactionId(slot)));
+                }
+            }
+        }
+        return hits;
+    }
+}
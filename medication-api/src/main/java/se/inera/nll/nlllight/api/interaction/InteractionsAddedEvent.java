@@ -0,0 +1,10 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import java.util.Set;
+
+/**
+ * Published when an index refresh picks up interactions whose substance pair was not screened
+ * for before.
+ */
+public record InteractionsAddedEvent(Set<Long> interactionIds) {
+}
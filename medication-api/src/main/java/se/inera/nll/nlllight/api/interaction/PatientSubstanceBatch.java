@@ -0,0 +1,78 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import java.util.Arrays;
+
+/**
+ * A run of patients with their active prescriptions, as read off the sweep cursor. Prescriptions
+ * are stored in two parallel primitive arrays and each patient is an offset into them, so a
+ * chunk of thousands of patients is a handful of objects that fork/join tasks can split by index.
+ */
+final class PatientSubstanceBatch {
+
+    private String[] patientIds;
+    private int[] starts;
+    private long[] prescriptionIds;
+    private long[] substanceIds;
+    private int patients;
+    private int prescriptions;
+
+    PatientSubstanceBatch(int expectedPatients) {
+        this.patientIds = new String[expectedPatients];
+        this.starts = new int[expectedPatients + 1];
+        this.prescriptionIds = new long[expectedPatients * 4];
+        this.substanceIds = new long[expectedPatients * 4];
+    }
+
+    /**
+     * Opens a new patient; following {@link #addPrescription} calls belong to it.
+     */
+    void startPatient(String patientId) {
+        if (patients == patientIds.length) {
+            patientIds = Arrays.copyOf(patientIds, patients * 2);
+            starts = Arrays.copyOf(starts, patients * 2 + 1);
+        }
+        patientIds[patients] = patientId;
+        starts[patients] = prescriptions;
+        patients++;
+        starts[patients] = prescriptions;
+    }
+
+    void addPrescription(long prescriptionId, long substanceId) {
+        if (prescriptions == prescriptionIds.length) {
+            prescriptionIds = Arrays.copyOf(prescriptionIds, prescriptions * 2);
+            substanceIds = Arrays.copyOf(substanceIds, prescriptions * 2);
+        }
+        prescriptionIds[prescriptions] = prescriptionId;
+        substanceIds[prescriptions] = substanceId;
+        prescriptions++;
+        starts[patients] = prescriptions;
+    }
+
+    int patients() {
+        return patients;
+    }
+
+    int prescriptions() {
+        return prescriptions;
+    }
+
+    String patientId(int patient) {
+        return patientIds[patient];
+    }
+
+    int start(int patient) {
+        return starts[patient];
+    }
+
+    int end(int patient) {
+        return starts[patient + 1];
+    }
+
+    long prescriptionId(int prescription) {
+        return prescriptionIds[prescription];
+    }
+
+    long substanceId(int prescription) {
+        return substanceIds[prescription];
+    }
+}
@@ -0,0 +1,101 @@
+package se.inera.nll.nlllight.api.interaction.dto;
+
+import se.inera.nll.nlllight.api.common.InteractionAlertStatus;
+
+import java.time.LocalDateTime;
+
+public class InteractionAlertDTO {
+    
+    private Long id;
+    private Long prescriptionId;
+    private Long interactingPrescriptionId;
+    private Long interactionId;
+    private String severityCode;
+    private Integer severityLevel;
+    private String description;
+    private String management;
+    private InteractionAlertStatus status;
+    private LocalDateTime alertDate;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public Long getInteractingPrescriptionId() {
+        return interactingPrescriptionId;
+    }
+    
+    public void setInteractingPrescriptionId(Long interactingPrescriptionId) {
+        this.interactingPrescriptionId = interactingPrescriptionId;
+    }
+    
+    public Long getInteractionId() {
+        return interactionId;
+    }
+    
+    public void setInteractionId(Long interactionId) {
+        this.interactionId = interactionId;
+    }
+    
+    public String getSeverityCode() {
+        return severityCode;
+    }
+    
+    public void setSeverityCode(String severityCode) {
+        this.severityCode = severityCode;
+    }
+    
+    public Integer getSeverityLevel() {
+        return severityLevel;
+    }
+    
+    public void setSeverityLevel(Integer severityLevel) {
+        this.severityLevel = severityLevel;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getManagement() {
+        return management;
+    }
+    
+    public void setManagement(String management) {
+        this.management = management;
+    }
+    
+    public InteractionAlertStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(InteractionAlertStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getAlertDate() {
+        return alertDate;
+    }
+    
+    public void setAlertDate(LocalDateTime alertDate) {
+        this.alertDate = alertDate;
+    }
+}
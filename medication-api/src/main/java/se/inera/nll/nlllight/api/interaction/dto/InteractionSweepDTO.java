@@ -0,0 +1,122 @@
+package se.inera.nll.nlllight.api.interaction.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a population interaction sweep. {@code state} is RUNNING, COMPLETED or FAILED;
+ * an empty {@code interactionIds} means every active interaction was swept for.
+ */
+public class InteractionSweepDTO {
+    
+    private String id;
+    private String state;
+    private List<Long> interactionIds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long patientsScanned;
+    private Long prescriptionsScanned;
+    private Long interactingPairs;
+    private Long alertsRaised;
+    private Long elapsedMillis;
+    private Long prescriptionsPerSecond;
+    private String error;
+    
+    // Getters and Setters
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public void setState(String state) {
+        this.state = state;
+    }
+    
+    public List<Long> getInteractionIds() {
+        return interactionIds;
+    }
+    
+    public void setInteractionIds(List<Long> interactionIds) {
+        this.interactionIds = interactionIds;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public Long getPatientsScanned() {
+        return patientsScanned;
+    }
+    
+    public void setPatientsScanned(Long patientsScanned) {
+        this.patientsScanned = patientsScanned;
+    }
+    
+    public Long getPrescriptionsScanned() {
+        return prescriptionsScanned;
+    }
+    
+    public void setPrescriptionsScanned(Long prescriptionsScanned) {
+        this.prescriptionsScanned = prescriptionsScanned;
+    }
+    
+    public Long getInteractingPairs() {
+        return interactingPairs;
+    }
+    
+    public void setInteractingPairs(Long interactingPairs) {
+        this.interactingPairs = interactingPairs;
+    }
+    
+    public Long getAlertsRaised() {
+        return alertsRaised;
+    }
+    
+    public void setAlertsRaised(Long alertsRaised) {
+        this.alertsRaised = alertsRaised;
+    }
+    
+    public Long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public void setElapsedMillis(Long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public Long getPrescriptionsPerSecond() {
+        return prescriptionsPerSecond;
+    }
+    
+    public void setPrescriptionsPerSecond(Long prescriptionsPerSecond) {
+        this.prescriptionsPerSecond = prescriptionsPerSecond;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
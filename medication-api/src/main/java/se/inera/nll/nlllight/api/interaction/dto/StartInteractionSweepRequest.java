@@ -0,0 +1,18 @@
+package se.inera.nll.nlllight.api.interaction.dto;
+
+import java.util.List;
+
+public class StartInteractionSweepRequest {
+    
+    private List<Long> interactionIds;
+    
+    // Getters and Setters
+    
+    public List<Long> getInteractionIds() {
+        return interactionIds;
+    }
+    
+    public void setInteractionIds(List<Long> interactionIds) {
+        this.interactionIds = interactionIds;
+    }
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "medications")
+@EntityListeners(MedicationChangeListener.class)
 public class Medication {
 
     @Id
@@ -170,10 +171,19 @@ public class Medication {
         return createdAt;
     }
 
+    // Set by the lifecycle callbacks; only copied within the package, for catalog snapshots
+    void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
 
+    void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     // Backward compatibility methods
     public void setName(String name) {
         this.tradeName = name;
@@ -0,0 +1,139 @@
+package se.inera.nll.nlllight.api.medication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory medication catalog served from an immutable snapshot.
+ * Every medication write bumps the version; the next reader rebuilds the snapshot
+ * and swaps it in by reference.
+ */
+@Component
+public class MedicationCatalog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MedicationCatalog.class);
+    
+    private final MedicationRepository repository;
+    private final AtomicReference<MedicationCatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong(1);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    // Distinguishes ETags across restarts, where the version counter starts over
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTimer;
+    
+    public MedicationCatalog(MedicationRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.hits = Counter.builder("medication.catalog.requests")
+                .tag("result", "hit")
+                .description("Catalog reads served from the current snapshot")
+                .register(meterRegistry);
+        this.misses = Counter.builder("medication.catalog.requests")
+                .tag("result", "miss")
+                .description("Catalog reads that required a snapshot rebuild or database fallback")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("medication.catalog.rebuild")
+                .description("Time spent rebuilding the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("medication.catalog.size", snapshot, s -> s.get() != null ? s.get().medications().size() : 0)
+                .description("Number of medications in the current snapshot")
+                .register(meterRegistry);
+        Gauge.builder("medication.catalog.version", version, AtomicLong::get)
+                .description("Current catalog version")
+                .register(meterRegistry);
+    }
+    
+    public MedicationCatalogSnapshot current() {
+        MedicationCatalogSnapshot current = snapshot.get();
+        if (current != null && current.version() == version.get()) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return rebuild();
+    }
+    
+    // The version the next snapshot will carry; reading it never rebuilds
+    public long version() {
+        return version.get();
+    }
+    
+    public String etag(MedicationCatalogSnapshot snapshot) {
+        return "\"catalog-" + instanceTag + "-" + snapshot.version() + "\"";
+    }
+    
+    // Derived from the row itself, so every instance hands out the same tag for the same medication
+    public String etag(Medication medication) {
+        LocalDateTime updatedAt = medication.getUpdatedAt();
+        if (updatedAt == null) {
+            return etag(current());
+        }
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "\"medication-" + medication.getId() + "-" + Long.toString(micros, 36) + "\"";
+    }
+    
+    public Optional<Medication> findById(Long id) {
+        Medication medication = current().findById(id);
+        if (medication != null) {
+            return Optional.of(medication);
+        }
+        // Rows inserted outside JPA (SQL scripts, other instances) are not announced; check the database
+        misses.increment();
+        Optional<Medication> fromDatabase = repository.findById(id).map(MedicationCatalogSnapshot::detach);
+        fromDatabase.ifPresent(m -> invalidate());
+        return fromDatabase;
+    }
+    
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+    
+    @EventListener
+    public void onMedicationChanged(MedicationChangedEvent event) {
+        // Invalidate right away so the writing transaction reads its own change...
+        invalidate();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterMedicationTransaction(MedicationChangedEvent event) {
+        // ...and again once it commits or rolls back, so a snapshot built in between does not stick
+        invalidate();
+    }
+    
+    private MedicationCatalogSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            long wanted = version.get();
+            MedicationCatalogSnapshot current = snapshot.get();
+            if (current != null && current.version() == wanted) {
+                return current;
+            }
+            MedicationCatalogSnapshot rebuilt = rebuildTimer.record(
+                    () -> MedicationCatalogSnapshot.of(wanted, repository.findAll()));
+            snapshot.set(rebuilt);
+            logger.debug("Rebuilt medication catalog version {} with {} medications", 
+                        wanted, rebuilt.medications().size());
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package se.inera.nll.nlllight.api.medication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable view of the medication catalog. Built once per catalog version and
+ * shared by reference until the next change. It holds detached copies of the rows,
+ * never the entities of the persistence context that loaded them.
+ */
+public record MedicationCatalogSnapshot(long version,
+                                        List<Medication> medications,
+                                        Map<Long, Medication> byId,
+                                        Map<String, Medication> byNplId,
+                                        Map<String, List<Medication>> byAtcCode) {
+    
+    public static MedicationCatalogSnapshot of(long version, List<Medication> entities) {
+        List<Medication> medications = new ArrayList<>(entities.size());
+        Map<Long, Medication> byId = new HashMap<>();
+        Map<String, Medication> byNplId = new HashMap<>();
+        Map<String, List<Medication>> byAtcCode = new HashMap<>();
+        
+        for (Medication entity : entities) {
+            Medication medication = detach(entity);
+            medications.add(medication);
+            byId.put(medication.getId(), medication);
+            if (medication.getNplId() != null) {
+                byNplId.put(medication.getNplId(), medication);
+            }
+            if (medication.getAtcCode() != null) {
+                byAtcCode.computeIfAbsent(normalizeAtcCode(medication.getAtcCode()), k -> new ArrayList<>())
+                        .add(medication);
+            }
+        }
+        byAtcCode.replaceAll((code, list) -> List.copyOf(list));
+        
+        return new MedicationCatalogSnapshot(version, List.copyOf(medications),
+                Map.copyOf(byId), Map.copyOf(byNplId), Map.copyOf(byAtcCode));
+    }
+    
+    public Medication findById(Long id) {
+        return byId.get(id);
+    }
+    
+    public Medication findByNplId(String nplId) {
+        return byNplId.get(nplId);
+    }
+    
+    public List<Medication> findByAtcCode(String atcCode) {
+        return byAtcCode.getOrDefault(normalizeAtcCode(atcCode), List.of());
+    }
+    
+    /**
+     * A copy of the row outside any persistence context, so changes to it are never flushed.
+     */
+    static Medication detach(Medication entity) {
+        Medication copy = new Medication();
+        copy.setId(entity.getId());
+        copy.setNplId(entity.getNplId());
+        copy.setTradeName(entity.getTradeName());
+        copy.setGenericName(entity.getGenericName());
+        copy.setSubstanceId(entity.getSubstanceId());
+        copy.setForm(entity.getForm());
+        copy.setStrength(entity.getStrength());
+        copy.setRoute(entity.getRoute());
+        copy.setAtcCode(entity.getAtcCode());
+        copy.setRxStatus(entity.getRxStatus());
+        copy.setIsAvailable(entity.getIsAvailable());
+        copy.setPrice(entity.getPrice());
+        copy.setCreatedAt(entity.getCreatedAt());
+        copy.setUpdatedAt(entity.getUpdatedAt());
+        return copy;
+    }
+    
+    static String normalizeAtcCode(String atcCode) {
+        return atcCode.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,30 @@
+package se.inera.nll.nlllight.api.medication;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns medication writes into {@link MedicationChangedEvent}s.
+ * Instantiated by Hibernate through Spring, so the publisher is injected.
+ */
+public class MedicationChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public MedicationChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    void onSaved(Medication medication) {
+        eventPublisher.publishEvent(new MedicationChangedEvent(medication, false));
+    }
+    
+    @PostRemove
+    void onRemoved(Medication medication) {
+        eventPublisher.publishEvent(new MedicationChangedEvent(medication, true));
+    }
+}
@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.medication;
+
+/**
+ * Published whenever a {@link Medication} row is inserted, updated or deleted through JPA.
+ */
+public record MedicationChangedEvent(Medication medication, boolean deleted) {
+}
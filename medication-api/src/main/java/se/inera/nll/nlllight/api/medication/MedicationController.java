@@ -1,34 +1,84 @@
 package se.inera.nll.nlllight.api.medication;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
 
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/medications")
 public class MedicationController {
 
-    private final MedicationRepository repository;
+    private final MedicationCatalog catalog;
+    private final MedicationSearchService searchService;
+    private final MedicationSuggestService suggestService;
 
-    public MedicationController(MedicationRepository repository) {
-        this.repository = repository;
+    public MedicationController(MedicationCatalog catalog,
+                                MedicationSearchService searchService,
+                                MedicationSuggestService suggestService) {
+        this.catalog = catalog;
+        this.searchService = searchService;
+        this.suggestService = suggestService;
     }
 
     @GetMapping
-    public List<Medication> list() {
-        return repository.findAll();
+    public ResponseEntity<List<Medication>> list() {
+        MedicationCatalogSnapshot snapshot = catalog.current();
+        // The ETag lets clients revalidate with If-None-Match and get a 304 back
+        return ResponseEntity.ok()
+                .eTag(catalog.etag(snapshot))
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.medications());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Medication> get(@PathVariable("id") Long id) {
-        Medication medication = repository.findById(id)
+        Medication medication = catalog.findById(id)
                 .orElseThrow(() -> new RuntimeException("Medication not found: " + id));
-        return ResponseEntity.ok(medication);
+        return revalidatable(medication);
     }
 
+    @GetMapping("/npl/{nplId}")
+    public ResponseEntity<Medication> getByNplId(@PathVariable("nplId") String nplId) {
+        Medication medication = catalog.current().findByNplId(nplId);
+        if (medication == null) {
+            throw new RuntimeException("Medication not found: " + nplId);
+        }
+        return revalidatable(medication);
+    }
+
+    @GetMapping("/atc/{atcCode}")
+    public List<Medication> getByAtcCode(@PathVariable("atcCode") String atcCode) {
+        return catalog.current().findByAtcCode(atcCode);
+    }
+
+    // Served from the in-memory index: matches trade, generic and substance names and ATC codes
     @GetMapping("/search")
-    public List<Medication> search(@RequestParam("name") String name) {
-        return repository.findByNameContainingIgnoreCase(name);
+    public List<Medication> search(@RequestParam("name") String name,
+                                   @RequestParam(value = "limit", required = false) Integer limit,
+                                   @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy) {
+        return searchService.search(name, limit, fuzzy);
+    }
+
+    // Typeahead: top medications by prescription count whose trade or generic name starts with the prefix
+    @GetMapping("/suggest")
+    public List<MedicationSuggestionDTO> suggest(@RequestParam("prefix") String prefix,
+                                                 @RequestParam(value = "limit", required = false) Integer limit) {
+        return suggestService.suggest(prefix, limit);
+    }
+
+    // Clients may keep the body but must revalidate; a matching If-None-Match or If-Modified-Since
+    // gets a 304 without the medication being serialized
+    private ResponseEntity<Medication> revalidatable(Medication medication) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(catalog.etag(medication))
+                .cacheControl(CacheControl.noCache());
+        if (medication.getUpdatedAt() != null) {
+            response.lastModified(medication.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        }
+        return response.body(medication);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,302 @@
+package se.inera.nll.nlllight.api.medication;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over medication trade names, generic names, substance names and ATC codes.
+ * Terms are folded to lowercase without diacritics (å/ä/ö match a/a/o) and indexed whole,
+ * for prefix lookups, and as trigrams, for substring and typo-tolerant matching.
+ * Not thread-safe; {@link MedicationSearchService} guards access.
+ */
+public class MedicationSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TERM_SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    // Per-term match scores, multiplied by the field weight
+    private static final int EXACT_SCORE = 10;
+    private static final int PREFIX_SCORE = 6;
+    private static final int SUBSTRING_SCORE = 3;
+    private static final int FUZZY_SCORE = 1;
+
+    enum Field {
+        TRADE_NAME(4),
+        GENERIC_NAME(3),
+        SUBSTANCE(2),
+        ATC_CODE(2);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private record Entry(Medication medication, String sortName, List<List<String>> fieldTerms) {
+
+        Set<String> allTerms() {
+            Set<String> all = new HashSet<>();
+            fieldTerms.forEach(all::addAll);
+            return all;
+        }
+    }
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> terms = new TreeMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+
+    public void put(Medication medication, String substanceName) {
+        remove(medication.getId());
+
+        List<List<String>> fieldTerms = new ArrayList<>();
+        fieldTerms.add(tokenize(medication.getTradeName()));
+        fieldTerms.add(tokenize(medication.getGenericName()));
+        fieldTerms.add(tokenize(substanceName));
+        fieldTerms.add(tokenize(medication.getAtcCode()));
+
+        Entry entry = new Entry(medication, fold(medication.getName()), fieldTerms);
+        entries.put(medication.getId(), entry);
+        for (String term : entry.allTerms()) {
+            terms.computeIfAbsent(term, k -> new HashSet<>()).add(medication.getId());
+            for (String trigram : trigrams(term)) {
+                trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(medication.getId());
+            }
+        }
+    }
+
+    public void remove(Long medicationId) {
+        Entry entry = entries.remove(medicationId);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.allTerms()) {
+            removePosting(terms, term, medicationId);
+            for (String trigram : trigrams(term)) {
+                removePosting(trigrams, trigram, medicationId);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns medications matching every term of the query, best match first.
+     * With {@code fuzzy} set, terms of four characters or more also match within
+     * one edit (two from eight characters). A query without terms matches every medication, in
+     * name order, as the LIKE search it replaced did.
+     */
+    public List<Medication> search(String query, int limit, boolean fuzzy) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return entries.values().stream()
+                    .sorted(Comparator.comparing(Entry::sortName).thenComparing(e -> e.medication().getId()))
+                    .limit(limit)
+                    .map(Entry::medication)
+                    .toList();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Integer> termScores = scoreTerm(queryTerm, fuzzy);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Integer> finalScores = scores;
+        return finalScores.keySet().stream()
+                .map(entries::get)
+                .sorted(Comparator.<Entry>comparingInt(e -> -finalScores.get(e.medication().getId()))
+                        .thenComparing(Entry::sortName)
+                        .thenComparing(e -> e.medication().getId()))
+                .limit(limit)
+                .map(Entry::medication)
+                .toList();
+    }
+
+    private Map<Long, Integer> scoreTerm(String queryTerm, boolean fuzzy) {
+        int maxEdits = fuzzy ? maxEdits(queryTerm) : 0;
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Long id : candidates(queryTerm, maxEdits)) {
+            Entry entry = entries.get(id);
+            int best = 0;
+            for (Field field : Field.values()) {
+                for (String term : entry.fieldTerms().get(field.ordinal())) {
+                    best = Math.max(best, match(term, queryTerm, maxEdits) * field.weight);
+                }
+            }
+            if (best > 0) {
+                scores.put(id, best);
+            }
+        }
+        return scores;
+    }
+
+    private Set<Long> candidates(String queryTerm, int maxEdits) {
+        Set<Long> candidates = new HashSet<>();
+
+        // Prefix matches straight off the sorted term dictionary
+        terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                .values()
+                .forEach(candidates::addAll);
+
+        // Substring matches: every trigram of the query must be present
+        List<String> queryTrigrams = trigrams(queryTerm);
+        if (queryTrigrams.isEmpty()) {
+            terms.forEach((term, ids) -> {
+                if (term.contains(queryTerm)) {
+                    candidates.addAll(ids);
+                }
+            });
+        } else {
+            Set<Long> substring = null;
+            for (String trigram : queryTrigrams) {
+                Set<Long> ids = trigrams.getOrDefault(trigram, Set.of());
+                if (substring == null) {
+                    substring = new HashSet<>(ids);
+                } else {
+                    substring.retainAll(ids);
+                }
+                if (substring.isEmpty()) {
+                    break;
+                }
+            }
+            candidates.addAll(substring);
+        }
+
+        // Typo candidates: each edit disturbs at most three trigrams
+        if (maxEdits > 0) {
+            Map<Long, Integer> overlap = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (Long id : trigrams.getOrDefault(trigram, Set.of())) {
+                    overlap.merge(id, 1, Integer::sum);
+                }
+            }
+            int required = Math.max(1, queryTrigrams.size() - 3 * maxEdits);
+            overlap.forEach((id, count) -> {
+                if (count >= required) {
+                    candidates.add(id);
+                }
+            });
+        }
+        return candidates;
+    }
+
+    private static int match(String term, String queryTerm, int maxEdits) {
+        if (term.equals(queryTerm)) {
+            return EXACT_SCORE;
+        }
+        if (term.startsWith(queryTerm)) {
+            return PREFIX_SCORE;
+        }
+        if (term.contains(queryTerm)) {
+            return SUBSTRING_SCORE;
+        }
+        if (maxEdits > 0) {
+            // Compare against the whole term and against a same-length prefix, so half-typed words still match
+            String prefix = term.substring(0, Math.min(term.length(), queryTerm.length()));
+            if (editDistance(term, queryTerm, maxEdits) <= maxEdits
+                    || editDistance(prefix, queryTerm, maxEdits) <= maxEdits) {
+                return FUZZY_SCORE;
+            }
+        }
+        return 0;
+    }
+
+    private static int maxEdits(String queryTerm) {
+        if (queryTerm.length() < 4) {
+            return 0;
+        }
+        return queryTerm.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions).
+     * Returns {@code limit + 1} as soon as the distance is known to exceed the limit.
+     */
+    static int editDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace("æ", "ae").replace("Æ", "ae")
+                .replace("ø", "o").replace("Ø", "o")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TERM_SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> trigrams(String term) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            result.add(term.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long medicationId) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(medicationId);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+}
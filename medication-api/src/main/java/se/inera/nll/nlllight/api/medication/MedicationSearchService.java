@@ -0,0 +1,125 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Owns the in-memory {@link MedicationSearchIndex}. The index is built from the catalog on
+ * first use and then kept current by applying committed medication changes one by one. Cached
+ * substance names are evicted when a medication or substance changes, and a renamed substance
+ * re-indexes the medications that contain it.
+ */
+@Service
+public class MedicationSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicationSearchService.class);
+
+    private final MedicationCatalog catalog;
+    private final SubstanceRepository substanceRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> substanceNames = new ConcurrentHashMap<>();
+
+    private volatile MedicationSearchIndex index;
+
+    public MedicationSearchService(MedicationCatalog catalog, SubstanceRepository substanceRepository) {
+        this.catalog = catalog;
+        this.substanceRepository = substanceRepository;
+    }
+
+    public List<Medication> search(String query, Integer limit, boolean fuzzy) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        MedicationSearchIndex current = ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return current.search(query, limit != null ? limit : Integer.MAX_VALUE, fuzzy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            substanceNames.clear();
+            substanceRepository.findAll().forEach(s -> substanceNames.put(s.getId(), s.getName()));
+
+            MedicationSearchIndex rebuilt = new MedicationSearchIndex();
+            for (Medication medication : catalog.current().medications()) {
+                rebuilt.put(medication, substanceName(medication));
+            }
+            index = rebuilt;
+            logger.debug("Built medication search index with {} medications", rebuilt.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMedicationChanged(MedicationChangedEvent event) {
+        if (index == null) {
+            return; // Not built yet; the first search picks the change up
+        }
+        // Search results are handed out like catalog entries, so the index keeps a detached copy too
+        Medication medication = MedicationCatalogSnapshot.detach(event.medication());
+        lock.writeLock().lock();
+        try {
+            if (event.deleted()) {
+                index.remove(medication.getId());
+            } else {
+                if (medication.getSubstanceId() != null) {
+                    substanceNames.remove(medication.getSubstanceId());
+                }
+                index.put(medication, substanceName(medication));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubstanceChanged(SubstanceChangedEvent event) {
+        Long substanceId = event.substance().getId();
+        lock.writeLock().lock();
+        try {
+            substanceNames.remove(substanceId);
+            if (index == null) {
+                return;
+            }
+            for (Medication medication : catalog.current().medications()) {
+                if (substanceId.equals(medication.getSubstanceId())) {
+                    index.put(medication, substanceName(medication));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private MedicationSearchIndex ensureBuilt() {
+        MedicationSearchIndex current = index;
+        if (current == null) {
+            rebuild();
+            current = index;
+        }
+        return current;
+    }
+
+    private String substanceName(Medication medication) {
+        Long substanceId = medication.getSubstanceId();
+        if (substanceId == null) {
+            return null;
+        }
+        return substanceNames.computeIfAbsent(substanceId, id ->
+                substanceRepository.findById(id).map(Substance::getName).orElse(null));
+    }
+}
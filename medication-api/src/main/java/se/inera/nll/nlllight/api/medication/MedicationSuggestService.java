@@ -0,0 +1,134 @@
+package se.inera.nll.nlllight.api.medication;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves medication typeahead from a {@link MedicationSuggestTrie}. The trie is rebuilt on a
+ * background thread when the catalog changes and when prescription counts are refreshed on a
+ * schedule; requests keep reading the previous trie until the new one is swapped in.
+ */
+@Service
+public class MedicationSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicationSuggestService.class);
+
+    private record BuiltTrie(long catalogVersion, MedicationSuggestTrie trie) {
+    }
+
+    private final MedicationCatalog catalog;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile BuiltTrie current;
+    private volatile Map<Long, Long> prescriptionCounts;
+
+    public MedicationSuggestService(MedicationCatalog catalog, PrescriptionRepository prescriptionRepository) {
+        this.catalog = catalog;
+        this.prescriptionRepository = prescriptionRepository;
+    }
+
+    public List<MedicationSuggestionDTO> suggest(String prefix, Integer limit) {
+        int size = limit != null ? limit : MedicationSuggestTrie.MAX_SUGGESTIONS;
+        if (size < 1 || size > MedicationSuggestTrie.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MedicationSuggestTrie.MAX_SUGGESTIONS);
+        }
+        BuiltTrie built = current;
+        if (built == null) {
+            // Nothing to serve yet, so only the very first request waits for a build
+            built = rebuild(catalog.current(), false);
+        } else if (built.catalogVersion() != catalog.version()) {
+            scheduleRebuild();
+        }
+        return built.trie().suggest(prefix != null ? prefix : "", size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMedicationChanged(MedicationChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    @Scheduled(initialDelayString = "${medication.suggest.popularity-refresh-ms:600000}",
+               fixedDelayString = "${medication.suggest.popularity-refresh-ms:600000}")
+    public void refreshPopularity() {
+        rebuild(catalog.current(), true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    // Coalesces bursts of changes into one rebuild; a change during a rebuild queues another
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            rebuildPending.set(false);
+            try {
+                rebuild(catalog.current(), false);
+            } catch (RuntimeException e) {
+                logger.warn("Suggestion trie rebuild failed, serving the previous trie", e);
+            }
+        });
+    }
+
+    private BuiltTrie rebuild(MedicationCatalogSnapshot snapshot, boolean reloadCounts) {
+        rebuildLock.lock();
+        try {
+            BuiltTrie built = current;
+            if (!reloadCounts && built != null && built.catalogVersion() == snapshot.version()) {
+                return built;
+            }
+            if (reloadCounts || prescriptionCounts == null) {
+                prescriptionCounts = loadPrescriptionCounts();
+            }
+            long start = System.nanoTime();
+            built = new BuiltTrie(snapshot.version(),
+                    MedicationSuggestTrie.build(snapshot.medications(), prescriptionCounts));
+            current = built;
+            logger.debug("Built suggestion trie for catalog version {} ({} medications) in {} ms",
+                        snapshot.version(), built.trie().size(), (System.nanoTime() - start) / 1_000_000);
+            return built;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Map<Long, Long> loadPrescriptionCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : prescriptionRepository.countPrescriptionsByMedication()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,187 @@
+package se.inera.nll.nlllight.api.medication;
+
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable radix trie for medication typeahead. Keys are folded trade and generic names,
+ * plus every word-start suffix so "teva" finds "Paracetamol Teva". Each node stores the
+ * top {@link #MAX_SUGGESTIONS} medications of its subtree, so a lookup costs one walk
+ * down the prefix and no ranking work.
+ */
+public final class MedicationSuggestTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        final char[] label;
+        final char[] firstChars;
+        final Node[] children;
+        final int[] top;
+
+        Node(char[] label, char[] firstChars, Node[] children, int[] top) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(firstChars, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    private static final class BuilderNode {
+        final TreeMap<Character, BuilderNode> children = new TreeMap<>();
+        final List<Integer> terminals = new ArrayList<>(1);
+    }
+
+    private final Node root;
+    private final MedicationSuggestionDTO[] suggestions;
+
+    private MedicationSuggestTrie(Node root, MedicationSuggestionDTO[] suggestions) {
+        this.root = root;
+        this.suggestions = suggestions;
+    }
+
+    public static MedicationSuggestTrie build(Collection<Medication> medications, Map<Long, Long> prescriptionCounts) {
+        // Rank once up front; from here on a lower index means a better suggestion
+        List<Medication> ranked = new ArrayList<>(medications);
+        ranked.sort(Comparator.<Medication>comparingLong(m -> -prescriptionCounts.getOrDefault(m.getId(), 0L))
+                .thenComparing(m -> normalize(m.getName()))
+                .thenComparing(Medication::getId));
+
+        MedicationSuggestionDTO[] suggestions = new MedicationSuggestionDTO[ranked.size()];
+        BuilderNode builderRoot = new BuilderNode();
+        for (int i = 0; i < ranked.size(); i++) {
+            Medication medication = ranked.get(i);
+            suggestions[i] = toSuggestion(medication, prescriptionCounts.getOrDefault(medication.getId(), 0L));
+            insertWordSuffixes(builderRoot, normalize(medication.getTradeName()), i);
+            insertWordSuffixes(builderRoot, normalize(medication.getGenericName()), i);
+        }
+        return new MedicationSuggestTrie(freeze(builderRoot, NO_CHARS), suggestions);
+    }
+
+    public List<MedicationSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return List.of();
+            }
+            for (int j = 0; j < node.label.length && i < key.length(); j++, i++) {
+                if (node.label[j] != key.charAt(i)) {
+                    return List.of();
+                }
+            }
+        }
+        int count = Math.min(limit, node.top.length);
+        List<MedicationSuggestionDTO> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(suggestions[node.top[k]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(MedicationSearchIndex.fold(text)).replaceAll(" ").stripLeading();
+    }
+
+    private static void insertWordSuffixes(BuilderNode root, String key, int index) {
+        if (key.isEmpty()) {
+            return;
+        }
+        for (int start = 0; start < key.length(); start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                insert(root, key, start, index);
+            }
+        }
+    }
+
+    private static void insert(BuilderNode root, String key, int start, int index) {
+        BuilderNode node = root;
+        for (int i = start; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new BuilderNode());
+        }
+        if (!node.terminals.contains(index)) {
+            node.terminals.add(index);
+        }
+    }
+
+    private static Node freeze(BuilderNode node, char[] label) {
+        char[] firstChars = new char[node.children.size()];
+        Node[] children = node.children.isEmpty() ? NO_CHILDREN : new Node[node.children.size()];
+        int c = 0;
+        for (Map.Entry<Character, BuilderNode> entry : node.children.entrySet()) {
+            // Collapse chains of single-child, non-terminal nodes into one edge
+            StringBuilder edge = new StringBuilder().append(entry.getKey().charValue());
+            BuilderNode target = entry.getValue();
+            while (target.terminals.isEmpty() && target.children.size() == 1) {
+                Map.Entry<Character, BuilderNode> only = target.children.firstEntry();
+                edge.append(only.getKey().charValue());
+                target = only.getValue();
+            }
+            firstChars[c] = entry.getKey();
+            children[c] = freeze(target, edge.toString().toCharArray());
+            c++;
+        }
+        return new Node(label, firstChars, children, topOf(node.terminals, children));
+    }
+
+    private static int[] topOf(List<Integer> terminals, Node[] children) {
+        int total = terminals.size();
+        for (Node child : children) {
+            total += child.top.length;
+        }
+        int[] candidates = new int[total];
+        int n = 0;
+        for (int terminal : terminals) {
+            candidates[n++] = terminal;
+        }
+        for (Node child : children) {
+            System.arraycopy(child.top, 0, candidates, n, child.top.length);
+            n += child.top.length;
+        }
+        Arrays.sort(candidates);
+
+        int[] top = new int[Math.min(MAX_SUGGESTIONS, total)];
+        int size = 0;
+        for (int i = 0; i < candidates.length && size < top.length; i++) {
+            if (size == 0 || top[size - 1] != candidates[i]) {
+                top[size++] = candidates[i];
+            }
+        }
+        return size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    private static MedicationSuggestionDTO toSuggestion(Medication medication, long prescriptionCount) {
+        MedicationSuggestionDTO dto = new MedicationSuggestionDTO();
+        dto.setId(medication.getId());
+        dto.setName(medication.getName());
+        dto.setGenericName(medication.getGenericName());
+        dto.setStrength(medication.getStrength());
+        dto.setForm(medication.getForm());
+        dto.setAtcCode(medication.getAtcCode());
+        dto.setPrescriptionCount(prescriptionCount);
+        return dto;
+    }
+}
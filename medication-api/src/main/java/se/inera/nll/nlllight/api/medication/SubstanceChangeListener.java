@@ -0,0 +1,30 @@
+package se.inera.nll.nlllight.api.medication;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns substance writes into {@link SubstanceChangedEvent}s.
+ * Instantiated by Hibernate through Spring, so the publisher is injected.
+ */
+public class SubstanceChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public SubstanceChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    void onSaved(Substance substance) {
+        eventPublisher.publishEvent(new SubstanceChangedEvent(substance, false));
+    }
+    
+    @PostRemove
+    void onRemoved(Substance substance) {
+        eventPublisher.publishEvent(new SubstanceChangedEvent(substance, true));
+    }
+}
@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.medication;
+
+/**
+ * Published whenever a {@link Substance} row is inserted, updated or deleted through JPA.
+ */
+public record SubstanceChangedEvent(Substance substance, boolean deleted) {
+}
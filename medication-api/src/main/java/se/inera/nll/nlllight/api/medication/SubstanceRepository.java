@@ -0,0 +1,12 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SubstanceRepository extends JpaRepository<Substance, Long> {
+    
+    Optional<Substance> findByName(String name);
+}
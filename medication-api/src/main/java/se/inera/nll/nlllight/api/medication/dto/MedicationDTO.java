@@ -0,0 +1,126 @@
+package se.inera.nll.nlllight.api.medication.dto;
+
+import java.math.BigDecimal;
+
+public class MedicationDTO {
+    
+    private Long id;
+    private String name;
+    private String description;
+    private String nplId;
+    private String tradeName;
+    private String genericName;
+    private Long substanceId;
+    private String form;
+    private String strength;
+    private String route;
+    private String atcCode;
+    private Boolean isAvailable;
+    private BigDecimal price;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getNplId() {
+        return nplId;
+    }
+    
+    public void setNplId(String nplId) {
+        this.nplId = nplId;
+    }
+    
+    public String getTradeName() {
+        return tradeName;
+    }
+    
+    public void setTradeName(String tradeName) {
+        this.tradeName = tradeName;
+    }
+    
+    public String getGenericName() {
+        return genericName;
+    }
+    
+    public void setGenericName(String genericName) {
+        this.genericName = genericName;
+    }
+    
+    public Long getSubstanceId() {
+        return substanceId;
+    }
+    
+    public void setSubstanceId(Long substanceId) {
+        this.substanceId = substanceId;
+    }
+    
+    public String getForm() {
+        return form;
+    }
+    
+    public void setForm(String form) {
+        this.form = form;
+    }
+    
+    public String getStrength() {
+        return strength;
+    }
+    
+    public void setStrength(String strength) {
+        this.strength = strength;
+    }
+    
+    public String getRoute() {
+        return route;
+    }
+    
+    public void setRoute(String route) {
+        this.route = route;
+    }
+    
+    public String getAtcCode() {
+        return atcCode;
+    }
+    
+    public void setAtcCode(String atcCode) {
+        this.atcCode = atcCode;
+    }
+    
+    public Boolean getIsAvailable() {
+        return isAvailable;
+    }
+    
+    public void setIsAvailable(Boolean isAvailable) {
+        this.isAvailable = isAvailable;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+}
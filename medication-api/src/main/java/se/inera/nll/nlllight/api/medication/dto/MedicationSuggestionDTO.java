@@ -0,0 +1,70 @@
+package se.inera.nll.nlllight.api.medication.dto;
+
+public class MedicationSuggestionDTO {
+    
+    private Long id;
+    private String name;
+    private String genericName;
+    private String strength;
+    private String form;
+    private String atcCode;
+    private long prescriptionCount;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getGenericName() {
+        return genericName;
+    }
+    
+    public void setGenericName(String genericName) {
+        this.genericName = genericName;
+    }
+    
+    public String getStrength() {
+        return strength;
+    }
+    
+    public void setStrength(String strength) {
+        this.strength = strength;
+    }
+    
+    public String getForm() {
+        return form;
+    }
+    
+    public void setForm(String form) {
+        this.form = form;
+    }
+    
+    public String getAtcCode() {
+        return atcCode;
+    }
+    
+    public void setAtcCode(String atcCode) {
+        this.atcCode = atcCode;
+    }
+    
+    public long getPrescriptionCount() {
+        return prescriptionCount;
+    }
+    
+    public void setPrescriptionCount(long prescriptionCount) {
+        this.prescriptionCount = prescriptionCount;
+    }
+}
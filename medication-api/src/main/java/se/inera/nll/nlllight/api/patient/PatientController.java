@@ -2,12 +2,13 @@ package se.inera.nll.nlllight.api.patient;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import se.inera.nll.nlllight.api.medication.Medication;
 import se.inera.nll.nlllight.api.medication.MedicationRepository;
-import se.inera.nll.nlllight.api.prescription.Prescription;
-import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRevision;
 import se.inera.nll.nlllight.api.prescription.PrescriptionService;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
 
@@ -21,16 +22,13 @@ public class PatientController {
     private final PrescriptionService prescriptionService;
     private final PatientRepository patientRepository;
     private final MedicationRepository medicationRepository;
-    private final PrescriptionRepository prescriptionRepository;
     
     public PatientController(PrescriptionService prescriptionService,
                             PatientRepository patientRepository,
-                            MedicationRepository medicationRepository,
-                            PrescriptionRepository prescriptionRepository) {
+                            MedicationRepository medicationRepository) {
         this.prescriptionService = prescriptionService;
         this.patientRepository = patientRepository;
         this.medicationRepository = medicationRepository;
-        this.prescriptionRepository = prescriptionRepository;
     }
     
     @GetMapping("/{userId}/prescriptions")
@@ -53,24 +51,30 @@ public class PatientController {
                description = "Returns detailed information about a specific prescription for the patient")
     public ResponseEntity<PrescriptionDTO> getPrescriptionDetails(
             @PathVariable String userId,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
         
         // Verify patient exists
         Patient patient = patientRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Patient not found: " + userId));
         
-        // Get the prescription entity to check ownership
-        Prescription prescription = prescriptionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prescription not found: " + id));
+        // Ownership and freshness both come from the revision select; nothing is loaded on a 304
+        PrescriptionRevision revision = prescriptionService.getPrescriptionRevision(id);
         
         // Verify the prescription belongs to this patient
-        if (!prescription.getPatient().getId().equals(patient.getId())) {
+        if (!revision.patientId().equals(patient.getId())) {
             throw new SecurityException("User not authorized to access this prescription");
         }
         
+        if (webRequest.checkNotModified(revision.etag(), revision.lastModified().toEpochMilli())) {
+            return null;
+        }
+        
         // Get the prescription DTO
         PrescriptionDTO prescriptionDTO = prescriptionService.getPrescriptionById(id);
-        return ResponseEntity.ok(prescriptionDTO);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(prescriptionDTO);
     }
     
     @GetMapping("/{userId}/medications/{id}")
@@ -1,15 +1,35 @@
 package se.inera.nll.nlllight.api.pharmacist;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.AccessType;
+import se.inera.nll.nlllight.api.dispense.DispenseLedger;
+import se.inera.nll.nlllight.api.dispense.dto.DispenseEventDTO;
+import se.inera.nll.nlllight.api.dispense.dto.PharmacyDispenseVolumeDTO;
 import se.inera.nll.nlllight.api.prescription.PrescriptionService;
 import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
+import se.inera.nll.nlllight.api.refill.RefillRequestService;
+import se.inera.nll.nlllight.api.refill.dto.RefillRequestDTO;
+import se.inera.nll.nlllight.api.refill.dto.UpdateRefillRequestStatusRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/pharmacist")
@@ -17,9 +37,19 @@ import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
 public class PharmacistController {
     
     private final PrescriptionService prescriptionService;
+    private final DispenseLedger dispenseLedger;
+    private final RefillEligibilityService refillEligibilityService;
+    private final RefillRequestService refillRequestService;
+    private final ObjectMapper objectMapper;
     
-    public PharmacistController(PrescriptionService prescriptionService) {
+    public PharmacistController(PrescriptionService prescriptionService, DispenseLedger dispenseLedger,
+                                RefillEligibilityService refillEligibilityService,
+                                RefillRequestService refillRequestService, ObjectMapper objectMapper) {
         this.prescriptionService = prescriptionService;
+        this.dispenseLedger = dispenseLedger;
+        this.refillEligibilityService = refillEligibilityService;
+        this.refillRequestService = refillRequestService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping("/prescriptions/dispense")
@@ -38,4 +68,123 @@ public class PharmacistController {
         PrescriptionDTO prescription = prescriptionService.dispenseMedication(request, pharmacistId);
         return ResponseEntity.ok(prescription);
     }
+    
+    @GetMapping("/prescriptions/{prescriptionId}/dispenses")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Get dispense history",
+               description = "Returns every dispense of a prescription, newest first")
+    public ResponseEntity<List<DispenseEventDTO>> getDispenseHistory(@PathVariable Long prescriptionId) {
+        return ResponseEntity.ok(dispenseLedger.getPrescriptionHistory(prescriptionId));
+    }
+    
+    @GetMapping("/pharmacies/{pharmacyId}/dispense-volume")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Get daily dispense volume",
+               description = "Returns the number of dispenses and units handed out by a pharmacy on one day (default today)")
+    public ResponseEntity<PharmacyDispenseVolumeDTO> getDailyVolume(
+            @PathVariable Long pharmacyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        
+        if (date == null) {
+            date = LocalDate.now();
+        }
+        
+        return ResponseEntity.ok(dispenseLedger.getPharmacyDailyVolume(pharmacyId, date));
+    }
+    
+    @GetMapping(value = "/refills/eligible-tomorrow", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Export tomorrow's refill-eligible prescriptions",
+               description = "Streams every prescription that can be refilled tomorrow as newline-delimited JSON, "
+                       + "grouped by patient, for pre-packing")
+    public ResponseEntity<StreamingResponseBody> exportEligibleTomorrow() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        
+        // The body is written on another thread; bind the request there so its patients are audited
+        PatientAccessContext.accessType(AccessType.EXPORT);
+        RequestAttributes request = PatientAccessContext.forAsyncResponse();
+        StreamingResponseBody body = outputStream -> {
+            RequestContextHolder.setRequestAttributes(request);
+            try {
+                refillEligibilityService.streamEligible(tomorrow, candidate -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(candidate));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @GetMapping("/pharmacies/{pharmacyId}/refill-queue")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Get refill work queue",
+               description = "Returns the pharmacy's refill requests waiting for work, oldest first, with who has claimed them")
+    public ResponseEntity<List<RefillRequestDTO>> getRefillQueue(
+            @PathVariable Long pharmacyId,
+            @RequestHeader(value = "X-Pharmacist-Id", required = false) String pharmacistId) {
+        
+        if (pharmacistId == null) {
+            pharmacistId = "pharmacist1"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(refillRequestService.getQueue(pharmacyId, pharmacistId));
+    }
+    
+    @PostMapping("/pharmacies/{pharmacyId}/refill-queue/claim")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Claim refill requests",
+               description = "Claims up to limit of the oldest unclaimed refill requests in the pharmacy's queue. "
+                       + "Concurrent claims never receive the same request; an empty list means there is no free work.")
+    public ResponseEntity<List<RefillRequestDTO>> claimRefillRequests(
+            @PathVariable Long pharmacyId,
+            @RequestParam(defaultValue = "1") int limit,
+            @RequestHeader(value = "X-Pharmacist-Id", required = false) String pharmacistId) {
+        
+        if (pharmacistId == null) {
+            pharmacistId = "pharmacist1"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(refillRequestService.claim(pharmacyId, pharmacistId, limit));
+    }
+    
+    @PutMapping("/refill-requests/{requestId}/status")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Update refill request status",
+               description = "Moves a refill request along PENDING, APPROVED, PROCESSING, READY, PICKED_UP "
+                       + "(or to DENIED/CANCELLED). Rejected if the move is not allowed or another pharmacist holds the claim.")
+    public ResponseEntity<RefillRequestDTO> updateRefillRequestStatus(
+            @PathVariable Long requestId,
+            @Valid @RequestBody UpdateRefillRequestStatusRequest request,
+            @RequestHeader(value = "X-Pharmacist-Id", required = false) String pharmacistId) {
+        
+        if (pharmacistId == null) {
+            pharmacistId = "pharmacist1"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(refillRequestService.updateStatus(requestId, request, pharmacistId));
+    }
+    
+    @PostMapping("/refill-requests/{requestId}/release")
+    @PreAuthorize("hasAnyAuthority('ROLE_PHARMACIST', 'PHARMACIST')")
+    @Operation(summary = "Release a claimed refill request",
+               description = "Returns a request the pharmacist has claimed to the queue")
+    public ResponseEntity<RefillRequestDTO> releaseRefillRequest(
+            @PathVariable Long requestId,
+            @RequestHeader(value = "X-Pharmacist-Id", required = false) String pharmacistId) {
+        
+        if (pharmacistId == null) {
+            pharmacistId = "pharmacist1"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(refillRequestService.release(requestId, pharmacistId));
+    }
 }
\ No newline at end of file
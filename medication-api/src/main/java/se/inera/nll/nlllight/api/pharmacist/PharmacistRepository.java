@@ -0,0 +1,12 @@
+package se.inera.nll.nlllight.api.pharmacist;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PharmacistRepository extends JpaRepository<Pharmacist, Long> {
+    
+    Optional<Pharmacist> findByUserId(String userId);
+}
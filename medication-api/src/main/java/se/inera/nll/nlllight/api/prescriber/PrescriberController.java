@@ -1,17 +1,27 @@
 package se.inera.nll.nlllight.api.prescriber;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.AccessType;
 import se.inera.nll.nlllight.api.prescription.PrescriptionService;
 import se.inera.nll.nlllight.api.prescription.dto.CreatePrescriptionRequest;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionPageDTO;
 import se.inera.nll.nlllight.api.prescription.dto.UpdatePrescriptionRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -21,9 +31,11 @@ import java.util.Map;
 public class PrescriberController {
     
     private final PrescriptionService prescriptionService;
+    private final ObjectMapper objectMapper;
     
-    public PrescriberController(PrescriptionService prescriptionService) {
+    public PrescriberController(PrescriptionService prescriptionService, ObjectMapper objectMapper) {
         this.prescriptionService = prescriptionService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping("/prescriptions")
@@ -97,6 +109,58 @@ public class PrescriberController {
         return ResponseEntity.ok(prescriptions);
     }
     
+    @GetMapping("/prescriptions/page")
+    @Operation(summary = "Get my prescriptions page by page", 
+               description = "Returns prescriptions created by this prescriber, newest first, using keyset pagination. " +
+                             "Pass the returned nextCursor as 'after' to fetch the following page.")
+    public ResponseEntity<PrescriptionPageDTO> getMyPrescriptionPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "X-Prescriber-Id", required = false) String prescriberId) {
+        
+        // TODO: Extract prescriberId from authentication token
+        if (prescriberId == null) {
+            prescriberId = "prescriber-001"; // Default for testing
+        }
+        
+        PrescriptionPageDTO page = prescriptionService.getPrescriberPrescriptionPage(prescriberId, limit, after);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping(value = "/prescriptions/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream my prescriptions", 
+               description = "Streams all prescriptions created by this prescriber as newline-delimited JSON, " +
+                             "newest first, without buffering the full list")
+    public ResponseEntity<StreamingResponseBody> streamMyPrescriptions(
+            @RequestHeader(value = "X-Prescriber-Id", required = false) String prescriberId) {
+        
+        // TODO: Extract prescriberId from authentication token
+        String prescriberUserId = prescriberId != null ? prescriberId : "prescriber-001"; // Default for testing
+        
+        // The body is written on another thread; bind the request there so its patients are audited
+        PatientAccessContext.accessType(AccessType.EXPORT);
+        RequestAttributes request = PatientAccessContext.forAsyncResponse();
+        StreamingResponseBody body = outputStream -> {
+            RequestContextHolder.setRequestAttributes(request);
+            try {
+                prescriptionService.streamPrescriberPrescriptions(prescriberUserId, dto -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(dto));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @GetMapping("/prescriptions/{id}")
     @Operation(summary = "Get prescription details", 
                description = "Returns detailed information about a specific prescription")
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "prescriptions")
+@EntityListeners(PrescriptionChangeListener.class)
 public class Prescription {
     
     @Id
@@ -135,6 +136,11 @@ public class Prescription {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: entity saves that raced a dispense (or each other) fail instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @Column(name = "created_by", length = 100)
     private String createdBy;
     
@@ -444,6 +450,14 @@ public class Prescription {
         return updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getCreatedBy() {
         return createdBy;
     }
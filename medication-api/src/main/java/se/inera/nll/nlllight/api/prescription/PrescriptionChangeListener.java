@@ -0,0 +1,30 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns prescription writes into {@link PrescriptionChangedEvent}s.
+ * Instantiated by Hibernate through Spring, so the publisher is injected.
+ */
+public class PrescriptionChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public PrescriptionChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    void onSaved(Prescription prescription) {
+        eventPublisher.publishEvent(PrescriptionChangedEvent.of(prescription, false));
+    }
+    
+    @PostRemove
+    void onRemoved(Prescription prescription) {
+        eventPublisher.publishEvent(PrescriptionChangedEvent.of(prescription, true));
+    }
+}
@@ -0,0 +1,20 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever a {@link Prescription} is inserted or updated through JPA, and by write
+ * paths that change a prescription with a bulk update. Carries the columns that decide refill
+ * eligibility, so listeners need not reload the row.
+ */
+public record PrescriptionChangedEvent(long prescriptionId, String patientId, PrescriptionStatus status,
+                                       Integer refillsRemaining, LocalDate nextRefillEligibleDate, boolean deleted) {
+
+    public static PrescriptionChangedEvent of(Prescription prescription, boolean deleted) {
+        return new PrescriptionChangedEvent(prescription.getId(), prescription.getPatient().getId(),
+                prescription.getStatus(), prescription.getRefillsRemaining(),
+                prescription.getNextRefillEligibleDate(), deleted);
+    }
+}
@@ -2,13 +2,32 @@ package se.inera.nll.nlllight.api.prescription;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import se.inera.nll.nlllight.api.adherence.AdherenceService;
+import se.inera.nll.nlllight.api.adherence.AdherenceStatisticsService;
+import se.inera.nll.nlllight.api.adherence.AdherenceWriteBehindQueue;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceAcceptedDTO;
 import se.inera.nll.nlllight.api.adherence.dto.AdherenceRecordDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceStatisticsDTO;
 import se.inera.nll.nlllight.api.adherence.dto.RecordAdherenceRequest;
+import se.inera.nll.nlllight.api.dosing.DoseSlotIndex;
+import se.inera.nll.nlllight.api.dosing.dto.ExpectedDoseDTO;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.refill.RefillRequestService;
+import se.inera.nll.nlllight.api.refill.dto.CreateRefillRequestRequest;
+import se.inera.nll.nlllight.api.refill.dto.RefillRequestDTO;
+import se.inera.nll.nlllight.api.reminder.ReminderService;
+import se.inera.nll.nlllight.api.reminder.dto.CreateReminderRequest;
+import se.inera.nll.nlllight.api.reminder.dto.MedicationReminderDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,11 +37,26 @@ public class PrescriptionController {
     
     private final PrescriptionService prescriptionService;
     private final AdherenceService adherenceService;
+    private final AdherenceStatisticsService adherenceStatisticsService;
+    private final ObjectProvider<AdherenceWriteBehindQueue> adherenceQueue;
+    private final RefillRequestService refillRequestService;
+    private final DoseSlotIndex doseSlotIndex;
+    private final ReminderService reminderService;
     
     public PrescriptionController(PrescriptionService prescriptionService,
-                                 AdherenceService adherenceService) {
+                                 AdherenceService adherenceService,
+                                 AdherenceStatisticsService adherenceStatisticsService,
+                                 ObjectProvider<AdherenceWriteBehindQueue> adherenceQueue,
+                                 RefillRequestService refillRequestService,
+                                 DoseSlotIndex doseSlotIndex,
+                                 ReminderService reminderService) {
         this.prescriptionService = prescriptionService;
         this.adherenceService = adherenceService;
+        this.adherenceStatisticsService = adherenceStatisticsService;
+        this.adherenceQueue = adherenceQueue;
+        this.refillRequestService = refillRequestService;
+        this.doseSlotIndex = doseSlotIndex;
+        this.reminderService = reminderService;
     }
     
     @GetMapping
@@ -49,9 +83,41 @@ public class PrescriptionController {
     @GetMapping("/{id}")
     @Operation(summary = "Get prescription details", 
                description = "Returns detailed information about a specific prescription")
-    public ResponseEntity<PrescriptionDTO> getPrescription(@PathVariable Long id) {
+    public ResponseEntity<PrescriptionDTO> getPrescription(@PathVariable Long id, WebRequest webRequest) {
+        // Revalidation is answered from the revision select; checkNotModified also sets ETag and Last-Modified
+        PrescriptionRevision revision = prescriptionService.getPrescriptionRevision(id);
+        if (webRequest.checkNotModified(revision.etag(), revision.lastModified().toEpochMilli())) {
+            return null;
+        }
+        
         PrescriptionDTO prescription = prescriptionService.getPrescriptionById(id);
-        return ResponseEntity.ok(prescription);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(prescription);
+    }
+    
+    @GetMapping("/as-of")
+    @Operation(summary = "Get my prescriptions at a past time",
+               description = "Returns every prescription the patient had at the given time, with status, dosing and "
+                       + "refills as they were then. Dispensing and refill progress are not included.")
+    public ResponseEntity<List<PrescriptionDTO>> getMyPrescriptionsAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(prescriptionService.getPatientPrescriptionsAsOf(patientId, at));
+    }
+    
+    @GetMapping("/{id}/as-of")
+    @Operation(summary = "Get a prescription at a past time",
+               description = "Returns the prescription as it was at the given time, rebuilt from its change history")
+    public ResponseEntity<PrescriptionDTO> getPrescriptionAsOf(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(prescriptionService.getPrescriptionAsOf(id, at));
     }
     
     @GetMapping("/refill-eligible")
@@ -68,10 +134,120 @@ public class PrescriptionController {
         return ResponseEntity.ok(prescriptions);
     }
     
+    @GetMapping("/expected-doses")
+    @Operation(summary = "Get expected doses",
+               description = "Returns the doses the patient's dosing schedules expect between from and to "
+                       + "(default the next 24 hours), within the materialized window")
+    public ResponseEntity<List<ExpectedDoseDTO>> getExpectedDoses(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        if (from == null) {
+            from = LocalDateTime.now();
+        }
+        if (to == null) {
+            to = from.plusDays(1);
+        }
+        
+        return ResponseEntity.ok(doseSlotIndex.getExpectedDoses(patientId, from, to));
+    }
+    
+    @PostMapping("/{id}/refill-requests")
+    @Operation(summary = "Request a refill",
+               description = "Queues a refill of the prescription at the given pharmacy (default the patient's preferred pharmacy). "
+                       + "The prescription must be active, have refills left and be eligible for refill.")
+    public ResponseEntity<RefillRequestDTO> requestRefill(
+            @PathVariable Long id,
+            @Valid @RequestBody CreateRefillRequestRequest request,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        RefillRequestDTO refillRequest = refillRequestService.createRequest(id, patientId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(refillRequest);
+    }
+    
+    @GetMapping("/refill-requests")
+    @Operation(summary = "Get my refill requests",
+               description = "Returns the patient's refill requests, newest first")
+    public ResponseEntity<List<RefillRequestDTO>> getMyRefillRequests(
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(refillRequestService.getPatientRequests(patientId));
+    }
+    
+    @PostMapping("/{id}/reminders")
+    @Operation(summary = "Add a medication reminder",
+               description = "Reminds the patient of the prescription's dose at a time of day, every day or on the given weekdays")
+    public ResponseEntity<MedicationReminderDTO> createReminder(
+            @PathVariable Long id,
+            @Valid @RequestBody CreateReminderRequest request,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        MedicationReminderDTO reminder = reminderService.createReminder(id, patientId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reminder);
+    }
+    
+    @GetMapping("/reminders")
+    @Operation(summary = "Get my reminders",
+               description = "Returns the patient's medication reminders with their next notification time")
+    public ResponseEntity<List<MedicationReminderDTO>> getMyReminders(
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(reminderService.getPatientReminders(patientId));
+    }
+    
+    @DeleteMapping("/reminders/{reminderId}")
+    @Operation(summary = "Turn off a reminder",
+               description = "Deactivates the reminder; it stops firing immediately")
+    public ResponseEntity<MedicationReminderDTO> deactivateReminder(
+            @PathVariable Long reminderId,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(reminderService.deactivateReminder(reminderId, patientId));
+    }
+    
+    @PostMapping("/reminders/{reminderId}/snooze")
+    @Operation(summary = "Snooze a reminder",
+               description = "Repeats the last notification after the reminder's snooze duration")
+    public ResponseEntity<MedicationReminderDTO> snoozeReminder(
+            @PathVariable Long reminderId,
+            @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
+        
+        if (patientId == null) {
+            patientId = "patient-001"; // Default for testing
+        }
+        
+        return ResponseEntity.ok(reminderService.snoozeReminder(reminderId, patientId));
+    }
+    
     @PostMapping("/{id}/take")
     @Operation(summary = "Record taking medication",
-               description = "Records that a patient has taken (or missed) their medication")
-    public ResponseEntity<AdherenceRecordDTO> recordMedicationTaken(
+               description = "Records that a patient has taken (or missed) their medication. "
+                       + "With adherence.async.enabled the event is queued and 202 is returned with its id.")
+    public ResponseEntity<?> recordMedicationTaken(
             @PathVariable Long id,
             @RequestBody RecordAdherenceRequest request,
             @RequestHeader(value = "X-Patient-Id", required = false) String patientId) {
@@ -80,6 +256,12 @@ public class PrescriptionController {
             patientId = "patient-001"; // Default for testing
         }
         
+        AdherenceWriteBehindQueue queue = adherenceQueue.getIfAvailable();
+        if (queue != null) {
+            AdherenceAcceptedDTO accepted = queue.submit(id, patientId, request.getStatus(), request.getNotes());
+            return ResponseEntity.accepted().body(accepted);
+        }
+        
         AdherenceRecordDTO record = adherenceService.recordAdherence(
                 id, 
                 patientId,
@@ -97,4 +279,12 @@ public class PrescriptionController {
         List<AdherenceRecordDTO> records = adherenceService.getAdherenceHistory(id);
         return ResponseEntity.ok(records);
     }
+    
+    @GetMapping("/{id}/adherence/statistics")
+    @Operation(summary = "Get adherence statistics",
+               description = "Returns pre-computed adherence totals, rate and streaks for a prescription")
+    public ResponseEntity<AdherenceStatisticsDTO> getAdherenceStatistics(@PathVariable Long id) {
+        AdherenceStatisticsDTO statistics = adherenceStatisticsService.getStatistics(id);
+        return ResponseEntity.ok(statistics);
+    }
 }
@@ -0,0 +1,35 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination on (prescribed_date, id).
+ */
+public record PrescriptionCursor(LocalDate prescribedDate, Long id) {
+    
+    public static PrescriptionCursor of(Prescription prescription) {
+        return new PrescriptionCursor(prescription.getPrescribedDate(), prescription.getId());
+    }
+    
+    public String encode() {
+        String raw = prescribedDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PrescriptionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new PrescriptionCursor(LocalDate.parse(raw.substring(0, separator)),
+                                          Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import se.inera.nll.nlllight.api.common.ModificationType;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The prescription fields whose history is kept in {@code prescription_modifications}: everything
+ * a prescriber can change, plus the status. Values are stored as text under {@link #fieldName()}.
+ */
+public enum PrescriptionField {
+    STATUS("status", Prescription::getStatus,
+            (dto, value) -> dto.setStatus(value != null ? PrescriptionStatus.valueOf(value) : null)),
+    DOSE("dose", Prescription::getDose,
+            (dto, value) -> dto.setDose(value != null ? new BigDecimal(value) : null)),
+    DOSE_UNIT("doseUnit", Prescription::getDoseUnit, PrescriptionDTO::setDoseUnit),
+    FREQUENCY("frequency", Prescription::getFrequency, PrescriptionDTO::setFrequency),
+    FREQUENCY_DESCRIPTION("frequencyDescription", Prescription::getFrequencyDescription,
+            PrescriptionDTO::setFrequencyDescription),
+    ROUTE("route", Prescription::getRoute, PrescriptionDTO::setRoute),
+    INDICATION("indication", Prescription::getIndication, PrescriptionDTO::setIndication),
+    INSTRUCTIONS("instructions", Prescription::getInstructions, PrescriptionDTO::setInstructions),
+    END_DATE("endDate", Prescription::getEndDate,
+            (dto, value) -> dto.setEndDate(value != null ? LocalDate.parse(value) : null)),
+    REFILLS_ALLOWED("refillsAllowed", Prescription::getRefillsAllowed,
+            (dto, value) -> dto.setRefillsAllowed(value != null ? Integer.valueOf(value) : null)),
+    SUBSTITUTION_ALLOWED("isSubstitutionAllowed", Prescription::getIsSubstitutionAllowed,
+            (dto, value) -> dto.setIsSubstitutionAllowed(value != null ? Boolean.valueOf(value) : null));
+
+    private static final Map<String, PrescriptionField> BY_NAME = new HashMap<>();
+
+    static {
+        for (PrescriptionField field : values()) {
+            BY_NAME.put(field.fieldName, field);
+        }
+    }
+
+    private final String fieldName;
+    private final Function<Prescription, Object> getter;
+    private final BiConsumer<PrescriptionDTO, String> setter;
+
+    PrescriptionField(String fieldName, Function<Prescription, Object> getter, BiConsumer<PrescriptionDTO, String> setter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Null for a field that is not tracked (or no longer exists).
+     */
+    public static PrescriptionField byName(String fieldName) {
+        return BY_NAME.get(fieldName);
+    }
+
+    String read(Prescription prescription) {
+        Object value = getter.apply(prescription);
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    void apply(PrescriptionDTO dto, String value) {
+        setter.accept(dto, value);
+    }
+
+    boolean changed(String oldValue, String newValue) {
+        if (oldValue == null || newValue == null) {
+            return oldValue != null || newValue != null;
+        }
+        // 500 and 500.00 are the same dose
+        return this == DOSE ? new BigDecimal(oldValue).compareTo(new BigDecimal(newValue)) != 0 : !oldValue.equals(newValue);
+    }
+
+    ModificationType modificationType(String oldValue, String newValue) {
+        return switch (this) {
+            case STATUS -> PrescriptionStatus.CANCELLED.name().equals(newValue)
+                    ? ModificationType.CANCELLATION
+                    : ModificationType.STATUS_CHANGE;
+            case DOSE, DOSE_UNIT, FREQUENCY, FREQUENCY_DESCRIPTION, ROUTE -> ModificationType.DOSE_CHANGE;
+            case REFILLS_ALLOWED -> ModificationType.REFILL_CHANGE;
+            // Removing the end date or moving it later extends the prescription
+            case END_DATE -> newValue == null || (oldValue != null && LocalDate.parse(newValue).isAfter(LocalDate.parse(oldValue)))
+                    ? ModificationType.EXTENSION
+                    : ModificationType.OTHER;
+            default -> ModificationType.OTHER;
+        };
+    }
+}
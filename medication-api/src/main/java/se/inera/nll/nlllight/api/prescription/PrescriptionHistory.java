@@ -0,0 +1,196 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field-level change history of prescriptions. Callers take the state before changing a
+ * prescription with {@link #capture} and pass it to {@link #record}, which writes one
+ * {@code prescription_modifications} row per changed field as one JDBC batch in the caller's
+ * transaction.
+ * <p>
+ * Every prescription gets a snapshot when it is created and again after each
+ * {@code prescription.history.snapshot-interval} changes, so {@link #statesAsOf} rebuilds a past
+ * state from the nearest earlier snapshot and at most an interval of changes.
+ */
+@Service
+public class PrescriptionHistory {
+
+    private static final String INSERT_MODIFICATION_SQL =
+            "INSERT INTO prescription_modifications (prescription_id, modified_by, modified_at, modification_type, "
+            + "field_name, old_value, new_value, reason) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CHANGES_SINCE_SNAPSHOT_SQL =
+            "SELECT COUNT(*), MAX(m.id) FROM prescription_modifications m WHERE m.prescription_id = ? "
+            + "AND m.id > COALESCE((SELECT MAX(s.last_modification_id) FROM prescription_snapshots s "
+            + "WHERE s.prescription_id = ?), 0)";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO prescription_snapshots (prescription_id, snapshot_at, last_modification_id, state) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private static final TypeReference<Map<String, String>> STATE_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PrescriptionModificationRepository modificationRepository;
+    private final PrescriptionSnapshotRepository snapshotRepository;
+    private final int snapshotInterval;
+
+    public PrescriptionHistory(JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PrescriptionModificationRepository modificationRepository,
+                               PrescriptionSnapshotRepository snapshotRepository,
+                               @Value("${prescription.history.snapshot-interval:20}") int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.modificationRepository = modificationRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public Map<PrescriptionField, String> capture(Prescription prescription) {
+        Map<PrescriptionField, String> state = new EnumMap<>(PrescriptionField.class);
+        for (PrescriptionField field : PrescriptionField.values()) {
+            state.put(field, field.read(prescription));
+        }
+        return state;
+    }
+
+    /**
+     * Takes the initial snapshot of a prescription that has just been inserted.
+     */
+    public void recordCreated(Prescription prescription) {
+        insertSnapshot(prescription.getId(), prescription.getCreatedAt(), 0, capture(prescription));
+    }
+
+    /**
+     * Writes a row for every tracked field that differs from {@code before}, and a snapshot when
+     * enough changes have accumulated since the last one.
+     *
+     * @return the number of changed fields
+     */
+    public int record(Prescription prescription, Map<PrescriptionField, String> before, String modifiedBy, String reason) {
+        // Stored timestamps have microsecond precision; keep the snapshot and its rows comparable
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        Map<PrescriptionField, String> after = capture(prescription);
+        List<Object[]> rows = new ArrayList<>();
+        for (PrescriptionField field : PrescriptionField.values()) {
+            String oldValue = before.get(field);
+            String newValue = after.get(field);
+            if (field.changed(oldValue, newValue)) {
+                rows.add(new Object[] {prescription.getId(), modifiedBy, now, field.modificationType(oldValue, newValue).name(),
+                        field.fieldName(), oldValue, newValue, reason});
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MODIFICATION_SQL, rows);
+
+        jdbcTemplate.query(CHANGES_SINCE_SNAPSHOT_SQL, rs -> {
+            if (rs.getLong(1) >= snapshotInterval) {
+                insertSnapshot(prescription.getId(), now.toLocalDateTime(), rs.getLong(2), after);
+            }
+        }, prescription.getId(), prescription.getId());
+        return rows.size();
+    }
+
+    /**
+     * Records a status change made outside the entity, such as the completing dispense.
+     */
+    public void recordStatusChange(Prescription prescription, PrescriptionStatus from, String modifiedBy, String reason) {
+        Map<PrescriptionField, String> before = capture(prescription);
+        before.put(PrescriptionField.STATUS, from.name());
+        record(prescription, before, modifiedBy, reason);
+    }
+
+    /**
+     * The tracked fields of each prescription as they were at {@code asOf}, keyed by prescription
+     * id. Prescriptions created after {@code asOf} are left out.
+     * <p>
+     * Starts from the latest snapshot at or before {@code asOf} and applies the changes after it.
+     * A prescription without such a snapshot (created before history was kept) is rebuilt
+     * backwards from its current state instead.
+     */
+    public Map<Long, Map<PrescriptionField, String>> statesAsOf(List<Prescription> prescriptions, LocalDateTime asOf) {
+        Map<Long, Prescription> existing = new LinkedHashMap<>();
+        for (Prescription prescription : prescriptions) {
+            if (prescription.getCreatedAt() == null || !prescription.getCreatedAt().isAfter(asOf)) {
+                existing.put(prescription.getId(), prescription);
+            }
+        }
+        Map<Long, Map<PrescriptionField, String>> states = new HashMap<>();
+        if (existing.isEmpty()) {
+            return states;
+        }
+
+        for (PrescriptionSnapshot snapshot : snapshotRepository.findLatestAsOf(existing.keySet(), asOf)) {
+            states.put(snapshot.getPrescriptionId(), parse(snapshot.getState()));
+        }
+        if (!states.isEmpty()) {
+            for (PrescriptionModification modification : modificationRepository.findSinceSnapshotAsOf(states.keySet(), asOf)) {
+                apply(states.get(modification.getPrescriptionId()), modification.getFieldName(), modification.getNewValue());
+            }
+        }
+
+        List<Long> unsnapshotted = existing.keySet().stream().filter(id -> !states.containsKey(id)).toList();
+        if (!unsnapshotted.isEmpty()) {
+            for (Long id : unsnapshotted) {
+                states.put(id, capture(existing.get(id)));
+            }
+            for (PrescriptionModification modification : modificationRepository.findAfter(unsnapshotted, asOf)) {
+                apply(states.get(modification.getPrescriptionId()), modification.getFieldName(), modification.getOldValue());
+            }
+        }
+        return states;
+    }
+
+    private void insertSnapshot(Long prescriptionId, LocalDateTime at, long lastModificationId, Map<PrescriptionField, String> state) {
+        Map<String, String> byName = new LinkedHashMap<>();
+        state.forEach((field, value) -> byName.put(field.fieldName(), value));
+        try {
+            jdbcTemplate.update(INSERT_SNAPSHOT_SQL, prescriptionId, Timestamp.valueOf(at), lastModificationId,
+                    objectMapper.writeValueAsString(byName));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<PrescriptionField, String> parse(String json) {
+        Map<PrescriptionField, String> state = new EnumMap<>(PrescriptionField.class);
+        try {
+            objectMapper.readValue(json, STATE_TYPE).forEach((name, value) -> apply(state, name, value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return state;
+    }
+
+    private static void apply(Map<PrescriptionField, String> state, String fieldName, String value) {
+        PrescriptionField field = PrescriptionField.byName(fieldName);
+        if (field != null) {
+            state.put(field, value);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import se.inera.nll.nlllight.api.common.ModificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One changed field of a prescription. Rows are inserted in JDBC batches by
+ * {@link PrescriptionHistory} and only read through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "prescription_modifications")
+public class PrescriptionModification {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "modified_by", nullable = false, length = 100)
+    private String modifiedBy;
+    
+    @Column(name = "modified_at")
+    private LocalDateTime modifiedAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "modification_type", nullable = false, length = 50)
+    private ModificationType modificationType;
+    
+    @Column(name = "field_name", length = 100)
+    private String fieldName;
+    
+    @Column(name = "old_value", columnDefinition = "TEXT")
+    private String oldValue;
+    
+    @Column(name = "new_value", columnDefinition = "TEXT")
+    private String newValue;
+    
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+    
+    // Getters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public String getModifiedBy() {
+        return modifiedBy;
+    }
+    
+    public LocalDateTime getModifiedAt() {
+        return modifiedAt;
+    }
+    
+    public ModificationType getModificationType() {
+        return modificationType;
+    }
+    
+    public String getFieldName() {
+        return fieldName;
+    }
+    
+    public String getOldValue() {
+        return oldValue;
+    }
+    
+    public String getNewValue() {
+        return newValue;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,31 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read side of the prescription change history; rows are only inserted by {@link PrescriptionHistory}.
+ */
+public interface PrescriptionModificationRepository extends Repository<PrescriptionModification, Long> {
+    
+    List<PrescriptionModification> findByPrescriptionIdOrderByIdAsc(Long prescriptionId);
+    
+    // The changes between each prescription's latest snapshot at asOf and asOf; only for
+    // prescriptions that have such a snapshot
+    @Query("SELECT m FROM PrescriptionModification m WHERE m.prescriptionId IN :ids AND m.modifiedAt <= :asOf " +
+           "AND m.id > (SELECT MAX(s.lastModificationId) FROM PrescriptionSnapshot s " +
+           "WHERE s.prescriptionId = m.prescriptionId AND s.snapshotAt <= :asOf) " +
+           "ORDER BY m.prescriptionId, m.id")
+    List<PrescriptionModification> findSinceSnapshotAsOf(@Param("ids") Collection<Long> ids,
+                                                         @Param("asOf") LocalDateTime asOf);
+    
+    // Newest first, for undoing changes from the current state back to asOf
+    @Query("SELECT m FROM PrescriptionModification m WHERE m.prescriptionId IN :ids AND m.modifiedAt > :asOf " +
+           "ORDER BY m.prescriptionId, m.id DESC")
+    List<PrescriptionModification> findAfter(@Param("ids") Collection<Long> ids, @Param("asOf") LocalDateTime asOf);
+}
@@ -1,39 +1,132 @@
 package se.inera.nll.nlllight.api.prescription;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import se.inera.nll.nlllight.api.common.PrescriptionStatus;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
     
+    /**
+     * Check-and-increment in one statement. The UPDATE's row lock serializes concurrent dispenses of
+     * the same prescription and the WHERE clause is evaluated against the committed quantity, so the
+     * prescribed total can never be exceeded. Returns 0 when the prescription is missing, no longer
+     * active or would be over-dispensed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Prescription p SET "
+            + "p.quantityDispensed = p.quantityDispensed + :quantity, "
+            + "p.status = CASE WHEN p.quantityPrescribed IS NOT NULL AND p.quantityDispensed + :quantity >= p.quantityPrescribed "
+            + "THEN se.inera.nll.nlllight.api.common.PrescriptionStatus.COMPLETED ELSE p.status END, "
+            + "p.updatedAt = :now, "
+            + "p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.status = se.inera.nll.nlllight.api.common.PrescriptionStatus.ACTIVE "
+            + "AND (p.quantityPrescribed IS NULL OR p.quantityDispensed + :quantity <= p.quantityPrescribed)")
+    int dispense(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    // Only the change markers; backs conditional GETs without loading the entity graph
+    @Query("SELECT new se.inera.nll.nlllight.api.prescription.PrescriptionRevision("
+            + "p.id, p.patient.id, p.updatedAt, m.updatedAt, pr.updatedAt) "
+            + "FROM Prescription p JOIN p.medication m LEFT JOIN p.prescriber pr WHERE p.id = :id")
+    Optional<PrescriptionRevision> findRevisionById(@Param("id") Long id);
+    
+    // List queries fetch medication and prescriber in the same select; toDTO touches both
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     List<Prescription> findByPatientIdAndStatus(String patientId, PrescriptionStatus status);
     
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     List<Prescription> findByPatientId(String patientId);
     
     Optional<Prescription> findByPrescriptionNumber(String prescriptionNumber);
     
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     @Query("SELECT p FROM Prescription p WHERE p.patient.id = :patientId AND p.status = 'ACTIVE' " +
            "AND p.nextRefillEligibleDate <= :date AND p.refillsRemaining > 0")
     List<Prescription> findRefillEligiblePrescriptions(@Param("patientId") String patientId, 
                                                        @Param("date") LocalDate date);
     
+    // Primary-key lookup of prescriptions already known to be eligible (materialized refill sets)
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
+    @Query("SELECT p FROM Prescription p WHERE p.id IN :ids")
+    List<Prescription> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     @Query("SELECT p FROM Prescription p WHERE p.patient.id = :patientId " +
            "AND p.status = 'ACTIVE' ORDER BY p.prescribedDate DESC")
     List<Prescription> findActivePrescriptionsByPatient(@Param("patientId") String patientId);
     
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     @Query("SELECT p FROM Prescription p WHERE p.prescriber.userId = :prescriberUserId " +
            "ORDER BY p.prescribedDate DESC")
     List<Prescription> findByPrescriberId(@Param("prescriberUserId") String prescriberUserId);
     
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
     @Query("SELECT p FROM Prescription p WHERE p.prescriber.userId = :prescriberUserId " +
            "AND p.patient.id = :patientId ORDER BY p.prescribedDate DESC")
     List<Prescription> findByPrescriberIdAndPatientId(@Param("prescriberUserId") String prescriberUserId, 
                                                        @Param("patientId") String patientId);
+    
+    // Keyset pagination over a prescriber's panel, ordered (prescribed_date DESC, id DESC)
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
+    @Query("SELECT p FROM Prescription p WHERE p.prescriber.userId = :prescriberUserId " +
+           "ORDER BY p.prescribedDate DESC, p.id DESC")
+    List<Prescription> findFirstPageByPrescriberId(@Param("prescriberUserId") String prescriberUserId, 
+                                                   Limit limit);
+    
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
+    @Query("SELECT p FROM Prescription p WHERE p.prescriber.userId = :prescriberUserId " +
+           "AND (p.prescribedDate < :prescribedDate OR (p.prescribedDate = :prescribedDate AND p.id < :id)) " +
+           "ORDER BY p.prescribedDate DESC, p.id DESC")
+    List<Prescription> findPageByPrescriberIdAfter(@Param("prescriberUserId") String prescriberUserId, 
+                                                   @Param("prescribedDate") LocalDate prescribedDate, 
+                                                   @Param("id") Long id, 
+                                                   Limit limit);
+    
+    @EntityGraph(attributePaths = {"medication", "prescriber"})
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "256"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Prescription p WHERE p.prescriber.userId = :prescriberUserId " +
+           "ORDER BY p.prescribedDate DESC, p.id DESC")
+    Stream<Prescription> streamByPrescriberId(@Param("prescriberUserId") String prescriberUserId);
+    
+    // Owner check for a queued adherence event, without loading the prescription
+    @Query("SELECT p.patient.id FROM Prescription p WHERE p.id = :id")
+    Optional<String> findPatientIdById(@Param("id") Long id);
+    
+    // Owner and default dose for a whole adherence ingestion batch in one round trip
+    @Query("SELECT p.id, p.patient.id, p.dose, p.doseUnit FROM Prescription p WHERE p.id IN :ids")
+    List<Object[]> findOwnershipByIds(@Param("ids") Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Prescription p WHERE p.id IN :ids ORDER BY p.id")
+    List<Prescription> findByIdsForUpdate(@Param("ids") Collection<Long> ids);
+    
+    // Prescription count per medication, used to rank typeahead suggestions
+    @Query("SELECT p.medication.id, COUNT(p) FROM Prescription p GROUP BY p.medication.id")
+    List<Object[]> countPrescriptionsByMedication();
+    
+    // The substances a patient is currently on, for interaction screening of a new prescription
+    @Query("SELECT new se.inera.nll.nlllight.api.prescription.PrescriptionSubstance(p.id, m.substanceId) " +
+           "FROM Prescription p JOIN p.medication m " +
+           "WHERE p.patient.id = :patientId AND p.status = 'ACTIVE' AND p.id <> :excludedId")
+    List<PrescriptionSubstance> findActiveSubstancesByPatientId(@Param("patientId") String patientId,
+                                                                @Param("excludedId") Long excludedId);
 }
@@ -0,0 +1,38 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+/**
+ * Change markers of a prescription and of the rows its DTO embeds, read with one narrow select
+ * so a conditional GET can be answered before the prescription is loaded and mapped.
+ */
+public record PrescriptionRevision(Long id,
+                                   String patientId,
+                                   LocalDateTime updatedAt,
+                                   LocalDateTime medicationUpdatedAt,
+                                   LocalDateTime prescriberUpdatedAt) {
+    
+    // Bump whenever PrescriptionDTO changes shape, so representations cached by clients are not reused
+    static final int REPRESENTATION_VERSION = 1;
+    
+    public Instant lastModified() {
+        return Stream.of(updatedAt, medicationUpdatedAt, prescriberUpdatedAt)
+                .filter(timestamp -> timestamp != null)
+                .max(LocalDateTime::compareTo)
+                .map(timestamp -> timestamp.atZone(ZoneId.systemDefault()).toInstant())
+                .orElse(Instant.EPOCH);
+    }
+    
+    /**
+     * Strong validator: any update to the prescription, its medication or its prescriber moves
+     * the newest timestamp and with it the tag.
+     */
+    public String etag() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, lastModified());
+        return "\"rx-" + id + "-v" + REPRESENTATION_VERSION + "-" + Long.toString(micros, 36) + "\"";
+    }
+}
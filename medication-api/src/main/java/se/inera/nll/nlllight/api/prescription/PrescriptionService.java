@@ -2,9 +2,15 @@ package se.inera.nll.nlllight.api.prescription;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
 import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.dispense.DispenseLedger;
+import se.inera.nll.nlllight.api.interaction.InteractionEngine;
 import se.inera.nll.nlllight.api.medication.Medication;
 import se.inera.nll.nlllight.api.medication.MedicationRepository;
 import se.inera.nll.nlllight.api.patient.Patient;
@@ -14,13 +20,18 @@ import se.inera.nll.nlllight.api.prescriber.PrescriberRepository;
 import se.inera.nll.nlllight.api.prescription.dto.CreatePrescriptionRequest;
 import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionPageDTO;
 import se.inera.nll.nlllight.api.prescription.dto.UpdatePrescriptionRequest;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -28,22 +39,42 @@ public class PrescriptionService {
     
     private static final Logger logger = LoggerFactory.getLogger(PrescriptionService.class);
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private final PrescriptionRepository prescriptionRepository;
     private final PatientRepository patientRepository;
     private final MedicationRepository medicationRepository;
     private final PrescriberRepository prescriberRepository;
+    private final DispenseLedger dispenseLedger;
+    private final InteractionEngine interactionEngine;
+    private final RefillEligibilityService refillEligibilityService;
+    private final PrescriptionHistory prescriptionHistory;
     
     public PrescriptionService(PrescriptionRepository prescriptionRepository,
                               PatientRepository patientRepository,
                               MedicationRepository medicationRepository,
-                              PrescriberRepository prescriberRepository) {
+                              PrescriberRepository prescriberRepository,
+                              DispenseLedger dispenseLedger,
+                              InteractionEngine interactionEngine,
+                              RefillEligibilityService refillEligibilityService,
+                              PrescriptionHistory prescriptionHistory) {
         this.prescriptionRepository = prescriptionRepository;
         this.patientRepository = patientRepository;
         this.medicationRepository = medicationRepository;
         this.prescriberRepository = prescriberRepository;
+        this.dispenseLedger = dispenseLedger;
+        this.interactionEngine = interactionEngine;
+        this.refillEligibilityService = refillEligibilityService;
+        this.prescriptionHistory = prescriptionHistory;
     }
     
     public List<PrescriptionDTO> getPatientPrescriptions(String patientId, String status) {
+        // An empty list still tells the caller something about the patient
+        PatientAccessContext.accessed(patientId);
         List<Prescription> prescriptions;
         
         if (status != null && !status.isEmpty()) {
@@ -65,17 +96,71 @@ public class PrescriptionService {
         return toDTO(prescription);
     }
     
+    public PrescriptionRevision getPrescriptionRevision(Long id) {
+        PrescriptionRevision revision = prescriptionRepository.findRevisionById(id)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + id));
+        // A 304 confirms the client's copy, so it is an access as well
+        PatientAccessContext.accessed(revision.patientId());
+        return revision;
+    }
+    
     public List<PrescriptionDTO> getRefillEligiblePrescriptions(String patientId) {
-        LocalDate today = LocalDate.now();
-        List<Prescription> prescriptions = prescriptionRepository
-                .findRefillEligiblePrescriptions(patientId, today);
+        PatientAccessContext.accessed(patientId);
+        // Served from the materialized set for today when there is one; the query is the fallback
+        List<Prescription> prescriptions = refillEligibilityService.eligibleToday(patientId)
+                .map(ids -> ids.isEmpty() ? List.<Prescription>of() : prescriptionRepository.findWithDetailsByIdIn(ids))
+                .orElseGet(() -> prescriptionRepository.findRefillEligiblePrescriptions(patientId, LocalDate.now()));
         
         return prescriptions.stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * The prescription as it was at {@code asOf}, rebuilt from its change history.
+     */
+    @Transactional(readOnly = true)
+    public PrescriptionDTO getPrescriptionAsOf(Long id, LocalDateTime asOf) {
+        Prescription prescription = prescriptionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + id));
+        List<PrescriptionDTO> found = toDTOsAsOf(List.of(prescription), asOf);
+        if (found.isEmpty()) {
+            throw new RuntimeException("Prescription not found: " + id + " did not exist at " + asOf);
+        }
+        return found.get(0);
+    }
+    
+    /**
+     * Every prescription the patient had at {@code asOf}, whatever its status then.
+     */
+    @Transactional(readOnly = true)
+    public List<PrescriptionDTO> getPatientPrescriptionsAsOf(String patientId, LocalDateTime asOf) {
+        PatientAccessContext.accessed(patientId);
+        return toDTOsAsOf(prescriptionRepository.findByPatientId(patientId), asOf);
+    }
+    
+    private List<PrescriptionDTO> toDTOsAsOf(List<Prescription> prescriptions, LocalDateTime asOf) {
+        Map<Long, Map<PrescriptionField, String>> states = prescriptionHistory.statesAsOf(prescriptions, asOf);
+        return prescriptions.stream()
+                .filter(prescription -> states.containsKey(prescription.getId()))
+                .map(prescription -> {
+                    PrescriptionDTO dto = toDTO(prescription);
+                    states.get(prescription.getId()).forEach((field, value) -> field.apply(dto, value));
+                    // Dispensing and refill progress have no history here; leave them out rather than show today's
+                    dto.setRefillsRemaining(null);
+                    dto.setNextRefillEligibleDate(null);
+                    dto.setQuantityDispensed(null);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+    
     private PrescriptionDTO toDTO(Prescription prescription) {
+        // Every prescription handed out of the service is audited against its patient
+        if (prescription.getPatient() != null) {
+            PatientAccessContext.accessed(prescription.getPatient().getId());
+        }
+        
         PrescriptionDTO dto = new PrescriptionDTO();
         dto.setId(prescription.getId());
         dto.setPrescriptionNumber(prescription.getPrescriptionNumber());
@@ -183,9 +268,12 @@ public class PrescriptionService {
         
         // Save
         Prescription saved = prescriptionRepository.save(prescription);
+        prescriptionHistory.recordCreated(saved);
         logger.info("Created prescription {} for patient {}", saved.getPrescriptionNumber(), patient.getId());
         
-        return toDTO(saved);
+        PrescriptionDTO dto = toDTO(saved);
+        dto.setInteractionAlerts(interactionEngine.screen(saved));
+        return dto;
     }
     
     public PrescriptionDTO updatePrescription(Long id, UpdatePrescriptionRequest request, String prescriberUserId) {
@@ -209,6 +297,8 @@ public class PrescriptionService {
             throw new RuntimeException("Cannot modify prescription with status: " + prescription.getStatus());
         }
         
+        Map<PrescriptionField, String> before = prescriptionHistory.capture(prescription);
+        
         // Update modifiable fields
         if (request.getDose() != null) {
             prescription.setDose(request.getDose());
@@ -244,7 +334,9 @@ public class PrescriptionService {
         // updatedAt is automatically set by @PreUpdate
         
         Prescription saved = prescriptionRepository.save(prescription);
-        logger.info("Updated prescription {}: {}", id, request.getModificationReason());
+        // One prescription_modifications row per changed field, in this transaction
+        int changed = prescriptionHistory.record(saved, before, prescriberUserId, request.getModificationReason());
+        logger.info("Updated prescription {} ({} fields changed): {}", id, changed, request.getModificationReason());
         
         return toDTO(saved);
     }
@@ -272,12 +364,15 @@ public class PrescriptionService {
             throw new RuntimeException("Cannot cancel completed prescription");
         }
         
+        Map<PrescriptionField, String> before = prescriptionHistory.capture(prescription);
         prescription.setStatus(PrescriptionStatus.CANCELLED);
         prescription.setCancelledAt(LocalDateTime.now());
         prescription.setCancelledBy(prescriberUserId);
         prescription.setCancellationReason(reason);
         
         prescriptionRepository.save(prescription);
+        prescriptionHistory.record(prescription, before, prescriberUserId, reason);
+        PatientAccessContext.accessed(prescription.getPatient().getId());
         logger.info("Cancelled prescription {}: {}", id, reason);
     }
     
@@ -295,38 +390,77 @@ public class PrescriptionService {
                 .collect(Collectors.toList());
     }
     
-    public PrescriptionDTO dispenseMedication(DispenseMedicationRequest request, String pharmacistUserId) {
-        logger.info("Dispensing medication for prescription ID: {} by pharmacist: {}", 
-                   request.getPrescriptionId(), pharmacistUserId);
-        
-        Prescription prescription = prescriptionRepository.findById(request.getPrescriptionId())
-                .orElseThrow(() -> new IllegalArgumentException("Prescription not found"));
+    @Transactional(readOnly = true)
+    public PrescriptionPageDTO getPrescriberPrescriptionPage(String prescriberId, Integer limit, String after) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
         
-        // Validate prescription status
-        if (prescription.getStatus() != PrescriptionStatus.ACTIVE) {
-            throw new IllegalStateException("Can only dispense from active prescriptions");
+        // Fetch one extra row to know whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Prescription> rows;
+        if (after != null && !after.isEmpty()) {
+            PrescriptionCursor cursor = PrescriptionCursor.decode(after);
+            rows = prescriptionRepository.findPageByPrescriberIdAfter(
+                    prescriberId, cursor.prescribedDate(), cursor.id(), fetchLimit);
+        } else {
+            rows = prescriptionRepository.findFirstPageByPrescriberId(prescriberId, fetchLimit);
         }
         
-        // Calculate new dispensed quantity
-        int currentDispensed = prescription.getQuantityDispensed() != null ? prescription.getQuantityDispensed() : 0;
-        int newDispensed = currentDispensed + request.getQuantityToDispense();
+        boolean hasMore = rows.size() > pageSize;
+        List<Prescription> page = hasMore ? rows.subList(0, pageSize) : rows;
         
-        // Check if dispensing would exceed prescribed quantity
-        if (prescription.getQuantityPrescribed() != null && newDispensed > prescription.getQuantityPrescribed()) {
-            throw new IllegalStateException("Cannot dispense more than prescribed quantity");
+        PrescriptionPageDTO dto = new PrescriptionPageDTO();
+        dto.setItems(page.stream().map(this::toDTO).collect(Collectors.toList()));
+        dto.setHasMore(hasMore);
+        dto.setNextCursor(hasMore ? PrescriptionCursor.of(page.get(page.size() - 1)).encode() : null);
+        return dto;
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamPrescriberPrescriptions(String prescriberId, Consumer<PrescriptionDTO> consumer) {
+        try (Stream<Prescription> rows = prescriptionRepository.streamByPrescriberId(prescriberId)) {
+            rows.forEach(prescription -> {
+                consumer.accept(toDTO(prescription));
+                // Keep the persistence context flat while the cursor advances
+                entityManager.detach(prescription);
+            });
         }
+    }
+    
+    public PrescriptionDTO dispenseMedication(DispenseMedicationRequest request, String pharmacistUserId) {
+        logger.info("Dispensing medication for prescription ID: {} by pharmacist: {}", 
+                   request.getPrescriptionId(), pharmacistUserId);
         
-        // Update dispensed quantity
-        prescription.setQuantityDispensed(newDispensed);
-        
-        // If fully dispensed, mark as completed
-        if (prescription.getQuantityPrescribed() != null && newDispensed >= prescription.getQuantityPrescribed()) {
-            prescription.setStatus(PrescriptionStatus.COMPLETED);
+        Long prescriptionId = request.getPrescriptionId();
+        int quantity = request.getQuantityToDispense();
+        
+        // The quantity check and the increment happen in one conditional UPDATE, so parallel
+        // pharmacies cannot both pass the check; it also completes a fully dispensed prescription
+        LocalDateTime now = LocalDateTime.now();
+        if (prescriptionRepository.dispense(prescriptionId, quantity, now) == 0) {
+            // Nothing was updated: report why from the current row
+            Prescription prescription = prescriptionRepository.findById(prescriptionId)
+                    .orElseThrow(() -> new IllegalArgumentException("Prescription not found"));
+            if (prescription.getStatus() != PrescriptionStatus.ACTIVE) {
+                throw new IllegalStateException("Can only dispense from active prescriptions");
+            }
+            throw new IllegalStateException("Cannot dispense more than prescribed quantity");
         }
         
-        Prescription saved = prescriptionRepository.save(prescription);
+        Prescription saved = prescriptionRepository.findById(prescriptionId)
+                .orElseThrow(() -> new IllegalArgumentException("Prescription not found"));
+        // The row stays locked until commit, so refill state is updated without a race
+        refillEligibilityService.recordFill(saved, now.toLocalDate());
+        // Same transaction as the quantity update: the ledger never misses or invents a dispense
+        dispenseLedger.append(saved, request, pharmacistUserId, now);
+        if (saved.getStatus() == PrescriptionStatus.COMPLETED) {
+            // Completed by the conditional UPDATE above, which only matches active prescriptions
+            prescriptionHistory.recordStatusChange(saved, PrescriptionStatus.ACTIVE, pharmacistUserId, "Fully dispensed");
+        }
         logger.info("Medication dispensed successfully. Prescription ID: {}, Total dispensed: {}", 
-                   prescription.getId(), newDispensed);
+                   saved.getId(), saved.getQuantityDispensed());
         
         return toDTO(saved);
     }
@@ -0,0 +1,55 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The tracked fields of a prescription at {@code snapshotAt}, as JSON keyed by
+ * {@link PrescriptionField#fieldName()}. Covers every modification up to and including
+ * {@code lastModificationId}; a past state is this snapshot plus the modifications after it.
+ */
+@Entity
+@Immutable
+@Table(name = "prescription_snapshots")
+public class PrescriptionSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+    
+    @Column(name = "last_modification_id", nullable = false)
+    private Long lastModificationId;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String state;
+    
+    // Getters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+    
+    public Long getLastModificationId() {
+        return lastModificationId;
+    }
+    
+    public String getState() {
+        return state;
+    }
+}
@@ -0,0 +1,20 @@
+package se.inera.nll.nlllight.api.prescription;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read side of prescription snapshots; rows are only inserted by {@link PrescriptionHistory}.
+ */
+public interface PrescriptionSnapshotRepository extends Repository<PrescriptionSnapshot, Long> {
+    
+    // idx_prescription_snapshots_time; snapshots of one prescription are taken in id order
+    @Query("SELECT s FROM PrescriptionSnapshot s WHERE s.prescriptionId IN :ids AND s.id = (" +
+           "SELECT MAX(l.id) FROM PrescriptionSnapshot l WHERE l.prescriptionId = s.prescriptionId AND l.snapshotAt <= :asOf)")
+    List<PrescriptionSnapshot> findLatestAsOf(@Param("ids") Collection<Long> ids, @Param("asOf") LocalDateTime asOf);
+}
@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.prescription;
+
+/**
+ * A prescription reduced to the substance it delivers, for interaction screening.
+ */
+public record PrescriptionSubstance(long prescriptionId, Long substanceId) {
+}
@@ -1,7 +1,12 @@
 package se.inera.nll.nlllight.api.prescription.dto;
 
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class DispenseMedicationRequest {
     
@@ -14,6 +19,16 @@ public class DispenseMedicationRequest {
     
     private String notes;
     
+    @Size(max = 50, message = "Lot number must be at most 50 characters")
+    private String lotNumber;
+    
+    private LocalDate expirationDate;
+    
+    @DecimalMin(value = "0.00", message = "Patient cost cannot be negative")
+    private BigDecimal patientCost;
+    
+    private Boolean counselingProvided;
+    
     // Getters and Setters
     
     public Long getPrescriptionId() {
@@ -39,4 +54,36 @@ public class DispenseMedicationRequest {
     public void setNotes(String notes) {
         this.notes = notes;
     }
-}
\ No newline at end of file
+    
+    public String getLotNumber() {
+        return lotNumber;
+    }
+    
+    public void setLotNumber(String lotNumber) {
+        this.lotNumber = lotNumber;
+    }
+    
+    public LocalDate getExpirationDate() {
+        return expirationDate;
+    }
+    
+    public void setExpirationDate(LocalDate expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+    
+    public BigDecimal getPatientCost() {
+        return patientCost;
+    }
+    
+    public void setPatientCost(BigDecimal patientCost) {
+        this.patientCost = patientCost;
+    }
+    
+    public Boolean getCounselingProvided() {
+        return counselingProvided;
+    }
+    
+    public void setCounselingProvided(Boolean counselingProvided) {
+        this.counselingProvided = counselingProvided;
+    }
+}
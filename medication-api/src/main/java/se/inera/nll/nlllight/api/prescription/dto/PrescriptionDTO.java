@@ -1,9 +1,11 @@
 package se.inera.nll.nlllight.api.prescription.dto;
 
 import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionAlertDTO;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 public class PrescriptionDTO {
     
@@ -52,6 +54,9 @@ public class PrescriptionDTO {
     private Boolean isPRN;
     private Boolean isSubstitutionAllowed;
     
+    // Interaction screening, only set on the response to creating the prescription
+    private List<InteractionAlertDTO> interactionAlerts;
+    
     // Getters and Setters
     
     public Long getId() {
@@ -277,4 +282,12 @@ public class PrescriptionDTO {
     public void setIsSubstitutionAllowed(Boolean isSubstitutionAllowed) {
         this.isSubstitutionAllowed = isSubstitutionAllowed;
     }
+    
+    public List<InteractionAlertDTO> getInteractionAlerts() {
+        return interactionAlerts;
+    }
+    
+    public void setInteractionAlerts(List<InteractionAlertDTO> interactionAlerts) {
+        this.interactionAlerts = interactionAlerts;
+    }
 }
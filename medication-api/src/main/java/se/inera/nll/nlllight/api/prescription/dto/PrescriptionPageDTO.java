@@ -0,0 +1,36 @@
+package se.inera.nll.nlllight.api.prescription.dto;
+
+import java.util.List;
+
+public class PrescriptionPageDTO {
+    
+    private List<PrescriptionDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Getters and Setters
+    
+    public List<PrescriptionDTO> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<PrescriptionDTO> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
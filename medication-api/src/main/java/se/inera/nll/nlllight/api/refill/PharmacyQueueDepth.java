@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.refill;
+
+/**
+ * Number of queued refill requests at one pharmacy.
+ */
+public record PharmacyQueueDepth(Long pharmacyId, long depth) {
+}
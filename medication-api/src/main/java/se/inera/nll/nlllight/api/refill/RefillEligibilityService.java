@@ -0,0 +1,312 @@
+package se.inera.nll.nlllight.api.refill;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionChangedEvent;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.refill.dto.RefillCandidateDTO;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps refill state current and answers "which prescriptions can this patient refill today"
+ * without a query.
+ * <p>
+ * Every dispense goes through {@link #recordFill}, which maintains {@code last_refill_date},
+ * {@code refills_remaining} and {@code next_refill_eligible_date} from the days' supply. A nightly
+ * job materializes one bucket per day (today and tomorrow) mapping each patient to the
+ * prescriptions eligible on that day; committed prescription changes are applied to the buckets
+ * as they happen, so lookups stay exact between runs. Days without a bucket fall back to the
+ * indexed query.
+ */
+@Service
+public class RefillEligibilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefillEligibilityService.class);
+
+    static final int EXPORT_CHUNK_SIZE = 500;
+
+    private static final String ELIGIBLE_SQL =
+            "SELECT patient_id, id, next_refill_eligible_date FROM prescriptions "
+            + "WHERE status = 'ACTIVE' AND refills_remaining > 0 AND next_refill_eligible_date <= ?";
+
+    /**
+     * Prescriptions eligible on one day, by patient. Sets are concurrent so committed changes can
+     * be applied while requests read.
+     */
+    private static final class Bucket {
+
+        final LocalDate date;
+        final Map<String, Set<Long>> byPatient;
+
+        Bucket(LocalDate date, Map<String, Set<Long>> byPatient) {
+            this.date = date;
+            this.byPatient = byPatient;
+        }
+
+        void place(PrescriptionChangedEvent change) {
+            boolean eligible = !change.deleted()
+                    && change.status() == PrescriptionStatus.ACTIVE
+                    && change.refillsRemaining() != null && change.refillsRemaining() > 0
+                    && change.nextRefillEligibleDate() != null
+                    && !change.nextRefillEligibleDate().isAfter(date);
+            byPatient.compute(change.patientId(), (patientId, ids) -> {
+                if (eligible) {
+                    Set<Long> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    updated.add(change.prescriptionId());
+                    return updated;
+                }
+                if (ids != null) {
+                    ids.remove(change.prescriptionId());
+                }
+                return ids == null || ids.isEmpty() ? null : ids;
+            });
+        }
+
+        int size() {
+            return byPatient.values().stream().mapToInt(Set::size).sum();
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final double elapsedFraction;
+    private final boolean materializeOnStartup;
+    private final ReentrantLock materializeLock = new ReentrantLock();
+
+    // Guards swapping the buckets against applying a change, so a replay never overtakes a newer change
+    private final Object bucketLock = new Object();
+    // Changes committed while a materialization reads; replayed onto its buckets once swapped in
+    private final List<PrescriptionChangedEvent> changesDuringMaterialize = new ArrayList<>();
+    private boolean materializing;
+    private volatile Map<LocalDate, Bucket> buckets = Map.of();
+
+    public RefillEligibilityService(PrescriptionRepository prescriptionRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${refill.eligibility.elapsed-fraction:0.6667}") double elapsedFraction,
+                                    @Value("${refill.eligibility.fetch-size:1000}") int fetchSize,
+                                    @Value("${refill.eligibility.materialize-on-startup:false}") boolean materializeOnStartup) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.elapsedFraction = elapsedFraction;
+        this.materializeOnStartup = materializeOnStartup;
+    }
+
+    /**
+     * Updates refill state for a dispense of the given (freshly reloaded, row-locked) prescription.
+     * The first dispense starts the schedule without using a refill. A dispense on or after the
+     * eligible date is a refill; anything earlier tops up the current fill and leaves the schedule
+     * alone.
+     */
+    public void recordFill(Prescription prescription, LocalDate today) {
+        LocalDate eligible = prescription.getNextRefillEligibleDate();
+        boolean firstFill = prescription.getLastRefillDate() == null;
+        boolean refill = !firstFill && eligible != null && !today.isBefore(eligible);
+        if (refill) {
+            int remaining = prescription.getRefillsRemaining() != null ? prescription.getRefillsRemaining() : 0;
+            prescription.setRefillsRemaining(Math.max(0, remaining - 1));
+        }
+        if (firstFill || refill) {
+            prescription.setLastRefillDate(today);
+            prescription.setNextRefillEligibleDate(nextEligibleDate(today, prescription.getDaysSupply()));
+        }
+        // The dispense itself was a bulk update (and may have completed the prescription)
+        eventPublisher.publishEvent(PrescriptionChangedEvent.of(prescription, false));
+    }
+
+    /**
+     * A new fill may be collected once this share of the days' supply has elapsed (two thirds by default).
+     */
+    LocalDate nextEligibleDate(LocalDate filled, Integer daysSupply) {
+        if (daysSupply == null || daysSupply <= 0) {
+            return null;
+        }
+        return filled.plusDays((long) Math.floor(daysSupply * elapsedFraction));
+    }
+
+    /**
+     * Prescription ids the patient may refill today, or empty when today has not been materialized.
+     */
+    public Optional<List<Long>> eligibleToday(String patientId) {
+        Bucket bucket = buckets.get(LocalDate.now());
+        if (bucket == null) {
+            return Optional.empty();
+        }
+        Set<Long> ids = bucket.byPatient.get(patientId);
+        return Optional.of(ids != null ? List.copyOf(ids) : List.of());
+    }
+
+    /**
+     * Streams every prescription eligible for refill on the given day, patient by patient, in
+     * chunks of {@link #EXPORT_CHUNK_SIZE} primary-key lookups.
+     */
+    @Transactional(readOnly = true)
+    public void streamEligible(LocalDate date, Consumer<RefillCandidateDTO> consumer) {
+        Bucket bucket = buckets.get(date);
+        if (bucket == null) {
+            materialize();
+            bucket = buckets.get(date);
+        }
+        if (bucket == null) {
+            throw new IllegalArgumentException("Refill eligibility is only materialized for today and tomorrow");
+        }
+
+        List<String> patientIds = new ArrayList<>(bucket.byPatient.keySet());
+        patientIds.sort(null);
+        List<Long> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        for (String patientId : patientIds) {
+            Set<Long> ids = bucket.byPatient.get(patientId);
+            if (ids == null) {
+                continue;
+            }
+            chunk.addAll(ids);
+            if (chunk.size() >= EXPORT_CHUNK_SIZE) {
+                export(chunk, consumer);
+            }
+        }
+        export(chunk, consumer);
+    }
+
+    private void export(List<Long> chunk, Consumer<RefillCandidateDTO> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Long, Prescription> byId = new HashMap<>();
+        prescriptionRepository.findWithDetailsByIdIn(chunk).forEach(p -> byId.put(p.getId(), p));
+        for (Long id : chunk) {
+            Prescription prescription = byId.get(id);
+            if (prescription != null) {
+                consumer.accept(toDTO(prescription));
+            }
+        }
+        chunk.clear();
+        // Keep the persistence context flat across chunks
+        entityManager.clear();
+    }
+
+    /**
+     * Rebuilds the buckets for today and tomorrow from one pass over the eligible prescriptions.
+     */
+    @Scheduled(cron = "${refill.eligibility.materialize-cron:0 5 0 * * *}")
+    public void materialize() {
+        materializeLock.lock();
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate tomorrow = today.plusDays(1);
+            Map<String, Set<Long>> eligibleToday = new ConcurrentHashMap<>();
+            Map<String, Set<Long>> eligibleTomorrow = new ConcurrentHashMap<>();
+
+            synchronized (bucketLock) {
+                materializing = true;
+            }
+            long start = System.nanoTime();
+            // The cursor only streams inside a transaction (PostgreSQL fetches everything otherwise)
+            readTransaction.executeWithoutResult(status -> cursorTemplate.query(ELIGIBLE_SQL, rs -> {
+                String patientId = rs.getString(1);
+                long prescriptionId = rs.getLong(2);
+                LocalDate eligible = rs.getDate(3).toLocalDate();
+                eligibleTomorrow.computeIfAbsent(patientId, id -> ConcurrentHashMap.newKeySet()).add(prescriptionId);
+                if (!eligible.isAfter(today)) {
+                    eligibleToday.computeIfAbsent(patientId, id -> ConcurrentHashMap.newKeySet()).add(prescriptionId);
+                }
+            }, Date.valueOf(tomorrow)));
+
+            Map<LocalDate, Bucket> rebuilt = Map.of(
+                    today, new Bucket(today, eligibleToday),
+                    tomorrow, new Bucket(tomorrow, eligibleTomorrow));
+            synchronized (bucketLock) {
+                for (PrescriptionChangedEvent change : changesDuringMaterialize) {
+                    rebuilt.values().forEach(bucket -> bucket.place(change));
+                }
+                buckets = rebuilt;
+            }
+            logger.info("Materialized refill eligibility in {} ms: {} prescriptions for {} patients today, {} tomorrow",
+                       (System.nanoTime() - start) / 1_000_000, rebuilt.get(today).size(), eligibleToday.size(),
+                       rebuilt.get(tomorrow).size());
+        } finally {
+            synchronized (bucketLock) {
+                materializing = false;
+                changesDuringMaterialize.clear();
+            }
+            materializeLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void materializeOnStartup() {
+        if (materializeOnStartup) {
+            materialize();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrescriptionChanged(PrescriptionChangedEvent change) {
+        synchronized (bucketLock) {
+            if (materializing) {
+                changesDuringMaterialize.add(change);
+            }
+            buckets.values().forEach(bucket -> bucket.place(change));
+        }
+    }
+
+    private RefillCandidateDTO toDTO(Prescription prescription) {
+        // Every candidate handed out of the service is audited against its patient
+        PatientAccessContext.accessed(prescription.getPatient().getId());
+        RefillCandidateDTO dto = new RefillCandidateDTO();
+        dto.setPatientId(prescription.getPatient().getId());
+        dto.setPrescriptionId(prescription.getId());
+        dto.setPrescriptionNumber(prescription.getPrescriptionNumber());
+        Medication medication = prescription.getMedication();
+        if (medication != null) {
+            dto.setMedicationId(medication.getId());
+            dto.setMedicationName(medication.getName());
+            dto.setMedicationStrength(medication.getStrength());
+            dto.setMedicationForm(medication.getForm());
+        }
+        dto.setQuantityPrescribed(prescription.getQuantityPrescribed());
+        dto.setQuantityUnit(prescription.getQuantityUnit());
+        dto.setDaysSupply(prescription.getDaysSupply());
+        dto.setRefillsRemaining(prescription.getRefillsRemaining());
+        dto.setNextRefillEligibleDate(prescription.getNextRefillEligibleDate());
+        return dto;
+    }
+}
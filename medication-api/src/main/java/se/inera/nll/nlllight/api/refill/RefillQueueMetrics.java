@@ -0,0 +1,94 @@
+package se.inera.nll.nlllight.api.refill;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-pharmacy work queue metrics, tagged {@code pharmacy}:
+ * <ul>
+ *   <li>{@code refill.queue.depth} - requests waiting for pharmacy work</li>
+ *   <li>{@code refill.queue.claim} - how long a claim call takes</li>
+ *   <li>{@code refill.queue.wait} - how long a request waited before it was first claimed</li>
+ * </ul>
+ * Depth follows committed status changes and is recounted from the table every
+ * {@code refill.queue.depth-reconcile-ms}, which also picks up rows written outside the API.
+ */
+@Component
+public class RefillQueueMetrics {
+    
+    private final RefillRequestRepository refillRequestRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, AtomicLong> depths = new ConcurrentHashMap<>();
+    private final Map<Long, Timer> claimTimers = new ConcurrentHashMap<>();
+    private final Map<Long, Timer> waitTimers = new ConcurrentHashMap<>();
+    
+    public RefillQueueMetrics(RefillRequestRepository refillRequestRepository, MeterRegistry meterRegistry) {
+        this.refillRequestRepository = refillRequestRepository;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public long getDepth(Long pharmacyId) {
+        AtomicLong depth = depths.get(pharmacyId);
+        return depth != null ? depth.get() : 0;
+    }
+    
+    void recordClaim(Long pharmacyId, long nanos) {
+        claimTimers.computeIfAbsent(pharmacyId, id -> Timer.builder("refill.queue.claim")
+                        .description("Time to claim work from a pharmacy's refill queue")
+                        .tag("pharmacy", String.valueOf(id))
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    void recordWait(Long pharmacyId, Duration waited) {
+        waitTimers.computeIfAbsent(pharmacyId, id -> Timer.builder("refill.queue.wait")
+                        .description("Time from a refill request until a pharmacist first claimed it")
+                        .tag("pharmacy", String.valueOf(id))
+                        .register(meterRegistry))
+                .record(waited);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(RefillRequestStatusChangedEvent change) {
+        if (change.pharmacyId() == null) {
+            return;
+        }
+        int delta = (change.to().isQueued() ? 1 : 0) - (change.from() != null && change.from().isQueued() ? 1 : 0);
+        if (delta != 0) {
+            depth(change.pharmacyId()).addAndGet(delta);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${refill.queue.depth-reconcile-ms:60000}")
+    public void reconcile() {
+        Map<Long, Long> counted = new HashMap<>();
+        refillRequestRepository.countQueuedByPharmacy(RefillRequestService.QUEUED)
+                .forEach(row -> counted.put(row.pharmacyId(), row.depth()));
+        // Pharmacies whose queue emptied keep reporting zero rather than vanishing
+        depths.forEach((pharmacyId, depth) -> depth.set(counted.getOrDefault(pharmacyId, 0L)));
+        counted.forEach((pharmacyId, count) -> depth(pharmacyId).set(count));
+    }
+    
+    private AtomicLong depth(Long pharmacyId) {
+        return depths.computeIfAbsent(pharmacyId, id -> {
+            AtomicLong depth = new AtomicLong();
+            Gauge.builder("refill.queue.depth", depth, AtomicLong::get)
+                    .description("Refill requests waiting for pharmacy work")
+                    .tag("pharmacy", String.valueOf(id))
+                    .register(meterRegistry);
+            return depth;
+        });
+    }
+}
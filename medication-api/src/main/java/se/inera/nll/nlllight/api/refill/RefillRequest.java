@@ -0,0 +1,201 @@
+package se.inera.nll.nlllight.api.refill;
+
+import jakarta.persistence.*;
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A patient's request to have a prescription refilled at a pharmacy.
+ * <p>
+ * While a request waits for pharmacy work it sits in that pharmacy's queue. A pharmacist claims it
+ * by setting {@code claimed_by}/{@code claimed_at}; the claim is a lease, so work abandoned at a
+ * terminal becomes claimable again once it expires. References are plain ids, as in
+ * {@code dispense_events}, so queue reads stay on {@code refill_requests} and its indexes.
+ */
+@Entity
+@Table(name = "refill_requests")
+public class RefillRequest {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "patient_id", nullable = false, length = 64)
+    private String patientId;
+    
+    @Column(name = "pharmacy_id")
+    private Long pharmacyId;
+    
+    @Column(name = "request_date")
+    private LocalDateTime requestDate;
+    
+    @Column(name = "requested_quantity")
+    private Integer requestedQuantity;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RefillRequestStatus status = RefillRequestStatus.PENDING;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @Column(name = "processed_by", length = 100)
+    private String processedBy;
+    
+    @Column(name = "processing_notes", columnDefinition = "TEXT")
+    private String processingNotes;
+    
+    @Column(name = "denial_reason", columnDefinition = "TEXT")
+    private String denialReason;
+    
+    @Column(name = "preferred_pickup_date")
+    private LocalDate preferredPickupDate;
+    
+    @Column(name = "preferred_pickup_time")
+    private LocalTime preferredPickupTime;
+    
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+    
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (requestDate == null) {
+            requestDate = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * Whether someone other than {@code userId} holds a claim that has not expired.
+     */
+    public boolean isClaimedByOther(String userId, LocalDateTime expiredBefore) {
+        return claimedBy != null && !claimedBy.equals(userId)
+                && claimedAt != null && claimedAt.isAfter(expiredBefore);
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public LocalDateTime getRequestDate() {
+        return requestDate;
+    }
+    
+    public void setRequestDate(LocalDateTime requestDate) {
+        this.requestDate = requestDate;
+    }
+    
+    public Integer getRequestedQuantity() {
+        return requestedQuantity;
+    }
+    
+    public void setRequestedQuantity(Integer requestedQuantity) {
+        this.requestedQuantity = requestedQuantity;
+    }
+    
+    public RefillRequestStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(RefillRequestStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+    
+    public String getProcessedBy() {
+        return processedBy;
+    }
+    
+    public void setProcessedBy(String processedBy) {
+        this.processedBy = processedBy;
+    }
+    
+    public String getProcessingNotes() {
+        return processingNotes;
+    }
+    
+    public void setProcessingNotes(String processingNotes) {
+        this.processingNotes = processingNotes;
+    }
+    
+    public String getDenialReason() {
+        return denialReason;
+    }
+    
+    public void setDenialReason(String denialReason) {
+        this.denialReason = denialReason;
+    }
+    
+    public LocalDate getPreferredPickupDate() {
+        return preferredPickupDate;
+    }
+    
+    public void setPreferredPickupDate(LocalDate preferredPickupDate) {
+        this.preferredPickupDate = preferredPickupDate;
+    }
+    
+    public LocalTime getPreferredPickupTime() {
+        return preferredPickupTime;
+    }
+    
+    public void setPreferredPickupTime(LocalTime preferredPickupTime) {
+        this.preferredPickupTime = preferredPickupTime;
+    }
+    
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+    
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+    
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
@@ -0,0 +1,54 @@
+package se.inera.nll.nlllight.api.refill;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+@Repository
+public interface RefillRequestRepository extends JpaRepository<RefillRequest, Long> {
+    
+    /**
+     * The oldest claimable requests of a pharmacy, row-locked with {@code SKIP LOCKED} (lock timeout
+     * -2): rows another terminal is claiming right now are passed over instead of waited for, so
+     * concurrent claims never block each other or hand out the same request.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT r FROM RefillRequest r WHERE r.pharmacyId = :pharmacyId AND r.status IN :statuses " +
+           "AND (r.claimedAt IS NULL OR r.claimedAt < :expiredBefore) " +
+           "ORDER BY r.requestDate, r.id")
+    List<RefillRequest> findClaimableForUpdate(@Param("pharmacyId") Long pharmacyId,
+                                               @Param("statuses") Collection<RefillRequestStatus> statuses,
+                                               @Param("expiredBefore") LocalDateTime expiredBefore,
+                                               Limit limit);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RefillRequest r WHERE r.id = :id")
+    Optional<RefillRequest> findByIdForUpdate(@Param("id") Long id);
+    
+    List<RefillRequest> findByPharmacyIdAndStatusInOrderByRequestDateAscIdAsc(Long pharmacyId,
+                                                                             Collection<RefillRequestStatus> statuses);
+    
+    List<RefillRequest> findByPatientIdOrderByRequestDateDescIdDesc(String patientId);
+    
+    boolean existsByPrescriptionIdAndStatusIn(Long prescriptionId, Collection<RefillRequestStatus> statuses);
+    
+    @Query("SELECT new se.inera.nll.nlllight.api.refill.PharmacyQueueDepth(r.pharmacyId, COUNT(r)) " +
+           "FROM RefillRequest r WHERE r.pharmacyId IS NOT NULL AND r.status IN :statuses " +
+           "GROUP BY r.pharmacyId")
+    List<PharmacyQueueDepth> countQueuedByPharmacy(@Param("statuses") Collection<RefillRequestStatus> statuses);
+}
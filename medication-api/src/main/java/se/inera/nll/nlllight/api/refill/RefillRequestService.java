@@ -0,0 +1,273 @@
+package se.inera.nll.nlllight.api.refill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+import se.inera.nll.nlllight.api.pharmacist.PharmacistRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.refill.dto.CreateRefillRequestRequest;
+import se.inera.nll.nlllight.api.refill.dto.RefillRequestDTO;
+import se.inera.nll.nlllight.api.refill.dto.UpdateRefillRequestStatusRequest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Refill requests from patients and the per-pharmacy work queue pharmacists pull them from.
+ * <p>
+ * A claim locks the oldest claimable rows with {@code SKIP LOCKED} in one short transaction and
+ * stamps them with the pharmacist and time, so any number of terminals can claim at once without
+ * waiting on each other or receiving the same request. The stamp is a lease of
+ * {@code refill.queue.claim-ttl}: work left at a terminal returns to the queue when it expires.
+ * Status changes follow {@link RefillRequestStatus#canTransitionTo} and are published as
+ * {@link RefillRequestStatusChangedEvent}s. A pickup is recorded as a fill of the prescription,
+ * so it uses the refill and restarts the eligibility clock like a dispense.
+ */
+@Service
+public class RefillRequestService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefillRequestService.class);
+    
+    // RefillRequestStatus#isQueued and #isOpen as sets, for the repository's IN clauses
+    static final Set<RefillRequestStatus> QUEUED = statuses(RefillRequestStatus::isQueued);
+    static final Set<RefillRequestStatus> OPEN = statuses(RefillRequestStatus::isOpen);
+    
+    private final RefillRequestRepository refillRequestRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final PharmacistRepository pharmacistRepository;
+    private final RefillQueueMetrics queueMetrics;
+    private final RefillEligibilityService refillEligibilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate claimTransaction;
+    private final Duration claimTtl;
+    private final int maxClaim;
+    
+    public RefillRequestService(RefillRequestRepository refillRequestRepository,
+                                PrescriptionRepository prescriptionRepository,
+                                PharmacistRepository pharmacistRepository,
+                                RefillQueueMetrics queueMetrics,
+                                RefillEligibilityService refillEligibilityService,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${refill.queue.claim-ttl:PT15M}") Duration claimTtl,
+                                @Value("${refill.queue.max-claim:20}") int maxClaim) {
+        this.refillRequestRepository = refillRequestRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.pharmacistRepository = pharmacistRepository;
+        this.queueMetrics = queueMetrics;
+        this.refillEligibilityService = refillEligibilityService;
+        this.eventPublisher = eventPublisher;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTtl = claimTtl;
+        this.maxClaim = maxClaim;
+    }
+    
+    @Transactional
+    public RefillRequestDTO createRequest(Long prescriptionId, String patientId, CreateRefillRequestRequest create) {
+        // Locking the prescription serializes concurrent requests for it, so the open-request check holds
+        Prescription prescription = prescriptionRepository.findByIdsForUpdate(List.of(prescriptionId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        
+        if (!prescription.getPatient().getId().equals(patientId)) {
+            throw new SecurityException("User not authorized to access this prescription");
+        }
+        if (prescription.getStatus() != PrescriptionStatus.ACTIVE) {
+            throw new RuntimeException("Cannot request a refill of a prescription with status: " + prescription.getStatus());
+        }
+        if (prescription.getRefillsRemaining() == null || prescription.getRefillsRemaining() <= 0) {
+            throw new RuntimeException("Cannot request a refill: no refills remaining");
+        }
+        LocalDate eligible = prescription.getNextRefillEligibleDate();
+        if (eligible != null && eligible.isAfter(LocalDate.now())) {
+            throw new RuntimeException("Cannot request a refill before " + eligible);
+        }
+        if (refillRequestRepository.existsByPrescriptionIdAndStatusIn(prescriptionId, OPEN)) {
+            throw new RuntimeException("A refill request is already open for prescription " + prescriptionId);
+        }
+        
+        Long pharmacyId = create.getPharmacyId() != null
+                ? create.getPharmacyId()
+                : prescription.getPatient().getPreferredPharmacyId();
+        if (pharmacyId == null) {
+            throw new IllegalArgumentException("A pharmacy is required when the patient has no preferred pharmacy");
+        }
+        
+        RefillRequest request = new RefillRequest();
+        request.setPrescriptionId(prescriptionId);
+        request.setPatientId(patientId);
+        request.setPharmacyId(pharmacyId);
+        request.setRequestedQuantity(create.getRequestedQuantity());
+        request.setPreferredPickupDate(create.getPreferredPickupDate());
+        request.setPreferredPickupTime(create.getPreferredPickupTime());
+        request.setStatus(RefillRequestStatus.PENDING);
+        RefillRequest saved = refillRequestRepository.save(request);
+        
+        eventPublisher.publishEvent(RefillRequestStatusChangedEvent.of(saved, null, patientId, saved.getRequestDate()));
+        logger.info("Refill request {} for prescription {} queued at pharmacy {}", saved.getId(), prescriptionId, pharmacyId);
+        return toDTO(saved);
+    }
+    
+    /**
+     * Claims up to {@code limit} of the pharmacy's oldest unclaimed (or expired) queued requests.
+     * Returns fewer, possibly none, when the rest of the queue is claimed or being claimed.
+     */
+    public List<RefillRequestDTO> claim(Long pharmacyId, String pharmacistUserId, int limit) {
+        if (limit < 1 || limit > maxClaim) {
+            throw new IllegalArgumentException("Claim limit must be between 1 and " + maxClaim);
+        }
+        checkPharmacy(pharmacistUserId, pharmacyId);
+        
+        long start = System.nanoTime();
+        List<RefillRequestDTO> claimed = claimTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<RefillRequest> requests = refillRequestRepository.findClaimableForUpdate(
+                    pharmacyId, QUEUED, now.minus(claimTtl), Limit.of(limit));
+            for (RefillRequest request : requests) {
+                if (request.getStatus() == RefillRequestStatus.PENDING && request.getClaimedAt() == null) {
+                    queueMetrics.recordWait(pharmacyId, Duration.between(request.getRequestDate(), now));
+                }
+                request.setClaimedBy(pharmacistUserId);
+                request.setClaimedAt(now);
+            }
+            return requests.stream().map(this::toDTO).collect(Collectors.toList());
+        });
+        queueMetrics.recordClaim(pharmacyId, System.nanoTime() - start);
+        
+        logger.debug("Pharmacist {} claimed {} refill requests at pharmacy {}", pharmacistUserId, claimed.size(), pharmacyId);
+        return claimed;
+    }
+    
+    @Transactional
+    public RefillRequestDTO updateStatus(Long requestId, UpdateRefillRequestStatusRequest update, String pharmacistUserId) {
+        RefillRequest request = refillRequestRepository.findByIdForUpdate(requestId)
+                .orElseThrow(() -> new RuntimeException("Refill request not found: " + requestId));
+        checkPharmacy(pharmacistUserId, request.getPharmacyId());
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (request.isClaimedByOther(pharmacistUserId, now.minus(claimTtl))) {
+            throw new RuntimeException("Cannot update refill request " + requestId + ": claimed by " + request.getClaimedBy());
+        }
+        RefillRequestStatus from = request.getStatus();
+        RefillRequestStatus to = update.getStatus();
+        if (!from.canTransitionTo(to)) {
+            throw new RuntimeException("Cannot move refill request " + requestId + " from " + from + " to " + to);
+        }
+        if (to == RefillRequestStatus.DENIED && (update.getDenialReason() == null || update.getDenialReason().isBlank())) {
+            throw new IllegalArgumentException("A denial reason is required to deny a refill request");
+        }
+        
+        request.setStatus(to);
+        request.setProcessedAt(now);
+        request.setProcessedBy(pharmacistUserId);
+        if (update.getNotes() != null) {
+            request.setProcessingNotes(update.getNotes());
+        }
+        if (to == RefillRequestStatus.DENIED) {
+            request.setDenialReason(update.getDenialReason());
+        }
+        // Whoever starts preparing keeps the request; every other step hands it back to the queue
+        if (to == RefillRequestStatus.PROCESSING) {
+            request.setClaimedBy(pharmacistUserId);
+            request.setClaimedAt(now);
+        } else {
+            request.setClaimedBy(null);
+            request.setClaimedAt(null);
+        }
+        
+        if (to == RefillRequestStatus.PICKED_UP) {
+            // Locked like a dispense; a dispense registered for the same pickup then only tops up the fill
+            Prescription prescription = prescriptionRepository.findByIdsForUpdate(List.of(request.getPrescriptionId())).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Prescription not found: " + request.getPrescriptionId()));
+            refillEligibilityService.recordFill(prescription, now.toLocalDate());
+        }
+        
+        eventPublisher.publishEvent(RefillRequestStatusChangedEvent.of(request, from, pharmacistUserId, now));
+        logger.info("Refill request {} moved from {} to {} by {}", requestId, from, to, pharmacistUserId);
+        return toDTO(request);
+    }
+    
+    @Transactional
+    public RefillRequestDTO release(Long requestId, String pharmacistUserId) {
+        RefillRequest request = refillRequestRepository.findByIdForUpdate(requestId)
+                .orElseThrow(() -> new RuntimeException("Refill request not found: " + requestId));
+        if (!pharmacistUserId.equals(request.getClaimedBy())) {
+            throw new RuntimeException("Cannot release refill request " + requestId + ": not claimed by " + pharmacistUserId);
+        }
+        request.setClaimedBy(null);
+        request.setClaimedAt(null);
+        return toDTO(request);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RefillRequestDTO> getQueue(Long pharmacyId, String pharmacistUserId) {
+        checkPharmacy(pharmacistUserId, pharmacyId);
+        return refillRequestRepository.findByPharmacyIdAndStatusInOrderByRequestDateAscIdAsc(pharmacyId, QUEUED).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RefillRequestDTO> getPatientRequests(String patientId) {
+        PatientAccessContext.accessed(patientId);
+        return refillRequestRepository.findByPatientIdOrderByRequestDateDescIdDesc(patientId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private static Set<RefillRequestStatus> statuses(Predicate<RefillRequestStatus> filter) {
+        Set<RefillRequestStatus> statuses = EnumSet.allOf(RefillRequestStatus.class);
+        statuses.removeIf(filter.negate());
+        return Collections.unmodifiableSet(statuses);
+    }
+    
+    // Pharmacists without a registry entry may work any queue, as they may dispense anywhere
+    private void checkPharmacy(String pharmacistUserId, Long pharmacyId) {
+        pharmacistRepository.findByUserId(pharmacistUserId)
+                .filter(pharmacist -> pharmacist.getPharmacyId() != null && !pharmacist.getPharmacyId().equals(pharmacyId))
+                .ifPresent(pharmacist -> {
+                    throw new RuntimeException("Pharmacist not authorized for pharmacy " + pharmacyId);
+                });
+    }
+    
+    private RefillRequestDTO toDTO(RefillRequest request) {
+        // Every request handed out of the service, queue entries included, is audited against its patient
+        PatientAccessContext.accessed(request.getPatientId());
+        
+        RefillRequestDTO dto = new RefillRequestDTO();
+        dto.setId(request.getId());
+        dto.setPrescriptionId(request.getPrescriptionId());
+        dto.setPatientId(request.getPatientId());
+        dto.setPharmacyId(request.getPharmacyId());
+        dto.setRequestDate(request.getRequestDate());
+        dto.setRequestedQuantity(request.getRequestedQuantity());
+        dto.setStatus(request.getStatus());
+        dto.setProcessedAt(request.getProcessedAt());
+        dto.setProcessedBy(request.getProcessedBy());
+        dto.setProcessingNotes(request.getProcessingNotes());
+        dto.setDenialReason(request.getDenialReason());
+        dto.setPreferredPickupDate(request.getPreferredPickupDate());
+        dto.setPreferredPickupTime(request.getPreferredPickupTime());
+        dto.setClaimedBy(request.getClaimedBy());
+        dto.setClaimedAt(request.getClaimedAt());
+        return dto;
+    }
+}
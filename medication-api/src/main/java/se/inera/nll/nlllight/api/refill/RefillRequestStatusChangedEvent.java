@@ -0,0 +1,25 @@
+package se.inera.nll.nlllight.api.refill;
+
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that moves a refill request to a new status. {@code from} is
+ * null when the request was just created.
+ */
+public record RefillRequestStatusChangedEvent(long requestId,
+                                              long prescriptionId,
+                                              String patientId,
+                                              Long pharmacyId,
+                                              RefillRequestStatus from,
+                                              RefillRequestStatus to,
+                                              String changedBy,
+                                              LocalDateTime changedAt) {
+    
+    static RefillRequestStatusChangedEvent of(RefillRequest request, RefillRequestStatus from,
+                                              String changedBy, LocalDateTime changedAt) {
+        return new RefillRequestStatusChangedEvent(request.getId(), request.getPrescriptionId(),
+                request.getPatientId(), request.getPharmacyId(), from, request.getStatus(), changedBy, changedAt);
+    }
+}
@@ -0,0 +1,52 @@
+package se.inera.nll.nlllight.api.refill.dto;
+
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class CreateRefillRequestRequest {
+    
+    // Defaults to the patient's preferred pharmacy
+    private Long pharmacyId;
+    
+    @Positive(message = "Requested quantity must be positive")
+    private Integer requestedQuantity;
+    
+    private LocalDate preferredPickupDate;
+    private LocalTime preferredPickupTime;
+    
+    // Getters and Setters
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public Integer getRequestedQuantity() {
+        return requestedQuantity;
+    }
+    
+    public void setRequestedQuantity(Integer requestedQuantity) {
+        this.requestedQuantity = requestedQuantity;
+    }
+    
+    public LocalDate getPreferredPickupDate() {
+        return preferredPickupDate;
+    }
+    
+    public void setPreferredPickupDate(LocalDate preferredPickupDate) {
+        this.preferredPickupDate = preferredPickupDate;
+    }
+    
+    public LocalTime getPreferredPickupTime() {
+        return preferredPickupTime;
+    }
+    
+    public void setPreferredPickupTime(LocalTime preferredPickupTime) {
+        this.preferredPickupTime = preferredPickupTime;
+    }
+}
@@ -0,0 +1,120 @@
+package se.inera.nll.nlllight.api.refill.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One prescription in the refill eligibility export, with what a pharmacy needs to pre-pack it.
+ */
+public class RefillCandidateDTO {
+    
+    private String patientId;
+    private Long prescriptionId;
+    private String prescriptionNumber;
+    private Long medicationId;
+    private String medicationName;
+    private String medicationStrength;
+    private String medicationForm;
+    private Integer quantityPrescribed;
+    private String quantityUnit;
+    private Integer daysSupply;
+    private Integer refillsRemaining;
+    private LocalDate nextRefillEligibleDate;
+    
+    // Getters and Setters
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPrescriptionNumber() {
+        return prescriptionNumber;
+    }
+    
+    public void setPrescriptionNumber(String prescriptionNumber) {
+        this.prescriptionNumber = prescriptionNumber;
+    }
+    
+    public Long getMedicationId() {
+        return medicationId;
+    }
+    
+    public void setMedicationId(Long medicationId) {
+        this.medicationId = medicationId;
+    }
+    
+    public String getMedicationName() {
+        return medicationName;
+    }
+    
+    public void setMedicationName(String medicationName) {
+        this.medicationName = medicationName;
+    }
+    
+    public String getMedicationStrength() {
+        return medicationStrength;
+    }
+    
+    public void setMedicationStrength(String medicationStrength) {
+        this.medicationStrength = medicationStrength;
+    }
+    
+    public String getMedicationForm() {
+        return medicationForm;
+    }
+    
+    public void setMedicationForm(String medicationForm) {
+        this.medicationForm = medicationForm;
+    }
+    
+    public Integer getQuantityPrescribed() {
+        return quantityPrescribed;
+    }
+    
+    public void setQuantityPrescribed(Integer quantityPrescribed) {
+        this.quantityPrescribed = quantityPrescribed;
+    }
+    
+    public String getQuantityUnit() {
+        return quantityUnit;
+    }
+    
+    public void setQuantityUnit(String quantityUnit) {
+        this.quantityUnit = quantityUnit;
+    }
+    
+    public Integer getDaysSupply() {
+        return daysSupply;
+    }
+    
+    public void setDaysSupply(Integer daysSupply) {
+        this.daysSupply = daysSupply;
+    }
+    
+    public Integer getRefillsRemaining() {
+        return refillsRemaining;
+    }
+    
+    public void setRefillsRemaining(Integer refillsRemaining) {
+        this.refillsRemaining = refillsRemaining;
+    }
+    
+    public LocalDate getNextRefillEligibleDate() {
+        return nextRefillEligibleDate;
+    }
+    
+    public void setNextRefillEligibleDate(LocalDate nextRefillEligibleDate) {
+        this.nextRefillEligibleDate = nextRefillEligibleDate;
+    }
+}
@@ -0,0 +1,148 @@
+package se.inera.nll.nlllight.api.refill.dto;
+
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class RefillRequestDTO {
+    
+    private Long id;
+    private Long prescriptionId;
+    private String patientId;
+    private Long pharmacyId;
+    private LocalDateTime requestDate;
+    private Integer requestedQuantity;
+    private RefillRequestStatus status;
+    private LocalDateTime processedAt;
+    private String processedBy;
+    private String processingNotes;
+    private String denialReason;
+    private LocalDate preferredPickupDate;
+    private LocalTime preferredPickupTime;
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+    
+    public void setPharmacyId(Long pharmacyId) {
+        this.pharmacyId = pharmacyId;
+    }
+    
+    public LocalDateTime getRequestDate() {
+        return requestDate;
+    }
+    
+    public void setRequestDate(LocalDateTime requestDate) {
+        this.requestDate = requestDate;
+    }
+    
+    public Integer getRequestedQuantity() {
+        return requestedQuantity;
+    }
+    
+    public void setRequestedQuantity(Integer requestedQuantity) {
+        this.requestedQuantity = requestedQuantity;
+    }
+    
+    public RefillRequestStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(RefillRequestStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+    
+    public String getProcessedBy() {
+        return processedBy;
+    }
+    
+    public void setProcessedBy(String processedBy) {
+        this.processedBy = processedBy;
+    }
+    
+    public String getProcessingNotes() {
+        return processingNotes;
+    }
+    
+    public void setProcessingNotes(String processingNotes) {
+        this.processingNotes = processingNotes;
+    }
+    
+    public String getDenialReason() {
+        return denialReason;
+    }
+    
+    public void setDenialReason(String denialReason) {
+        this.denialReason = denialReason;
+    }
+    
+    public LocalDate getPreferredPickupDate() {
+        return preferredPickupDate;
+    }
+    
+    public void setPreferredPickupDate(LocalDate preferredPickupDate) {
+        this.preferredPickupDate = preferredPickupDate;
+    }
+    
+    public LocalTime getPreferredPickupTime() {
+        return preferredPickupTime;
+    }
+    
+    public void setPreferredPickupTime(LocalTime preferredPickupTime) {
+        this.preferredPickupTime = preferredPickupTime;
+    }
+    
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+    
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+    
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
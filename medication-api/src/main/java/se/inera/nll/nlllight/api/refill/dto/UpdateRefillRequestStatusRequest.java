@@ -0,0 +1,41 @@
+package se.inera.nll.nlllight.api.refill.dto;
+
+import jakarta.validation.constraints.NotNull;
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+
+public class UpdateRefillRequestStatusRequest {
+    
+    @NotNull(message = "Status is required")
+    private RefillRequestStatus status;
+    
+    private String notes;
+    
+    // Required when denying
+    private String denialReason;
+    
+    // Getters and Setters
+    
+    public RefillRequestStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(RefillRequestStatus status) {
+        this.status = status;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public String getDenialReason() {
+        return denialReason;
+    }
+    
+    public void setDenialReason(String denialReason) {
+        this.denialReason = denialReason;
+    }
+}
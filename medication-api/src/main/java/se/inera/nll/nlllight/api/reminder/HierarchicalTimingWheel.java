@@ -0,0 +1,224 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) keyed by {@code long}: four wheels of 64 slots,
+ * each slot of a wheel spanning a full turn of the wheel below. With 100 ms ticks the innermost
+ * wheel covers 6.4 seconds and the outermost 19 days; keys due further out wait in the outermost
+ * wheel and are placed again as it turns.
+ * <p>
+ * Scheduling and cancelling are O(1). Advancing costs O(1) per tick plus the keys that expire or
+ * move to an inner wheel, so a key is touched at most once per wheel on its way down. Ticks fall
+ * on multiples of the tick length since the epoch, whatever the start time; keys fire on the first
+ * tick at or after their deadline, never early and at most one tick late.
+ * <p>
+ * Entries live in parallel primitive arrays linked into per-slot lists by index, with a
+ * {@link LongIndexMap} from key to entry: about 50 bytes per scheduled key and no garbage per
+ * operation. Not thread-safe; callers synchronize.
+ */
+public final class HierarchicalTimingWheel {
+
+    /**
+     * Receives the keys that expired during {@link #advance}; the key is already removed, so the
+     * consumer may schedule it again.
+     */
+    @FunctionalInterface
+    public interface ExpiryConsumer {
+        void expired(long key, long deadlineMillis);
+    }
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (WHEEL_BITS * LEVELS);
+    private static final int NIL = -1;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private long currentTick;
+
+    private final int[] heads = new int[LEVELS * WHEEL_SIZE];
+    private final LongIndexMap index;
+
+    private long[] keys;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private short[] slots;
+    private int allocated;
+    private int free = NIL;
+
+    // Expired keys of the slot being processed, handed to the consumer once the slot is detached
+    private long[] expiredKeys = new long[64];
+    private long[] expiredDeadlines = new long[64];
+
+    public HierarchicalTimingWheel(long tickMillis, long nowMillis, int expectedSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        // Ticks fall on multiples of the tick length, so a key advanced to exactly its deadline fires
+        this.originMillis = Math.floorDiv(nowMillis, tickMillis) * tickMillis;
+        int capacity = Math.max(16, expectedSize);
+        this.keys = new long[capacity];
+        this.deadlines = new long[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.slots = new short[capacity];
+        this.index = new LongIndexMap(capacity);
+        Arrays.fill(heads, NIL);
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}, replacing any earlier schedule of
+     * the same key. A deadline in the past expires on the next tick.
+     */
+    public void schedule(long key, long deadlineMillis) {
+        int entry = index.get(key);
+        if (entry != LongIndexMap.MISSING) {
+            unlink(entry);
+        } else {
+            entry = allocate();
+            keys[entry] = key;
+            index.put(key, entry);
+        }
+        deadlines[entry] = deadlineMillis;
+        place(entry, currentTick + 1);
+    }
+
+    public boolean cancel(long key) {
+        int entry = index.remove(key);
+        if (entry == LongIndexMap.MISSING) {
+            return false;
+        }
+        unlink(entry);
+        release(entry);
+        return true;
+    }
+
+    public OptionalLong deadline(long key) {
+        int entry = index.get(key);
+        return entry == LongIndexMap.MISSING ? OptionalLong.empty() : OptionalLong.of(deadlines[entry]);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis} and passes every key whose deadline has been
+     * reached to {@code consumer}, in deadline order across ticks.
+     *
+     * @return the number of expired keys
+     */
+    public int advance(long nowMillis, ExpiryConsumer consumer) {
+        long target = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int fired = 0;
+        while (currentTick < target) {
+            if (index.size() == 0) {
+                currentTick = target;
+                break;
+            }
+            currentTick++;
+            // Outer wheels first, so keys cascading through several wheels settle in one pass
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    cascade(level * WHEEL_SIZE + (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+                }
+            }
+            fired += expire((int) (currentTick & WHEEL_MASK), consumer);
+        }
+        return fired;
+    }
+
+    private int expire(int slot, ExpiryConsumer consumer) {
+        int count = 0;
+        int entry = heads[slot];
+        heads[slot] = NIL;
+        while (entry != NIL) {
+            int following = next[entry];
+            if (expiredKeys.length == count) {
+                expiredKeys = Arrays.copyOf(expiredKeys, count * 2);
+                expiredDeadlines = Arrays.copyOf(expiredDeadlines, count * 2);
+            }
+            expiredKeys[count] = keys[entry];
+            expiredDeadlines[count] = deadlines[entry];
+            count++;
+            index.remove(keys[entry]);
+            release(entry);
+            entry = following;
+        }
+        for (int i = 0; i < count; i++) {
+            consumer.expired(expiredKeys[i], expiredDeadlines[i]);
+        }
+        return count;
+    }
+
+    private void cascade(int slot) {
+        int entry = heads[slot];
+        heads[slot] = NIL;
+        while (entry != NIL) {
+            int following = next[entry];
+            place(entry, currentTick);
+            entry = following;
+        }
+    }
+
+    private void place(int entry, long earliestTick) {
+        long tick = Math.max(earliestTick, -Math.floorDiv(originMillis - deadlines[entry], tickMillis));
+        long delta = tick - currentTick;
+        if (delta >= SPAN) {
+            // Beyond the outermost wheel: park in its furthest slot and place again on the way
+            tick = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = delta == 0 ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / WHEEL_BITS;
+        int slot = level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        int head = heads[slot];
+        next[entry] = head;
+        prev[entry] = NIL;
+        if (head != NIL) {
+            prev[head] = entry;
+        }
+        heads[slot] = entry;
+        slots[entry] = (short) slot;
+    }
+
+    private void unlink(int entry) {
+        int before = prev[entry];
+        int after = next[entry];
+        if (before != NIL) {
+            next[before] = after;
+        } else {
+            heads[slots[entry]] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+    }
+
+    private int allocate() {
+        if (free != NIL) {
+            int entry = free;
+            free = next[entry];
+            return entry;
+        }
+        if (allocated == keys.length) {
+            int capacity = keys.length + (keys.length >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int entry) {
+        next[entry] = free;
+        free = entry;
+    }
+}
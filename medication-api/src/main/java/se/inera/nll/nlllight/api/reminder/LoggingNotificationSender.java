@@ -0,0 +1,19 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in for a real delivery channel: logs each notification instead of sending it.
+ */
+public class LoggingNotificationSender implements NotificationSender {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSender.class);
+    
+    @Override
+    public void send(ReminderNotification notification) {
+        logger.debug("Reminder {} via {} to patient {} for dose at {}{}", notification.reminderId(),
+                    notification.method(), notification.patientId(), notification.doseTime(),
+                    notification.snoozed() ? " (snoozed)" : "");
+    }
+}
@@ -0,0 +1,102 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int} values, without boxing.
+ * Linear probing; removal shifts the following run back so no tombstones accumulate.
+ */
+final class LongIndexMap {
+
+    static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIndexMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == MISSING || keys[i] == key) {
+                return value;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (values[i] == MISSING) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > values.length * LOAD_FACTOR) {
+                    rehash(values.length << 1);
+                }
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    int remove(long key) {
+        int i = slot(key);
+        while (values[i] != MISSING && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        if (removed == MISSING) {
+            return MISSING;
+        }
+        values[i] = MISSING;
+        size--;
+        // Move back every entry of the run that can no longer be reached past the hole
+        for (int j = (i + 1) & mask; values[j] != MISSING; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = MISSING;
+                i = j;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
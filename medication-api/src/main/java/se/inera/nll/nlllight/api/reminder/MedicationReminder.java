@@ -0,0 +1,196 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import jakarta.persistence.*;
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A recurring notification about a prescription's dose at a time of day, on every day or on the
+ * listed weekdays. {@code lastDoseTime}/{@code lastSentAt} record the dose most recently notified.
+ */
+@Entity
+@EntityListeners(MedicationReminderChangeListener.class)
+@Table(name = "medication_reminders")
+public class MedicationReminder {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "prescription_id", nullable = false)
+    private Long prescriptionId;
+    
+    @Column(name = "patient_id", nullable = false, length = 64)
+    private String patientId;
+    
+    @Column(name = "reminder_time", nullable = false)
+    private LocalTime reminderTime;
+    
+    @Column(name = "days_of_week", length = 100)
+    private String daysOfWeek;
+    
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_method", nullable = false, length = 50)
+    private NotificationMethod notificationMethod;
+    
+    @Column(name = "notification_advance_minutes")
+    private Integer notificationAdvanceMinutes = 0;
+    
+    @Column(name = "email_address")
+    private String emailAddress;
+    
+    @Column(name = "phone_number", length = 20)
+    private String phoneNumber;
+    
+    @Column(name = "snooze_enabled")
+    private Boolean snoozeEnabled = true;
+    
+    @Column(name = "snooze_duration_minutes")
+    private Integer snoozeDurationMinutes = 10;
+    
+    @Column(name = "last_dose_time")
+    private LocalDateTime lastDoseTime;
+    
+    @Column(name = "last_sent_at")
+    private LocalDateTime lastSentAt;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public String getPatientId() {
+        return patientId;
+    }
+    
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+    
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+    
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+    
+    public String getDaysOfWeek() {
+        return daysOfWeek;
+    }
+    
+    public void setDaysOfWeek(String daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public NotificationMethod getNotificationMethod() {
+        return notificationMethod;
+    }
+    
+    public void setNotificationMethod(NotificationMethod notificationMethod) {
+        this.notificationMethod = notificationMethod;
+    }
+    
+    public Integer getNotificationAdvanceMinutes() {
+        return notificationAdvanceMinutes;
+    }
+    
+    public void setNotificationAdvanceMinutes(Integer notificationAdvanceMinutes) {
+        this.notificationAdvanceMinutes = notificationAdvanceMinutes;
+    }
+    
+    public String getEmailAddress() {
+        return emailAddress;
+    }
+    
+    public void setEmailAddress(String emailAddress) {
+        this.emailAddress = emailAddress;
+    }
+    
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+    
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+    
+    public Boolean getSnoozeEnabled() {
+        return snoozeEnabled;
+    }
+    
+    public void setSnoozeEnabled(Boolean snoozeEnabled) {
+        this.snoozeEnabled = snoozeEnabled;
+    }
+    
+    public Integer getSnoozeDurationMinutes() {
+        return snoozeDurationMinutes;
+    }
+    
+    public void setSnoozeDurationMinutes(Integer snoozeDurationMinutes) {
+        this.snoozeDurationMinutes = snoozeDurationMinutes;
+    }
+    
+    public LocalDateTime getLastDoseTime() {
+        return lastDoseTime;
+    }
+    
+    public void setLastDoseTime(LocalDateTime lastDoseTime) {
+        this.lastDoseTime = lastDoseTime;
+    }
+    
+    public LocalDateTime getLastSentAt() {
+        return lastSentAt;
+    }
+    
+    public void setLastSentAt(LocalDateTime lastSentAt) {
+        this.lastSentAt = lastSentAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
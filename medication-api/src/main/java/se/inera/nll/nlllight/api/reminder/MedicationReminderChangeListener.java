@@ -0,0 +1,26 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that announces reminder writes as {@link ReminderChangedEvent}s.
+ * Instantiated by Hibernate through Spring, so the publisher is injected.
+ */
+public class MedicationReminderChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public MedicationReminderChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(MedicationReminder reminder) {
+        eventPublisher.publishEvent(new ReminderChangedEvent(reminder.getId()));
+    }
+}
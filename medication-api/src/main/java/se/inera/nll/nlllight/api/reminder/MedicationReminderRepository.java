@@ -0,0 +1,40 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MedicationReminderRepository extends JpaRepository<MedicationReminder, Long> {
+    
+    List<MedicationReminder> findByPatientIdOrderByReminderTimeAscIdAsc(String patientId);
+    
+    @Query("SELECT r.id FROM MedicationReminder r WHERE r.prescriptionId = :prescriptionId")
+    List<Long> findIdsByPrescriptionId(@Param("prescriptionId") Long prescriptionId);
+    
+    /**
+     * The given reminders that should fire: active, with a notification method, on an active prescription.
+     */
+    @Query("SELECT r FROM MedicationReminder r JOIN Prescription p ON p.id = r.prescriptionId " +
+           "WHERE r.id IN :ids AND (r.isActive IS NULL OR r.isActive = true) " +
+           "AND r.notificationMethod <> se.inera.nll.nlllight.api.common.NotificationMethod.NONE " +
+           "AND p.status = se.inera.nll.nlllight.api.common.PrescriptionStatus.ACTIVE")
+    List<MedicationReminder> findDispatchable(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT MAX(r.lastSentAt) FROM MedicationReminder r " +
+           "WHERE r.prescriptionId = :prescriptionId AND r.lastDoseTime = :doseTime")
+    Optional<LocalDateTime> findLastSentAt(@Param("prescriptionId") Long prescriptionId,
+                                           @Param("doseTime") LocalDateTime doseTime);
+    
+    // Last notified dose per reminder for a whole adherence ingestion batch in one round trip
+    @Query("SELECT r.prescriptionId, r.lastDoseTime, MAX(r.lastSentAt) FROM MedicationReminder r " +
+           "WHERE r.prescriptionId IN :prescriptionIds AND r.lastSentAt IS NOT NULL " +
+           "GROUP BY r.prescriptionId, r.lastDoseTime")
+    List<Object[]> findLastSentByPrescriptionIds(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+}
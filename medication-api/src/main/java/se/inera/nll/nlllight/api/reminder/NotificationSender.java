@@ -0,0 +1,11 @@
+package se.inera.nll.nlllight.api.reminder;
+
+/**
+ * Delivers reminder notifications over the reminder's {@code notification_method}. Called from
+ * the dispatch thread; a thrown exception counts the notification as failed and is not retried.
+ * Without a sender bean in the context, {@link LoggingNotificationSender} is used.
+ */
+public interface NotificationSender {
+    
+    void send(ReminderNotification notification);
+}
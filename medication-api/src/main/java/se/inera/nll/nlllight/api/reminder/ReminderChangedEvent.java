@@ -0,0 +1,7 @@
+package se.inera.nll.nlllight.api.reminder;
+
+/**
+ * Published when a medication reminder row is written or removed.
+ */
+public record ReminderChangedEvent(long reminderId) {
+}
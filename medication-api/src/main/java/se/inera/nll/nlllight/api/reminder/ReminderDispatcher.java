@@ -0,0 +1,397 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.prescription.PrescriptionChangedEvent;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires medication reminders from a {@link HierarchicalTimingWheel} instead of polling
+ * {@code medication_reminders}. The wheel holds only reminder id and next notification time; it is
+ * loaded through a cursor at startup and kept current by committed reminder and prescription
+ * changes.
+ * <p>
+ * A ticker thread turns the wheel every {@code reminder.wheel.tick-ms} and hands expired ids to a
+ * dispatch thread, which reloads them in batches, sends through the {@link NotificationSender},
+ * records {@code last_sent_at} (and {@code reminder_sent_at} on an adherence record already
+ * written for the dose) and schedules the next occurrence. Rows that are no longer active are
+ * dropped at that point. A snooze repeats the last notified dose once; snoozes live only in
+ * memory.
+ */
+@Service
+public class ReminderDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ACTIVE_REMINDERS_SQL =
+            "SELECT r.id, r.reminder_time, r.days_of_week, r.notification_advance_minutes "
+            + "FROM medication_reminders r JOIN prescriptions p ON p.id = r.prescription_id "
+            + "WHERE (r.is_active IS NULL OR r.is_active = TRUE) AND r.notification_method <> 'NONE' "
+            + "AND p.status = 'ACTIVE'";
+
+    // Plain JDBC so the dispatcher's own bookkeeping does not come back as a ReminderChangedEvent
+    private static final String MARK_SENT_SQL =
+            "UPDATE medication_reminders SET last_dose_time = ?, last_sent_at = ? WHERE id = ?";
+
+    private static final String MARK_RECORD_SQL =
+            "UPDATE adherence_records SET reminder_sent_at = ? "
+            + "WHERE prescription_id = ? AND scheduled_time = ? AND reminder_sent_at IS NULL";
+
+    private final MedicationReminderRepository reminderRepository;
+    private final NotificationSender sender;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer skewTimer;
+
+    private final Object lock = new Object();
+    private final HierarchicalTimingWheel wheel;
+    private final Set<Long> snoozed = ConcurrentHashMap.newKeySet();
+    private Set<Long> changedDuringLoad;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService dispatchExecutor;
+
+    public ReminderDispatcher(MedicationReminderRepository reminderRepository,
+                              ObjectProvider<NotificationSender> senders,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${reminder.dispatch.enabled:false}") boolean enabled,
+                              @Value("${reminder.wheel.tick-ms:100}") long tickMillis,
+                              @Value("${reminder.wheel.expected-size:1024}") int expectedSize,
+                              @Value("${reminder.dispatch.fetch-size:1000}") int fetchSize) {
+        this.reminderRepository = reminderRepository;
+        this.sender = senders.getIfUnique(LoggingNotificationSender::new);
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis(), expectedSize);
+
+        // The load cursor only streams inside a transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+
+        this.sentCounter = Counter.builder("reminder.dispatch.sent")
+                .description("Reminder notifications sent")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("reminder.dispatch.failed")
+                .description("Reminder notifications the sender rejected")
+                .register(meterRegistry);
+        this.skewTimer = Timer.builder("reminder.dispatch.skew")
+                .description("Delay between a reminder's notification time and the tick that fired it")
+                .register(meterRegistry);
+        Gauge.builder("reminder.wheel.size", this, ReminderDispatcher::scheduledCount)
+                .description("Reminders scheduled in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        load();
+        dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "reminder-dispatch"));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "reminder-wheel"));
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Schedules every dispatchable reminder. Changes committed while the cursor runs are applied
+     * again afterwards, so the snapshot cannot overwrite them.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int[] loaded = {0};
+        synchronized (lock) {
+            changedDuringLoad = new HashSet<>();
+        }
+        try {
+            readTransaction.executeWithoutResult(status -> cursorTemplate.query(ACTIVE_REMINDERS_SQL, rs -> {
+                long reminderId = rs.getLong(1);
+                ReminderRule rule;
+                try {
+                    rule = new ReminderRule(reminderId, rs.getObject(2, LocalTime.class), rs.getString(3), rs.getInt(4));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping reminder {}: {}", reminderId, e.getMessage());
+                    return;
+                }
+                long deadline = toMillis(rule.notifyAt(rule.nextDose(now)));
+                synchronized (lock) {
+                    wheel.schedule(reminderId, deadline);
+                }
+                loaded[0]++;
+            }));
+        } finally {
+            Set<Long> changed;
+            synchronized (lock) {
+                changed = changedDuringLoad;
+                changedDuringLoad = null;
+            }
+            changed.forEach(this::reschedule);
+        }
+        logger.info("Loaded {} reminders into the timing wheel in {} ms", loaded[0],
+                   (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Repeats the reminder's last notified dose at {@code until}, in place of its next occurrence
+     * until that fires.
+     */
+    public void snooze(long reminderId, LocalDateTime until) {
+        snoozed.add(reminderId);
+        synchronized (lock) {
+            wheel.schedule(reminderId, toMillis(until));
+        }
+    }
+
+    public Optional<LocalDateTime> nextNotification(long reminderId) {
+        synchronized (lock) {
+            OptionalLong deadline = wheel.deadline(reminderId);
+            return deadline.isPresent() ? Optional.of(toDateTime(deadline.getAsLong())) : Optional.empty();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReminderChanged(ReminderChangedEvent change) {
+        synchronized (lock) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(change.reminderId());
+            }
+        }
+        reschedule(change.reminderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrescriptionChanged(PrescriptionChangedEvent change) {
+        List<Long> reminderIds = reminderRepository.findIdsByPrescriptionId(change.prescriptionId());
+        if (reminderIds.isEmpty()) {
+            return;
+        }
+        if (change.deleted() || change.status() != PrescriptionStatus.ACTIVE) {
+            synchronized (lock) {
+                reminderIds.forEach(wheel::cancel);
+            }
+            reminderIds.forEach(snoozed::remove);
+            return;
+        }
+        // Only a reactivated prescription has reminders to bring back; scheduled ones keep their time
+        for (Long reminderId : reminderIds) {
+            boolean scheduled;
+            synchronized (lock) {
+                if (changedDuringLoad != null) {
+                    changedDuringLoad.add(reminderId);
+                }
+                scheduled = wheel.deadline(reminderId).isPresent();
+            }
+            if (!scheduled) {
+                reschedule(reminderId);
+            }
+        }
+    }
+
+    /**
+     * Fires and dispatches everything due at {@code now} on the calling thread.
+     *
+     * @return the number of reminders that expired
+     */
+    int dispatchDue(LocalDateTime now) {
+        Due due = expire(toMillis(now));
+        dispatch(due, now);
+        return due.size;
+    }
+
+    private void tick() {
+        try {
+            Due due = expire(System.currentTimeMillis());
+            if (due.size > 0) {
+                dispatchExecutor.execute(() -> dispatch(due, LocalDateTime.now()));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            logger.error("Reminder wheel tick failed", e);
+        }
+    }
+
+    private Due expire(long nowMillis) {
+        Due due = new Due();
+        synchronized (lock) {
+            wheel.advance(nowMillis, (reminderId, deadline) -> {
+                due.add(reminderId, deadline);
+                skewTimer.record(nowMillis - deadline, TimeUnit.MILLISECONDS);
+            });
+        }
+        return due;
+    }
+
+    private void dispatch(Due due, LocalDateTime now) {
+        for (int from = 0; from < due.size; from += BATCH_SIZE) {
+            int to = Math.min(due.size, from + BATCH_SIZE);
+            Map<Long, Long> deadlines = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                deadlines.put(due.reminderIds[i], due.deadlines[i]);
+            }
+            try {
+                dispatchBatch(reminderRepository.findDispatchable(deadlines.keySet()), deadlines, now);
+            } catch (RuntimeException e) {
+                logger.error("Dispatching {} reminders failed", deadlines.size(), e);
+            }
+        }
+    }
+
+    private void dispatchBatch(List<MedicationReminder> reminders, Map<Long, Long> deadlines, LocalDateTime now) {
+        LocalDateTime sentAt = LocalDateTime.now();
+        List<Object[]> sent = new ArrayList<>(reminders.size());
+        List<Object[]> records = new ArrayList<>(reminders.size());
+        for (MedicationReminder reminder : reminders) {
+            ReminderRule rule;
+            try {
+                rule = rule(reminder);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Dropping reminder {}: {}", reminder.getId(), e.getMessage());
+                continue;
+            }
+            boolean repeat = snoozed.remove(reminder.getId()) && reminder.getLastDoseTime() != null;
+            LocalDateTime dose = repeat
+                    ? reminder.getLastDoseTime()
+                    : toDateTime(deadlines.get(reminder.getId())).plusMinutes(rule.advanceMinutes());
+            try {
+                sender.send(new ReminderNotification(reminder.getId(), reminder.getPrescriptionId(),
+                        reminder.getPatientId(), reminder.getNotificationMethod(), reminder.getEmailAddress(),
+                        reminder.getPhoneNumber(), dose, repeat));
+                sentCounter.increment();
+                sent.add(new Object[]{Timestamp.valueOf(dose), Timestamp.valueOf(sentAt), reminder.getId()});
+                records.add(new Object[]{Timestamp.valueOf(sentAt), reminder.getPrescriptionId(), Timestamp.valueOf(dose)});
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                logger.warn("Sending reminder {} failed: {}", reminder.getId(), e.getMessage());
+            }
+
+            LocalDateTime notified = rule.notifyAt(dose);
+            LocalDateTime after = notified.isAfter(now) ? notified : now;
+            synchronized (lock) {
+                wheel.schedule(reminder.getId(), toMillis(rule.notifyAt(rule.nextDose(after))));
+            }
+        }
+        if (!sent.isEmpty()) {
+            writeTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(MARK_SENT_SQL, sent);
+                jdbcTemplate.batchUpdate(MARK_RECORD_SQL, records);
+            });
+        }
+    }
+
+    private void reschedule(long reminderId) {
+        snoozed.remove(reminderId);
+        List<MedicationReminder> found = reminderRepository.findDispatchable(List.of(reminderId));
+        synchronized (lock) {
+            if (found.isEmpty()) {
+                wheel.cancel(reminderId);
+                return;
+            }
+            ReminderRule rule = rule(found.get(0));
+            wheel.schedule(reminderId, toMillis(rule.notifyAt(rule.nextDose(LocalDateTime.now()))));
+        }
+    }
+
+    private int scheduledCount() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    private static ReminderRule rule(MedicationReminder reminder) {
+        return new ReminderRule(reminder.getId(), reminder.getReminderTime(), reminder.getDaysOfWeek(),
+                reminder.getNotificationAdvanceMinutes());
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Ids and deadlines of the reminders one turn of the wheel expired
+    private static final class Due {
+        long[] reminderIds = new long[16];
+        long[] deadlines = new long[16];
+        int size;
+
+        void add(long reminderId, long deadline) {
+            if (size == reminderIds.length) {
+                reminderIds = Arrays.copyOf(reminderIds, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            reminderIds[size] = reminderId;
+            deadlines[size] = deadline;
+            size++;
+        }
+    }
+}
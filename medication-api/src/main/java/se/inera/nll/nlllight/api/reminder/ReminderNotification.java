@@ -0,0 +1,14 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+
+import java.time.LocalDateTime;
+
+/**
+ * One reminder to deliver: which dose, to whom and how. {@code snoozed} marks a repeat of a dose
+ * already notified.
+ */
+public record ReminderNotification(long reminderId, long prescriptionId, String patientId,
+                                   NotificationMethod method, String emailAddress, String phoneNumber,
+                                   LocalDateTime doseTime, boolean snoozed) {
+}
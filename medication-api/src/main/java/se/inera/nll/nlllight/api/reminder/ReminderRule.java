@@ -0,0 +1,68 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+
+/**
+ * When a reminder fires: the dose time of day, the weekdays it applies to (bit 0 = Monday) and how
+ * many minutes before the dose the notification goes out.
+ */
+record ReminderRule(long reminderId, LocalTime reminderTime, int dayMask, int advanceMinutes) {
+
+    static final int EVERY_DAY = 0x7F;
+
+    ReminderRule(long reminderId, LocalTime reminderTime, String daysOfWeek, Integer advanceMinutes) {
+        this(reminderId, reminderTime, parseDays(daysOfWeek), advanceMinutes != null ? advanceMinutes : 0);
+    }
+
+    /**
+     * The first dose whose notification time lies after {@code after}.
+     */
+    LocalDateTime nextDose(LocalDateTime after) {
+        LocalDateTime dose = after.toLocalDate().atTime(reminderTime);
+        for (int day = 0; day <= 8; day++, dose = dose.plusDays(1)) {
+            if ((dayMask & (1 << (dose.getDayOfWeek().getValue() - 1))) != 0
+                    && notifyAt(dose).isAfter(after)) {
+                return dose;
+            }
+        }
+        throw new IllegalStateException("Reminder " + reminderId + " applies on no day");
+    }
+
+    LocalDateTime notifyAt(LocalDateTime dose) {
+        return dose.minusMinutes(advanceMinutes);
+    }
+
+    /**
+     * Parses {@code days_of_week}: comma-separated weekday names or three-letter abbreviations,
+     * or null, blank or {@code DAILY} for every day.
+     */
+    static int parseDays(String daysOfWeek) {
+        if (daysOfWeek == null || daysOfWeek.isBlank() || "DAILY".equalsIgnoreCase(daysOfWeek.trim())) {
+            return EVERY_DAY;
+        }
+        int mask = 0;
+        for (String token : daysOfWeek.split("[,\\s]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String day = token.toUpperCase(Locale.ROOT);
+            DayOfWeek match = null;
+            for (DayOfWeek candidate : DayOfWeek.values()) {
+                if (day.length() >= 3 && candidate.name().startsWith(day)) {
+                    match = candidate;
+                }
+            }
+            if (match == null) {
+                throw new IllegalArgumentException("Invalid day of week: " + token);
+            }
+            mask |= 1 << (match.getValue() - 1);
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("Invalid days of week: " + daysOfWeek);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,132 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.audit.PatientAccessContext;
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.reminder.dto.CreateReminderRequest;
+import se.inera.nll.nlllight.api.reminder.dto.MedicationReminderDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Patient-facing reminder management. Writes reach the {@link ReminderDispatcher} through
+ * {@link ReminderChangedEvent}s after commit; a snooze goes to it directly.
+ */
+@Service
+@Transactional
+public class ReminderService {
+
+    private final MedicationReminderRepository reminderRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ReminderDispatcher reminderDispatcher;
+
+    public ReminderService(MedicationReminderRepository reminderRepository,
+                           PrescriptionRepository prescriptionRepository,
+                           ReminderDispatcher reminderDispatcher) {
+        this.reminderRepository = reminderRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.reminderDispatcher = reminderDispatcher;
+    }
+
+    public MedicationReminderDTO createReminder(Long prescriptionId, String patientId, CreateReminderRequest create) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId)
+                .orElseThrow(() -> new RuntimeException("Prescription not found: " + prescriptionId));
+        if (!prescription.getPatient().getId().equals(patientId)) {
+            throw new SecurityException("User not authorized to access this prescription");
+        }
+        if (prescription.getStatus() != PrescriptionStatus.ACTIVE) {
+            throw new RuntimeException("Cannot add a reminder to a prescription with status: " + prescription.getStatus());
+        }
+        ReminderRule.parseDays(create.getDaysOfWeek());
+        if (create.getNotificationMethod() == NotificationMethod.EMAIL && create.getEmailAddress() == null) {
+            throw new IllegalArgumentException("Email address is required for EMAIL reminders");
+        }
+        if (create.getNotificationMethod() == NotificationMethod.SMS && create.getPhoneNumber() == null) {
+            throw new IllegalArgumentException("Phone number is required for SMS reminders");
+        }
+
+        MedicationReminder reminder = new MedicationReminder();
+        reminder.setPrescriptionId(prescriptionId);
+        reminder.setPatientId(patientId);
+        reminder.setReminderTime(create.getReminderTime());
+        reminder.setDaysOfWeek(create.getDaysOfWeek());
+        reminder.setNotificationMethod(create.getNotificationMethod());
+        if (create.getNotificationAdvanceMinutes() != null) {
+            reminder.setNotificationAdvanceMinutes(create.getNotificationAdvanceMinutes());
+        }
+        reminder.setEmailAddress(create.getEmailAddress());
+        reminder.setPhoneNumber(create.getPhoneNumber());
+        if (create.getSnoozeEnabled() != null) {
+            reminder.setSnoozeEnabled(create.getSnoozeEnabled());
+        }
+        if (create.getSnoozeDurationMinutes() != null) {
+            reminder.setSnoozeDurationMinutes(create.getSnoozeDurationMinutes());
+        }
+        return toDTO(reminderRepository.save(reminder));
+    }
+
+    @Transactional(readOnly = true)
+    public List<MedicationReminderDTO> getPatientReminders(String patientId) {
+        PatientAccessContext.accessed(patientId);
+        return reminderRepository.findByPatientIdOrderByReminderTimeAscIdAsc(patientId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    public MedicationReminderDTO deactivateReminder(Long reminderId, String patientId) {
+        MedicationReminder reminder = findOwned(reminderId, patientId);
+        reminder.setIsActive(false);
+        return toDTO(reminderRepository.save(reminder));
+    }
+
+    /**
+     * Repeats the reminder's last notification after its snooze duration.
+     */
+    public MedicationReminderDTO snoozeReminder(Long reminderId, String patientId) {
+        MedicationReminder reminder = findOwned(reminderId, patientId);
+        if (!Boolean.TRUE.equals(reminder.getSnoozeEnabled())) {
+            throw new RuntimeException("Cannot snooze reminder " + reminderId + ": snooze is disabled");
+        }
+        if (!Boolean.TRUE.equals(reminder.getIsActive()) || reminder.getLastSentAt() == null) {
+            throw new RuntimeException("Cannot snooze reminder " + reminderId + ": nothing has been sent");
+        }
+        int minutes = reminder.getSnoozeDurationMinutes() != null ? reminder.getSnoozeDurationMinutes() : 10;
+        reminderDispatcher.snooze(reminderId, LocalDateTime.now().plusMinutes(minutes));
+        return toDTO(reminder);
+    }
+
+    private MedicationReminder findOwned(Long reminderId, String patientId) {
+        MedicationReminder reminder = reminderRepository.findById(reminderId)
+                .orElseThrow(() -> new RuntimeException("Reminder not found: " + reminderId));
+        if (!reminder.getPatientId().equals(patientId)) {
+            throw new SecurityException("User not authorized to access this reminder");
+        }
+        return reminder;
+    }
+
+    private MedicationReminderDTO toDTO(MedicationReminder reminder) {
+        // Every reminder handed out of the service is audited against its patient
+        PatientAccessContext.accessed(reminder.getPatientId());
+        
+        MedicationReminderDTO dto = new MedicationReminderDTO();
+        dto.setId(reminder.getId());
+        dto.setPrescriptionId(reminder.getPrescriptionId());
+        dto.setReminderTime(reminder.getReminderTime());
+        dto.setDaysOfWeek(reminder.getDaysOfWeek());
+        dto.setIsActive(reminder.getIsActive());
+        dto.setNotificationMethod(reminder.getNotificationMethod());
+        dto.setNotificationAdvanceMinutes(reminder.getNotificationAdvanceMinutes());
+        dto.setSnoozeEnabled(reminder.getSnoozeEnabled());
+        dto.setSnoozeDurationMinutes(reminder.getSnoozeDurationMinutes());
+        dto.setLastDoseTime(reminder.getLastDoseTime());
+        dto.setLastSentAt(reminder.getLastSentAt());
+        reminderDispatcher.nextNotification(reminder.getId()).ifPresent(dto::setNextNotificationAt);
+        return dto;
+    }
+}
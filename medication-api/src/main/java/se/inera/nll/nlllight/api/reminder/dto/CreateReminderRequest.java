@@ -0,0 +1,96 @@
+package se.inera.nll.nlllight.api.reminder.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+
+import java.time.LocalTime;
+
+public class CreateReminderRequest {
+    
+    @NotNull(message = "Reminder time is required")
+    private LocalTime reminderTime;
+    
+    // Comma-separated weekdays (MONDAY or MON); empty for every day
+    private String daysOfWeek;
+    
+    @NotNull(message = "Notification method is required")
+    private NotificationMethod notificationMethod;
+    
+    @Min(value = 0, message = "Advance minutes must not be negative")
+    private Integer notificationAdvanceMinutes;
+    
+    private String emailAddress;
+    private String phoneNumber;
+    private Boolean snoozeEnabled;
+    
+    @Positive(message = "Snooze duration must be positive")
+    private Integer snoozeDurationMinutes;
+    
+    // Getters and Setters
+    
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+    
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+    
+    public String getDaysOfWeek() {
+        return daysOfWeek;
+    }
+    
+    public void setDaysOfWeek(String daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+    
+    public NotificationMethod getNotificationMethod() {
+        return notificationMethod;
+    }
+    
+    public void setNotificationMethod(NotificationMethod notificationMethod) {
+        this.notificationMethod = notificationMethod;
+    }
+    
+    public Integer getNotificationAdvanceMinutes() {
+        return notificationAdvanceMinutes;
+    }
+    
+    public void setNotificationAdvanceMinutes(Integer notificationAdvanceMinutes) {
+        this.notificationAdvanceMinutes = notificationAdvanceMinutes;
+    }
+    
+    public String getEmailAddress() {
+        return emailAddress;
+    }
+    
+    public void setEmailAddress(String emailAddress) {
+        this.emailAddress = emailAddress;
+    }
+    
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+    
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+    
+    public Boolean getSnoozeEnabled() {
+        return snoozeEnabled;
+    }
+    
+    public void setSnoozeEnabled(Boolean snoozeEnabled) {
+        this.snoozeEnabled = snoozeEnabled;
+    }
+    
+    public Integer getSnoozeDurationMinutes() {
+        return snoozeDurationMinutes;
+    }
+    
+    public void setSnoozeDurationMinutes(Integer snoozeDurationMinutes) {
+        this.snoozeDurationMinutes = snoozeDurationMinutes;
+    }
+}
@@ -0,0 +1,120 @@
+package se.inera.nll.nlllight.api.reminder.dto;
+
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class MedicationReminderDTO {
+    
+    private Long id;
+    private Long prescriptionId;
+    private LocalTime reminderTime;
+    private String daysOfWeek;
+    private Boolean isActive;
+    private NotificationMethod notificationMethod;
+    private Integer notificationAdvanceMinutes;
+    private Boolean snoozeEnabled;
+    private Integer snoozeDurationMinutes;
+    private LocalDateTime lastDoseTime;
+    private LocalDateTime lastSentAt;
+    private LocalDateTime nextNotificationAt;
+    
+    // Getters and Setters
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPrescriptionId() {
+        return prescriptionId;
+    }
+    
+    public void setPrescriptionId(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+    
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+    
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+    
+    public String getDaysOfWeek() {
+        return daysOfWeek;
+    }
+    
+    public void setDaysOfWeek(String daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public NotificationMethod getNotificationMethod() {
+        return notificationMethod;
+    }
+    
+    public void setNotificationMethod(NotificationMethod notificationMethod) {
+        this.notificationMethod = notificationMethod;
+    }
+    
+    public Integer getNotificationAdvanceMinutes() {
+        return notificationAdvanceMinutes;
+    }
+    
+    public void setNotificationAdvanceMinutes(Integer notificationAdvanceMinutes) {
+        this.notificationAdvanceMinutes = notificationAdvanceMinutes;
+    }
+    
+    public Boolean getSnoozeEnabled() {
+        return snoozeEnabled;
+    }
+    
+    public void setSnoozeEnabled(Boolean snoozeEnabled) {
+        this.snoozeEnabled = snoozeEnabled;
+    }
+    
+    public Integer getSnoozeDurationMinutes() {
+        return snoozeDurationMinutes;
+    }
+    
+    public void setSnoozeDurationMinutes(Integer snoozeDurationMinutes) {
+        this.snoozeDurationMinutes = snoozeDurationMinutes;
+    }
+    
+    public LocalDateTime getLastDoseTime() {
+        return lastDoseTime;
+    }
+    
+    public void setLastDoseTime(LocalDateTime lastDoseTime) {
+        this.lastDoseTime = lastDoseTime;
+    }
+    
+    public LocalDateTime getLastSentAt() {
+        return lastSentAt;
+    }
+    
+    public void setLastSentAt(LocalDateTime lastSentAt) {
+        this.lastSentAt = lastSentAt;
+    }
+    
+    public LocalDateTime getNextNotificationAt() {
+        return nextNotificationAt;
+    }
+    
+    public void setNextNotificationAt(LocalDateTime nextNotificationAt) {
+        this.nextNotificationAt = nextNotificationAt;
+    }
+}
@@ -0,0 +1,2 @@
+-- Keyset index for prescriber panels paged on (prescribed_date, id)
+CREATE INDEX idx_prescriptions_prescriber_keyset ON prescriptions(prescriber_id, prescribed_date, id);
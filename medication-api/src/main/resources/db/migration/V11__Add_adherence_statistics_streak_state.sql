@@ -0,0 +1,3 @@
+-- Streak state for incrementally maintained adherence statistics
+ALTER TABLE adherence_statistics ADD COLUMN last_adherent_date DATE;
+ALTER TABLE adherence_statistics ADD COLUMN last_missed_date DATE;
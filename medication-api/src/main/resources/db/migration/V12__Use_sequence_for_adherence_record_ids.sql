@@ -0,0 +1,6 @@
+-- Sequence-allocated ids let Hibernate batch adherence inserts (IDENTITY forces one round trip per row).
+-- INCREMENT BY matches the entity's allocationSize; the start leaves room above the V8 sample rows.
+CREATE SEQUENCE adherence_records_seq START WITH 1000 INCREMENT BY 50;
+
+ALTER TABLE adherence_records ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE adherence_records ALTER COLUMN id SET DEFAULT NEXT VALUE FOR adherence_records_seq;
@@ -0,0 +1,3 @@
+-- Optimistic locking for prescriptions: JPA increments the version on every save, and the
+-- conditional dispense UPDATE bumps it too, so stale writes are rejected instead of lost.
+ALTER TABLE prescriptions ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
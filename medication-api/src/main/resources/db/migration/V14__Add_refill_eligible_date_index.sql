@@ -0,0 +1,3 @@
+-- The nightly refill eligibility job scans by date across all patients; idx_prescriptions_refill_eligible
+-- leads with patient_id and only serves per-patient lookups.
+CREATE INDEX idx_prescriptions_next_refill ON prescriptions(next_refill_eligible_date, status);
@@ -0,0 +1,6 @@
+-- Pharmacy work queue: a pharmacist claims a queued refill request for a limited time.
+-- Claims are taken oldest first per pharmacy, so the queue index leads with pharmacy and status.
+ALTER TABLE refill_requests ADD COLUMN claimed_by VARCHAR(100);
+ALTER TABLE refill_requests ADD COLUMN claimed_at TIMESTAMP;
+
+CREATE INDEX idx_refill_requests_queue ON refill_requests(pharmacy_id, status, request_date, id);
@@ -0,0 +1,4 @@
+-- Reminder dispatch: the dose a reminder last notified about and when, so an intake recorded for
+-- that dose can carry reminder_sent_at and a snooze repeats the same dose.
+ALTER TABLE medication_reminders ADD COLUMN last_dose_time TIMESTAMP;
+ALTER TABLE medication_reminders ADD COLUMN last_sent_at TIMESTAMP;
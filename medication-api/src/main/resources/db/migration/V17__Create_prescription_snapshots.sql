@@ -0,0 +1,13 @@
+-- Point-in-time prescription reads: a copy of a prescription's tracked fields at creation and after
+-- every prescription.history.snapshot-interval rows in prescription_modifications, so a past state
+-- is the nearest earlier snapshot plus the modifications after last_modification_id.
+CREATE TABLE prescription_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    prescription_id BIGINT NOT NULL,
+    snapshot_at TIMESTAMP NOT NULL,
+    last_modification_id BIGINT NOT NULL,
+    state TEXT NOT NULL,
+    FOREIGN KEY (prescription_id) REFERENCES prescriptions(id)
+);
+
+CREATE INDEX idx_prescription_snapshots_time ON prescription_snapshots(prescription_id, snapshot_at);
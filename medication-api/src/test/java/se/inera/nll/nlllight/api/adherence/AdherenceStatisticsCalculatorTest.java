@@ -0,0 +1,105 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Adherence statistics calculator")
+class AdherenceStatisticsCalculatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    private AdherenceStatistics stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new AdherenceStatistics();
+    }
+
+    @Test
+    @DisplayName("Should count totals, rate and period")
+    void shouldCountTotals() {
+        // Act
+        apply(DAY, AdherenceStatus.TAKEN);
+        apply(DAY, AdherenceStatus.DELAYED);
+        apply(DAY.plusDays(1), AdherenceStatus.MISSED);
+        apply(DAY.plusDays(2), AdherenceStatus.SKIPPED);
+
+        // Assert
+        assertThat(stats.getTotalScheduled()).isEqualTo(4);
+        assertThat(stats.getTotalTaken()).isEqualTo(2);
+        assertThat(stats.getTotalMissed()).isEqualTo(1);
+        assertThat(stats.getTotalSkipped()).isEqualTo(1);
+        assertThat(stats.getAdherenceRate()).isEqualByComparingTo(new BigDecimal("50.00"));
+        assertThat(stats.getPeriodStart()).isEqualTo(DAY);
+        assertThat(stats.getPeriodEnd()).isEqualTo(DAY.plusDays(2));
+    }
+
+    @Test
+    @DisplayName("Should extend streaks once per consecutive day")
+    void shouldExtendStreaks() {
+        // Act
+        apply(DAY, AdherenceStatus.TAKEN);
+        apply(DAY, AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(1), AdherenceStatus.EARLY);
+        apply(DAY.plusDays(2), AdherenceStatus.TAKEN);
+
+        // Assert
+        assertThat(stats.getCurrentStreakDays()).isEqualTo(3);
+        assertThat(stats.getLongestStreakDays()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should reset the current streak on a miss or a gap and keep the longest")
+    void shouldResetStreaks() {
+        // Act
+        apply(DAY, AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(1), AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(2), AdherenceStatus.MISSED);
+        apply(DAY.plusDays(2), AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(3), AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(6), AdherenceStatus.TAKEN);
+
+        // Assert
+        assertThat(stats.getCurrentStreakDays()).isEqualTo(1);
+        assertThat(stats.getLongestStreakDays()).isEqualTo(2);
+        assertThat(stats.getLastAdherentDate()).isEqualTo(DAY.plusDays(6));
+        assertThat(stats.getLastMissedDate()).isEqualTo(DAY.plusDays(2));
+    }
+
+    @Test
+    @DisplayName("Should reject backdated records so the caller replays history")
+    void shouldRejectBackdatedRecords() {
+        // Arrange
+        apply(DAY.plusDays(1), AdherenceStatus.TAKEN);
+
+        // Act
+        boolean applied = AdherenceStatisticsCalculator.apply(stats, DAY, AdherenceStatus.TAKEN);
+
+        // Assert
+        assertThat(applied).isFalse();
+        assertThat(stats.getTotalScheduled()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report a lapsed streak as zero when nothing was taken since yesterday")
+    void shouldLapseStaleStreaks() {
+        // Arrange
+        apply(DAY, AdherenceStatus.TAKEN);
+        apply(DAY.plusDays(1), AdherenceStatus.TAKEN);
+
+        // Act & Assert
+        assertThat(AdherenceStatisticsCalculator.currentStreak(stats, DAY.plusDays(2))).isEqualTo(2);
+        assertThat(AdherenceStatisticsCalculator.currentStreak(stats, DAY.plusDays(3))).isZero();
+    }
+
+    private void apply(LocalDate day, AdherenceStatus status) {
+        assertThat(AdherenceStatisticsCalculator.apply(stats, day, status)).isTrue();
+    }
+}
@@ -0,0 +1,135 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The writer commits on its own thread, so this test is deliberately not {@code @Transactional}
+ * and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Adherence write-behind queue Integration Tests")
+class AdherenceWriteBehindQueueIntegrationTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private AdherenceIngestionService ingestionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AdherenceRecordRepository adherenceRecordRepository;
+
+    @Autowired
+    private AdherenceStatisticsRepository adherenceStatisticsRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription kept;
+    private Prescription deleted;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-QUEUE-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("queue-patient-1");
+        patient.setUserId("user-queue-patient-1");
+        patient.setEncryptedSsn("encrypted-queue-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1970, 9, 9));
+        patient = patientRepository.save(patient);
+
+        kept = prescriptionRepository.save(prescription("RX-QUEUE-1"));
+        deleted = prescriptionRepository.save(prescription("RX-QUEUE-2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        adherenceStatisticsRepository.findByPrescriptionId(kept.getId()).ifPresent(adherenceStatisticsRepository::delete);
+        adherenceRecordRepository.deleteAll(adherenceRecordRepository.findByPrescriptionId(kept.getId()));
+        prescriptionRepository.deleteById(kept.getId());
+        prescriptionRepository.findById(deleted.getId()).ifPresent(prescriptionRepository::delete);
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("An event whose prescription was deleted after it was accepted should be dead-lettered")
+    void shouldDeadLetterEventForDeletedPrescription() throws IOException {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdherenceWriteBehindQueue queue = new AdherenceWriteBehindQueue(ingestionService, prescriptionRepository,
+                objectMapper, meterRegistry, 10, 100, 1, journalDir.toString(), false);
+        queue.submit(kept.getId(), patient.getId(), AdherenceStatus.TAKEN, null);
+        queue.submit(deleted.getId(), patient.getId(), AdherenceStatus.TAKEN, null);
+        prescriptionRepository.deleteById(deleted.getId());
+
+        // Act: stop drains the buffer before it returns
+        queue.start();
+        queue.stop();
+
+        // Assert
+        assertThat(adherenceRecordRepository.findByPrescriptionId(kept.getId())).hasSize(1);
+        assertThat(meterRegistry.get("adherence.queue.events").tag("result", "dead-lettered").counter().count())
+                .isEqualTo(1.0);
+        assertThat(Files.readString(journalDir.resolve("adherence-dead-letter.journal")))
+                .contains("\"prescriptionId\":" + deleted.getId())
+                .doesNotContain("\"prescriptionId\":" + kept.getId());
+    }
+
+    private Prescription prescription(String number) {
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber(number);
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now().minusDays(10));
+        rx.setStartDate(LocalDate.now().minusDays(10));
+        return rx;
+    }
+}
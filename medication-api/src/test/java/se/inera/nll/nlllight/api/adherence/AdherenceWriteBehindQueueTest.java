@@ -0,0 +1,163 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceBatchResultDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Adherence write-behind queue")
+class AdherenceWriteBehindQueueTest {
+
+    @TempDir
+    Path journalDir;
+
+    private AdherenceIngestionService ingestionService;
+    private PrescriptionRepository prescriptionRepository;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = mock(AdherenceIngestionService.class);
+        AdherenceBatchResultDTO result = new AdherenceBatchResultDTO();
+        result.setResults(List.of());
+        when(ingestionService.ingest(any(), isNull())).thenReturn(result);
+        prescriptionRepository = mock(PrescriptionRepository.class);
+        when(prescriptionRepository.findPatientIdById(1L)).thenReturn(Optional.of("patient-001"));
+        when(prescriptionRepository.findPatientIdById(2L)).thenReturn(Optional.of("patient-002"));
+        when(prescriptionRepository.findPatientIdById(3L)).thenReturn(Optional.of("patient-001"));
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should refuse events with retry hint when the buffer is full")
+    void shouldApplyBackpressureWhenFull() throws IOException {
+        // Arrange: writer not started, so nothing drains
+        AdherenceWriteBehindQueue queue = newQueue(2);
+        queue.submit(1L, "patient-001", AdherenceStatus.TAKEN, null);
+        queue.submit(1L, "patient-001", AdherenceStatus.TAKEN, null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> queue.submit(1L, "patient-001", AdherenceStatus.TAKEN, null))
+                .isInstanceOfSatisfying(AdherenceQueueFullException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(meterRegistry.get("adherence.queue.depth").gauge().value()).isEqualTo(2.0);
+        queue.stop();
+    }
+
+    @Test
+    @DisplayName("Should replay journaled events that were never written")
+    void shouldReplayJournalAfterRestart() throws IOException {
+        // Arrange: accept two events, then "crash" before the writer ran
+        AdherenceWriteBehindQueue crashed = newQueue(10);
+        crashed.submit(1L, "patient-001", AdherenceStatus.TAKEN, "morning");
+        crashed.submit(2L, "patient-002", AdherenceStatus.MISSED, null);
+        crashed.stop();
+
+        // Act
+        AdherenceWriteBehindQueue restarted = newQueue(10);
+        restarted.start();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AdherenceEventRequest>> batch = ArgumentCaptor.forClass(List.class);
+        verify(ingestionService, timeout(5000)).ingest(batch.capture(), isNull());
+        assertThat(batch.getValue()).extracting(AdherenceEventRequest::getPrescriptionId).containsExactly(1L, 2L);
+        assertThat(batch.getValue().get(0).getNotes()).isEqualTo("morning");
+        restarted.stop();
+
+        AdherenceWriteBehindQueue again = newQueue(10);
+        again.start();
+        again.stop();
+        verify(ingestionService, timeout(1000).times(1)).ingest(any(), isNull());
+    }
+
+    @Test
+    @DisplayName("Should refuse events for unknown or foreign prescriptions without queuing them")
+    void shouldRefuseEventsThePatientDoesNotOwn() throws IOException {
+        // Arrange
+        AdherenceWriteBehindQueue queue = newQueue(10);
+
+        // Act & Assert
+        assertThatThrownBy(() -> queue.submit(99L, "patient-001", AdherenceStatus.TAKEN, null))
+                .hasMessageContaining("Prescription not found");
+        assertThatThrownBy(() -> queue.submit(2L, "patient-001", AdherenceStatus.TAKEN, null))
+                .hasMessageContaining("does not belong to patient");
+        assertThat(queue.depth()).isZero();
+        queue.stop();
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an event the database rejects and write the rest of its batch")
+    void shouldDeadLetterRejectedEvent() throws IOException {
+        // Arrange: prescription 3 is deleted while the writer is inserting its event
+        AdherenceBatchResultDTO result = new AdherenceBatchResultDTO();
+        result.setResults(List.of());
+        when(ingestionService.ingest(any(), isNull())).thenAnswer(invocation -> {
+            List<AdherenceEventRequest> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getPrescriptionId() == 3L)) {
+                throw new DataIntegrityViolationException("FK_ADHERENCE_PRESCRIPTION");
+            }
+            return result;
+        });
+        AdherenceWriteBehindQueue queue = newQueue(10);
+        queue.submit(1L, "patient-001", AdherenceStatus.TAKEN, null);
+        queue.submit(3L, "patient-001", AdherenceStatus.TAKEN, null);
+        queue.submit(2L, "patient-002", AdherenceStatus.TAKEN, null);
+
+        // Act: stop drains the buffer before it returns
+        queue.start();
+        queue.stop();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AdherenceEventRequest>> batches = ArgumentCaptor.forClass(List.class);
+        verify(ingestionService, atLeastOnce()).ingest(batches.capture(), isNull());
+        assertThat(batches.getAllValues()).map(batch -> batch.get(0).getPrescriptionId())
+                .contains(1L, 2L);
+        assertThat(meterRegistry.get("adherence.queue.events").tag("result", "dead-lettered").counter().count())
+                .isEqualTo(1.0);
+        assertThat(Files.readString(journalDir.resolve("adherence-dead-letter.journal")))
+                .contains("\"prescriptionId\":3").doesNotContain("\"prescriptionId\":1");
+
+        // All three were acknowledged: [1, 3, 2], [1], [3, 2], [3], [2] and nothing replayed
+        AdherenceWriteBehindQueue restarted = newQueue(10);
+        restarted.start();
+        restarted.stop();
+        verify(ingestionService, times(5)).ingest(any(), isNull());
+    }
+
+    private AdherenceWriteBehindQueue newQueue(int capacity) throws IOException {
+        return new AdherenceWriteBehindQueue(ingestionService, prescriptionRepository, objectMapper, meterRegistry,
+                capacity, 100, 3, journalDir.toString(), false);
+    }
+}
@@ -0,0 +1,203 @@
+package se.inera.nll.nlllight.api.adherence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.common.RecordSource;
+import se.inera.nll.nlllight.api.dosing.DosingSchedule;
+import se.inera.nll.nlllight.api.dosing.DosingScheduleRepository;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inferred records commit in their own transactions, so this test is deliberately not
+ * {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Missed dose sweeper Integration Tests")
+class MissedDoseSweeperIntegrationTest {
+
+    @Autowired
+    private MissedDoseSweeper missedDoseSweeper;
+
+    @Autowired
+    private AdherenceService adherenceService;
+
+    @Autowired
+    private DosingScheduleRepository dosingScheduleRepository;
+
+    @Autowired
+    private AdherenceRecordRepository adherenceRecordRepository;
+
+    @Autowired
+    private AdherenceStatisticsRepository adherenceStatisticsRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription prescription;
+    private LocalDateTime yesterday;
+
+    @BeforeEach
+    void setUp() {
+        yesterday = LocalDate.now().minusDays(1).atStartOfDay();
+
+        medication = new Medication();
+        medication.setNplId("NPL-MISSED-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("missed-patient-1");
+        patient.setUserId("user-missed-patient-1");
+        patient.setEncryptedSsn("encrypted-missed-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1970, 8, 8));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-MISSED-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now().minusDays(10));
+        rx.setStartDate(LocalDate.now().minusDays(10));
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adherenceStatisticsRepository.findByPrescriptionId(prescription.getId()).ifPresent(adherenceStatisticsRepository::delete);
+        adherenceRecordRepository.deleteAll(adherenceRecordRepository.findByPrescriptionId(prescription.getId()));
+        dosingScheduleRepository.deleteAll(dosingScheduleRepository.findByPrescriptionIdOrderByOrdinal(prescription.getId()));
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("Expected doses without a record should be inferred as missed, once")
+    void sweepShouldInferMissedDoses() {
+        // Arrange: two daily doses, the morning one taken yesterday
+        schedule(1, LocalTime.of(8, 0));
+        schedule(2, LocalTime.of(18, 0));
+        backdateSchedules(yesterday.minusDays(5));
+        record(yesterday.withHour(8), AdherenceStatus.TAKEN);
+
+        // Act
+        missedDoseSweeper.sweep(yesterday, yesterday.plusDays(1));
+        missedDoseSweeper.sweep(yesterday, yesterday.plusDays(1));
+
+        // Assert
+        List<AdherenceRecord> records = adherenceRecordRepository.findByPrescriptionId(prescription.getId()).stream()
+                .sorted(Comparator.comparing(AdherenceRecord::getScheduledTime))
+                .toList();
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getStatus()).isEqualTo(AdherenceStatus.TAKEN);
+        assertThat(records.get(1).getScheduledTime()).isEqualTo(yesterday.withHour(18));
+        assertThat(records.get(1).getStatus()).isEqualTo(AdherenceStatus.MISSED);
+        assertThat(records.get(1).getSource()).isEqualTo(RecordSource.INFERRED);
+        assertThat(records.get(1).getDoseTaken()).isEqualByComparingTo("500.00");
+
+        AdherenceStatistics statistics = adherenceStatisticsRepository.findByPrescriptionId(prescription.getId()).orElseThrow();
+        assertThat(statistics.getTotalMissed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Doses scheduled before the schedule existed should not be inferred")
+    void sweepShouldIgnoreDosesBeforeScheduleCreation() {
+        // Arrange: the schedule is created today
+        schedule(1, LocalTime.of(8, 0));
+
+        // Act
+        missedDoseSweeper.sweep(yesterday, yesterday.plusDays(1));
+
+        // Assert
+        assertThat(adherenceRecordRepository.findByPrescriptionId(prescription.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A dose taken late after a sweep should be counted once, as taken")
+    void lateIntakeAfterSweepShouldNotBeCountedAsMissed() {
+        // Arrange: a dose due three hours ago, inside the match tolerance
+        LocalDateTime due = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.MINUTES);
+        schedule(1, due.toLocalTime());
+        backdateSchedules(due.minusDays(5));
+        missedDoseSweeper.sweep(due.minusHours(1), LocalDateTime.now());
+
+        // Act
+        adherenceService.recordAdherence(prescription.getId(), patient.getId(), AdherenceStatus.TAKEN, null);
+
+        // Assert
+        List<AdherenceRecord> records = adherenceRecordRepository.findByPrescriptionId(prescription.getId());
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getScheduledTime()).isEqualTo(due);
+        assertThat(records.get(0).getStatus()).isEqualTo(AdherenceStatus.TAKEN);
+
+        AdherenceStatistics statistics = adherenceStatisticsRepository.findByPrescriptionId(prescription.getId()).orElseThrow();
+        assertThat(statistics.getTotalScheduled()).isEqualTo(1);
+        assertThat(statistics.getTotalMissed()).isZero();
+    }
+
+    private void schedule(int ordinal, LocalTime timeOfDay) {
+        DosingSchedule schedule = new DosingSchedule();
+        schedule.setPrescriptionId(prescription.getId());
+        schedule.setOrdinal(ordinal);
+        schedule.setTimeOfDay(timeOfDay);
+        schedule.setDayOfWeek(DosingSchedule.DAILY);
+        dosingScheduleRepository.save(schedule);
+    }
+
+    private void backdateSchedules(LocalDateTime createdAt) {
+        jdbcTemplate.update("UPDATE dosing_schedule SET created_at = ? WHERE prescription_id = ?",
+                Timestamp.valueOf(createdAt), prescription.getId());
+    }
+
+    private void record(LocalDateTime scheduledTime, AdherenceStatus status) {
+        AdherenceRecord record = new AdherenceRecord();
+        record.setPrescription(prescription);
+        record.setPatient(patient);
+        record.setScheduledTime(scheduledTime);
+        record.setActualTime(scheduledTime.plusMinutes(10));
+        record.setStatus(status);
+        adherenceRecordRepository.save(record);
+    }
+}
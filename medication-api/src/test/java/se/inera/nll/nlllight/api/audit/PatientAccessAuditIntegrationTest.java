@@ -0,0 +1,228 @@
+package se.inera.nll.nlllight.api.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
+import se.inera.nll.nlllight.api.refill.dto.RefillCandidateDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access log entries are written by a background thread in their own transaction, so this test is
+ * deliberately not {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest(properties = {"audit.access.enabled=true", "audit.access.flush-ms=20"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Patient access audit Integration Tests")
+class PatientAccessAuditIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private RefillEligibilityService refillEligibilityService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private Patient patient;
+    private Patient otherPatient;
+    private Medication medication;
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-AUDIT-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = patient("audit-patient-1");
+        otherPatient = patient("audit-patient-2");
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-AUDIT-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now().minusDays(10));
+        rx.setStartDate(LocalDate.now().minusDays(10));
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patient_access_log WHERE patient_id IN (?, ?)", patient.getId(), otherPatient.getId());
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        patientRepository.deleteById(otherPatient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("A prescription read should be logged with caller, role and purpose and be queryable")
+    void readShouldBeLoggedAndQueryable() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/patients/{userId}/prescriptions", patient.getUserId())
+                        .header("X-Prescriber-Id", "prescriber1")
+                        .header("X-Access-Purpose", "TREATMENT"))
+                .andExpect(status().isOk());
+        awaitEntries(patient.getId(), 1);
+
+        // Assert
+        mockMvc.perform(get("/api/v1/audit/patients/{patientId}/access-log", patient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].accessedBy", is("prescriber1")))
+                .andExpect(jsonPath("$[0].accessRole", is("PRESCRIBER")))
+                .andExpect(jsonPath("$[0].accessPurpose", is("TREATMENT")))
+                .andExpect(jsonPath("$[0].accessType", is("VIEW")));
+    }
+
+    @Test
+    @DisplayName("A refused request should not be logged")
+    void refusedRequestShouldNotBeLogged() throws Exception {
+        // Arrange: the other patient asks for this patient's prescription and is refused
+        mockMvc.perform(get("/api/patients/{userId}/prescriptions/{id}", otherPatient.getUserId(), prescription.getId())
+                        .header("X-Patient-Id", otherPatient.getId()))
+                .andExpect(status().isForbidden());
+
+        // Act: the owner reads it; the writer keeps queue order, so the refusal would be written first
+        mockMvc.perform(get("/api/patients/{userId}/prescriptions/{id}", patient.getUserId(), prescription.getId())
+                        .header("X-Patient-Id", patient.getId()))
+                .andExpect(status().isOk());
+        awaitEntries(patient.getId(), 1);
+
+        // Assert
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT accessed_by FROM patient_access_log WHERE patient_id = ?", String.class, patient.getId()))
+                .containsExactly(patient.getId());
+    }
+
+    @Test
+    @DisplayName("An adherence summary read should be logged against the prescription's patient")
+    void adherenceReadShouldBeLogged() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/v1/prescriptions/{id}/adherence/statistics", prescription.getId())
+                        .header("X-Prescriber-Id", "prescriber1"))
+                .andExpect(status().isOk());
+        awaitEntries(patient.getId(), 1);
+
+        // Assert
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT accessed_by FROM patient_access_log WHERE patient_id = ?", String.class, patient.getId()))
+                .containsExactly("prescriber1");
+    }
+
+    @Test
+    @DisplayName("An expected-dose read should be logged against the patient, even when empty")
+    void expectedDosesReadShouldBeLogged() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/v1/prescriptions/expected-doses")
+                        .header("X-Patient-Id", patient.getId()))
+                .andExpect(status().isOk());
+        awaitEntries(patient.getId(), 1);
+
+        // Assert
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT access_type FROM patient_access_log WHERE patient_id = ?", String.class, patient.getId()))
+                .containsExactly("VIEW");
+    }
+
+    @Test
+    @DisplayName("The refill-eligible export should attribute every streamed prescription to its patient")
+    void refillExportShouldAttributePatients() {
+        // Arrange: refillable from today, so also tomorrow
+        prescription.setRefillsRemaining(1);
+        prescription.setNextRefillEligibleDate(LocalDate.now());
+        prescription = prescriptionRepository.save(prescription);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/pharmacist/refills/eligible-tomorrow");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        List<RefillCandidateDTO> candidates = new ArrayList<>();
+        try {
+            refillEligibilityService.streamEligible(LocalDate.now().plusDays(1), candidates::add);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // Assert
+        assertThat(candidates).extracting(RefillCandidateDTO::getPrescriptionId).contains(prescription.getId());
+        assertThat(PatientAccessContext.subjects(request)).contains(patient.getId());
+    }
+
+    @Test
+    @DisplayName("Access log query should reject an empty time range")
+    void queryShouldRejectEmptyRange() throws Exception {
+        mockMvc.perform(get("/api/v1/audit/patients/{patientId}/access-log", patient.getId())
+                        .param("from", "2026-01-02T00:00:00")
+                        .param("to", "2026-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Patient patient(String id) {
+        Patient p = new Patient();
+        p.setId(id);
+        p.setUserId("user-" + id);
+        p.setEncryptedSsn("encrypted-" + id);
+        p.setFirstName("Test");
+        p.setLastName("Patient");
+        p.setDateOfBirth(LocalDate.of(1970, 9, 9));
+        return patientRepository.save(p);
+    }
+
+    private void awaitEntries(String patientId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(patientId) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(count(patientId)).isEqualTo(expected);
+    }
+
+    private int count(String patientId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM patient_access_log WHERE patient_id = ?", Integer.class, patientId);
+    }
+}
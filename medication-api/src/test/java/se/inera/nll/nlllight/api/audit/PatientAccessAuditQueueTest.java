@@ -0,0 +1,126 @@
+package se.inera.nll.nlllight.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import se.inera.nll.nlllight.api.common.AccessType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Patient access audit queue")
+class PatientAccessAuditQueueTest {
+
+    @TempDir
+    Path journalDir;
+
+    private PatientAccessLogWriter writer;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(PatientAccessLogWriter.class);
+        when(writer.insert(any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should drop events instead of blocking when the queue is full")
+    void shouldDropWhenFull() throws IOException {
+        // Arrange: writer not started, so nothing drains
+        PatientAccessAuditQueue queue = newQueue(PatientAccessAuditQueue.Durability.MEMORY, 2);
+
+        // Act
+        boolean first = queue.submit(event("patient-001"));
+        boolean second = queue.submit(event("patient-002"));
+        boolean third = queue.submit(event("patient-003"));
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(queue.depth()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.access.events").tag("result", "dropped").counter().count()).isEqualTo(1.0);
+        queue.stop();
+    }
+
+    @Test
+    @DisplayName("Should write queued events in batches")
+    void shouldWriteInBatches() throws IOException {
+        // Arrange
+        PatientAccessAuditQueue queue = newQueue(PatientAccessAuditQueue.Durability.MEMORY, 10);
+        queue.submit(event("patient-001"));
+        queue.submit(event("patient-002"));
+        queue.submit(event("patient-003"));
+
+        // Act
+        queue.start();
+
+        // Assert: batch size is 2
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PatientAccessEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(writer, timeout(5000).times(2)).insert(batches.capture());
+        assertThat(batches.getAllValues().get(0)).extracting(PatientAccessEvent::patientId)
+                .containsExactly("patient-001", "patient-002");
+        assertThat(batches.getAllValues().get(1)).extracting(PatientAccessEvent::patientId)
+                .containsExactly("patient-003");
+        queue.stop();
+        assertThat(queue.depth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replay journaled events that were never written")
+    void shouldReplayJournalAfterRestart() throws IOException {
+        // Arrange: accept two events, then "crash" before the writer ran
+        PatientAccessAuditQueue crashed = newQueue(PatientAccessAuditQueue.Durability.JOURNAL, 10);
+        crashed.submit(event("patient-001"));
+        crashed.submit(event("patient-002"));
+        crashed.stop();
+
+        // Act
+        PatientAccessAuditQueue restarted = newQueue(PatientAccessAuditQueue.Durability.JOURNAL, 10);
+        restarted.start();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PatientAccessEvent>> batch = ArgumentCaptor.forClass(List.class);
+        verify(writer, timeout(5000)).insert(batch.capture());
+        assertThat(batch.getValue()).extracting(PatientAccessEvent::patientId)
+                .containsExactly("patient-001", "patient-002");
+        assertThat(batch.getValue().get(0).accessType()).isEqualTo(AccessType.VIEW);
+        restarted.stop();
+
+        PatientAccessAuditQueue again = newQueue(PatientAccessAuditQueue.Durability.JOURNAL, 10);
+        again.start();
+        again.stop();
+        verify(writer, timeout(1000).times(1)).insert(any());
+    }
+
+    private PatientAccessAuditQueue newQueue(PatientAccessAuditQueue.Durability durability, int capacity) throws IOException {
+        return new PatientAccessAuditQueue(writer, objectMapper, meterRegistry, durability,
+                capacity, 2, 20, journalDir.toString(), false);
+    }
+
+    private static PatientAccessEvent event(String patientId) {
+        return new PatientAccessEvent(patientId, "prescriber1", "PRESCRIBER", "TREATMENT", AccessType.VIEW,
+                "127.0.0.1", "test", LocalDateTime.of(2026, 10, 16, 9, 0));
+    }
+}
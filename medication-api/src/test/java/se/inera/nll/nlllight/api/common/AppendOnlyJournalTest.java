@@ -0,0 +1,82 @@
+package se.inera.nll.nlllight.api.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Append-only journal")
+class AppendOnlyJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should hand back unacknowledged entries after reopening")
+    void shouldRecoverUnacknowledgedEntries() throws IOException {
+        // Arrange
+        try (AppendOnlyJournal journal = new AppendOnlyJournal(directory, "test", false)) {
+            journal.append("one");
+            long second = journal.append("two");
+            journal.append("three");
+            journal.acknowledge(second - 1);
+        }
+
+        // Act
+        try (AppendOnlyJournal reopened = new AppendOnlyJournal(directory, "test", false)) {
+
+            // Assert
+            assertThat(reopened.unacknowledged()).extracting(AppendOnlyJournal.Entry::payload)
+                    .containsExactly("two", "three");
+            assertThat(reopened.append("four")).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("Should truncate the file once everything is acknowledged, keeping sequences")
+    void shouldTruncateWhenFullyAcknowledged() throws IOException {
+        // Arrange
+        try (AppendOnlyJournal journal = new AppendOnlyJournal(directory, "test", false)) {
+            journal.append("one");
+            long last = journal.append("two");
+
+            // Act
+            journal.acknowledge(last);
+        }
+
+        // Assert
+        assertThat(Files.size(directory.resolve("test.journal"))).isZero();
+        try (AppendOnlyJournal reopened = new AppendOnlyJournal(directory, "test", false)) {
+            assertThat(reopened.unacknowledged()).isEmpty();
+            assertThat(reopened.append("three")).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn last line left by a crash")
+    void shouldDropTornTail() throws IOException {
+        // Arrange
+        try (AppendOnlyJournal journal = new AppendOnlyJournal(directory, "test", false)) {
+            journal.append("complete");
+        }
+        Files.writeString(directory.resolve("test.journal"), "2\tto", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // Act
+        try (AppendOnlyJournal reopened = new AppendOnlyJournal(directory, "test", false)) {
+            reopened.append("next");
+        }
+
+        // Assert
+        try (AppendOnlyJournal reopened = new AppendOnlyJournal(directory, "test", false)) {
+            assertThat(reopened.unacknowledged()).extracting(AppendOnlyJournal.Entry::payload)
+                    .containsExactly("complete", "next");
+        }
+    }
+}
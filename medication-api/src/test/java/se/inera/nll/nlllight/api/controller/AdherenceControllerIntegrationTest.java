@@ -0,0 +1,180 @@
+package se.inera.nll.nlllight.api.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.adherence.AdherenceIngestionService;
+import se.inera.nll.nlllight.api.adherence.AdherenceRecordRepository;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.config.TestSecurityConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+@DisplayName("AdherenceController Integration Tests")
+class AdherenceControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private AdherenceRecordRepository adherenceRecordRepository;
+
+    @Autowired
+    private AdherenceIngestionService ingestionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Prescription prescription;
+    private Prescription otherPatientsPrescription;
+
+    @BeforeEach
+    void setUp() {
+        Medication medication = new Medication();
+        medication.setNplId("NPL-ADH-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        prescription = prescriptionRepository.save(createPrescription(createPatient("adh-patient-1"), medication, "RX-ADH-1"));
+        otherPatientsPrescription = prescriptionRepository.save(
+                createPrescription(createPatient("adh-patient-2"), medication, "RX-ADH-2"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/adherence/events - Should ingest a JSON batch with per-item results")
+    void shouldIngestJsonBatch() throws Exception {
+        String body = "["
+                + "{\"prescriptionId\":" + prescription.getId() + ",\"status\":\"TAKEN\",\"source\":\"DEVICE\",\"deviceId\":\"pill-1\","
+                + "\"scheduledTime\":\"2025-03-01T08:00:00\"},"
+                + "{\"prescriptionId\":" + prescription.getId() + ",\"status\":\"MISSED\",\"scheduledTime\":\"2025-03-01T20:00:00\"},"
+                + "{\"prescriptionId\":" + otherPatientsPrescription.getId() + ",\"status\":\"TAKEN\"},"
+                + "{\"prescriptionId\":999999,\"status\":\"TAKEN\"}"
+                + "]";
+
+        mockMvc.perform(post("/api/v1/adherence/events")
+                .header("X-Patient-Id", "adh-patient-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[0].accepted").value(true))
+                .andExpect(jsonPath("$.results[0].recordId").isNumber())
+                .andExpect(jsonPath("$.results[2].error").value("Prescription does not belong to patient"))
+                .andExpect(jsonPath("$.results[3].error").value("Prescription not found: 999999"));
+
+        assertThat(adherenceRecordRepository.findByPrescriptionId(prescription.getId())).hasSize(2);
+        mockMvc.perform(get("/api/v1/prescriptions/" + prescription.getId() + "/adherence/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalScheduled").value(2))
+                .andExpect(jsonPath("$.totalMissed").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/adherence/events - Should ingest NDJSON with patient ids per event")
+    void shouldIngestNdjson() throws Exception {
+        String body = "{\"prescriptionId\":" + prescription.getId() + ",\"patientId\":\"adh-patient-1\",\"status\":\"TAKEN\"}\n"
+                + "{\"prescriptionId\":" + otherPatientsPrescription.getId() + ",\"patientId\":\"adh-patient-2\",\"status\":\"EARLY\"}\n";
+
+        mockMvc.perform(post("/api/v1/adherence/events")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/adherence/events - Should return 400 for malformed NDJSON")
+    void shouldRejectMalformedNdjson() throws Exception {
+        mockMvc.perform(post("/api/v1/adherence/events")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"prescriptionId\":1,\"status\":\"TAKEN\"}\n{not json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Ingesting inside a caller's transaction should leave the caller's entities managed")
+    void ingestShouldNotDetachCallerEntities() {
+        // Arrange
+        AdherenceEventRequest event = new AdherenceEventRequest();
+        event.setPrescriptionId(prescription.getId());
+        event.setStatus(AdherenceStatus.TAKEN);
+
+        // Act
+        ingestionService.ingest(List.of(event), "adh-patient-1");
+
+        // Assert
+        assertThat(entityManager.contains(prescription)).isTrue();
+        assertThat(entityManager.contains(otherPatientsPrescription)).isTrue();
+        assertThat(adherenceRecordRepository.findByPrescriptionId(prescription.getId())).hasSize(1);
+    }
+
+    private Patient createPatient(String id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setUserId("user-" + id);
+        patient.setEncryptedSsn("encrypted-" + id);
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1960, 5, 5));
+        return patientRepository.save(patient);
+    }
+
+    private Prescription createPrescription(Patient patient, Medication medication, String number) {
+        Prescription prescription = new Prescription();
+        prescription.setPatient(patient);
+        prescription.setMedication(medication);
+        prescription.setPrescriptionNumber(number);
+        prescription.setStatus(PrescriptionStatus.ACTIVE);
+        prescription.setDose(new BigDecimal("500.00"));
+        prescription.setDoseUnit("mg");
+        prescription.setPrescribedDate(LocalDate.now());
+        prescription.setStartDate(LocalDate.now());
+        prescription.setQuantityPrescribed(60);
+        prescription.setDaysSupply(30);
+        prescription.setRefillsAllowed(0);
+        prescription.setRefillsRemaining(0);
+        return prescription;
+    }
+}
@@ -0,0 +1,174 @@
+package se.inera.nll.nlllight.api.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescriber.Prescriber;
+import se.inera.nll.nlllight.api.prescriber.PrescriberRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.config.TestSecurityConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+@Transactional
+@DisplayName("DashboardController Integration Tests")
+class DashboardControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PrescriberRepository prescriberRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Prescription tracked;
+    private Prescription untracked;
+
+    @BeforeEach
+    void setUp() {
+        Medication medication = new Medication();
+        medication.setNplId("NPL-DASH-1");
+        medication.setTradeName("Atorvastatin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        Prescriber prescriber = new Prescriber();
+        prescriber.setUserId("dash-prescriber-1");
+        prescriber.setLicenseNumber("LIC-DASH-1");
+        prescriber.setFirstName("Karin");
+        prescriber.setLastName("Berg");
+        prescriber.setSpecialty("Cardiology");
+        prescriber = prescriberRepository.save(prescriber);
+
+        Patient patient = new Patient();
+        patient.setId("dash-patient-1");
+        patient.setUserId("user-dash-patient-1");
+        patient.setEncryptedSsn("encrypted-dash-patient-1");
+        patient.setFirstName("Eva");
+        patient.setLastName("Lind");
+        patient.setDateOfBirth(LocalDate.of(1955, 3, 3));
+        patient = patientRepository.save(patient);
+
+        tracked = prescriptionRepository.save(createPrescription(patient, medication, prescriber, "RX-DASH-1", PrescriptionStatus.ACTIVE));
+        untracked = prescriptionRepository.save(createPrescription(patient, medication, prescriber, "RX-DASH-2", PrescriptionStatus.ACTIVE));
+        prescriptionRepository.save(createPrescription(patient, medication, prescriber, "RX-DASH-3", PrescriptionStatus.CANCELLED));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/patient - Should return prescriptions and adherence in three statements")
+    void shouldReturnPatientDashboard() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/api/v1/adherence/events")
+                .header("X-Patient-Id", "dash-patient-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"prescriptionId\":" + tracked.getId() + ",\"status\":\"TAKEN\"}]"))
+                .andExpect(status().isOk());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/dashboard/patient")
+                .header("X-Patient-Id", "dash-patient-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patientName").value("Eva Lind"))
+                .andExpect(jsonPath("$.prescriptions.length()").value(3))
+                .andExpect(jsonPath("$.prescriptions[0].prescriberName").value("Karin Berg"))
+                .andExpect(jsonPath("$.adherence['" + tracked.getId() + "'].totalTaken").value(1))
+                .andExpect(jsonPath("$.adherence['" + untracked.getId() + "']").doesNotExist());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/patient - Should return 404 for unknown patient")
+    void shouldReturn404ForUnknownPatient() throws Exception {
+        mockMvc.perform(get("/api/v1/dashboard/patient")
+                .header("X-Patient-Id", "no-such-patient"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/prescriber - Should return the medication catalog")
+    void shouldReturnPrescriberDashboard() throws Exception {
+        mockMvc.perform(get("/api/v1/dashboard/prescriber")
+                .header("X-Prescriber-Id", "dash-prescriber-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prescriberId").value("dash-prescriber-1"))
+                .andExpect(jsonPath("$.medications").isArray())
+                .andExpect(jsonPath("$.medications[0].name").exists())
+                .andExpect(jsonPath("$.medications[0].createdAt").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/dashboard/pharmacist - Should return medication catalog")
+    void shouldReturnPharmacistDashboard() throws Exception {
+        mockMvc.perform(get("/api/v1/dashboard/pharmacist")
+                .header("X-Pharmacist-Id", "dash-pharmacist-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pharmacistId").value("dash-pharmacist-1"))
+                .andExpect(jsonPath("$.medications").isArray());
+    }
+
+    private Prescription createPrescription(Patient patient, Medication medication, Prescriber prescriber,
+                                            String number, PrescriptionStatus status) {
+        Prescription prescription = new Prescription();
+        prescription.setPatient(patient);
+        prescription.setMedication(medication);
+        prescription.setPrescriber(prescriber);
+        prescription.setPrescriptionNumber(number);
+        prescription.setStatus(status);
+        prescription.setDose(new BigDecimal("20.00"));
+        prescription.setDoseUnit("mg");
+        prescription.setPrescribedDate(LocalDate.now());
+        prescription.setStartDate(LocalDate.now());
+        prescription.setQuantityPrescribed(90);
+        prescription.setDaysSupply(90);
+        prescription.setRefillsAllowed(0);
+        prescription.setRefillsRemaining(0);
+        return prescription;
+    }
+}
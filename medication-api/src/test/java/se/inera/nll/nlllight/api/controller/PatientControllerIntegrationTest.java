@@ -211,6 +211,20 @@ class PatientControllerIntegrationTest {
                 .andExpect(jsonPath("$.atcCode", is("N02BE01")));
     }
 
+    @Test
+    @DisplayName("GET /api/medications/{id} - Should return 304 when If-None-Match matches")
+    void testGetMedicationById_NotModified() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/medications/{id}", testMedication.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/medications/{id}", testMedication.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("GET /api/medications/{id} - Should return 404 for non-existent medication")
     void testGetMedicationById_NotFound() throws Exception {
@@ -1,6 +1,7 @@
 package se.inera.nll.nlllight.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import se.inera.nll.nlllight.api.common.PrescriptionStatus;
 import se.inera.nll.nlllight.api.medication.Medication;
@@ -27,10 +29,13 @@ import se.inera.nll.nlllight.config.TestSecurityConfig;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -298,6 +303,50 @@ class PrescriberControllerIntegrationTest {
                 .andExpect(jsonPath("$.prescriptionNumber").value(testPrescription.getPrescriptionNumber()));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/prescriber/prescriptions/page - Should walk the panel with keyset cursors")
+    void shouldPagePrescriberPrescriptionsWithCursor() throws Exception {
+        // Two prescriptions share a date so the id tiebreak is exercised
+        for (int daysAgo : new int[] {1, 1, 2, 3}) {
+            Prescription older = createPrescription();
+            older.setPrescribedDate(LocalDate.now().minusDays(daysAgo));
+            prescriptionRepository.save(older);
+        }
+
+        List<Integer> seenIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/prescriber/prescriptions/page")
+                    .header("X-Prescriber-Id", "prescriber-001")
+                    .param("limit", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(lessThanOrEqualTo(2))))
+                    .andReturn();
+            String json = result.getResponse().getContentAsString();
+            seenIds.addAll(JsonPath.read(json, "$.items[*].id"));
+            cursor = JsonPath.read(json, "$.nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seenIds).hasSize(5).doesNotHaveDuplicates();
+        assertThat(seenIds.get(0)).isEqualTo(testPrescription.getId().intValue());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/prescriber/prescriptions/page - Should reject a malformed cursor")
+    void shouldReturn400ForMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/prescriber/prescriptions/page")
+                .header("X-Prescriber-Id", "prescriber-001")
+                .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     // Helper methods
 
     private Prescription createPrescription() {
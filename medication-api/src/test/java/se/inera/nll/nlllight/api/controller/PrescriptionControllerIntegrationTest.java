@@ -29,6 +29,7 @@ import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -159,6 +160,41 @@ class PrescriptionControllerIntegrationTest {
                 .andExpect(jsonPath("$.frequency").value("TID"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/prescriptions/{id} - Should return 304 when the ETag still matches")
+    void shouldReturn304WhenPrescriptionUnchanged() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/v1/prescriptions/" + activePrescription.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/prescriptions/" + activePrescription.getId())
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/prescriptions/{id} - Should return a new body and ETag after an update")
+    void shouldReturnNewETagAfterPrescriptionUpdate() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/v1/prescriptions/" + activePrescription.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        activePrescription.setFrequency("BID");
+        prescriptionRepository.saveAndFlush(activePrescription);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/prescriptions/" + activePrescription.getId())
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.frequency").value("BID"));
+    }
+
     @Test
     @DisplayName("GET /api/v1/prescriptions/{id} - Should return 404 when prescription not found")
     void shouldReturn404WhenPrescriptionNotFound() throws Exception {
@@ -198,6 +234,32 @@ class PrescriptionControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/prescriptions/{id}/adherence/statistics - Should reflect recorded doses")
+    void shouldReturnAdherenceStatistics() throws Exception {
+        String url = "/api/v1/prescriptions/" + activePrescription.getId();
+        mockMvc.perform(get(url + "/adherence/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalScheduled").value(0));
+
+        for (String adherence : new String[] {"TAKEN", "TAKEN", "MISSED"}) {
+            mockMvc.perform(post(url + "/take")
+                    .header("X-Patient-Id", "patient-001")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"status\":\"" + adherence + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get(url + "/adherence/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalScheduled").value(3))
+                .andExpect(jsonPath("$.totalTaken").value(2))
+                .andExpect(jsonPath("$.totalMissed").value(1))
+                .andExpect(jsonPath("$.adherenceRate").value(66.67))
+                .andExpect(jsonPath("$.currentStreakDays").value(0))
+                .andExpect(jsonPath("$.longestStreakDays").value(1));
+    }
+
     // Helper method to create a prescription
     private Prescription createPrescription(PrescriptionStatus status) {
         Prescription prescription = new Prescription();
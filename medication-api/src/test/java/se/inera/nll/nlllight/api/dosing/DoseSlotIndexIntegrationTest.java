@@ -0,0 +1,198 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.adherence.AdherenceIngestionService;
+import se.inera.nll.nlllight.api.adherence.AdherenceRecord;
+import se.inera.nll.nlllight.api.adherence.AdherenceRecordRepository;
+import se.inera.nll.nlllight.api.adherence.AdherenceService;
+import se.inera.nll.nlllight.api.adherence.AdherenceStatisticsRepository;
+import se.inera.nll.nlllight.api.adherence.AdherenceWriteBehindQueue;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceRecordDTO;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.dosing.dto.ExpectedDoseDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slots are dropped after commit when schedules change, so this test is deliberately not
+ * {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Dose slot index Integration Tests")
+class DoseSlotIndexIntegrationTest {
+
+    @Autowired
+    private DoseSlotIndex doseSlotIndex;
+
+    @Autowired
+    private AdherenceService adherenceService;
+
+    @Autowired
+    private AdherenceIngestionService ingestionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DosingScheduleRepository dosingScheduleRepository;
+
+    @Autowired
+    private AdherenceRecordRepository adherenceRecordRepository;
+
+    @Autowired
+    private AdherenceStatisticsRepository adherenceStatisticsRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-SLOTS-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("slots-patient-1");
+        patient.setUserId("user-slots-patient-1");
+        patient.setEncryptedSsn("encrypted-slots-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1970, 7, 7));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-SLOTS-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now().minusDays(10));
+        rx.setStartDate(LocalDate.now().minusDays(10));
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adherenceStatisticsRepository.findByPrescriptionId(prescription.getId()).ifPresent(adherenceStatisticsRepository::delete);
+        adherenceRecordRepository.deleteAll(adherenceRecordRepository.findByPrescriptionId(prescription.getId()));
+        dosingScheduleRepository.deleteAll(dosingScheduleRepository.findByPrescriptionIdOrderByOrdinal(prescription.getId()));
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("Expected doses should follow schedule changes")
+    void expectedDosesShouldFollowScheduleChanges() {
+        // Arrange
+        schedule(1, LocalTime.of(8, 0));
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+        assertThat(doseSlotIndex.getExpectedDoses(patient.getId(), tomorrow, tomorrow.plusDays(1)))
+                .extracting(ExpectedDoseDTO::getScheduledTime)
+                .containsExactly(tomorrow.withHour(8));
+
+        // Act
+        schedule(2, LocalTime.of(20, 0));
+
+        // Assert
+        List<ExpectedDoseDTO> doses = doseSlotIndex.getExpectedDoses(patient.getId(), tomorrow, tomorrow.plusDays(1));
+        assertThat(doses).extracting(ExpectedDoseDTO::getScheduledTime)
+                .containsExactly(tomorrow.withHour(8), tomorrow.withHour(20));
+        assertThat(doses).extracting(ExpectedDoseDTO::getPrescriptionId).containsOnly(prescription.getId());
+    }
+
+    @Test
+    @DisplayName("A reported intake should be attributed to the nearest expected dose")
+    void recordAdherenceShouldUseNearestSlot() {
+        // Arrange: a dose expected half an hour ago
+        LocalDateTime expected = LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.MINUTES);
+        schedule(1, expected.toLocalTime());
+
+        // Act
+        AdherenceRecordDTO record = adherenceService.recordAdherence(
+                prescription.getId(), patient.getId(), AdherenceStatus.TAKEN, null);
+
+        // Assert
+        assertThat(record.getScheduledTime()).isEqualTo(expected);
+        assertThat(record.getActualTime()).isAfter(expected);
+    }
+
+    @Test
+    @DisplayName("An intake queued for write-behind should be attributed to the nearest expected dose")
+    void queuedIntakeShouldUseNearestSlot(@TempDir Path journalDir) throws IOException, InterruptedException {
+        // Arrange: a dose expected half an hour ago
+        LocalDateTime expected = LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.MINUTES);
+        schedule(1, expected.toLocalTime());
+        AdherenceWriteBehindQueue queue = new AdherenceWriteBehindQueue(ingestionService, prescriptionRepository,
+                objectMapper, new SimpleMeterRegistry(), 10, 100, 1, journalDir.toString(), false);
+
+        // Act
+        queue.submit(prescription.getId(), patient.getId(), AdherenceStatus.TAKEN, null);
+        queue.start();
+        List<AdherenceRecord> records = awaitRecords();
+        queue.stop();
+
+        // Assert
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getScheduledTime()).isEqualTo(expected);
+        assertThat(records.get(0).getActualTime()).isAfter(expected);
+    }
+
+    private List<AdherenceRecord> awaitRecords() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<AdherenceRecord> records = adherenceRecordRepository.findByPrescriptionId(prescription.getId());
+        while (records.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            records = adherenceRecordRepository.findByPrescriptionId(prescription.getId());
+        }
+        return records;
+    }
+
+    private void schedule(int ordinal, LocalTime timeOfDay) {
+        DosingSchedule schedule = new DosingSchedule();
+        schedule.setPrescriptionId(prescription.getId());
+        schedule.setOrdinal(ordinal);
+        schedule.setTimeOfDay(timeOfDay);
+        schedule.setDayOfWeek(DosingSchedule.DAILY);
+        dosingScheduleRepository.save(schedule);
+    }
+}
@@ -0,0 +1,105 @@
+package se.inera.nll.nlllight.api.dosing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Patient dose slots")
+class PatientDoseSlotsTest {
+
+    // Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+    private static final int FROM_DAY = (int) MONDAY.toEpochDay();
+
+    @Test
+    @DisplayName("Should expand daily and weekly rules within the prescription's dates")
+    void shouldExpandRules() {
+        // Arrange
+        List<DoseRule> rules = List.of(
+                rule(1L, "08:00", "DAILY", MONDAY, MONDAY.plusDays(1)),
+                rule(1L, "20:00", null, MONDAY, MONDAY.plusDays(1)),
+                rule(2L, "09:30", "WEDNESDAY", MONDAY, null));
+
+        // Act
+        PatientDoseSlots slots = PatientDoseSlots.build(rules, FROM_DAY, FROM_DAY + 14);
+
+        // Assert: two days of twice daily, two Wednesdays
+        assertThat(slots.size()).isEqualTo(6);
+        assertThat(between(slots, MONDAY.atStartOfDay(), MONDAY.plusDays(14).atStartOfDay())).containsExactly(
+                "1@" + MONDAY.atTime(8, 0), "1@" + MONDAY.atTime(20, 0),
+                "1@" + MONDAY.plusDays(1).atTime(8, 0), "1@" + MONDAY.plusDays(1).atTime(20, 0),
+                "2@" + MONDAY.plusDays(2).atTime(9, 30), "2@" + MONDAY.plusDays(9).atTime(9, 30));
+    }
+
+    @Test
+    @DisplayName("Should match a time to the prescription's nearest slot")
+    void shouldFindNearestSlot() {
+        // Arrange
+        PatientDoseSlots slots = PatientDoseSlots.build(List.of(
+                rule(1L, "08:00", "DAILY", MONDAY, null),
+                rule(1L, "20:00", "DAILY", MONDAY, null),
+                rule(2L, "12:00", "DAILY", MONDAY, null)), FROM_DAY, FROM_DAY + 7);
+
+        // Act & Assert
+        assertThat(nearest(slots, 1L, MONDAY.atTime(9, 15))).isEqualTo(MONDAY.atTime(8, 0));
+        assertThat(nearest(slots, 1L, MONDAY.atTime(17, 0))).isEqualTo(MONDAY.atTime(20, 0));
+        assertThat(nearest(slots, 1L, MONDAY.atTime(14, 0))).isEqualTo(MONDAY.atTime(8, 0));
+        assertThat(nearest(slots, 1L, MONDAY.plusDays(1).atTime(1, 0))).isEqualTo(MONDAY.atTime(20, 0));
+        assertThat(nearest(slots, 1L, MONDAY.minusDays(3).atTime(8, 0))).isEqualTo(MONDAY.atTime(8, 0));
+        assertThat(nearest(slots, 1L, MONDAY.plusDays(30).atTime(8, 0))).isEqualTo(MONDAY.plusDays(6).atTime(20, 0));
+        assertThat(nearest(slots, 2L, MONDAY.atTime(9, 15))).isEqualTo(MONDAY.atTime(12, 0));
+        assertThat(slots.nearest(3L, PatientDoseSlots.toMinute(MONDAY.atTime(9, 15)))).isEqualTo(PatientDoseSlots.NONE);
+    }
+
+    @Test
+    @DisplayName("Should roll the window forward keeping the slots still inside it")
+    void shouldRollWindow() {
+        // Arrange
+        List<DoseRule> rules = List.of(
+                rule(1L, "08:00", "DAILY", MONDAY, null),
+                rule(2L, "21:00", "SUNDAY", MONDAY, null));
+        PatientDoseSlots original = PatientDoseSlots.build(rules, FROM_DAY, FROM_DAY + 7);
+
+        // Act
+        PatientDoseSlots rolled = original.roll(FROM_DAY + 2, FROM_DAY + 9);
+
+        // Assert: same as expanding the new window from scratch
+        PatientDoseSlots fresh = PatientDoseSlots.build(rules, FROM_DAY + 2, FROM_DAY + 9);
+        LocalDateTime from = MONDAY.minusDays(7).atStartOfDay();
+        LocalDateTime to = MONDAY.plusDays(21).atStartOfDay();
+        assertThat(between(rolled, from, to)).isEqualTo(between(fresh, from, to)).hasSize(8);
+        assertThat(rolled.fromDay()).isEqualTo(FROM_DAY + 2);
+        assertThat(original.size()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should convert between local times and epoch minutes")
+    void shouldConvertMinutes() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 30, 2, 30);
+
+        assertThat(PatientDoseSlots.toDateTime(PatientDoseSlots.toMinute(time))).isEqualTo(time);
+        assertThat(PatientDoseSlots.toMinute(LocalDateTime.of(1970, 1, 1, 0, 1))).isEqualTo(1);
+    }
+
+    private static DoseRule rule(Long prescriptionId, String time, String dayOfWeek, LocalDate start, LocalDate end) {
+        return new DoseRule(prescriptionId, LocalTime.parse(time), dayOfWeek, start, end);
+    }
+
+    private static LocalDateTime nearest(PatientDoseSlots slots, long prescriptionId, LocalDateTime at) {
+        return PatientDoseSlots.toDateTime(slots.nearest(prescriptionId, PatientDoseSlots.toMinute(at)));
+    }
+
+    private static List<String> between(PatientDoseSlots slots, LocalDateTime from, LocalDateTime to) {
+        List<String> visited = new ArrayList<>();
+        slots.forEachBetween(PatientDoseSlots.toMinute(from), PatientDoseSlots.toMinute(to),
+                (prescriptionId, minute) -> visited.add(prescriptionId + "@" + PatientDoseSlots.toDateTime(minute)));
+        return visited;
+    }
+}
@@ -0,0 +1,97 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Drug interaction index")
+class DrugInteractionIndexTest {
+
+    @Test
+    @DisplayName("Should find a pair in either substance order")
+    void shouldFindPairInEitherOrder() {
+        // Arrange
+        DrugInteractionIndex index = DrugInteractionIndex.build(List.of(row(7L, 4L, 1L, 2, true)));
+
+        // Act
+        int forward = index.find(4L, 1L);
+        int reverse = index.find(1L, 4L);
+
+        // Assert
+        assertThat(forward).isNotEqualTo(DrugInteractionIndex.NOT_FOUND).isEqualTo(reverse);
+        assertThat(index.interactionId(forward)).isEqualTo(7L);
+        assertThat(index.severityLevel(forward)).isEqualTo(2);
+        assertThat(index.find(4L, 2L)).isEqualTo(DrugInteractionIndex.NOT_FOUND);
+        assertThat(index.find(4L, 4L)).isEqualTo(DrugInteractionIndex.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should add, replace and remove pairs without touching the previous index")
+    void shouldApplyChangesCopyOnWrite() {
+        // Arrange
+        DrugInteractionIndex original = DrugInteractionIndex.build(List.of(
+                row(1L, 4L, 1L, 2, true),
+                row(2L, 4L, 2L, 3, true)));
+
+        // Act
+        DrugInteractionIndex updated = original.apply(List.of(
+                row(1L, 4L, 1L, 5, true),
+                row(2L, 4L, 2L, 3, false),
+                row(3L, 3L, 9L, 2, true)));
+
+        // Assert
+        assertThat(updated.size()).isEqualTo(2);
+        assertThat(updated.severityLevel(updated.find(1L, 4L))).isEqualTo(5);
+        assertThat(updated.find(2L, 4L)).isEqualTo(DrugInteractionIndex.NOT_FOUND);
+        assertThat(updated.interactionId(updated.find(9L, 3L))).isEqualTo(3L);
+
+        assertThat(original.size()).isEqualTo(2);
+        assertThat(original.severityLevel(original.find(1L, 4L))).isEqualTo(2);
+        assertThat(original.find(2L, 4L)).isNotEqualTo(DrugInteractionIndex.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should return the same index when nothing changed")
+    void shouldReturnSameIndexForUnchangedRows() {
+        // Arrange
+        DrugInteractionIndex index = DrugInteractionIndex.build(List.of(row(1L, 4L, 1L, 2, true)));
+
+        // Act & Assert
+        assertThat(index.apply(List.of(row(1L, 1L, 4L, 2, true), row(9L, 5L, 6L, 1, false)))).isSameAs(index);
+        assertThat(index.apply(List.of())).isSameAs(index);
+    }
+
+    @Test
+    @DisplayName("Should find every pair of a large table")
+    void shouldHoldManyPairs() {
+        // Arrange: a dense block of pairs, including ids that use the high half of the key
+        List<InteractionRow> rows = new ArrayList<>();
+        long interactionId = 1;
+        for (long a = 1; a <= 100; a++) {
+            for (long b = a + 1; b <= 100; b += 7) {
+                rows.add(row(interactionId++, a, b + 0xFFFF_0000L, (int) (a % 5) + 1, true));
+            }
+        }
+
+        // Act
+        DrugInteractionIndex index = DrugInteractionIndex.build(rows);
+
+        // Assert
+        assertThat(index.size()).isEqualTo(rows.size());
+        for (InteractionRow row : rows) {
+            int slot = index.find(row.substanceIdB(), row.substanceIdA());
+            assertThat(index.interactionId(slot)).isEqualTo(row.interactionId());
+            assertThat(index.severityLevel(slot)).isEqualTo(row.severityLevel());
+        }
+        assertThat(index.find(1L, 2L)).isEqualTo(DrugInteractionIndex.NOT_FOUND);
+    }
+
+    private static InteractionRow row(long id, long substanceA, long substanceB, int severity, boolean active) {
+        return new InteractionRow(id, substanceA, substanceB, severity, active, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,211 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.common.InteractionAlertStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionAlertDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.medication.Substance;
+import se.inera.nll.nlllight.api.medication.SubstanceRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescriber.Prescriber;
+import se.inera.nll.nlllight.api.prescriber.PrescriberRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.CreatePrescriptionRequest;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Interaction engine Integration Tests")
+class InteractionEngineIntegrationTest {
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private InteractionEngine interactionEngine;
+
+    @Autowired
+    private DrugInteractionRepository drugInteractionRepository;
+
+    @Autowired
+    private InteractionAlertRepository interactionAlertRepository;
+
+    @Autowired
+    private InteractionSeverityRepository interactionSeverityRepository;
+
+    @Autowired
+    private SubstanceRepository substanceRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PrescriberRepository prescriberRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private InteractionSeverity major;
+    private Medication warfarin;
+    private Medication ibuprofen;
+    private Medication paracetamol;
+    private Patient patient;
+    private Prescription activeWarfarin;
+
+    @BeforeEach
+    void setUp() {
+        major = new InteractionSeverity();
+        major.setCode("MAJOR-IT");
+        major.setName("Major");
+        major.setSeverityLevel(3);
+        major = interactionSeverityRepository.save(major);
+
+        warfarin = medication("NPL-IX-1", "Waran", substance("Warfarin-IT"));
+        ibuprofen = medication("NPL-IX-2", "Ipren", substance("Ibuprofen-IT"));
+        paracetamol = medication("NPL-IX-3", "Alvedon", substance("Paracetamol-IT"));
+
+        Prescriber prescriber = new Prescriber();
+        prescriber.setUserId("ix-prescriber-1");
+        prescriber.setLicenseNumber("LIC-IX-1");
+        prescriber.setFirstName("Karin");
+        prescriber.setLastName("Berg");
+        prescriberRepository.save(prescriber);
+
+        patient = new Patient();
+        patient.setId("ix-patient-1");
+        patient.setUserId("user-ix-patient-1");
+        patient.setEncryptedSsn("encrypted-ix-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1948, 2, 2));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(warfarin);
+        rx.setPrescriptionNumber("RX-IX-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("5.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setRefillsAllowed(0);
+        rx.setRefillsRemaining(0);
+        activeWarfarin = prescriptionRepository.save(rx);
+
+        interaction(warfarin, ibuprofen, "NSAIDs increase bleeding risk with warfarin");
+        interactionEngine.refresh();
+    }
+
+    @Test
+    @DisplayName("Creating an interacting prescription should record and return an alert")
+    void shouldRecordAlertForInteractingPrescription() {
+        // Act
+        PrescriptionDTO created = prescriptionService.createPrescription(request(ibuprofen), "ix-prescriber-1");
+
+        // Assert
+        assertThat(created.getInteractionAlerts()).hasSize(1);
+        InteractionAlertDTO alert = created.getInteractionAlerts().get(0);
+        assertThat(alert.getPrescriptionId()).isEqualTo(created.getId());
+        assertThat(alert.getInteractingPrescriptionId()).isEqualTo(activeWarfarin.getId());
+        assertThat(alert.getSeverityCode()).isEqualTo("MAJOR-IT");
+        assertThat(alert.getDescription()).contains("bleeding");
+
+        List<InteractionAlert> stored = interactionAlertRepository.findByPatientIdAndStatus(patient.getId(), InteractionAlertStatus.ACTIVE);
+        assertThat(stored).extracting(InteractionAlert::getPrescriptionIdA).containsExactly(created.getId());
+    }
+
+    @Test
+    @DisplayName("Creating a non-interacting prescription should record no alert")
+    void shouldNotAlertForUnrelatedPrescription() {
+        // Act
+        PrescriptionDTO created = prescriptionService.createPrescription(request(paracetamol), "ix-prescriber-1");
+
+        // Assert
+        assertThat(created.getInteractionAlerts()).isEmpty();
+        assertThat(interactionAlertRepository.findByPrescriptionIdA(created.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Refresh should pick up added and deactivated interactions")
+    void refreshShouldApplyChangedInteractions() {
+        // Arrange: a new interaction, and the existing one withdrawn
+        interaction(warfarin, paracetamol, "Paracetamol may raise INR at high doses");
+        DrugInteraction withdrawn = drugInteractionRepository.findAll().stream()
+                .filter(d -> d.getSubstanceIdB().equals(ibuprofen.getSubstanceId()))
+                .findFirst().orElseThrow();
+        withdrawn.setIsActive(false);
+        drugInteractionRepository.saveAndFlush(withdrawn);
+
+        // Act
+        interactionEngine.refresh();
+        PrescriptionDTO withParacetamol = prescriptionService.createPrescription(request(paracetamol), "ix-prescriber-1");
+        PrescriptionDTO withIbuprofen = prescriptionService.createPrescription(request(ibuprofen), "ix-prescriber-1");
+
+        // Assert: the new paracetamol prescription clashes with warfarin only, the ibuprofen one
+        // clashes with nothing since both its interactions are gone or unrelated
+        assertThat(withParacetamol.getInteractionAlerts())
+                .extracting(InteractionAlertDTO::getInteractingPrescriptionId)
+                .containsExactly(activeWarfarin.getId());
+        assertThat(withIbuprofen.getInteractionAlerts()).isEmpty();
+    }
+
+    private CreatePrescriptionRequest request(Medication medication) {
+        CreatePrescriptionRequest request = new CreatePrescriptionRequest();
+        request.setPatientId(patient.getId());
+        request.setMedicationId(medication.getId());
+        request.setDose(new BigDecimal("1.00"));
+        request.setDoseUnit("tablet");
+        request.setFrequency("TID");
+        request.setRoute("ORAL");
+        request.setStartDate(LocalDate.now());
+        request.setQuantityPrescribed(30);
+        return request;
+    }
+
+    private Long substance(String name) {
+        Substance substance = new Substance();
+        substance.setName(name);
+        return substanceRepository.save(substance).getId();
+    }
+
+    private Medication medication(String nplId, String tradeName, Long substanceId) {
+        Medication medication = new Medication();
+        medication.setNplId(nplId);
+        medication.setTradeName(tradeName);
+        medication.setSubstanceId(substanceId);
+        medication.setIsAvailable(true);
+        return medicationRepository.save(medication);
+    }
+
+    private void interaction(Medication a, Medication b, String description) {
+        DrugInteraction interaction = new DrugInteraction();
+        interaction.setSubstanceIdA(a.getSubstanceId());
+        interaction.setSubstanceIdB(b.getSubstanceId());
+        interaction.setSeverity(major);
+        interaction.setInteractionType("PHARMACODYNAMIC");
+        interaction.setDescription(description);
+        drugInteractionRepository.saveAndFlush(interaction);
+    }
+}
@@ -0,0 +1,197 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.InteractionAlertStatus;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.interaction.dto.InteractionSweepDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.medication.Substance;
+import se.inera.nll.nlllight.api.medication.SubstanceRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sweep reads through its own cursor and commits alerts in their own transactions, so this
+ * test is deliberately not {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Interaction sweep Integration Tests")
+class InteractionSweepIntegrationTest {
+
+    @Autowired
+    private InteractionSweep interactionSweep;
+
+    @Autowired
+    private DrugInteractionRepository drugInteractionRepository;
+
+    @Autowired
+    private InteractionAlertRepository interactionAlertRepository;
+
+    @Autowired
+    private InteractionSeverityRepository interactionSeverityRepository;
+
+    @Autowired
+    private SubstanceRepository substanceRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<Prescription> prescriptions = new ArrayList<>();
+    private final List<Medication> medications = new ArrayList<>();
+    private InteractionSeverity major;
+    private DrugInteraction interaction;
+
+    @BeforeEach
+    void setUp() {
+        major = new InteractionSeverity();
+        major.setCode("MAJOR-SW");
+        major.setName("Major");
+        major.setSeverityLevel(3);
+        major = interactionSeverityRepository.save(major);
+
+        Medication warfarin = medication("NPL-SW-1", "Waran", "Warfarin-SW");
+        Medication ibuprofen = medication("NPL-SW-2", "Ipren", "Ibuprofen-SW");
+        Medication paracetamol = medication("NPL-SW-3", "Alvedon", "Paracetamol-SW");
+
+        // Exposed: both active
+        Patient exposed = patient("sw-patient-1");
+        prescription(exposed, warfarin, PrescriptionStatus.ACTIVE);
+        prescription(exposed, ibuprofen, PrescriptionStatus.ACTIVE);
+        // Not exposed: the ibuprofen course is over
+        Patient finished = patient("sw-patient-2");
+        prescription(finished, warfarin, PrescriptionStatus.ACTIVE);
+        prescription(finished, ibuprofen, PrescriptionStatus.COMPLETED);
+        // Not exposed: unrelated combination
+        Patient unrelated = patient("sw-patient-3");
+        prescription(unrelated, warfarin, PrescriptionStatus.ACTIVE);
+        prescription(unrelated, paracetamol, PrescriptionStatus.ACTIVE);
+
+        interaction = new DrugInteraction();
+        interaction.setSubstanceIdA(warfarin.getSubstanceId());
+        interaction.setSubstanceIdB(ibuprofen.getSubstanceId());
+        interaction.setSeverity(major);
+        interaction.setInteractionType("PHARMACODYNAMIC");
+        interaction.setDescription("NSAIDs increase bleeding risk with warfarin");
+        interaction = drugInteractionRepository.save(interaction);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Patient patient : patients) {
+            interactionAlertRepository.deleteAll(
+                    interactionAlertRepository.findByPatientIdAndStatus(patient.getId(), InteractionAlertStatus.ACTIVE));
+        }
+        prescriptionRepository.deleteAll(prescriptions);
+        drugInteractionRepository.delete(interaction);
+        for (Medication medication : medications) {
+            medicationRepository.delete(medication);
+            substanceRepository.deleteById(medication.getSubstanceId());
+        }
+        patientRepository.deleteAll(patients);
+        interactionSeverityRepository.delete(major);
+    }
+
+    @Test
+    @DisplayName("A sweep should raise one alert per exposed patient and report its progress")
+    void shouldAlertExposedPatients() {
+        // Act
+        InteractionSweepDTO result = interactionSweep.run(List.of(interaction.getId()));
+
+        // Assert
+        assertThat(result.getState()).isEqualTo("COMPLETED");
+        assertThat(result.getAlertsRaised()).isEqualTo(1);
+        assertThat(result.getInteractingPairs()).isEqualTo(1);
+        // Other tests may have committed active prescriptions, so only a lower bound holds
+        assertThat(result.getPrescriptionsScanned()).isGreaterThanOrEqualTo(5);
+        assertThat(result.getPatientsScanned()).isGreaterThanOrEqualTo(3);
+        assertThat(interactionSweep.getStatus(result.getId()).getState()).isEqualTo("COMPLETED");
+
+        List<InteractionAlert> alerts = interactionAlertRepository
+                .findByPatientIdAndStatus("sw-patient-1", InteractionAlertStatus.ACTIVE);
+        assertThat(alerts).hasSize(1);
+        assertThat(alerts.get(0).getInteractionId()).isEqualTo(interaction.getId());
+        assertThat(alerts.get(0).getPrescriptionIdA()).isGreaterThan(alerts.get(0).getPrescriptionIdB());
+        assertThat(interactionAlertRepository.findByPatientIdAndStatus("sw-patient-2", InteractionAlertStatus.ACTIVE)).isEmpty();
+        assertThat(interactionAlertRepository.findByPatientIdAndStatus("sw-patient-3", InteractionAlertStatus.ACTIVE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sweeping again should not duplicate existing alerts")
+    void shouldNotDuplicateAlerts() {
+        // Arrange
+        interactionSweep.run(List.of(interaction.getId()));
+
+        // Act
+        InteractionSweepDTO again = interactionSweep.run(List.of(interaction.getId()));
+
+        // Assert
+        assertThat(again.getInteractingPairs()).isEqualTo(1);
+        assertThat(again.getAlertsRaised()).isZero();
+        assertThat(interactionAlertRepository.findByPatientIdAndStatus("sw-patient-1", InteractionAlertStatus.ACTIVE)).hasSize(1);
+    }
+
+    private Medication medication(String nplId, String tradeName, String substanceName) {
+        Substance substance = new Substance();
+        substance.setName(substanceName);
+        Medication medication = new Medication();
+        medication.setNplId(nplId);
+        medication.setTradeName(tradeName);
+        medication.setSubstanceId(substanceRepository.save(substance).getId());
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+        medications.add(medication);
+        return medication;
+    }
+
+    private Patient patient(String id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setUserId("user-" + id);
+        patient.setEncryptedSsn("encrypted-" + id);
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1950, 3, 3));
+        patient = patientRepository.save(patient);
+        patients.add(patient);
+        return patient;
+    }
+
+    private void prescription(Patient patient, Medication medication, PrescriptionStatus status) {
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-SW-" + (prescriptions.size() + 1));
+        rx.setStatus(status);
+        rx.setDose(new BigDecimal("1.00"));
+        rx.setDoseUnit("tablet");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setRefillsAllowed(0);
+        rx.setRefillsRemaining(0);
+        prescriptions.add(prescriptionRepository.save(rx));
+    }
+}
@@ -0,0 +1,62 @@
+package se.inera.nll.nlllight.api.interaction;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Interaction sweep task")
+class InteractionSweepTaskTest {
+
+    @Test
+    @DisplayName("Should find interacting pairs within each patient across split ranges")
+    void shouldFindPairsPerPatient() {
+        // Arrange: enough patients to split; every third one takes both interacting substances
+        DrugInteractionIndex index = DrugInteractionIndex.build(List.of(
+                new InteractionRow(7L, 1L, 2L, 3, true, null)));
+        int patients = InteractionSweepTask.THRESHOLD * 3;
+        PatientSubstanceBatch batch = new PatientSubstanceBatch(16);
+        long prescriptionId = 0;
+        for (int p = 0; p < patients; p++) {
+            batch.startPatient("patient-" + p);
+            batch.addPrescription(++prescriptionId, 1L);
+            batch.addPrescription(++prescriptionId, p % 3 == 0 ? 2L : 3L);
+        }
+
+        // Act
+        List<InteractionSweepTask.Hit> hits = ForkJoinPool.commonPool().invoke(new InteractionSweepTask(index, batch));
+
+        // Assert
+        assertThat(batch.prescriptions()).isEqualTo(patients * 2);
+        assertThat(hits).hasSize(patients / 3);
+        assertThat(hits).allSatisfy(hit -> {
+            assertThat(hit.interactionId()).isEqualTo(7L);
+            assertThat(hit.prescriptionIdA()).isEqualTo(hit.prescriptionIdB() + 1);
+        });
+        assertThat(hits).extracting(InteractionSweepTask.Hit::patientId).contains("patient-0", "patient-762");
+    }
+
+    @Test
+    @DisplayName("Should not pair prescriptions of different patients")
+    void shouldNotPairAcrossPatients() {
+        // Arrange
+        DrugInteractionIndex index = DrugInteractionIndex.build(List.of(
+                new InteractionRow(7L, 1L, 2L, 3, true, null)));
+        PatientSubstanceBatch batch = new PatientSubstanceBatch(1);
+        batch.startPatient("patient-a");
+        batch.addPrescription(10L, 1L);
+        batch.startPatient("patient-b");
+        batch.addPrescription(11L, 2L);
+        batch.startPatient("patient-c");
+
+        // Act
+        List<InteractionSweepTask.Hit> hits = ForkJoinPool.commonPool().invoke(new InteractionSweepTask(index, batch));
+
+        // Assert
+        assertThat(batch.patients()).isEqualTo(3);
+        assertThat(hits).isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Medication catalog snapshot")
+class MedicationCatalogSnapshotTest {
+
+    @Test
+    @DisplayName("Should hold copies, so changes to the loaded entities never reach readers")
+    void shouldHoldDetachedCopies() {
+        // Arrange
+        Medication entity = new Medication();
+        entity.setId(1L);
+        entity.setNplId("NPL-SNAPSHOT-1");
+        entity.setTradeName("Panodil");
+        entity.setAtcCode("N02BE01");
+
+        // Act
+        MedicationCatalogSnapshot snapshot = MedicationCatalogSnapshot.of(1L, List.of(entity));
+        entity.setTradeName("Changed");
+
+        // Assert
+        Medication held = snapshot.findById(1L);
+        assertThat(held).isNotSameAs(entity);
+        assertThat(held.getTradeName()).isEqualTo("Panodil");
+        assertThat(snapshot.findByNplId("NPL-SNAPSHOT-1")).isSameAs(held);
+        assertThat(snapshot.findByAtcCode("n02be01")).containsExactly(held);
+        assertThat(snapshot.medications()).containsExactly(held);
+    }
+}
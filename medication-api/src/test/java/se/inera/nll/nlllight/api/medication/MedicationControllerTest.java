@@ -6,7 +6,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
@@ -22,6 +25,12 @@ class MedicationControllerTest {
     @Autowired
     TestRestTemplate rest;
 
+    @Autowired
+    MedicationRepository repository;
+
+    @Autowired
+    SubstanceRepository substanceRepository;
+
     @Test
     void list_shouldReturnSeededMedications() {
         ResponseEntity<List<Medication>> resp = rest.exchange(
@@ -53,4 +62,65 @@ class MedicationControllerTest {
         assertThat(med).isNotNull();
         assertThat(med.getName()).isEqualTo("Alimemazin Evolan");
     }
-}
\ No newline at end of file
+
+    @Test
+    void list_shouldRevalidateWithEtagUntilCatalogChanges() {
+        String url = "http://localhost:" + port + "/api/medications";
+        ResponseEntity<String> first = rest.getForEntity(url, String.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> revalidated = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        Medication added = new Medication();
+        added.setNplId("NPL-CACHE-1");
+        added.setTradeName("Cachetest");
+        added.setForm("tablet");
+        added.setStrength("1mg");
+        added = repository.save(added);
+        try {
+            ResponseEntity<List<Medication>> changed = rest.exchange(
+                    url, HttpMethod.GET, new HttpEntity<>(headers), new ParameterizedTypeReference<List<Medication>>() {}
+            );
+            assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+            assertThat(changed.getBody()).extracting(Medication::getName).contains("Cachetest");
+        } finally {
+            repository.delete(added);
+        }
+    }
+
+    @Test
+    void search_shouldFollowSubstanceRename() {
+        String url = "http://localhost:" + port + "/api/medications/search?name=";
+        Substance substance = new Substance();
+        substance.setName("Renamotrol");
+        substance = substanceRepository.save(substance);
+        Medication added = new Medication();
+        added.setNplId("NPL-SUBSTANCE-1");
+        added.setTradeName("Brandname");
+        added.setSubstanceId(substance.getId());
+        added = repository.save(added);
+        try {
+            assertThat(rest.exchange(url + "renamotrol", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Medication>>() {}).getBody())
+                    .extracting(Medication::getName).contains("Brandname");
+
+            substance.setName("Othernamol");
+            substanceRepository.save(substance);
+
+            assertThat(rest.exchange(url + "othernamol", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Medication>>() {}).getBody())
+                    .extracting(Medication::getName).contains("Brandname");
+            assertThat(rest.exchange(url + "renamotrol", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Medication>>() {}).getBody())
+                    .extracting(Medication::getName).doesNotContain("Brandname");
+        } finally {
+            repository.delete(added);
+            substanceRepository.delete(substance);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Medication search index")
+class MedicationSearchIndexTest {
+
+    private MedicationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MedicationSearchIndex();
+        index.put(medication(1L, "Melatonin Orifarm", "Melatonin", "N05CH01"), "Melatonin");
+        index.put(medication(2L, "Alvedon", "Paracetamol", "N02BE01"), "Paracetamol");
+        index.put(medication(3L, "Östradiol Ebb", "Estradiol", "G03CA03"), "Estradiol");
+        index.put(medication(4L, "Ipren", "Ibuprofen", "M01AE01"), "Ibuprofen");
+        index.put(medication(5L, "Melperon Mylan", "Melperon", "N05AD03"), "Melperon");
+    }
+
+    @Test
+    @DisplayName("Should match substrings like the previous LIKE search")
+    void shouldMatchSubstrings() {
+        // Act
+        List<Medication> result = index.search("mel", Integer.MAX_VALUE, false);
+
+        // Assert
+        assertThat(result).extracting(Medication::getId).containsExactlyInAnyOrder(1L, 5L);
+    }
+
+    @Test
+    @DisplayName("Should return the whole catalog for a query without terms, like the previous LIKE search")
+    void shouldReturnAllForBlankQuery() {
+        // Act
+        List<Medication> empty = index.search("", Integer.MAX_VALUE, false);
+        List<Medication> blank = index.search("  ", 2, false);
+
+        // Assert
+        assertThat(empty).extracting(Medication::getId).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(blank).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should rank exact and prefix matches above substring matches")
+    void shouldRankExactMatchesFirst() {
+        // Arrange
+        index.put(medication(6L, "Paracetamol Teva", "Paracetamol", "N02BE01"), "Paracetamol");
+        index.put(medication(7L, "Kodein/Paracetamolkombination", "Kodein", "N02AJ06"), null);
+
+        // Act
+        List<Medication> result = index.search("paracetamol", Integer.MAX_VALUE, false);
+
+        // Assert
+        assertThat(result).extracting(Medication::getId).containsExactly(6L, 2L, 7L);
+    }
+
+    @Test
+    @DisplayName("Should fold Swedish diacritics in both directions")
+    void shouldFoldDiacritics() {
+        // Act
+        List<Medication> plain = index.search("ostradiol", 10, false);
+        List<Medication> accented = index.search("Östra", 10, false);
+
+        // Assert
+        assertThat(plain).extracting(Medication::getId).containsExactly(3L);
+        assertThat(accented).extracting(Medication::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should match ATC codes and substance names")
+    void shouldMatchAtcCodeAndSubstance() {
+        // Act
+        List<Medication> byAtc = index.search("N05", 10, false);
+        List<Medication> bySubstance = index.search("ibuprofen", 10, false);
+
+        // Assert
+        assertThat(byAtc).extracting(Medication::getId).containsExactlyInAnyOrder(1L, 5L);
+        assertThat(bySubstance).extracting(Medication::getId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Should tolerate typos only when fuzzy matching is requested")
+    void shouldTolerateTyposWhenFuzzy() {
+        // Act
+        List<Medication> strict = index.search("melatnoin", 10, false);
+        List<Medication> fuzzy = index.search("melatnoin", 10, true);
+        List<Medication> halfTyped = index.search("alvdon", 10, true);
+
+        // Assert
+        assertThat(strict).isEmpty();
+        assertThat(fuzzy).extracting(Medication::getId).containsExactly(1L);
+        assertThat(halfTyped).extracting(Medication::getId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should require every query term and honour the limit")
+    void shouldRequireAllTermsAndLimit() {
+        // Act
+        List<Medication> both = index.search("melatonin orifarm", 10, false);
+        List<Medication> limited = index.search("mel", 1, false);
+
+        // Assert
+        assertThat(both).extracting(Medication::getId).containsExactly(1L);
+        assertThat(limited).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals incrementally")
+    void shouldUpdateIncrementally() {
+        // Act
+        index.put(medication(2L, "Panodil", "Paracetamol", "N02BE01"), "Paracetamol");
+        index.remove(4L);
+
+        // Assert
+        assertThat(index.search("alvedon", 10, false)).isEmpty();
+        assertThat(index.search("panodil", 10, false)).extracting(Medication::getId).containsExactly(2L);
+        assertThat(index.search("ipren", 10, false)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    private Medication medication(Long id, String tradeName, String genericName, String atcCode) {
+        Medication medication = new Medication();
+        medication.setId(id);
+        medication.setTradeName(tradeName);
+        medication.setGenericName(genericName);
+        medication.setAtcCode(atcCode);
+        return medication;
+    }
+}
@@ -0,0 +1,74 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Medication suggestion service")
+class MedicationSuggestServiceTest {
+
+    private MedicationCatalog catalog;
+    private MedicationSuggestService service;
+
+    @BeforeEach
+    void setUp() {
+        catalog = mock(MedicationCatalog.class);
+        PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+        when(prescriptionRepository.countPrescriptionsByMedication()).thenReturn(List.of());
+        when(catalog.version()).thenReturn(1L);
+        when(catalog.current()).thenReturn(MedicationCatalogSnapshot.of(1L, List.of(medication(1L, "Panodil"))));
+        service = new MedicationSuggestService(catalog, prescriptionRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    @DisplayName("Should keep serving the previous trie while a changed catalog is rebuilt in the background")
+    void shouldServePreviousTrieDuringRebuild() throws InterruptedException {
+        // Arrange
+        assertThat(ids(service.suggest("pan", null))).containsExactly(1L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(catalog.version()).thenReturn(2L);
+        when(catalog.current()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return MedicationCatalogSnapshot.of(2L, List.of(medication(1L, "Panodil"), medication(2L, "Pantoprazol")));
+        });
+
+        // Act
+        List<MedicationSuggestionDTO> duringRebuild = service.suggest("pan", null);
+        release.countDown();
+
+        // Assert
+        assertThat(ids(duringRebuild)).containsExactly(1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.suggest("pan", null).size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(ids(service.suggest("pan", null))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private static List<Long> ids(List<MedicationSuggestionDTO> suggestions) {
+        return suggestions.stream().map(MedicationSuggestionDTO::getId).toList();
+    }
+
+    private static Medication medication(Long id, String tradeName) {
+        Medication medication = new Medication();
+        medication.setId(id);
+        medication.setTradeName(tradeName);
+        return medication;
+    }
+}
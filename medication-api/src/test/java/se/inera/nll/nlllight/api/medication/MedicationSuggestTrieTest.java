@@ -0,0 +1,78 @@
+package se.inera.nll.nlllight.api.medication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Medication suggestion trie")
+class MedicationSuggestTrieTest {
+
+    private MedicationSuggestTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        List<Medication> medications = List.of(
+                medication(1L, "Paracetamol Teva", "Paracetamol"),
+                medication(2L, "Panodil", "Paracetamol"),
+                medication(3L, "Pantoprazol Krka", "Pantoprazol"),
+                medication(4L, "Alvedon", "Paracetamol"),
+                medication(5L, "Östradiol Ebb", "Estradiol"));
+        trie = MedicationSuggestTrie.build(medications, Map.of(2L, 50L, 3L, 20L, 1L, 5L));
+    }
+
+    @Test
+    @DisplayName("Should rank prefix matches by prescription count")
+    void shouldRankByPopularity() {
+        // Act
+        List<MedicationSuggestionDTO> result = trie.suggest("pa", 10);
+
+        // Assert
+        assertThat(result).extracting(MedicationSuggestionDTO::getId).containsExactly(2L, 3L, 1L, 4L);
+        assertThat(result.get(0).getPrescriptionCount()).isEqualTo(50L);
+    }
+
+    @Test
+    @DisplayName("Should match prefixes that end inside a compressed edge")
+    void shouldMatchInsideEdges() {
+        // Act
+        List<MedicationSuggestionDTO> result = trie.suggest("Panto", 10);
+
+        // Assert
+        assertThat(result).extracting(MedicationSuggestionDTO::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should match later words and fold diacritics")
+    void shouldMatchWordStartsAndDiacritics() {
+        // Act
+        List<MedicationSuggestionDTO> byManufacturer = trie.suggest("teva", 10);
+        List<MedicationSuggestionDTO> folded = trie.suggest("ostr", 10);
+
+        // Assert
+        assertThat(byManufacturer).extracting(MedicationSuggestionDTO::getId).containsExactly(1L);
+        assertThat(folded).extracting(MedicationSuggestionDTO::getId).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should honour the limit and return nothing for unknown prefixes")
+    void shouldLimitAndMiss() {
+        // Act & Assert
+        assertThat(trie.suggest("pa", 2)).extracting(MedicationSuggestionDTO::getId).containsExactly(2L, 3L);
+        assertThat(trie.suggest("xyz", 10)).isEmpty();
+        assertThat(trie.suggest("paracetamolx", 10)).isEmpty();
+    }
+
+    private Medication medication(Long id, String tradeName, String genericName) {
+        Medication medication = new Medication();
+        medication.setId(id);
+        medication.setTradeName(tradeName);
+        medication.setGenericName(genericName);
+        return medication;
+    }
+}
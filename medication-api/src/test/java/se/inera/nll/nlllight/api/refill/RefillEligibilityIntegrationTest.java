@@ -0,0 +1,186 @@
+package se.inera.nll.nlllight.api.refill;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.refill.dto.RefillCandidateDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Materialized sets are updated after commit, so this test is deliberately not
+ * {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Refill eligibility Integration Tests")
+class RefillEligibilityIntegrationTest {
+
+    private static final int DAYS_SUPPLY = 30;
+
+    @Autowired
+    private RefillEligibilityService refillEligibilityService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-REFILL-1");
+        medication.setTradeName("Levaxin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("refill-patient-1");
+        patient.setUserId("user-refill-patient-1");
+        patient.setEncryptedSsn("encrypted-refill-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1965, 5, 5));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-REFILL-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("50.00"));
+        rx.setDoseUnit("mcg");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setQuantityPrescribed(90);
+        rx.setDaysSupply(DAYS_SUPPLY);
+        rx.setRefillsAllowed(2);
+        rx.setRefillsRemaining(2);
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("The first dispense should start the refill schedule without using a refill")
+    void firstDispenseShouldStartSchedule() {
+        // Act
+        dispense(30);
+
+        // Assert: two thirds of a 30-day supply
+        Prescription filled = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        assertThat(filled.getLastRefillDate()).isEqualTo(LocalDate.now());
+        assertThat(filled.getNextRefillEligibleDate()).isEqualTo(LocalDate.now().plusDays(20));
+        assertThat(filled.getRefillsRemaining()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A refill should use one refill and leave the materialized eligible set")
+    void refillShouldLeaveEligibleSet() {
+        // Arrange: filled once, and the eligible date has come
+        dispense(30);
+        becomeEligibleOn(LocalDate.now().minusDays(1));
+        refillEligibilityService.materialize();
+        assertThat(refillEligibilityService.eligibleToday(patient.getId())).contains(List.of(prescription.getId()));
+        assertThat(prescriptionService.getRefillEligiblePrescriptions(patient.getId()))
+                .extracting(PrescriptionDTO::getId)
+                .containsExactly(prescription.getId());
+
+        // Act
+        dispense(30);
+
+        // Assert: the committed dispense moved the schedule and the set followed without a rebuild
+        Prescription refilled = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        assertThat(refilled.getRefillsRemaining()).isEqualTo(1);
+        assertThat(refilled.getNextRefillEligibleDate()).isEqualTo(LocalDate.now().plusDays(20));
+        assertThat(refillEligibilityService.eligibleToday(patient.getId())).contains(List.of());
+        assertThat(prescriptionService.getRefillEligiblePrescriptions(patient.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("An early dispense should top up the current fill without moving the schedule")
+    void earlyDispenseShouldNotMoveSchedule() {
+        // Arrange
+        dispense(30);
+
+        // Act
+        dispense(10);
+
+        // Assert
+        Prescription topped = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        assertThat(topped.getQuantityDispensed()).isEqualTo(40);
+        assertThat(topped.getRefillsRemaining()).isEqualTo(2);
+        assertThat(topped.getNextRefillEligibleDate()).isEqualTo(LocalDate.now().plusDays(20));
+    }
+
+    @Test
+    @DisplayName("The export should list prescriptions that become eligible tomorrow")
+    void exportShouldListTomorrowsRefills() {
+        // Arrange
+        dispense(30);
+        refillEligibilityService.materialize();
+        becomeEligibleOn(LocalDate.now().plusDays(1));
+
+        // Act
+        List<RefillCandidateDTO> exported = new ArrayList<>();
+        refillEligibilityService.streamEligible(LocalDate.now().plusDays(1), exported::add);
+
+        // Assert: eligible tomorrow, not yet today
+        assertThat(exported).filteredOn(c -> c.getPatientId().equals(patient.getId()))
+                .singleElement()
+                .satisfies(candidate -> {
+                    assertThat(candidate.getPrescriptionId()).isEqualTo(prescription.getId());
+                    assertThat(candidate.getMedicationName()).isEqualTo("Levaxin");
+                    assertThat(candidate.getNextRefillEligibleDate()).isEqualTo(LocalDate.now().plusDays(1));
+                });
+        assertThat(refillEligibilityService.eligibleToday(patient.getId())).contains(List.of());
+    }
+
+    private void dispense(int quantity) {
+        DispenseMedicationRequest request = new DispenseMedicationRequest();
+        request.setPrescriptionId(prescription.getId());
+        request.setQuantityToDispense(quantity);
+        prescriptionService.dispenseMedication(request, "refill-pharmacist");
+    }
+
+    private void becomeEligibleOn(LocalDate date) {
+        Prescription current = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        current.setNextRefillEligibleDate(date);
+        prescriptionRepository.save(current);
+    }
+}
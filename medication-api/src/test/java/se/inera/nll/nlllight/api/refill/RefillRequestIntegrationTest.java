@@ -0,0 +1,263 @@
+package se.inera.nll.nlllight.api.refill;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.common.RefillRequestStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.pharmacist.Pharmacist;
+import se.inera.nll.nlllight.api.pharmacist.PharmacistRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.refill.dto.CreateRefillRequestRequest;
+import se.inera.nll.nlllight.api.refill.dto.RefillRequestDTO;
+import se.inera.nll.nlllight.api.refill.dto.UpdateRefillRequestStatusRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Claims run in their own transaction and queue depth follows committed changes, so this test is
+ * deliberately not {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@DisplayName("Refill request queue Integration Tests")
+class RefillRequestIntegrationTest {
+
+    private static final long PHARMACY_ID = 77L;
+
+    @Autowired
+    private RefillRequestService refillRequestService;
+
+    @Autowired
+    private RefillQueueMetrics refillQueueMetrics;
+
+    @Autowired
+    private RefillRequestRepository refillRequestRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PharmacistRepository pharmacistRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private Patient patient;
+    private Medication medication;
+    private Pharmacist pharmacist;
+    private final List<Prescription> prescriptions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-QUEUE-1");
+        medication.setTradeName("Enalapril");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("queue-patient-1");
+        patient.setUserId("user-queue-patient-1");
+        patient.setEncryptedSsn("encrypted-queue-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1955, 6, 6));
+        patient.setPreferredPharmacyId(PHARMACY_ID);
+        patient = patientRepository.save(patient);
+
+        pharmacist = new Pharmacist();
+        pharmacist.setUserId("queue-pharmacist-other");
+        pharmacist.setLicenseNumber("PHA-QUEUE-1");
+        pharmacist.setPharmacyId(PHARMACY_ID + 1);
+        pharmacist = pharmacistRepository.save(pharmacist);
+
+        for (int i = 1; i <= 3; i++) {
+            Prescription rx = new Prescription();
+            rx.setPatient(patient);
+            rx.setMedication(medication);
+            rx.setPrescriptionNumber("RX-QUEUE-" + i);
+            rx.setStatus(PrescriptionStatus.ACTIVE);
+            rx.setDose(new BigDecimal("10.00"));
+            rx.setDoseUnit("mg");
+            rx.setPrescribedDate(LocalDate.now());
+            rx.setStartDate(LocalDate.now());
+            rx.setQuantityPrescribed(30);
+            rx.setRefillsAllowed(1);
+            rx.setRefillsRemaining(1);
+            prescriptions.add(prescriptionRepository.save(rx));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        refillRequestRepository.deleteAll(refillRequestRepository.findByPatientIdOrderByRequestDateDescIdDesc(patient.getId()));
+        prescriptions.forEach(rx -> prescriptionRepository.deleteById(rx.getId()));
+        prescriptions.clear();
+        pharmacistRepository.deleteById(pharmacist.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+        // Rows deleted behind the service's back are only seen by a recount
+        refillQueueMetrics.reconcile();
+    }
+
+    @Test
+    @DisplayName("A request should join the preferred pharmacy's queue and only one may be open per prescription")
+    void createShouldQueueRequest() {
+        // Act
+        RefillRequestDTO created = request(0);
+
+        // Assert
+        assertThat(created.getStatus()).isEqualTo(RefillRequestStatus.PENDING);
+        assertThat(created.getPharmacyId()).isEqualTo(PHARMACY_ID);
+        assertThat(refillQueueMetrics.getDepth(PHARMACY_ID)).isEqualTo(1);
+        assertThat(applicationEvents.stream(RefillRequestStatusChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.from()).isNull();
+                    assertThat(event.to()).isEqualTo(RefillRequestStatus.PENDING);
+                });
+        assertThatThrownBy(() -> request(0))
+                .hasMessageContaining("already open");
+    }
+
+    @Test
+    @DisplayName("Claims should hand out the oldest requests and never the same request twice")
+    void claimsShouldNotOverlap() {
+        // Arrange
+        Long first = request(0).getId();
+        Long second = request(1).getId();
+        Long third = request(2).getId();
+
+        // Act
+        List<RefillRequestDTO> claimedByA = refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-a", 2);
+        List<RefillRequestDTO> claimedByB = refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-b", 2);
+        List<RefillRequestDTO> claimedByC = refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-c", 2);
+
+        // Assert
+        assertThat(claimedByA).extracting(RefillRequestDTO::getId).containsExactly(first, second);
+        assertThat(claimedByA).extracting(RefillRequestDTO::getClaimedBy).containsOnly("queue-pharmacist-a");
+        assertThat(claimedByB).extracting(RefillRequestDTO::getId).containsExactly(third);
+        assertThat(claimedByC).isEmpty();
+        assertThat(refillRequestService.getQueue(PHARMACY_ID, "queue-pharmacist-a"))
+                .extracting(RefillRequestDTO::getClaimedBy)
+                .containsExactly("queue-pharmacist-a", "queue-pharmacist-a", "queue-pharmacist-b");
+    }
+
+    @Test
+    @DisplayName("An expired claim should return the request to the queue")
+    void expiredClaimShouldBeReclaimable() {
+        // Arrange: claimed long ago at a terminal that was abandoned
+        Long id = request(0).getId();
+        refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-a", 1);
+        RefillRequest abandoned = refillRequestRepository.findById(id).orElseThrow();
+        abandoned.setClaimedAt(LocalDateTime.now().minusHours(1));
+        refillRequestRepository.save(abandoned);
+
+        // Act
+        List<RefillRequestDTO> reclaimed = refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-b", 1);
+
+        // Assert
+        assertThat(reclaimed).extracting(RefillRequestDTO::getId).containsExactly(id);
+        assertThat(reclaimed.get(0).getClaimedBy()).isEqualTo("queue-pharmacist-b");
+    }
+
+    @Test
+    @DisplayName("Status changes should follow the workflow and respect claims")
+    void statusChangesShouldFollowWorkflow() {
+        // Arrange
+        Long id = request(0).getId();
+        refillRequestService.claim(PHARMACY_ID, "queue-pharmacist-a", 1);
+
+        // Assert: skipping steps, another pharmacist's claim and other pharmacies are refused
+        assertThatThrownBy(() -> refillRequestService.updateStatus(id, status(RefillRequestStatus.PICKED_UP), "queue-pharmacist-a"))
+                .hasMessageContaining("Cannot move");
+        assertThatThrownBy(() -> refillRequestService.updateStatus(id, status(RefillRequestStatus.APPROVED), "queue-pharmacist-b"))
+                .hasMessageContaining("claimed by queue-pharmacist-a");
+        assertThatThrownBy(() -> refillRequestService.updateStatus(id, status(RefillRequestStatus.APPROVED), "queue-pharmacist-other"))
+                .hasMessageContaining("not authorized");
+        assertThatThrownBy(() -> refillRequestService.updateStatus(id, status(RefillRequestStatus.DENIED), "queue-pharmacist-a"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Act: approval hands the request back to the queue, preparing keeps it with the preparer
+        RefillRequestDTO approved = refillRequestService.updateStatus(id, status(RefillRequestStatus.APPROVED), "queue-pharmacist-a");
+        RefillRequestDTO processing = refillRequestService.updateStatus(id, status(RefillRequestStatus.PROCESSING), "queue-pharmacist-b");
+        RefillRequestDTO ready = refillRequestService.updateStatus(id, status(RefillRequestStatus.READY), "queue-pharmacist-b");
+        RefillRequestDTO pickedUp = refillRequestService.updateStatus(id, status(RefillRequestStatus.PICKED_UP), "queue-pharmacist-c");
+
+        // Assert
+        assertThat(approved.getClaimedBy()).isNull();
+        assertThat(processing.getClaimedBy()).isEqualTo("queue-pharmacist-b");
+        assertThat(ready.getClaimedBy()).isNull();
+        assertThat(pickedUp.getStatus()).isEqualTo(RefillRequestStatus.PICKED_UP);
+        assertThat(pickedUp.getProcessedBy()).isEqualTo("queue-pharmacist-c");
+        assertThat(applicationEvents.stream(RefillRequestStatusChangedEvent.class))
+                .extracting(RefillRequestStatusChangedEvent::to)
+                .containsExactly(RefillRequestStatus.PENDING, RefillRequestStatus.APPROVED, RefillRequestStatus.PROCESSING,
+                        RefillRequestStatus.READY, RefillRequestStatus.PICKED_UP);
+        assertThat(refillQueueMetrics.getDepth(PHARMACY_ID)).isZero();
+        assertThat(refillRequestService.getQueue(PHARMACY_ID, "queue-pharmacist-a")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A pickup should use the refill and hold off new requests until the next eligible date")
+    void pickupShouldRecordFill() {
+        // Arrange: the first fill was collected long enough ago for a refill
+        Prescription rx = prescriptions.get(0);
+        rx.setDaysSupply(30);
+        rx.setLastRefillDate(LocalDate.now().minusDays(30));
+        rx.setNextRefillEligibleDate(LocalDate.now().minusDays(10));
+        rx.setRefillsRemaining(2);
+        prescriptionRepository.save(rx);
+        Long id = request(0).getId();
+        refillRequestService.updateStatus(id, status(RefillRequestStatus.APPROVED), "queue-pharmacist-a");
+        refillRequestService.updateStatus(id, status(RefillRequestStatus.READY), "queue-pharmacist-a");
+
+        // Act
+        refillRequestService.updateStatus(id, status(RefillRequestStatus.PICKED_UP), "queue-pharmacist-a");
+
+        // Assert
+        Prescription filled = prescriptionRepository.findById(rx.getId()).orElseThrow();
+        assertThat(filled.getRefillsRemaining()).isEqualTo(1);
+        assertThat(filled.getLastRefillDate()).isEqualTo(LocalDate.now());
+        assertThat(filled.getNextRefillEligibleDate()).isAfter(LocalDate.now());
+        assertThatThrownBy(() -> request(0))
+                .hasMessageContaining("Cannot request a refill before");
+    }
+
+    private RefillRequestDTO request(int prescription) {
+        return refillRequestService.createRequest(prescriptions.get(prescription).getId(), patient.getId(),
+                new CreateRefillRequestRequest());
+    }
+
+    private static UpdateRefillRequestStatusRequest status(RefillRequestStatus status) {
+        UpdateRefillRequestStatusRequest request = new UpdateRefillRequestStatusRequest();
+        request.setStatus(status);
+        return request;
+    }
+}
@@ -0,0 +1,163 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Hierarchical timing wheel")
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    @DisplayName("Should fire every key on the first tick at or after its deadline")
+    void shouldFireWithinOneTick() {
+        // Arrange: deadlines spread over 30 days
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0, 16);
+        SplittableRandom random = new SplittableRandom(11L);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long key = 0; key < 20_000; key++) {
+            long deadline = random.nextLong(1, 30 * DAY);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+
+        // Act
+        List<Long> fired = new ArrayList<>();
+        long[] lastDeadline = {Long.MIN_VALUE};
+        for (long now = TICK; now <= 31 * DAY; now += TICK) {
+            long at = now;
+            wheel.advance(now, (key, deadline) -> {
+                assertThat(deadline).isEqualTo(deadlines.get(key)).isLessThanOrEqualTo(at).isGreaterThan(at - TICK);
+                assertThat(Math.ceilDiv(deadline, TICK)).isGreaterThanOrEqualTo(Math.ceilDiv(lastDeadline[0], TICK));
+                lastDeadline[0] = deadline;
+                fired.add(key);
+            });
+        }
+
+        // Assert
+        assertThat(fired).hasSize(deadlines.size()).doesNotHaveDuplicates();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fire a key advanced to exactly its deadline when started between ticks")
+    void shouldFireAtDeadlineWithUnalignedOrigin() {
+        // Arrange: started mid-tick, deadlines on and between tick boundaries
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 10 * TICK + 437, 16);
+        wheel.schedule(1L, 13 * TICK);
+        wheel.schedule(2L, 15 * TICK + 1);
+
+        // Act & Assert
+        assertThat(expire(wheel, 13 * TICK - 1)).isEmpty();
+        assertThat(expire(wheel, 13 * TICK)).containsExactly(1L);
+        assertThat(expire(wheel, 15 * TICK + 1)).isEmpty();
+        assertThat(expire(wheel, 16 * TICK)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should replace and cancel scheduled keys")
+    void shouldRescheduleAndCancel() {
+        // Arrange
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0, 16);
+        wheel.schedule(1L, 5 * TICK);
+        wheel.schedule(2L, 5 * TICK);
+        wheel.schedule(3L, 5 * TICK);
+
+        // Act
+        wheel.schedule(1L, 500 * TICK);
+        boolean cancelled = wheel.cancel(2L);
+
+        // Assert
+        assertThat(cancelled).isTrue();
+        assertThat(wheel.cancel(2L)).isFalse();
+        assertThat(wheel.size()).isEqualTo(2);
+        assertThat(wheel.deadline(1L)).hasValue(500 * TICK);
+        assertThat(wheel.deadline(2L)).isEmpty();
+        assertThat(expire(wheel, 10 * TICK)).containsExactly(3L);
+        assertThat(expire(wheel, 499 * TICK)).isEmpty();
+        assertThat(expire(wheel, 500 * TICK)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should let the consumer schedule an expired key again")
+    void shouldRescheduleFromConsumer() {
+        // Arrange: a daily reminder
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0, 16);
+        wheel.schedule(7L, DAY);
+
+        // Act
+        List<Long> firedAt = new ArrayList<>();
+        wheel.advance(3 * DAY, (key, deadline) -> {
+            firedAt.add(deadline);
+            wheel.schedule(key, deadline + DAY);
+        });
+
+        // Assert
+        assertThat(firedAt).containsExactly(DAY, 2 * DAY, 3 * DAY);
+        assertThat(wheel.deadline(7L)).hasValue(4 * DAY);
+    }
+
+    @Test
+    @DisplayName("Should hold deadlines beyond the outermost wheel until they are due")
+    void shouldHoldDeadlinesBeyondOutermostWheel() {
+        // Arrange: with 1 ms ticks the wheels span about 4.7 hours
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0, 16);
+        wheel.schedule(1L, 20_000_000L);
+        wheel.schedule(2L, 40_000_000L);
+
+        // Act & Assert
+        assertThat(expire(wheel, 19_999_999L)).isEmpty();
+        assertThat(expire(wheel, 20_000_000L)).containsExactly(1L);
+        assertThat(expire(wheel, 39_999_999L)).isEmpty();
+        assertThat(expire(wheel, 40_000_000L)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should fire a deadline in the past on the next tick")
+    void shouldFireOverdueOnNextTick() {
+        // Arrange
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0, 16);
+        expire(wheel, 100 * TICK);
+
+        // Act
+        wheel.schedule(9L, 10 * TICK);
+
+        // Assert
+        assertThat(expire(wheel, 100 * TICK)).isEmpty();
+        assertThat(expire(wheel, 101 * TICK)).containsExactly(9L);
+    }
+
+    @Test
+    @DisplayName("Reminder rules should find the next notified dose on the listed weekdays")
+    void reminderRuleShouldFindNextDose() {
+        // Arrange: Monday 2025-03-03, notify 15 minutes ahead on Mondays and Thursdays
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        ReminderRule rule = new ReminderRule(1L, LocalTime.of(8, 0), "MON, thursday", 15);
+
+        // Act & Assert
+        assertThat(rule.nextDose(monday.atTime(7, 0))).isEqualTo(monday.atTime(8, 0));
+        assertThat(rule.nextDose(monday.atTime(7, 45))).isEqualTo(monday.plusDays(3).atTime(8, 0));
+        assertThat(rule.notifyAt(monday.atTime(8, 0))).isEqualTo(LocalDateTime.of(monday, LocalTime.of(7, 45)));
+        assertThat(ReminderRule.parseDays(null)).isEqualTo(ReminderRule.EVERY_DAY);
+        assertThatThrownBy(() -> ReminderRule.parseDays("MO")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> expire(HierarchicalTimingWheel wheel, long now) {
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(now, (key, deadline) -> fired.add(key));
+        return fired;
+    }
+}
@@ -0,0 +1,215 @@
+package se.inera.nll.nlllight.api.reminder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.adherence.AdherenceRecord;
+import se.inera.nll.nlllight.api.adherence.AdherenceIngestionService;
+import se.inera.nll.nlllight.api.adherence.AdherenceRecordRepository;
+import se.inera.nll.nlllight.api.adherence.AdherenceStatisticsRepository;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.NotificationMethod;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.reminder.dto.CreateReminderRequest;
+import se.inera.nll.nlllight.api.reminder.dto.MedicationReminderDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The wheel follows reminder changes after commit, so this test is deliberately not
+ * {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Reminder dispatch Integration Tests")
+class ReminderDispatcherIntegrationTest {
+
+    @Autowired
+    private ReminderDispatcher reminderDispatcher;
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private MedicationReminderRepository reminderRepository;
+
+    @Autowired
+    private AdherenceRecordRepository adherenceRecordRepository;
+
+    @Autowired
+    private AdherenceStatisticsRepository statisticsRepository;
+
+    @Autowired
+    private AdherenceIngestionService ingestionService;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    // The wheel only turns forward and is shared by the tests, so dispatch times never go back
+    private static LocalDateTime clock = LocalDateTime.now();
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-REMINDER-1");
+        medication.setTradeName("Metformin");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("reminder-patient-1");
+        patient.setUserId("user-reminder-patient-1");
+        patient.setEncryptedSsn("encrypted-reminder-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1970, 9, 9));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-REMINDER-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now().minusDays(10));
+        rx.setStartDate(LocalDate.now().minusDays(10));
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adherenceRecordRepository.deleteAll(adherenceRecordRepository.findByPrescriptionId(prescription.getId()));
+        statisticsRepository.findByPrescriptionId(prescription.getId()).ifPresent(statisticsRepository::delete);
+        reminderRepository.deleteAll(reminderRepository.findByPatientIdOrderByReminderTimeAscIdAsc(patient.getId()));
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("A due reminder should be sent, recorded and scheduled for its next dose")
+    void dueReminderShouldBeSentAndRescheduled() {
+        // Arrange: a daily reminder and the record of the dose it is about
+        Long reminderId = reminderService.createReminder(prescription.getId(), patient.getId(),
+                request(LocalTime.of(8, 0))).getId();
+        LocalDateTime dose = reminderDispatcher.nextNotification(reminderId).orElseThrow();
+        assertThat(dose.toLocalTime()).isEqualTo(LocalTime.of(8, 0));
+        AdherenceRecord record = record(dose);
+
+        // Act
+        LocalDateTime at = dispatchAt(dose);
+
+        // Assert
+        MedicationReminder sent = reminderRepository.findById(reminderId).orElseThrow();
+        assertThat(sent.getLastDoseTime()).isEqualTo(dose);
+        assertThat(sent.getLastSentAt()).isNotNull();
+        assertThat(adherenceRecordRepository.findById(record.getId()).orElseThrow().getReminderSentAt())
+                .isEqualTo(sent.getLastSentAt());
+        assertThat(reminderDispatcher.nextNotification(reminderId)).hasValue(nextAfter(at, LocalTime.of(8, 0)));
+    }
+
+    @Test
+    @DisplayName("A snoozed reminder should repeat its last dose, and a deactivated one should stop")
+    void snoozeShouldRepeatLastDoseAndDeactivationShouldCancel() {
+        // Arrange: a reminder that has been sent
+        Long reminderId = reminderService.createReminder(prescription.getId(), patient.getId(),
+                request(LocalTime.of(21, 0))).getId();
+        LocalDateTime dose = reminderDispatcher.nextNotification(reminderId).orElseThrow();
+        dispatchAt(dose);
+
+        // Act
+        MedicationReminderDTO snoozed = reminderService.snoozeReminder(reminderId, patient.getId());
+
+        // Assert: the same dose again after ten minutes, then back to the daily schedule
+        assertThat(snoozed.getNextNotificationAt()).isCloseTo(LocalDateTime.now().plusMinutes(10), within(1, ChronoUnit.MINUTES));
+        LocalDateTime at = dispatchAt(snoozed.getNextNotificationAt());
+        assertThat(reminderRepository.findById(reminderId).orElseThrow().getLastDoseTime()).isEqualTo(dose);
+        assertThat(reminderDispatcher.nextNotification(reminderId)).hasValue(nextAfter(at, LocalTime.of(21, 0)));
+
+        reminderService.deactivateReminder(reminderId, patient.getId());
+        assertThat(reminderDispatcher.nextNotification(reminderId)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("An ingested intake of a reminded dose should acknowledge the reminder")
+    void ingestedIntakeShouldAcknowledgeReminder() {
+        // Arrange: a reminder that has been sent
+        Long reminderId = reminderService.createReminder(prescription.getId(), patient.getId(),
+                request(LocalTime.of(13, 0))).getId();
+        LocalDateTime dose = reminderDispatcher.nextNotification(reminderId).orElseThrow();
+        dispatchAt(dose);
+        LocalDateTime sentAt = reminderRepository.findById(reminderId).orElseThrow().getLastSentAt();
+
+        // Act
+        AdherenceEventRequest event = new AdherenceEventRequest();
+        event.setPrescriptionId(prescription.getId());
+        event.setPatientId(patient.getId());
+        event.setStatus(AdherenceStatus.TAKEN);
+        event.setScheduledTime(dose);
+        event.setActualTime(dose.plusMinutes(5));
+        ingestionService.ingest(List.of(event), null);
+
+        // Assert
+        AdherenceRecord record = adherenceRecordRepository.findByPrescriptionId(prescription.getId()).get(0);
+        assertThat(record.getReminderSentAt()).isEqualTo(sentAt);
+        assertThat(record.getReminderAcknowledged()).isTrue();
+    }
+
+    private LocalDateTime dispatchAt(LocalDateTime at) {
+        clock = at.isAfter(clock) ? at : clock.plusSeconds(1);
+        reminderDispatcher.dispatchDue(clock);
+        return clock;
+    }
+
+    private static LocalDateTime nextAfter(LocalDateTime at, LocalTime time) {
+        LocalDateTime next = at.toLocalDate().atTime(time);
+        return next.isAfter(at) ? next : next.plusDays(1);
+    }
+
+    private CreateReminderRequest request(LocalTime reminderTime) {
+        CreateReminderRequest request = new CreateReminderRequest();
+        request.setReminderTime(reminderTime);
+        request.setDaysOfWeek("DAILY");
+        request.setNotificationMethod(NotificationMethod.APP);
+        return request;
+    }
+
+    private AdherenceRecord record(LocalDateTime scheduledTime) {
+        AdherenceRecord record = new AdherenceRecord();
+        record.setPrescription(prescription);
+        record.setPatient(patient);
+        record.setScheduledTime(scheduledTime);
+        record.setStatus(AdherenceStatus.EARLY);
+        return adherenceRecordRepository.save(record);
+    }
+}
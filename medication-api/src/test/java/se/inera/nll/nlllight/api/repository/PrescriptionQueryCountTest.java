@@ -0,0 +1,168 @@
+package se.inera.nll.nlllight.api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.dispense.DispenseLedger;
+import se.inera.nll.nlllight.api.interaction.InteractionEngine;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.prescriber.Prescriber;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionHistory;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({PrescriptionService.class, PrescriptionHistory.class, DispenseLedger.class, InteractionEngine.class,
+        RefillEligibilityService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@DisplayName("Prescription list query count")
+class PrescriptionQueryCountTest {
+
+    private static final int PRESCRIPTION_COUNT = 10;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Patient patient = new Patient();
+        patient.setId("patient-qc-1");
+        patient.setUserId("user-qc-1");
+        patient.setEncryptedSsn("encrypted-ssn-qc-1");
+        patient.setFirstName("Query");
+        patient.setLastName("Count");
+        patient.setDateOfBirth(LocalDate.of(1970, 1, 1));
+        entityManager.persist(patient);
+
+        Prescriber sharedPrescriber = createPrescriber("prescriber-qc");
+
+        // Distinct medications and prescribers so every lazy association would need its own select
+        for (int i = 0; i < PRESCRIPTION_COUNT; i++) {
+            Medication medication = new Medication();
+            medication.setNplId("NPL-QC-" + i);
+            medication.setTradeName("Medication " + i);
+            medication.setGenericName("Generic " + i);
+            medication.setForm("tablet");
+            medication.setStrength("10mg");
+            medication.setIsAvailable(true);
+            entityManager.persist(medication);
+
+            Prescriber prescriber = i % 2 == 0 ? sharedPrescriber : createPrescriber("prescriber-qc-" + i);
+
+            Prescription prescription = new Prescription();
+            prescription.setPatient(patient);
+            prescription.setMedication(medication);
+            prescription.setPrescriber(prescriber);
+            prescription.setPrescriptionNumber("RX-" + UUID.randomUUID().toString().substring(0, 8));
+            prescription.setStatus(PrescriptionStatus.ACTIVE);
+            prescription.setDose(new BigDecimal("10.00"));
+            prescription.setDoseUnit("mg");
+            prescription.setFrequency("QD");
+            prescription.setRoute("PO");
+            prescription.setPrescribedDate(LocalDate.now().minusDays(i));
+            prescription.setStartDate(LocalDate.now().minusDays(i));
+            prescription.setNextRefillEligibleDate(LocalDate.now().minusDays(1));
+            prescription.setRefillsAllowed(3);
+            prescription.setRefillsRemaining(3);
+            prescription.setQuantityPrescribed(30);
+            prescription.setIsPRN(false);
+            entityManager.persist(prescription);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private Prescriber createPrescriber(String userId) {
+        Prescriber prescriber = new Prescriber();
+        prescriber.setUserId(userId);
+        prescriber.setFirstName("Dr");
+        prescriber.setLastName("Query");
+        prescriber.setSpecialty("General Medicine");
+        prescriber.setLicenseNumber("LIC-" + userId);
+        entityManager.persist(prescriber);
+        return prescriber;
+    }
+
+    @Test
+    @DisplayName("Patient prescription list should load in a single statement")
+    void patientPrescriptionsShouldUseSingleStatement() {
+        // Act
+        List<PrescriptionDTO> result = prescriptionService.getPatientPrescriptions("patient-qc-1", "ACTIVE");
+
+        // Assert
+        assertThat(result).hasSize(PRESCRIPTION_COUNT);
+        assertThat(result).allMatch(dto -> dto.getMedicationName() != null && dto.getPrescriberName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Unfiltered patient prescription list should load in a single statement")
+    void allPatientPrescriptionsShouldUseSingleStatement() {
+        // Act
+        List<PrescriptionDTO> result = prescriptionService.getPatientPrescriptions("patient-qc-1", null);
+
+        // Assert
+        assertThat(result).hasSize(PRESCRIPTION_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Refill-eligible list should load in a single statement")
+    void refillEligiblePrescriptionsShouldUseSingleStatement() {
+        // Act
+        List<PrescriptionDTO> result = prescriptionService.getRefillEligiblePrescriptions("patient-qc-1");
+
+        // Assert
+        assertThat(result).hasSize(PRESCRIPTION_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Prescriber prescription lists should load in a single statement")
+    void prescriberPrescriptionsShouldUseSingleStatement() {
+        // Act
+        List<PrescriptionDTO> all = prescriptionService.getPrescriberPrescriptions("prescriber-qc", null);
+        long afterAll = statistics.getPrepareStatementCount();
+        List<PrescriptionDTO> byPatient = prescriptionService.getPrescriberPrescriptions("prescriber-qc", "patient-qc-1");
+
+        // Assert
+        assertThat(all).hasSize(PRESCRIPTION_COUNT / 2);
+        assertThat(byPatient).hasSize(PRESCRIPTION_COUNT / 2);
+        assertThat(afterAll).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
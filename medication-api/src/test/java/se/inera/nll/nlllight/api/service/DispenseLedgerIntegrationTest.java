@@ -0,0 +1,167 @@
+package se.inera.nll.nlllight.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.dispense.DispenseLedger;
+import se.inera.nll.nlllight.api.dispense.dto.DispenseEventDTO;
+import se.inera.nll.nlllight.api.dispense.dto.PharmacyDispenseVolumeDTO;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.pharmacist.Pharmacist;
+import se.inera.nll.nlllight.api.pharmacist.PharmacistRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Dispense ledger Integration Tests")
+class DispenseLedgerIntegrationTest {
+
+    private static final long PHARMACY_ID = 42L;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private DispenseLedger dispenseLedger;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PharmacistRepository pharmacistRepository;
+
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        Medication medication = new Medication();
+        medication.setNplId("NPL-LEDGER-1");
+        medication.setTradeName("Metformin");
+        medication.setForm("Tablett");
+        medication.setStrength("500 mg");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        Patient patient = new Patient();
+        patient.setId("ledger-patient-1");
+        patient.setUserId("user-ledger-patient-1");
+        patient.setEncryptedSsn("encrypted-ledger-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1960, 4, 4));
+        patient = patientRepository.save(patient);
+
+        Pharmacist pharmacist = new Pharmacist();
+        pharmacist.setUserId("ledger-pharmacist-1");
+        pharmacist.setLicenseNumber("PHA-LEDGER-1");
+        pharmacist.setPharmacyId(PHARMACY_ID);
+        pharmacistRepository.save(pharmacist);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-LEDGER-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setQuantityPrescribed(100);
+        rx.setRefillsAllowed(0);
+        rx.setRefillsRemaining(0);
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @Test
+    @DisplayName("Every dispense should append an event attributed to the pharmacist's pharmacy")
+    void dispenseShouldAppendEvent() {
+        // Act
+        prescriptionService.dispenseMedication(request(30, "LOT-A1"), "ledger-pharmacist-1");
+        prescriptionService.dispenseMedication(request(20, "LOT-B2"), "ledger-pharmacist-1");
+
+        // Assert
+        List<DispenseEventDTO> history = dispenseLedger.getPrescriptionHistory(prescription.getId());
+        assertThat(history).hasSize(2);
+        assertThat(history).extracting(DispenseEventDTO::getLotNumber).containsExactly("LOT-B2", "LOT-A1");
+        DispenseEventDTO latest = history.get(0);
+        assertThat(latest.getQuantityDispensed()).isEqualTo(20);
+        assertThat(latest.getPharmacyId()).isEqualTo(PHARMACY_ID);
+        assertThat(latest.getPharmacistId()).isNotNull();
+        assertThat(latest.getMedicationId()).isEqualTo(prescription.getMedication().getId());
+        assertThat(latest.getStrength()).isEqualTo("500 mg");
+        assertThat(latest.getDispensedBy()).isEqualTo("ledger-pharmacist-1");
+    }
+
+    @Test
+    @DisplayName("A rejected dispense should not append an event")
+    void rejectedDispenseShouldNotAppendEvent() {
+        // Act
+        assertThatThrownBy(() -> prescriptionService.dispenseMedication(request(101, "LOT-X"), "ledger-pharmacist-1"))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Assert
+        assertThat(dispenseLedger.getPrescriptionHistory(prescription.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Daily volume should sum the pharmacy's dispenses for that day only")
+    void dailyVolumeShouldSumPharmacyDispenses() {
+        // Arrange
+        prescriptionService.dispenseMedication(request(30, "LOT-A1"), "ledger-pharmacist-1");
+        prescriptionService.dispenseMedication(request(20, "LOT-B2"), "ledger-pharmacist-1");
+        // Unregistered pharmacists are recorded without a pharmacy
+        prescriptionService.dispenseMedication(request(5, "LOT-C3"), "walk-in-pharmacist");
+
+        // Act
+        PharmacyDispenseVolumeDTO today = dispenseLedger.getPharmacyDailyVolume(PHARMACY_ID, LocalDate.now());
+        PharmacyDispenseVolumeDTO yesterday = dispenseLedger.getPharmacyDailyVolume(PHARMACY_ID, LocalDate.now().minusDays(1));
+
+        // Assert
+        assertThat(today.getDispenseCount()).isEqualTo(2);
+        assertThat(today.getQuantityDispensed()).isEqualTo(50);
+        assertThat(today.getPrescriptionCount()).isEqualTo(1);
+        assertThat(yesterday.getDispenseCount()).isZero();
+        assertThat(yesterday.getQuantityDispensed()).isZero();
+    }
+
+    @Test
+    @DisplayName("History of an unknown prescription should be reported as not found")
+    void historyOfUnknownPrescriptionShouldFail() {
+        assertThatThrownBy(() -> dispenseLedger.getPrescriptionHistory(999999L))
+                .hasMessageContaining("Prescription not found");
+    }
+
+    private DispenseMedicationRequest request(int quantity, String lotNumber) {
+        DispenseMedicationRequest request = new DispenseMedicationRequest();
+        request.setPrescriptionId(prescription.getId());
+        request.setQuantityToDispense(quantity);
+        request.setLotNumber(lotNumber);
+        request.setCounselingProvided(true);
+        return request;
+    }
+}
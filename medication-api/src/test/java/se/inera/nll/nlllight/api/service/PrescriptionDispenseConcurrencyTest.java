@@ -0,0 +1,166 @@
+package se.inera.nll.nlllight.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.DispenseMedicationRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dispenses run in their own committed transactions here, so this test is deliberately not
+ * {@code @Transactional} and removes its rows afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Prescription dispensing under concurrency")
+class PrescriptionDispenseConcurrencyTest {
+
+    private static final int QUANTITY_PRESCRIBED = 120;
+    private static final int THREADS = 24;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    private Patient patient;
+    private Medication medication;
+    private Prescription prescription;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-DISPENSE-1");
+        medication.setTradeName("Omeprazol");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId("dispense-patient-1");
+        patient.setUserId("user-dispense-patient-1");
+        patient.setEncryptedSsn("encrypted-dispense-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1970, 7, 7));
+        patient = patientRepository.save(patient);
+
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriptionNumber("RX-DISPENSE-1");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("20.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setQuantityPrescribed(QUANTITY_PRESCRIBED);
+        rx.setRefillsAllowed(0);
+        rx.setRefillsRemaining(0);
+        prescription = prescriptionRepository.save(rx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prescriptionRepository.deleteById(prescription.getId());
+        patientRepository.deleteById(patient.getId());
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    @DisplayName("Parallel dispenses should never exceed the prescribed quantity")
+    void parallelDispensesShouldNeverOverDispense() throws Exception {
+        // Arrange: twice as many units requested as prescribed, all released at once
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger dispensedUnits = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int quantity = 1 + t % 3;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    DispenseMedicationRequest request = new DispenseMedicationRequest();
+                    request.setPrescriptionId(prescription.getId());
+                    request.setQuantityToDispense(quantity);
+                    try {
+                        prescriptionService.dispenseMedication(request, "pharmacist-" + quantity);
+                        dispensedUnits.addAndGet(quantity);
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert
+        Prescription result = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        assertThat(result.getQuantityDispensed()).isEqualTo(dispensedUnits.get());
+        assertThat(result.getQuantityDispensed()).isLessThanOrEqualTo(QUANTITY_PRESCRIBED);
+        // Requests of 1 keep filling the remainder, so the prescription is used up exactly
+        assertThat(result.getQuantityDispensed()).isEqualTo(QUANTITY_PRESCRIBED);
+        assertThat(result.getStatus()).isEqualTo(PrescriptionStatus.COMPLETED);
+        assertThat(rejected.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("A stale entity save after a dispense should fail with an optimistic lock conflict")
+    void staleSaveShouldConflictWithDispense() {
+        // Arrange
+        Prescription stale = prescriptionRepository.findById(prescription.getId()).orElseThrow();
+        DispenseMedicationRequest request = new DispenseMedicationRequest();
+        request.setPrescriptionId(prescription.getId());
+        request.setQuantityToDispense(10);
+        prescriptionService.dispenseMedication(request, "pharmacist-1");
+
+        // Act & Assert: the stale copy would otherwise write quantityDispensed back to 0
+        stale.setFrequency("BID");
+        assertThatThrownBy(() -> prescriptionRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(prescriptionRepository.findById(prescription.getId()).orElseThrow().getQuantityDispensed())
+                .isEqualTo(10);
+    }
+}
@@ -0,0 +1,258 @@
+package se.inera.nll.nlllight.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import se.inera.nll.nlllight.api.common.ModificationType;
+import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationRepository;
+import se.inera.nll.nlllight.api.patient.Patient;
+import se.inera.nll.nlllight.api.patient.PatientRepository;
+import se.inera.nll.nlllight.api.prescriber.Prescriber;
+import se.inera.nll.nlllight.api.prescriber.PrescriberRepository;
+import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionModification;
+import se.inera.nll.nlllight.api.prescription.PrescriptionModificationRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.CreatePrescriptionRequest;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.prescription.dto.UpdatePrescriptionRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "prescription.history.snapshot-interval=2")
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Prescription history Integration Tests")
+class PrescriptionHistoryIntegrationTest {
+
+    private static final String PRESCRIBER = "history-prescriber-1";
+    private static final String PATIENT = "history-patient-1";
+    private static final LocalDate END_DATE = LocalDate.now().plusMonths(3);
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private PrescriptionModificationRepository modificationRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PrescriberRepository prescriberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Medication medication;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        medication = new Medication();
+        medication.setNplId("NPL-HISTORY-1");
+        medication.setTradeName("Metformin");
+        medication.setForm("Tablett");
+        medication.setStrength("500 mg");
+        medication.setIsAvailable(true);
+        medication = medicationRepository.save(medication);
+
+        patient = new Patient();
+        patient.setId(PATIENT);
+        patient.setUserId("user-history-patient-1");
+        patient.setEncryptedSsn("encrypted-history-patient-1");
+        patient.setFirstName("Test");
+        patient.setLastName("Patient");
+        patient.setDateOfBirth(LocalDate.of(1955, 5, 5));
+        patient = patientRepository.save(patient);
+
+        Prescriber prescriber = new Prescriber();
+        prescriber.setUserId(PRESCRIBER);
+        prescriber.setFirstName("Dr");
+        prescriber.setLastName("History");
+        prescriber.setSpecialty("General Medicine");
+        prescriber.setLicenseNumber("LIC-HISTORY-1");
+        prescriberRepository.save(prescriber);
+    }
+
+    @Test
+    @DisplayName("An update should record one typed row per changed field")
+    void updateShouldRecordChangedFields() {
+        // Arrange
+        Long id = create().getId();
+
+        // Act
+        UpdatePrescriptionRequest request = new UpdatePrescriptionRequest();
+        request.setDose(new BigDecimal("1000"));
+        request.setEndDate(END_DATE.plusMonths(6));
+        request.setModificationReason("Titration");
+        prescriptionService.updatePrescription(id, request, PRESCRIBER);
+
+        // Assert
+        List<PrescriptionModification> modifications = modificationRepository.findByPrescriptionIdOrderByIdAsc(id);
+        assertThat(modifications).extracting(PrescriptionModification::getFieldName)
+                .containsExactly("dose", "endDate");
+        assertThat(modifications).extracting(PrescriptionModification::getModificationType)
+                .containsExactly(ModificationType.DOSE_CHANGE, ModificationType.EXTENSION);
+        PrescriptionModification dose = modifications.get(0);
+        assertThat(dose.getOldValue()).isEqualTo("500.00");
+        assertThat(dose.getNewValue()).isEqualTo("1000");
+        assertThat(dose.getModifiedBy()).isEqualTo(PRESCRIBER);
+        assertThat(dose.getReason()).isEqualTo("Titration");
+    }
+
+    @Test
+    @DisplayName("An update that changes nothing should not record anything")
+    void unchangedUpdateShouldRecordNothing() {
+        // Arrange
+        Long id = create().getId();
+
+        // Act
+        UpdatePrescriptionRequest request = new UpdatePrescriptionRequest();
+        request.setDose(new BigDecimal("500"));
+        prescriptionService.updatePrescription(id, request, PRESCRIBER);
+
+        // Assert
+        assertThat(modificationRepository.findByPrescriptionIdOrderByIdAsc(id)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Point-in-time reads should return the prescription as it was, across snapshots")
+    void asOfShouldReturnPastState() throws InterruptedException {
+        // Arrange
+        Long id = create().getId();
+        LocalDateTime created = tick();
+        updateDose(id, "1000");
+        LocalDateTime firstChange = tick();
+        // Brings the changes since the initial snapshot to the interval of two
+        updateDose(id, "750");
+        LocalDateTime secondChange = tick();
+        updateDose(id, "250");
+
+        // Act & Assert
+        assertThat(prescriptionService.getPrescriptionAsOf(id, created).getDose()).isEqualByComparingTo("500");
+        assertThat(prescriptionService.getPrescriptionAsOf(id, firstChange).getDose()).isEqualByComparingTo("1000");
+        assertThat(prescriptionService.getPrescriptionAsOf(id, secondChange).getDose()).isEqualByComparingTo("750");
+        assertThat(prescriptionService.getPrescriptionAsOf(id, LocalDateTime.now()).getDose()).isEqualByComparingTo("250");
+        assertThat(snapshotCount(id)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A point-in-time read before the prescription existed should fail as not found")
+    void asOfBeforeCreationShouldFail() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        Long id = create().getId();
+
+        // Act & Assert
+        assertThatThrownBy(() -> prescriptionService.getPrescriptionAsOf(id, before))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Prescription not found");
+        assertThat(prescriptionService.getPatientPrescriptionsAsOf(PATIENT, before)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A cancellation should be recorded and the patient's past list should still show it active")
+    void cancellationShouldBeRecorded() throws InterruptedException {
+        // Arrange
+        Long id = create().getId();
+        LocalDateTime active = tick();
+
+        // Act
+        prescriptionService.cancelPrescription(id, "Adverse reaction", PRESCRIBER);
+
+        // Assert
+        List<PrescriptionModification> modifications = modificationRepository.findByPrescriptionIdOrderByIdAsc(id);
+        assertThat(modifications).hasSize(1);
+        assertThat(modifications.get(0).getModificationType()).isEqualTo(ModificationType.CANCELLATION);
+        assertThat(modifications.get(0).getOldValue()).isEqualTo("ACTIVE");
+        assertThat(modifications.get(0).getReason()).isEqualTo("Adverse reaction");
+
+        List<PrescriptionDTO> past = prescriptionService.getPatientPrescriptionsAsOf(PATIENT, active);
+        assertThat(past).extracting(PrescriptionDTO::getStatus).containsExactly(PrescriptionStatus.ACTIVE);
+        assertThat(past.get(0).getQuantityDispensed()).isNull();
+    }
+
+    @Test
+    @DisplayName("A prescription without a snapshot should be rebuilt backwards from its current state")
+    void asOfWithoutSnapshotShouldRebuildBackwards() throws InterruptedException {
+        // Arrange
+        Prescription rx = new Prescription();
+        rx.setPatient(patient);
+        rx.setMedication(medication);
+        rx.setPrescriber(prescriberRepository.findByUserId(PRESCRIBER).orElseThrow());
+        rx.setPrescriptionNumber("RX-HISTORY-LEGACY");
+        rx.setStatus(PrescriptionStatus.ACTIVE);
+        rx.setDose(new BigDecimal("500.00"));
+        rx.setDoseUnit("mg");
+        rx.setPrescribedDate(LocalDate.now());
+        rx.setStartDate(LocalDate.now());
+        rx.setQuantityPrescribed(100);
+        rx.setRefillsAllowed(0);
+        rx.setRefillsRemaining(0);
+        Long id = prescriptionRepository.save(rx).getId();
+        LocalDateTime legacy = tick();
+
+        // Act
+        updateDose(id, "1000");
+
+        // Assert
+        assertThat(snapshotCount(id)).isZero();
+        assertThat(prescriptionService.getPrescriptionAsOf(id, legacy).getDose()).isEqualByComparingTo("500");
+        assertThat(prescriptionService.getPrescriptionAsOf(id, LocalDateTime.now()).getDose()).isEqualByComparingTo("1000");
+    }
+
+    private PrescriptionDTO create() {
+        CreatePrescriptionRequest request = new CreatePrescriptionRequest();
+        request.setPatientId(PATIENT);
+        request.setMedicationId(medication.getId());
+        request.setDose(new BigDecimal("500.00"));
+        request.setDoseUnit("mg");
+        request.setFrequency("BID");
+        request.setStartDate(LocalDate.now());
+        request.setEndDate(END_DATE);
+        request.setQuantityPrescribed(100);
+        return prescriptionService.createPrescription(request, PRESCRIBER);
+    }
+
+    private void updateDose(Long id, String dose) {
+        UpdatePrescriptionRequest request = new UpdatePrescriptionRequest();
+        request.setDose(new BigDecimal(dose));
+        prescriptionService.updatePrescription(id, request, PRESCRIBER);
+    }
+
+    /**
+     * A moment strictly between what happened before and after the call.
+     */
+    private static LocalDateTime tick() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(5);
+        return now;
+    }
+
+    private int snapshotCount(Long prescriptionId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM prescription_snapshots WHERE prescription_id = ?", Integer.class, prescriptionId);
+    }
+}
@@ -8,6 +8,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import se.inera.nll.nlllight.api.common.PrescriptionStatus;
+import se.inera.nll.nlllight.api.dispense.DispenseLedger;
+import se.inera.nll.nlllight.api.interaction.InteractionEngine;
 import se.inera.nll.nlllight.api.medication.Medication;
 import se.inera.nll.nlllight.api.medication.MedicationRepository;
 import se.inera.nll.nlllight.api.patient.Patient;
@@ -15,11 +17,13 @@ import se.inera.nll.nlllight.api.patient.PatientRepository;
 import se.inera.nll.nlllight.api.prescriber.Prescriber;
 import se.inera.nll.nlllight.api.prescriber.PrescriberRepository;
 import se.inera.nll.nlllight.api.prescription.Prescription;
+import se.inera.nll.nlllight.api.prescription.PrescriptionHistory;
 import se.inera.nll.nlllight.api.prescription.PrescriptionRepository;
 import se.inera.nll.nlllight.api.prescription.PrescriptionService;
 import se.inera.nll.nlllight.api.prescription.dto.CreatePrescriptionRequest;
 import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
 import se.inera.nll.nlllight.api.prescription.dto.UpdatePrescriptionRequest;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -49,6 +53,18 @@ class PrescriptionServiceTest {
     @Mock
     private PrescriberRepository prescriberRepository;
 
+    @Mock
+    private DispenseLedger dispenseLedger;
+
+    @Mock
+    private InteractionEngine interactionEngine;
+
+    @Mock
+    private RefillEligibilityService refillEligibilityService;
+
+    @Mock
+    private PrescriptionHistory prescriptionHistory;
+
     @InjectMocks
     private PrescriptionService prescriptionService;
 
@@ -126,6 +142,7 @@ class PrescriptionServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getMedicationId()).isEqualTo(1L);
         verify(prescriptionRepository).save(any(Prescription.class));
+        verify(interactionEngine).screen(testPrescription);
     }
 
     @Test
@@ -0,0 +1,82 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.adherence.AdherenceIngestionService;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceBatchResultDTO;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceEventRequest;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+import se.inera.nll.nlllight.api.common.RecordSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk adherence ingestion, reported per event so the score compares directly with
+ * {@link AdherenceServiceBenchmark#recordAdherence()} (one event per call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AdherenceIngestionBenchmark {
+
+    static final int BATCH_SIZE = 500;
+    private static final int BATCHES = 16;
+
+    private AdherenceIngestionService service;
+    private List<List<AdherenceEventRequest>> batches;
+    private LocalDateTime clock;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(ApiState api) {
+        service = api.bean(AdherenceIngestionService.class);
+        List<SyntheticDataGenerator.PrescriptionRef> prescriptions = api.dataset.activePrescriptions();
+        SplittableRandom random = new SplittableRandom(5L);
+        clock = LocalDateTime.now();
+
+        batches = new ArrayList<>(BATCHES);
+        for (int b = 0; b < BATCHES; b++) {
+            List<AdherenceEventRequest> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                SyntheticDataGenerator.PrescriptionRef prescription = prescriptions.get(random.nextInt(prescriptions.size()));
+                AdherenceEventRequest event = new AdherenceEventRequest();
+                event.setPrescriptionId(prescription.id());
+                event.setPatientId(prescription.patientId());
+                event.setStatus(random.nextInt(10) == 0 ? AdherenceStatus.MISSED : AdherenceStatus.TAKEN);
+                event.setSource(RecordSource.DEVICE);
+                event.setDeviceId("pill-dispenser-" + random.nextInt(100));
+                batch.add(event);
+            }
+            batches.add(batch);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public AdherenceBatchResultDTO ingestBatch() {
+        List<AdherenceEventRequest> batch = batches.get(next++ % BATCHES);
+        // Always move forward in time: reused timestamps would be backdated and force history replays
+        for (AdherenceEventRequest event : batch) {
+            clock = clock.plusMinutes(1);
+            event.setScheduledTime(clock);
+        }
+        return service.ingest(batch, null);
+    }
+}
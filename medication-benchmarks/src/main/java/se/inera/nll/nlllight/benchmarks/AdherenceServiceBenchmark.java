@@ -0,0 +1,48 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.adherence.AdherenceService;
+import se.inera.nll.nlllight.api.adherence.dto.AdherenceRecordDTO;
+import se.inera.nll.nlllight.api.common.AdherenceStatus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single adherence writes as a patient reports a dose: ownership check, insert and DTO
+ * mapping in one transaction. The table grows during the run, as it does in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AdherenceServiceBenchmark {
+
+    private AdherenceService service;
+    private List<SyntheticDataGenerator.PrescriptionRef> prescriptions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(ApiState api) {
+        service = api.bean(AdherenceService.class);
+        prescriptions = api.dataset.activePrescriptions();
+    }
+
+    @Benchmark
+    public AdherenceRecordDTO recordAdherence() {
+        SyntheticDataGenerator.PrescriptionRef prescription = prescriptions.get(next++ % prescriptions.size());
+        return service.recordAdherence(prescription.id(), prescription.patientId(), AdherenceStatus.TAKEN, null);
+    }
+}
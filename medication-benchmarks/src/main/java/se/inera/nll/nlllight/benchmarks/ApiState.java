@@ -0,0 +1,82 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.inera.nll.nlllight.api.NllLightApiApplication;
+import se.inera.nll.nlllight.api.medication.MedicationCatalog;
+import se.inera.nll.nlllight.api.medication.MedicationSearchService;
+import se.inera.nll.nlllight.api.refill.RefillEligibilityService;
+
+import java.util.UUID;
+
+/**
+ * Boots the real API application context (no web server) against a private in-memory H2
+ * database, runs the Flyway migrations and loads synthetic volumes on top of the sample
+ * data. Scheduled jobs, the missed-dose sweeper, the reminder wheel and the access audit writer
+ * are switched off. Volumes are JMH parameters, so they can be overridden with {@code -p patients=...}.
+ */
+@State(Scope.Benchmark)
+public class ApiState {
+
+    @Param({"200"})
+    public int patients;
+
+    @Param({"40"})
+    public int prescriptionsPerPatient;
+
+    @Param({"20"})
+    public int adherencePerPrescription;
+
+    @Param({"5000"})
+    public int medications;
+
+    @Param({"20"})
+    public int prescribers;
+
+    public ConfigurableApplicationContext context;
+    public SyntheticDataGenerator.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(NllLightApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Passed as arguments: they must override application.properties, not default to it
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        // No background work competing with the measured calls
+                        "--scheduling.enabled=false",
+                        "--adherence.missed.enabled=false",
+                        "--reminder.dispatch.enabled=false",
+                        "--audit.access.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.se.inera.nll=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), 42L);
+        dataset = generator.populate(new SyntheticDataGenerator.Volumes(
+                patients, prescriptionsPerPatient, adherencePerPrescription, medications, prescribers));
+
+        // Rows were inserted behind JPA's back, so the catalog has not seen them yet
+        context.getBean(MedicationCatalog.class).invalidate();
+        context.getBean(MedicationSearchService.class).rebuild();
+        context.getBean(RefillEligibilityService.class).materialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,65 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationSearchService;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Medication search over the catalog loaded by {@link ApiState}, with queries cut from real
+ * product names: partial words for the substring path and one-letter typos for the fuzzy path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MedicationSearchBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int LIMIT = 20;
+
+    private MedicationSearchService service;
+    private String[] partial;
+    private String[] misspelt;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(ApiState api) {
+        service = api.bean(MedicationSearchService.class);
+        List<String> names = api.dataset.medicationNames();
+        SplittableRandom random = new SplittableRandom(11L);
+        partial = new String[QUERIES];
+        misspelt = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = names.get(random.nextInt(names.size())).split(" ")[0].toLowerCase();
+            partial[i] = word.substring(0, Math.min(word.length(), 3 + random.nextInt(4)));
+            int at = random.nextInt(word.length());
+            misspelt[i] = word.substring(0, at) + (char) ('a' + random.nextInt(26)) + word.substring(at + 1);
+        }
+    }
+
+    @Benchmark
+    public List<Medication> search() {
+        return service.search(partial[next++ & (QUERIES - 1)], LIMIT, false);
+    }
+
+    @Benchmark
+    public List<Medication> fuzzySearch() {
+        return service.search(misspelt[next++ & (QUERIES - 1)], LIMIT, true);
+    }
+}
@@ -0,0 +1,86 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.medication.Medication;
+import se.inera.nll.nlllight.api.medication.MedicationSuggestTrie;
+import se.inera.nll.nlllight.api.medication.dto.MedicationSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead latency over a synthetic catalog the size of the full NPL register.
+ * Sample-time mode reports the percentile distribution; the target is p99 below 2 ms.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MedicationSuggestBenchmark {
+
+    @Param({"20000"})
+    int catalogSize;
+
+    private MedicationSuggestTrie trie;
+    private String[] prefixes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            next = (int) Thread.currentThread().threadId() * 7919;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Medication> medications = SyntheticCatalog.medications(catalogSize, 42L);
+        SplittableRandom random = new SplittableRandom(7L);
+
+        // Heavy-tailed popularity: a few products dominate, most are rarely prescribed
+        Map<Long, Long> prescriptionCounts = new HashMap<>();
+        for (Medication medication : medications) {
+            prescriptionCounts.put(medication.getId(), (long) (1000 / (1 + random.nextInt(1000))));
+        }
+        trie = MedicationSuggestTrie.build(medications, prescriptionCounts);
+
+        // What a user types: one to six leading characters of real names
+        List<String> typed = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            String name = medications.get(random.nextInt(medications.size())).getTradeName();
+            typed.add(name.substring(0, Math.min(name.length(), 1 + random.nextInt(6))));
+        }
+        prefixes = typed.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public List<MedicationSuggestionDTO> suggest(Cursor cursor) {
+        return trie.suggest(prefixes[cursor.next++ & (prefixes.length - 1)], MedicationSuggestTrie.MAX_SUGGESTIONS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<MedicationSuggestionDTO> suggestConcurrent(Cursor cursor) {
+        return trie.suggest(prefixes[cursor.next++ & (prefixes.length - 1)], MedicationSuggestTrie.MAX_SUGGESTIONS);
+    }
+}
@@ -0,0 +1,55 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of prescription lists with the application's own {@link ObjectMapper},
+ * isolated from the database: one patient's list and a full prescriber panel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrescriptionSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private List<PrescriptionDTO> patientList;
+    private List<PrescriptionDTO> prescriberPanel;
+
+    @Setup(Level.Trial)
+    public void setUp(ApiState api) {
+        objectMapper = api.bean(ObjectMapper.class);
+        PrescriptionService service = api.bean(PrescriptionService.class);
+        patientList = service.getPatientPrescriptions(api.dataset.patientIds().get(0), null);
+        prescriberPanel = service.getPrescriberPrescriptions(api.dataset.prescriberUserIds().get(0), null);
+    }
+
+    @Benchmark
+    public byte[] patientList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patientList);
+    }
+
+    @Benchmark
+    public byte[] prescriberPanel() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(prescriberPanel);
+    }
+}
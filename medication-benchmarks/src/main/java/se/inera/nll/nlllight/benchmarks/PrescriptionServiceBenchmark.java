@@ -0,0 +1,60 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.prescription.PrescriptionService;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionDTO;
+import se.inera.nll.nlllight.api.prescription.dto.PrescriptionPageDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prescription reads through the service layer, including the entity-to-DTO mapping that
+ * every prescription endpoint pays per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PrescriptionServiceBenchmark {
+
+    private PrescriptionService service;
+    private List<String> patientIds;
+    private List<String> prescriberUserIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(ApiState api) {
+        service = api.bean(PrescriptionService.class);
+        patientIds = api.dataset.patientIds();
+        prescriberUserIds = api.dataset.prescriberUserIds();
+    }
+
+    @Benchmark
+    public List<PrescriptionDTO> patientPrescriptions() {
+        return service.getPatientPrescriptions(patientIds.get(next++ % patientIds.size()), null);
+    }
+
+    @Benchmark
+    public List<PrescriptionDTO> activePatientPrescriptions() {
+        return service.getPatientPrescriptions(patientIds.get(next++ % patientIds.size()), "ACTIVE");
+    }
+
+    @Benchmark
+    public PrescriptionPageDTO prescriberFirstPage() {
+        return service.getPrescriberPrescriptionPage(
+                prescriberUserIds.get(next++ % prescriberUserIds.size()), PrescriptionService.DEFAULT_PAGE_SIZE, null);
+    }
+}
@@ -0,0 +1,78 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.inera.nll.nlllight.api.reminder.HierarchicalTimingWheel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A million daily reminders in the dispatcher's timing wheel, at whole minutes with morning and
+ * evening peaks, advanced through simulated days.
+ * <p>
+ * {@code tick} is one 100 ms turn, including firing and rescheduling every reminder due in it.
+ * Firing skew is one tick plus that time, so p99.9 must stay well below 100 ms to keep it under
+ * a second. {@code reschedule} is the cost of applying one reminder change. The fork's heap is
+ * capped at 256 MB; the wheel needs about 50 bytes per reminder.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+@State(Scope.Benchmark)
+public class ReminderWheelBenchmark {
+
+    private static final long TICK_MILLIS = 100;
+    private static final long MINUTE_MILLIS = 60_000;
+    private static final long DAY_MILLIS = 86_400_000;
+
+    @Param({"1000000"})
+    int reminders;
+
+    private HierarchicalTimingWheel wheel;
+    private HierarchicalTimingWheel.ExpiryConsumer daily;
+    private SplittableRandom random;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0, reminders);
+        daily = (reminderId, deadline) -> wheel.schedule(reminderId, deadline + DAY_MILLIS);
+        random = new SplittableRandom(42L);
+        for (long reminderId = 0; reminderId < reminders; reminderId++) {
+            wheel.schedule(reminderId, reminderTime());
+        }
+        now = 0;
+    }
+
+    @Benchmark
+    public int tick() {
+        now += TICK_MILLIS;
+        return wheel.advance(now, daily);
+    }
+
+    @Benchmark
+    public void reschedule() {
+        wheel.schedule(random.nextInt(reminders), now + reminderTime());
+    }
+
+    // Most reminders around breakfast and dinner, the rest anywhere in the day
+    private long reminderTime() {
+        long minute = random.nextInt(10) < 6
+                ? (random.nextBoolean() ? 7 * 60 : 19 * 60) + random.nextInt(120)
+                : random.nextInt(24 * 60);
+        return minute * MINUTE_MILLIS;
+    }
+}
@@ -0,0 +1,69 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import se.inera.nll.nlllight.api.medication.Medication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic, NPL-shaped medication names built from syllables, so benchmarks see
+ * realistic prefix fan-out without shipping the real register.
+ */
+public final class SyntheticCatalog {
+
+    private static final String[] SYLLABLES = {
+        "al", "ve", "don", "me", "la", "to", "nin", "pa", "ra", "ce", "ta", "mol", "ib", "u", "pro",
+        "fen", "met", "for", "min", "ator", "va", "sta", "tin", "lis", "in", "o", "pril", "war", "fa",
+        "rin", "om", "e", "pra", "zol", "lev", "thy", "rox", "ine", "ö", "stra", "di", "ol", "kå", "vä"
+    };
+    private static final String[] MANUFACTURERS = {"Teva", "Actavis", "Orifarm", "Mylan", "Sandoz", "Evolan", "Krka"};
+    private static final String[] FORMS = {"Tablett", "Kapsel", "Oral lösning", "Injektionsvätska"};
+    private static final String[] STRENGTHS = {"5 mg", "10 mg", "20 mg", "40 mg", "100 mg", "500 mg"};
+
+    private SyntheticCatalog() {
+    }
+
+    public static List<Medication> medications(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> generics = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, count / 8); i++) {
+            generics.add(word(random));
+        }
+
+        List<Medication> medications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String generic = generics.get(random.nextInt(generics.size()));
+            Medication medication = new Medication();
+            medication.setId((long) i + 1);
+            medication.setNplId("NPL-" + (100000 + i));
+            medication.setTradeName(random.nextBoolean()
+                    ? generic + " " + MANUFACTURERS[random.nextInt(MANUFACTURERS.length)]
+                    : word(random));
+            medication.setGenericName(generic);
+            medication.setForm(FORMS[random.nextInt(FORMS.length)]);
+            medication.setStrength(STRENGTHS[random.nextInt(STRENGTHS.length)]);
+            medication.setAtcCode(atcCode(random));
+            medication.setIsAvailable(true);
+            medications.add(medication);
+        }
+        return medications;
+    }
+
+    static String word(SplittableRandom random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    static String atcCode(SplittableRandom random) {
+        return "" + "ABCDGHJLMNPRSV".charAt(random.nextInt(14))
+                + String.format("%02d", random.nextInt(20))
+                + (char) ('A' + random.nextInt(8)) + (char) ('A' + random.nextInt(8))
+                + String.format("%02d", 1 + random.nextInt(20));
+    }
+}
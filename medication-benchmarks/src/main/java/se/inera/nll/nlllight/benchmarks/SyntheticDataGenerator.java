@@ -0,0 +1,179 @@
+package se.inera.nll.nlllight.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.inera.nll.nlllight.api.medication.Medication;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the API database with deterministic synthetic volumes through batched JDBC inserts,
+ * bypassing JPA so that large populations load in seconds. Rows satisfy the Flyway schema
+ * constraints and sit next to the V8 sample data.
+ */
+public final class SyntheticDataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] STATUSES = {"ACTIVE", "ACTIVE", "ACTIVE", "COMPLETED", "CANCELLED"};
+    private static final String[] FREQUENCIES = {"QD", "BID", "TID", "QID", "PRN"};
+    private static final String[] ADHERENCE = {"TAKEN", "TAKEN", "TAKEN", "TAKEN", "MISSED", "SKIPPED", "DELAYED"};
+    private static final String[] FIRST_NAMES = {"Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Eva", "Nils"};
+    private static final String[] LAST_NAMES = {"Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson"};
+
+    public record Volumes(int patients, int prescriptionsPerPatient, int adherencePerPrescription,
+                          int medications, int prescribers) {
+    }
+
+    public record PrescriptionRef(long id, String patientId) {
+    }
+
+    public record Dataset(List<String> patientIds, List<String> prescriberUserIds,
+                          List<PrescriptionRef> activePrescriptions, List<String> medicationNames) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SplittableRandom random;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public Dataset populate(Volumes volumes) {
+        List<String> medicationNames = insertMedications(volumes.medications());
+        List<Long> medicationIds = jdbcTemplate.queryForList("SELECT id FROM medications ORDER BY id", Long.class);
+        List<String> prescriberUserIds = insertPrescribers(volumes.prescribers());
+        List<Long> prescriberIds = jdbcTemplate.queryForList(
+                "SELECT id FROM prescribers WHERE user_id LIKE 'bench-prescriber-%' ORDER BY id", Long.class);
+        List<String> patientIds = insertPatients(volumes.patients());
+
+        insertPrescriptions(patientIds, medicationIds, prescriberIds, volumes.prescriptionsPerPatient());
+        List<PrescriptionRef> active = jdbcTemplate.query(
+                "SELECT id, patient_id FROM prescriptions WHERE prescription_number LIKE 'BRX-%' AND status = 'ACTIVE' ORDER BY id",
+                (rs, row) -> new PrescriptionRef(rs.getLong(1), rs.getString(2)));
+        List<PrescriptionRef> all = jdbcTemplate.query(
+                "SELECT id, patient_id FROM prescriptions WHERE prescription_number LIKE 'BRX-%' ORDER BY id",
+                (rs, row) -> new PrescriptionRef(rs.getLong(1), rs.getString(2)));
+        insertAdherence(all, volumes.adherencePerPrescription());
+
+        return new Dataset(patientIds, prescriberUserIds, active, medicationNames);
+    }
+
+    private List<String> insertMedications(int count) {
+        List<String> names = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (Medication medication : SyntheticCatalog.medications(count, random.nextLong())) {
+            names.add(medication.getTradeName());
+            // Prefix keeps synthetic NPL ids clear of the sample register
+            medication.setNplId("B" + medication.getNplId());
+            rows.add(new Object[] {medication.getNplId(), medication.getTradeName(), medication.getGenericName(),
+                    medication.getForm(), medication.getStrength(), medication.getAtcCode()});
+        }
+        batch("INSERT INTO medications (npl_id, trade_name, generic_name, form, strength, atc_code, rx_status, is_available) "
+                + "VALUES (?, ?, ?, ?, ?, ?, 'Rx', TRUE)", rows);
+        return names;
+    }
+
+    private List<String> insertPrescribers(int count) {
+        List<String> userIds = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String userId = "bench-prescriber-" + i;
+            userIds.add(userId);
+            rows.add(new Object[] {userId, "BLIC-" + i, pick(FIRST_NAMES), pick(LAST_NAMES)});
+        }
+        batch("INSERT INTO prescribers (user_id, license_number, first_name, last_name, specialty) "
+                + "VALUES (?, ?, ?, ?, 'General Practice')", rows);
+        return userIds;
+    }
+
+    private List<String> insertPatients(int count) {
+        List<String> ids = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = String.format("bench-patient-%06d", i);
+            ids.add(id);
+            LocalDate dateOfBirth = LocalDate.of(1930 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            rows.add(new Object[] {id, "bench-user-" + i, "ENC-BENCH-" + i, pick(FIRST_NAMES), pick(LAST_NAMES),
+                    Date.valueOf(dateOfBirth)});
+        }
+        batch("INSERT INTO patients (id, user_id, encrypted_ssn, first_name, last_name, date_of_birth) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return ids;
+    }
+
+    private void insertPrescriptions(List<String> patientIds, List<Long> medicationIds, List<Long> prescriberIds,
+                                     int perPatient) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int number = 0;
+        for (String patientId : patientIds) {
+            for (int i = 0; i < perPatient; i++) {
+                LocalDate prescribed = today.minusDays(random.nextInt(720));
+                int refillsAllowed = random.nextInt(6);
+                rows.add(new Object[] {patientId, pick(medicationIds), pick(prescriberIds),
+                        String.format("BRX-%08d", number++), pick(STATUSES),
+                        1 + random.nextInt(4), "tablett", pick(FREQUENCIES),
+                        Date.valueOf(prescribed), Date.valueOf(prescribed),
+                        refillsAllowed, random.nextInt(refillsAllowed + 1),
+                        30 * (1 + random.nextInt(3)), 30 + random.nextInt(60)});
+                if (rows.size() == BATCH_SIZE) {
+                    flushPrescriptions(rows);
+                }
+            }
+        }
+        flushPrescriptions(rows);
+    }
+
+    private void flushPrescriptions(List<Object[]> rows) {
+        batch("INSERT INTO prescriptions (patient_id, medication_id, prescriber_id, prescription_number, status, "
+                + "dose, dose_unit, frequency, prescribed_date, start_date, refills_allowed, refills_remaining, "
+                + "quantity_prescribed, days_supply) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertAdherence(List<PrescriptionRef> prescriptions, int perPrescription) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (PrescriptionRef prescription : prescriptions) {
+            for (int i = 0; i < perPrescription; i++) {
+                LocalDateTime scheduled = now.minusHours(12L * (perPrescription - i));
+                String status = pick(ADHERENCE);
+                Timestamp actual = "MISSED".equals(status) || "SKIPPED".equals(status)
+                        ? null
+                        : Timestamp.valueOf(scheduled.plusMinutes(random.nextInt(90)));
+                rows.add(new Object[] {prescription.id(), prescription.patientId(),
+                        Timestamp.valueOf(scheduled), actual, status});
+                if (rows.size() == BATCH_SIZE) {
+                    flushAdherence(rows);
+                }
+            }
+        }
+        flushAdherence(rows);
+    }
+
+    private void flushAdherence(List<Object[]> rows) {
+        batch("INSERT INTO adherence_records (prescription_id, patient_id, scheduled_time, actual_time, status, source) "
+                + "VALUES (?, ?, ?, ?, ?, 'AUTO_TRACKED')", rows);
+        rows.clear();
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
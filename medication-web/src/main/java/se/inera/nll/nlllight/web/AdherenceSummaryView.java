@@ -0,0 +1,40 @@
+package se.inera.nll.nlllight.web;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class AdherenceSummaryView {
+    private Long prescriptionId;
+    private Integer totalScheduled;
+    private Integer totalTaken;
+    private Integer totalMissed;
+    private BigDecimal adherenceRate;
+    private Integer currentStreakDays;
+    private Integer longestStreakDays;
+    private LocalDate lastAdherentDate;
+    
+    // Getters and Setters
+    public Long getPrescriptionId() { return prescriptionId; }
+    public void setPrescriptionId(Long prescriptionId) { this.prescriptionId = prescriptionId; }
+    
+    public Integer getTotalScheduled() { return totalScheduled; }
+    public void setTotalScheduled(Integer totalScheduled) { this.totalScheduled = totalScheduled; }
+    
+    public Integer getTotalTaken() { return totalTaken; }
+    public void setTotalTaken(Integer totalTaken) { this.totalTaken = totalTaken; }
+    
+    public Integer getTotalMissed() { return totalMissed; }
+    public void setTotalMissed(Integer totalMissed) { this.totalMissed = totalMissed; }
+    
+    public BigDecimal getAdherenceRate() { return adherenceRate; }
+    public void setAdherenceRate(BigDecimal adherenceRate) { this.adherenceRate = adherenceRate; }
+    
+    public Integer getCurrentStreakDays() { return currentStreakDays; }
+    public void setCurrentStreakDays(Integer currentStreakDays) { this.currentStreakDays = currentStreakDays; }
+    
+    public Integer getLongestStreakDays() { return longestStreakDays; }
+    public void setLongestStreakDays(Integer longestStreakDays) { this.longestStreakDays = longestStreakDays; }
+    
+    public LocalDate getLastAdherentDate() { return lastAdherentDate; }
+    public void setLastAdherentDate(LocalDate lastAdherentDate) { this.lastAdherentDate = lastAdherentDate; }
+}
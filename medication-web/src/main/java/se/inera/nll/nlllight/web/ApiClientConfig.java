@@ -0,0 +1,101 @@
+package se.inera.nll.nlllight.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one {@link RestClient} every controller uses to call medication-api. Connections are pooled
+ * and kept alive between requests instead of being opened per call, responses are transparently
+ * decompressed, and every timeout is bounded so a slow API cannot hold request threads forever.
+ * <p>
+ * GETs are revalidated with {@code If-None-Match} through {@link ApiRevalidationCache}.
+ * <p>
+ * The pool is exported as {@code httpcomponents.httpclient.pool.*} and per-endpoint latency as
+ * {@code http.client.requests} (tagged by URI template) on {@code /actuator/prometheus}.
+ */
+@Configuration
+public class ApiClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager apiConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${api.client.max-connections:200}") int maxConnections,
+            @Value("${api.client.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${api.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${api.client.read-timeout:5s}") Duration readTimeout,
+            @Value("${api.client.connection-ttl:5m}") Duration connectionTtl) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        // Re-check connections that sat idle, the API may have closed them meanwhile
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "medication-api").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient apiHttpClient(
+            PoolingHttpClientConnectionManager apiConnectionManager,
+            @Value("${api.client.read-timeout:5s}") Duration readTimeout,
+            @Value("${api.client.pool-timeout:1s}") Duration poolTimeout,
+            @Value("${api.client.keep-alive:15s}") Duration keepAlive) {
+        return HttpClients.custom()
+                .setConnectionManager(apiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        // Shorter than the API's idle timeout so we never reuse a connection it is closing
+                        .setDefaultKeepAlive(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    @Bean
+    public ApiRevalidationCache apiRevalidationCache(
+            MeterRegistry meterRegistry,
+            @Value("${api.client.revalidation.max-entries:2000}") int maxEntries,
+            @Value("${api.client.revalidation.max-body-size:256KB}") DataSize maxBodySize) {
+        return new ApiRevalidationCache(meterRegistry, maxEntries, (int) maxBodySize.toBytes());
+    }
+
+    /**
+     * Built from Boot's {@link RestClient.Builder} so requests are observed. Pass path variables
+     * as URI template arguments, not concatenated, to keep the {@code uri} tag low-cardinality.
+     */
+    @Bean
+    public RestClient apiRestClient(RestClient.Builder builder,
+                                    CloseableHttpClient apiHttpClient,
+                                    ApiRevalidationCache apiRevalidationCache,
+                                    @Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
+        return builder
+                .baseUrl(apiBaseUrl)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(apiHttpClient))
+                .requestInterceptor(apiRevalidationCache)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package se.inera.nll.nlllight.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client side of conditional GET for calls to medication-api. GET responses that carry an ETag
+ * are kept in a small LRU map; the next GET for the same URL and caller sends
+ * {@code If-None-Match}, and a {@code 304} is answered from the stored body, so an unchanged
+ * resource costs a header exchange instead of a full transfer and deserialization.
+ * <p>
+ * Entries are keyed by the caller identity headers as well as the URL, so one user's
+ * representation is never replayed to another.
+ */
+public class ApiRevalidationCache implements ClientHttpRequestInterceptor {
+
+    private static final List<String> IDENTITY_HEADERS = List.of("X-Patient-Id", "X-Prescriber-Id", "X-Pharmacist-Id");
+
+    private record Entry(String etag, HttpHeaders headers, byte[] body) {
+    }
+
+    private final int maxEntries;
+    private final int maxBodyBytes;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter revalidated;
+    private final Counter missed;
+
+    public ApiRevalidationCache(MeterRegistry meterRegistry, int maxEntries, int maxBodyBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBodyBytes = maxBodyBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ApiRevalidationCache.this.maxEntries;
+            }
+        };
+
+        this.revalidated = Counter.builder("api.client.revalidation")
+                .tag("result", "not-modified")
+                .description("API GETs answered with 304 and served from the stored body")
+                .register(meterRegistry);
+        this.missed = Counter.builder("api.client.revalidation")
+                .tag("result", "full")
+                .description("API GETs that transferred a full body")
+                .register(meterRegistry);
+        Gauge.builder("api.client.revalidation.entries", this, ApiRevalidationCache::size)
+                .description("Representations held for revalidation")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+
+        String key = key(request);
+        Entry cached = get(key);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag());
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            revalidated.increment();
+            return new StoredResponse(cached);
+        }
+        missed.increment();
+
+        String etag = response.getHeaders().getETag();
+        if (!response.getStatusCode().is2xxSuccessful() || etag == null || isNoStore(response.getHeaders())) {
+            if (cached != null) {
+                remove(key);
+            }
+            return response;
+        }
+
+        // Buffer the body so it can be both stored and handed to the caller
+        byte[] content;
+        try (InputStream in = response.getBody()) {
+            content = in.readAllBytes();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        response.close();
+
+        Entry entry = new Entry(etag, headers, content);
+        if (content.length <= maxBodyBytes) {
+            put(key, entry);
+        } else if (cached != null) {
+            remove(key);
+        }
+        return new StoredResponse(entry);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String key(HttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getURI().toString());
+        for (String header : IDENTITY_HEADERS) {
+            String value = request.getHeaders().getFirst(header);
+            if (value != null) {
+                key.append('|').append(header).append('=').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isNoStore(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-store");
+    }
+
+    // The LRU map reorders on get, so reads need the lock too; a ReentrantLock keeps virtual threads unpinned
+    private Entry get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class StoredResponse implements ClientHttpResponse {
+
+        private final Entry entry;
+
+        private StoredResponse(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return entry.headers();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(entry.body());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
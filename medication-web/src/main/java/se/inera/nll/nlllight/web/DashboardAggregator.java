@@ -0,0 +1,136 @@
+package se.inera.nll.nlllight.web;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Issues the API calls behind a page concurrently, one virtual thread per call. Every call
+ * has its own deadline and fallback: a slow or failing widget renders degraded instead of
+ * failing the page, and the page waits for its slowest call rather than the sum of all calls.
+ */
+@Component
+public class DashboardAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregator.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration defaultTimeout;
+
+    public DashboardAggregator(@Value("${dashboard.widget-timeout:2s}") Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Fanout fanout() {
+        return new Fanout();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The calls for one page. Calls start as soon as they are added.
+     */
+    public final class Fanout {
+
+        private final List<Widget<?>> widgets = new ArrayList<>();
+
+        public <T> Widget<T> add(String name, Supplier<T> call, T fallback) {
+            return add(name, defaultTimeout, call, fallback);
+        }
+
+        public <T> Widget<T> add(String name, Duration timeout, Supplier<T> call, T fallback) {
+            Widget<T> widget = new Widget<>(name, executor.submit(call::get), System.nanoTime() + timeout.toNanos(), fallback);
+            widgets.add(widget);
+            return widget;
+        }
+
+        /**
+         * Waits until every call has completed or hit its own deadline.
+         */
+        public void await() {
+            widgets.forEach(Widget::await);
+        }
+    }
+
+    public static final class Widget<T> {
+
+        private final String name;
+        private final Future<T> future;
+        private final long deadline;
+        private final long started = System.nanoTime();
+        private boolean done;
+        private T value;
+        private String error;
+
+        private Widget(String name, Future<T> future, long deadline, T fallback) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+            this.value = fallback;
+        }
+
+        /**
+         * The call's result, or the fallback if it failed or missed its deadline.
+         */
+        public T get() {
+            await();
+            return value;
+        }
+
+        public boolean isDegraded() {
+            await();
+            return error != null;
+        }
+
+        public String getError() {
+            await();
+            return error;
+        }
+
+        // Only the request thread that built the page reads its widgets
+        private void await() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                T result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (result != null) {
+                    value = result;
+                }
+            } catch (TimeoutException e) {
+                // Interrupting the virtual thread aborts its blocking HTTP exchange
+                future.cancel(true);
+                degrade("timed out");
+            } catch (ExecutionException e) {
+                degrade(e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                degrade("interrupted");
+            }
+        }
+
+        private void degrade(String reason) {
+            error = reason != null ? reason : "unavailable";
+            logger.warn("Dashboard widget '{}' degraded after {} ms: {}",
+                    name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), error);
+        }
+    }
+}
@@ -1,9 +1,21 @@
 package se.inera.nll.nlllight.web;
 
+import java.math.BigDecimal;
+
 public class MedicationView {
     private Long id;
     private String name;
     private String description;
+    private String nplId;
+    private String tradeName;
+    private String genericName;
+    private Long substanceId;
+    private String form;
+    private String strength;
+    private String route;
+    private String atcCode;
+    private Boolean isAvailable;
+    private BigDecimal price;
 
     public Long getId() { return id; }
 
@@ -11,9 +23,49 @@ public class MedicationView {
 
     public String getDescription() { return description; }
 
+    public String getNplId() { return nplId; }
+
+    public String getTradeName() { return tradeName; }
+
+    public String getGenericName() { return genericName; }
+
+    public Long getSubstanceId() { return substanceId; }
+
+    public String getForm() { return form; }
+
+    public String getStrength() { return strength; }
+
+    public String getRoute() { return route; }
+
+    public String getAtcCode() { return atcCode; }
+
+    public Boolean getIsAvailable() { return isAvailable; }
+
+    public BigDecimal getPrice() { return price; }
+
     public void setId(Long id) { this.id = id; }
 
     public void setName(String name) { this.name = name; }
 
     public void setDescription(String description) { this.description = description; }
+
+    public void setNplId(String nplId) { this.nplId = nplId; }
+
+    public void setTradeName(String tradeName) { this.tradeName = tradeName; }
+
+    public void setGenericName(String genericName) { this.genericName = genericName; }
+
+    public void setSubstanceId(Long substanceId) { this.substanceId = substanceId; }
+
+    public void setForm(String form) { this.form = form; }
+
+    public void setStrength(String strength) { this.strength = strength; }
+
+    public void setRoute(String route) { this.route = route; }
+
+    public void setAtcCode(String atcCode) { this.atcCode = atcCode; }
+
+    public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
+
+    public void setPrice(BigDecimal price) { this.price = price; }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package se.inera.nll.nlllight.web;
+
+import java.util.List;
+import java.util.Map;
+
+public class PatientDashboardView {
+    private String patientId;
+    private String patientName;
+    private List<PrescriptionView> prescriptions;
+    private Map<Long, AdherenceSummaryView> adherence;
+    
+    // Getters and Setters
+    public String getPatientId() { return patientId; }
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+    
+    public String getPatientName() { return patientName; }
+    public void setPatientName(String patientName) { this.patientName = patientName; }
+    
+    public List<PrescriptionView> getPrescriptions() { return prescriptions; }
+    public void setPrescriptions(List<PrescriptionView> prescriptions) { this.prescriptions = prescriptions; }
+    
+    public Map<Long, AdherenceSummaryView> getAdherence() { return adherence; }
+    public void setAdherence(Map<Long, AdherenceSummaryView> adherence) { this.adherence = adherence; }
+}
@@ -1,6 +1,5 @@
 package se.inera.nll.nlllight.web;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -11,8 +10,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.client.RestClient;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/patient")
@@ -20,11 +19,11 @@ import java.util.List;
 public class PatientWebController {
 
     private final RestClient rest;
-    private final String apiBaseUrl;
+    private final DashboardAggregator aggregator;
 
-    public PatientWebController(@Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
-        this.apiBaseUrl = apiBaseUrl;
-        this.rest = RestClient.builder().baseUrl(apiBaseUrl).build();
+    public PatientWebController(RestClient rest, DashboardAggregator aggregator) {
+        this.rest = rest;
+        this.aggregator = aggregator;
     }
     
     private String getPatientId(OAuth2User principal) {
@@ -42,19 +41,19 @@ public class PatientWebController {
     public String dashboard(Model model, @AuthenticationPrincipal OAuth2User principal) {
         String patientId = getPatientId(principal);
         
-        // Get patient's prescriptions
-        try {
-            PrescriptionView[] prescriptions = rest.get()
-                    .uri("/api/v1/prescriptions")
-                    .header("X-Patient-Id", patientId)
-                    .retrieve()
-                    .body(PrescriptionView[].class);
-            
-            List<PrescriptionView> prescriptionList = prescriptions != null ? Arrays.asList(prescriptions) : List.of();
-            model.addAttribute("prescriptions", prescriptionList);
-        } catch (Exception e) {
-            model.addAttribute("prescriptions", List.of());
-            model.addAttribute("error", "Could not load prescriptions: " + e.getMessage());
+        // One composite call returns the prescriptions together with their adherence summaries
+        DashboardAggregator.Widget<PatientDashboardView> page = aggregator.fanout().add("dashboard",
+                () -> rest.get()
+                        .uri("/api/v1/dashboard/patient")
+                        .header("X-Patient-Id", patientId)
+                        .retrieve()
+                        .body(PatientDashboardView.class),
+                null);
+        PatientDashboardView dashboard = page.get();
+        model.addAttribute("prescriptions", dashboard != null ? dashboard.getPrescriptions() : List.of());
+        model.addAttribute("adherence", dashboard != null ? dashboard.getAdherence() : Map.of());
+        if (page.isDegraded()) {
+            model.addAttribute("error", "Could not load prescriptions: " + page.getError());
         }
         
         model.addAttribute("patientId", patientId);
@@ -73,16 +72,23 @@ public class PatientWebController {
     public String prescriptionDetail(@PathVariable("id") Long id, Model model, @AuthenticationPrincipal OAuth2User principal) {
         String patientId = getPatientId(principal);
         
-        try {
-            PrescriptionView prescription = rest.get()
-                    .uri("/api/v1/prescriptions/" + id)
-                    .header("X-Patient-Id", patientId)
-                    .retrieve()
-                    .body(PrescriptionView.class);
-            
-            model.addAttribute("prescription", prescription);
-        } catch (Exception e) {
-            model.addAttribute("error", "Could not load prescription: " + e.getMessage());
+        // The prescription and its adherence summary are independent, so fetch them together
+        DashboardAggregator.Fanout page = aggregator.fanout();
+        DashboardAggregator.Widget<PrescriptionView> prescription = page.add("prescription",
+                () -> rest.get()
+                        .uri("/api/v1/prescriptions/{id}", id)
+                        .header("X-Patient-Id", patientId)
+                        .retrieve()
+                        .body(PrescriptionView.class),
+                null);
+        DashboardAggregator.Widget<AdherenceSummaryView> adherence = page.add("adherence",
+                () -> fetchAdherence(id, patientId), null);
+        page.await();
+        
+        model.addAttribute("prescription", prescription.get());
+        model.addAttribute("adherence", adherence.get());
+        if (prescription.isDegraded()) {
+            model.addAttribute("error", "Could not load prescription: " + prescription.getError());
         }
         
         // Add user information
@@ -94,4 +100,12 @@ public class PatientWebController {
         
         return "patient-prescription-detail";
     }
+    
+    private AdherenceSummaryView fetchAdherence(Long prescriptionId, String patientId) {
+        return rest.get()
+                .uri("/api/v1/prescriptions/{id}/adherence/statistics", prescriptionId)
+                .header("X-Patient-Id", patientId)
+                .retrieve()
+                .body(AdherenceSummaryView.class);
+    }
 }
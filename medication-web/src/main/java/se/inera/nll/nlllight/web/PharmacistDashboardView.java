@@ -0,0 +1,15 @@
+package se.inera.nll.nlllight.web;
+
+import java.util.List;
+
+public class PharmacistDashboardView {
+    private String pharmacistId;
+    private List<MedicationView> medications;
+    
+    // Getters and Setters
+    public String getPharmacistId() { return pharmacistId; }
+    public void setPharmacistId(String pharmacistId) { this.pharmacistId = pharmacistId; }
+    
+    public List<MedicationView> getMedications() { return medications; }
+    public void setMedications(List<MedicationView> medications) { this.medications = medications; }
+}
@@ -11,7 +11,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.client.RestClient;
 
-import java.util.Arrays;
 import java.util.List;
 
 @Controller
@@ -22,9 +21,10 @@ public class PharmacistWebController {
     private final RestClient rest;
     private final String apiBaseUrl;
 
-    public PharmacistWebController(@Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
+    public PharmacistWebController(RestClient rest,
+                                   @Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
         this.apiBaseUrl = apiBaseUrl;
-        this.rest = RestClient.builder().baseUrl(apiBaseUrl).build();
+        this.rest = rest;
     }
     
     private String getPharmacistId(OAuth2User principal) {
@@ -42,13 +42,15 @@ public class PharmacistWebController {
     public String dashboard(Model model, @AuthenticationPrincipal OAuth2User principal) {
         String pharmacistId = getPharmacistId(principal);
         
-        // Get all medications (pharmacists need to see the full catalog)
+        // The pharmacist dashboard view model is just the full catalog
         try {
-            MedicationView[] meds = rest.get()
-                    .uri("/api/medications")
+            PharmacistDashboardView dashboard = rest.get()
+                    .uri("/api/v1/dashboard/pharmacist")
+                    .header("X-Pharmacist-Id", pharmacistId)
                     .retrieve()
-                    .body(MedicationView[].class);
-            List<MedicationView> medications = meds != null ? Arrays.asList(meds) : List.of();
+                    .body(PharmacistDashboardView.class);
+            List<MedicationView> medications = dashboard != null && dashboard.getMedications() != null
+                    ? dashboard.getMedications() : List.of();
             model.addAttribute("medications", medications);
         } catch (Exception e) {
             model.addAttribute("medications", List.of());
@@ -74,7 +76,7 @@ public class PharmacistWebController {
     public String medicationDetail(@PathVariable("id") Long id, Model model, @AuthenticationPrincipal OAuth2User principal) {
         try {
             MedicationView medication = rest.get()
-                    .uri("/api/medications/" + id)
+                    .uri("/api/medications/{id}", id)
                     .retrieve()
                     .body(MedicationView.class);
             
@@ -0,0 +1,15 @@
+package se.inera.nll.nlllight.web;
+
+import java.util.List;
+
+public class PrescriberDashboardView {
+    private String prescriberId;
+    private List<MedicationView> medications;
+    
+    // Getters and Setters
+    public String getPrescriberId() { return prescriberId; }
+    public void setPrescriberId(String prescriberId) { this.prescriberId = prescriberId; }
+    
+    public List<MedicationView> getMedications() { return medications; }
+    public void setMedications(List<MedicationView> medications) { this.medications = medications; }
+}
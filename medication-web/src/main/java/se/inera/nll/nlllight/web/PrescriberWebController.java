@@ -1,6 +1,5 @@
 package se.inera.nll.nlllight.web;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -19,11 +18,9 @@ import java.util.List;
 public class PrescriberWebController {
 
     private final RestClient rest;
-    private final String apiBaseUrl;
 
-    public PrescriberWebController(@Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
-        this.apiBaseUrl = apiBaseUrl;
-        this.rest = RestClient.builder().baseUrl(apiBaseUrl).build();
+    public PrescriberWebController(RestClient rest) {
+        this.rest = rest;
     }
     
     private String getPrescriberId(OAuth2User principal) {
@@ -41,13 +38,15 @@ public class PrescriberWebController {
     public String dashboard(Model model, @AuthenticationPrincipal OAuth2User principal) {
         String prescriberId = getPrescriberId(principal);
         
-        // Get medications list for creating prescriptions
+        // The dashboard endpoint resolves the prescriber and returns the catalog in one call
         try {
-            MedicationView[] meds = rest.get()
-                    .uri("/api/medications")
+            PrescriberDashboardView dashboard = rest.get()
+                    .uri("/api/v1/dashboard/prescriber")
+                    .header("X-Prescriber-Id", prescriberId)
                     .retrieve()
-                    .body(MedicationView[].class);
-            List<MedicationView> medications = meds != null ? Arrays.asList(meds) : List.of();
+                    .body(PrescriberDashboardView.class);
+            List<MedicationView> medications = dashboard != null && dashboard.getMedications() != null
+                    ? dashboard.getMedications() : List.of();
             model.addAttribute("medications", medications);
         } catch (Exception e) {
             model.addAttribute("medications", List.of());
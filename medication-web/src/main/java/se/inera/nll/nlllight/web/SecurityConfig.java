@@ -39,6 +39,8 @@ public class SecurityConfig {
         http
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/login").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/prescriptions").permitAll()
                 .requestMatchers("/patient/**").permitAll()
                 .requestMatchers("/prescriber/**").permitAll()
@@ -1,6 +1,5 @@
 package se.inera.nll.nlllight.web;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -22,11 +21,11 @@ import java.util.List;
 public class WebController {
 
     private final RestClient rest;
-    private final String apiBaseUrl;
+    private final DashboardAggregator aggregator;
 
-    public WebController(@Value("${api.base-url:http://localhost:8081}") String apiBaseUrl) {
-        this.apiBaseUrl = apiBaseUrl;
-        this.rest = RestClient.builder().baseUrl(apiBaseUrl).build();
+    public WebController(RestClient rest, DashboardAggregator aggregator) {
+        this.rest = rest;
+        this.aggregator = aggregator;
     }
     
     private String getUserRole(OAuth2User principal) {
@@ -126,11 +125,7 @@ public class WebController {
         
         if ("PATIENT".equals(role)) {
             userId = getPatientId(principal);
-            prescriptions = rest.get()
-                    .uri("/api/v1/prescriptions")
-                    .header("X-Patient-Id", userId)
-                    .retrieve()
-                    .body(PrescriptionView[].class);
+            prescriptions = fetchPrescriptions(userId, model);
         } else if ("PRESCRIBER".equals(role)) {
             userId = getPrescriberId(principal);
             // For prescribers, we might need a different endpoint or filter
@@ -144,11 +139,7 @@ public class WebController {
         } else {
             // Fallback for unknown roles - assume patient
             userId = getPatientId(principal);
-            prescriptions = rest.get()
-                    .uri("/api/v1/prescriptions")
-                    .header("X-Patient-Id", userId)
-                    .retrieve()
-                    .body(PrescriptionView[].class);
+            prescriptions = fetchPrescriptions(userId, model);
         }
         
         List<PrescriptionView> prescriptionList = prescriptions != null ? Arrays.asList(prescriptions) : List.of();
@@ -166,12 +157,26 @@ public class WebController {
         return "prescriptions";
     }
     
+    private PrescriptionView[] fetchPrescriptions(String patientId, Model model) {
+        DashboardAggregator.Widget<PrescriptionView[]> prescriptions = aggregator.fanout().add("prescriptions",
+                () -> rest.get()
+                        .uri("/api/v1/prescriptions")
+                        .header("X-Patient-Id", patientId)
+                        .retrieve()
+                        .body(PrescriptionView[].class),
+                new PrescriptionView[0]);
+        if (prescriptions.isDegraded()) {
+            model.addAttribute("error", "Could not load prescriptions: " + prescriptions.getError());
+        }
+        return prescriptions.get();
+    }
+    
     @GetMapping("/prescriptions/{id}")
     public String prescriptionDetail(@PathVariable("id") Long id, Model model, @AuthenticationPrincipal OAuth2User principal) {
         String patientId = getPatientId(principal);
         
         PrescriptionView prescription = rest.get()
-                .uri("/api/v1/prescriptions/" + id)
+                .uri("/api/v1/prescriptions/{id}", id)
                 .header("X-Patient-Id", patientId)
                 .retrieve()
                 .body(PrescriptionView.class);